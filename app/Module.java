@@ -1,13 +1,28 @@
+import actor.AnalyticsStage;
+import akka.actor.ActorSystem;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
+import com.google.inject.Singleton;
 import com.typesafe.config.Config;
 import play.Environment;
+import play.inject.ApplicationLifecycle;
 import play.libs.ws.WSClient;
+import services.QuotaScheduler;
+import services.SearchCache;
+import services.SentimentAnalyzer;
+import services.TrendingWords;
+import services.VideoAnalyticsCache;
 import services.VideoService;
+import services.WordStatsStore;
+import services.YouTubeClient;
 import services.YouTubeService;
+import services.stub.YouTubeStubServer;
 import services.impl.VideoServiceImpl;
 import services.impl.YouTubeServiceImpl;
 
+import java.time.ZoneId;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * @author Utsav Patel
  */
@@ -32,9 +47,112 @@ public class Module extends AbstractModule {
      * @author Utsav Patel
      */
     @Provides
-    public YouTubeService provideYouTubeService(WSClient wsClient) {
+    public YouTubeService provideYouTubeService(YouTubeClient youTubeClient, SearchCache searchCache, WordStatsStore wordStatsStore) {
+        return new YouTubeServiceImpl(youTubeClient, searchCache, wordStatsStore);
+    }
+
+    /**
+     * It is the provider for the YouTube client every YouTube API call goes through. When youtube.stub.enabled
+     * is set, the local stub server is started and the client points at it, with an unlimited quota scheduler so that
+     * load tests are not cut short by the daily budget of the real API.
+     *
+     * @author Utsav Patel
+     */
+    @Provides
+    @Singleton
+    public YouTubeClient provideYouTubeClient(WSClient wsClient, QuotaScheduler quotaScheduler, ActorSystem actorSystem, ApplicationLifecycle lifecycle) {
         String apiKey = config.getString("youtube.api.key");
-        return new YouTubeServiceImpl(wsClient, apiKey);
+        String baseUrl = config.getString("youtube.api.base-url");
+        if (config.getBoolean("youtube.stub.enabled")) {
+            YouTubeStubServer stubServer = YouTubeStubServer.start(actorSystem,
+                    YouTubeStubServer.Settings.fromConfig(config.getConfig("youtube.stub")));
+            lifecycle.addStopHook(stubServer::stop);
+            baseUrl = stubServer.baseUrl();
+            return new YouTubeClient(wsClient, apiKey, QuotaScheduler.unlimited(), baseUrl);
+        }
+        return new YouTubeClient(wsClient, apiKey, quotaScheduler, baseUrl);
+    }
+
+    /**
+     * It is the provider for the search cache shared by the YouTubeService and every UserActor.
+     *
+     * @author Utsav Patel
+     */
+    @Provides
+    @Singleton
+    public SearchCache provideSearchCache() {
+        return new SearchCache(config.getDuration("youtube.search.cache.ttl"),
+                config.getInt("youtube.search.cache.max-entries"));
+    }
+
+    /**
+     * It is the provider for the word statistics of each keyword, shared by the YouTubeService and every UserActor.
+     *
+     * @author Karan Tanakhia
+     */
+    @Provides
+    @Singleton
+    public WordStatsStore provideWordStatsStore() {
+        return new WordStatsStore(config.getDuration("youtube.word-stats.ttl"),
+                config.getInt("youtube.word-stats.max-keywords"),
+                config.getInt("youtube.word-stats.top-k"));
+    }
+
+    /**
+     * It is the provider for the cache of the per-video analytics shared by the sentiment and readability analyzers.
+     *
+     * @author Utsav Patel
+     */
+    @Provides
+    @Singleton
+    public VideoAnalyticsCache provideVideoAnalyticsCache() {
+        return new VideoAnalyticsCache(config.getInt("youtube.analytics.cache.max-entries"),
+                SentimentAnalyzer::analyzeVideo);
+    }
+
+    /**
+     * It is the provider for the analytics stage every UserActor runs its results through, on the analytics
+     * dispatcher.
+     *
+     * @author Utsav Patel
+     */
+    @Provides
+    @Singleton
+    public AnalyticsStage provideAnalyticsStage(ActorSystem actorSystem, VideoAnalyticsCache videoAnalyticsCache, TrendingWords trendingWords) {
+        return AnalyticsStage.create(actorSystem, videoAnalyticsCache, trendingWords);
+    }
+
+    /**
+     * It is the provider for the words trending across every watched keyword, fed by the analytics stage.
+     *
+     * @author Karan Tanakhia
+     */
+    @Provides
+    @Singleton
+    public TrendingWords provideTrendingWords() {
+        return new TrendingWords(config.getDurationList("youtube.trending.half-lives"),
+                config.getInt("youtube.trending.capacity"),
+                config.getInt("youtube.trending.top"));
+    }
+
+    /**
+     * It is the provider for the quota scheduler every YouTube API call goes through. Its draining thread is
+     * stopped with the application, so a reload in dev mode does not leave it behind.
+     *
+     * @author Utsav Patel
+     */
+    @Provides
+    @Singleton
+    public QuotaScheduler provideQuotaScheduler(ApplicationLifecycle lifecycle) {
+        QuotaScheduler quotaScheduler = new QuotaScheduler(config.getLong("youtube.quota.units-per-second"),
+                config.getLong("youtube.quota.units-per-day"),
+                config.getInt("youtube.quota.max-queued"),
+                ZoneId.of(config.getString("youtube.quota.reset-zone")));
+        lifecycle.addStopHook(() -> {
+            quotaScheduler.close();
+            return CompletableFuture.completedFuture(null);
+        });
+        return quotaScheduler;
     }
 
     /**
@@ -42,8 +160,7 @@ public class Module extends AbstractModule {
      * @author Yash Ajmeri
      */
     @Provides
-    public VideoService provideVideoService(WSClient wsClient) {
-        String apiKey = config.getString("youtube.api.key");
-        return new VideoServiceImpl(wsClient, apiKey);
+    public VideoService provideVideoService(YouTubeClient youTubeClient) {
+        return new VideoServiceImpl(youTubeClient);
     }
 }
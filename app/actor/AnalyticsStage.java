@@ -0,0 +1,223 @@
+package actor;
+
+import akka.actor.ActorSystem;
+import model.Response;
+import model.TokenizedText;
+import model.Video;
+import model.VideoAnalytics;
+import services.ReadabilityScorer;
+import services.SentimentAnalyzer;
+import services.TrendingWords;
+import services.VideoAnalyticsCache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Analytics stage called directly by the search pipeline: it computes the sentiment and the readability scores of a
+ * {@link Response} and returns it once both are set.
+ * <br/>
+ * The videos are first looked up in the {@link VideoAnalyticsCache}. The descriptions are tokenized once, then the
+ * sentiment and the readability of those which are not cached are computed at the same time on the analytics
+ * executor, the dedicated {@code youtube.analytics.dispatcher} sized to the available cores. There is no actor to
+ * resolve and no message hop between the two analyses. The words of every description, cached or not, are counted
+ * into the {@link TrendingWords} of every watched keyword, so a video staying in the results keeps trending. The
+ * latency of every step is recorded and reported by {@link #stats()}.
+ *
+ * @author Utsav Patel
+ */
+public class AnalyticsStage {
+    public static final String DISPATCHER = "youtube.analytics.dispatcher";
+
+    private final VideoAnalyticsCache analyticsCache;
+    private final TrendingWords trendingWords;
+    private final Executor executor;
+    private final Latency tokenizeLatency = new Latency();
+    private final Latency sentimentLatency = new Latency();
+    private final Latency readabilityLatency = new Latency();
+    private final Latency totalLatency = new Latency();
+
+    /**
+     * Creates a stage with its own analytics cache, running on the common fork join pool, as used by the tests.
+     *
+     * @author Utsav Patel
+     */
+    public AnalyticsStage() {
+        this(new VideoAnalyticsCache(VideoAnalyticsCache.DEFAULT_MAX_ENTRIES, SentimentAnalyzer::analyzeVideo),
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a stage running the analyses on the given executor, with its own trending words.
+     *
+     * @param analyticsCache cache of the analytics of each video description
+     * @param executor       executor running the analyses
+     * @author Utsav Patel
+     */
+    public AnalyticsStage(VideoAnalyticsCache analyticsCache, Executor executor) {
+        this(analyticsCache, new TrendingWords(), executor);
+    }
+
+    /**
+     * Creates a stage running the analyses on the given executor.
+     *
+     * @param analyticsCache cache of the analytics of each video description
+     * @param trendingWords  trending words the analysed descriptions are counted into
+     * @param executor       executor running the analyses
+     * @author Utsav Patel
+     */
+    public AnalyticsStage(VideoAnalyticsCache analyticsCache, TrendingWords trendingWords, Executor executor) {
+        this.analyticsCache = analyticsCache;
+        this.trendingWords = trendingWords;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a stage running the analyses on the analytics dispatcher of the actor system.
+     *
+     * @param actorSystem    actor system whose dispatcher runs the analyses
+     * @param analyticsCache cache of the analytics of each video description
+     * @param trendingWords  trending words the analysed descriptions are counted into
+     * @return the stage
+     * @author Utsav Patel
+     */
+    public static AnalyticsStage create(ActorSystem actorSystem, VideoAnalyticsCache analyticsCache, TrendingWords trendingWords) {
+        return new AnalyticsStage(analyticsCache, trendingWords, actorSystem.dispatchers().lookup(DISPATCHER));
+    }
+
+    public VideoAnalyticsCache getAnalyticsCache() {
+        return analyticsCache;
+    }
+
+    public TrendingWords getTrendingWords() {
+        return trendingWords;
+    }
+
+    /**
+     * Sets the sentiment and the readability scores of every video of the response, and their overall values on the
+     * response itself. The words of every description are counted as trending words, including the descriptions
+     * served from the analytics cache.
+     *
+     * @param response search response
+     * @return CompletionStage of the same response, once analysed
+     * @author Utsav Patel
+     */
+    public CompletionStage<Response> analyze(Response response) {
+        long start = System.nanoTime();
+        List<Video> videos = response.getVideos();
+        VideoAnalytics[] analytics = new VideoAnalytics[videos.size()];
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < videos.size(); i++) {
+            analytics[i] = analyticsCache.getIfPresent(videos.get(i));
+            if (analytics[i] == null) {
+                missing.add(i);
+            }
+        }
+
+        return CompletableFuture.supplyAsync(() -> timed(tokenizeLatency, () -> videos.stream()
+                        .map(Video::tokens)
+                        .toArray(TokenizedText[]::new)), executor)
+                .thenCompose(tokens -> {
+                    for (TokenizedText text : tokens) {
+                        trendingWords.add(text);
+                    }
+                    if (missing.isEmpty()) {
+                        return CompletableFuture.completedFuture(complete(response, analytics, start));
+                    }
+                    CompletableFuture<long[][]> sentiment = CompletableFuture.supplyAsync(() -> timed(sentimentLatency, () -> {
+                        long[][] counts = new long[missing.size()][];
+                        for (int k = 0; k < counts.length; k++) {
+                            counts[k] = SentimentAnalyzer.countSentimentWords(tokens[missing.get(k)]);
+                        }
+                        return counts;
+                    }), executor);
+                    CompletableFuture<double[][]> readability = CompletableFuture.supplyAsync(() -> timed(readabilityLatency, () -> {
+                        double[][] scores = new double[missing.size()][];
+                        for (int k = 0; k < scores.length; k++) {
+                            scores[k] = ReadabilityScorer.calculateReadabilityScores(tokens[missing.get(k)]);
+                        }
+                        return scores;
+                    }), executor);
+                    return sentiment.thenCombine(readability, (counts, scores) -> {
+                        for (int k = 0; k < missing.size(); k++) {
+                            int i = missing.get(k);
+                            analytics[i] = new VideoAnalytics(
+                                    SentimentAnalyzer.sentimentOf(counts[k][0], counts[k][1], counts[k][2]),
+                                    counts[k][0], counts[k][1], scores[k][0], scores[k][1]);
+                            analyticsCache.put(videos.get(i), analytics[i]);
+                        }
+                        return complete(response, analytics, start);
+                    });
+                });
+    }
+
+    private Response complete(Response response, VideoAnalytics[] analytics, long start) {
+        List<Video> videos = response.getVideos();
+        for (int i = 0; i < analytics.length; i++) {
+            analytics[i].applyTo(videos.get(i));
+        }
+        response.setSentiment(SentimentAnalyzer.aggregateSentiment(videos.stream()
+                .map(Video::getSentiment)
+                .collect(Collectors.toList())));
+        ReadabilityScorer.calculateAverageReadability(response);
+        totalLatency.record(System.nanoTime() - start);
+        return response;
+    }
+
+    private static <T> T timed(Latency latency, Supplier<T> step) {
+        long start = System.nanoTime();
+        T result = step.get();
+        latency.record(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Returns the number of runs, mean and maximum latency in milliseconds of every step, the total including the
+     * cache lookups and the time spent waiting for the executor.
+     *
+     * @return latencies keyed by step
+     * @author Utsav Patel
+     */
+    public Map<String, Map<String, Number>> stats() {
+        Map<String, Map<String, Number>> stats = new LinkedHashMap<>();
+        stats.put("tokenize", tokenizeLatency.stats());
+        stats.put("sentiment", sentimentLatency.stats());
+        stats.put("readability", readabilityLatency.stats());
+        stats.put("total", totalLatency.stats());
+        return stats;
+    }
+
+    /**
+     * Latency of a step, recorded without locking.
+     */
+    private static final class Latency {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        private Map<String, Number> stats() {
+            long runs = count.sum();
+            Map<String, Number> stats = new LinkedHashMap<>();
+            stats.put("count", runs);
+            stats.put("meanMillis", runs == 0 ? 0.0 : totalNanos.sum() / 1e6 / runs);
+            stats.put("maxMillis", maxNanos.get() / 1e6);
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package actor;
+
+/**
+ * Marker of the messages sent between the nodes of the cluster, which are serialized with Jackson CBOR as bound in
+ * application.conf.
+ *
+ * @author Utsav Patel
+ */
+public interface CborSerializable {
+}
@@ -1,12 +1,12 @@
 package actor;
 
 import akka.actor.AbstractActor;
-import akka.actor.ActorRef;
 import akka.actor.Props;
 import akka.japi.pf.ReceiveBuilder;
 import model.ChannelProfile;
 import model.Video;
 import play.libs.ws.WSClient;
+import services.YouTubeClient;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -24,10 +24,8 @@ import java.util.concurrent.CompletionStage;
 
 public class ChannelProfileActor extends AbstractActor {
 
-    private final WSClient wsClient;
-    private final String apiKey;
-    private static final String YOUTUBE_CHANNEL_URL = "https://www.googleapis.com/youtube/v3/channels";
-    private static final String YOUTUBE_SEARCH_URL = "https://www.googleapis.com/youtube/v3/search";
+    private final YouTubeClient youTubeClient;
+    private final InFlightRequests<String> inFlight = new InFlightRequests<>();
 
     /**
      * Creates Props for the ChannelProfileActor.
@@ -41,23 +39,34 @@ public class ChannelProfileActor extends AbstractActor {
      */
 
     public static Props props(WSClient wsClient, String apiKey) {
-        return Props.create(ChannelProfileActor.class, () -> new ChannelProfileActor(wsClient, apiKey));
+        return props(new YouTubeClient(wsClient, apiKey));
+    }
+
+    /**
+     * Creates Props for the ChannelProfileActor, calling the API through the given client.
+     *
+     * @param youTubeClient the client used for the YouTube Data API calls.
+     * @return Props instance for creating the actor.
+     * @see YouTubeClient
+     * @author Amish Navadia
+     */
+
+    public static Props props(YouTubeClient youTubeClient) {
+        return Props.create(ChannelProfileActor.class, () -> new ChannelProfileActor(youTubeClient));
     }
 
     /**
      * Constructor for ChannelProfileActor.
      *
-     * @param wsClient the WSClient used for making HTTP requests.
-     * @param apiKey   the YouTube API key.
-     * @see WSClient
+     * @param youTubeClient the client used for the YouTube Data API calls.
+     * @see YouTubeClient
      * @see AbstractActor
-     * @see ChannelProfileActor#props(WSClient, String)
+     * @see ChannelProfileActor#props(YouTubeClient)
      * @author Amish Navadia
      */
 
-    public ChannelProfileActor(WSClient wsClient, String apiKey) {
-        this.wsClient = wsClient;
-        this.apiKey = apiKey;
+    public ChannelProfileActor(YouTubeClient youTubeClient) {
+        this.youTubeClient = youTubeClient;
     }
 
     /**
@@ -76,6 +85,7 @@ public class ChannelProfileActor extends AbstractActor {
     public Receive createReceive() {
         return ReceiveBuilder.create()
                 .match(Channel.class, this::handleFetchChannelProfile)
+                .match(InFlightRequests.Completed.class, this::handleFetchedChannelProfile)
                 .build();
     }
 
@@ -83,7 +93,8 @@ public class ChannelProfileActor extends AbstractActor {
      * Handles a message to fetch the channel profile and its recent videos.
      *
      * This method fetches channel details and the recent videos for the given channel ID and sends
-     * the resulting {@link ChannelProfile} object back to the sender.
+     * the resulting {@link ChannelProfile} object back to the sender. If the same channel is already
+     * being fetched, the sender waits for that fetch instead of starting a new one.
      *
      * @param channel the message containing the channel ID.
      * @see Channel
@@ -92,29 +103,34 @@ public class ChannelProfileActor extends AbstractActor {
      * @see WSClient
      * @see CompletableFuture
      * @see CompletionStage
+     * @see InFlightRequests
      * @author Amish Navadia
      */
 
     private void handleFetchChannelProfile(Channel channel) {
-        ActorRef originalSender = getSender();
-
-        // Fetch the channel profile
-        CompletionStage<ChannelProfile> profileFuture = fetchChannelProfile(channel.channelId)
+        if (!inFlight.register(channel.channelId, getSender())) {
+            return;
+        }
+        // Fetch the channel profile and hand it, or the error message, back to the actor
+        inFlight.start(channel.channelId, () -> fetchChannelProfile(channel.channelId)
                 .thenCompose(profile -> fetchChannelVideos(channel.channelId, 10)
                         .thenApply(videos -> {
                             profile.setVideos(videos);
                             return profile;
-                        }));
-
-        // Handle the result and send back the channel profile
-        profileFuture.thenAccept(channelProfile -> {
-            // Send the channel profile back to the original sender
-            originalSender.tell(channelProfile, getSelf());
-        }).exceptionally(ex -> {
-            // Handle any exceptions and send an error message or null
-            originalSender.tell(ex.getMessage(), getSelf());
-            return null; // Return null to satisfy the exceptionally method
-        });
+                        })), getSelf());
+    }
+
+    /**
+     * Sends the fetched channel profile, or the error message, to every sender waiting for the channel.
+     *
+     * @param completed the message containing the channel ID and the result.
+     * @see InFlightRequests
+     * @author Amish Navadia
+     */
+
+    private void handleFetchedChannelProfile(InFlightRequests.Completed completed) {
+        inFlight.complete((String) completed.key)
+                .forEach(sender -> sender.tell(completed.result, getSelf()));
     }
 
 
@@ -132,23 +148,7 @@ public class ChannelProfileActor extends AbstractActor {
      */
 
     private CompletionStage<ChannelProfile> fetchChannelProfile(String channelId) {
-        return wsClient.url(YOUTUBE_CHANNEL_URL)
-                .addQueryParameter("part", "snippet,statistics")
-                .addQueryParameter("id", channelId)
-                .addQueryParameter("key", apiKey)
-                .get()
-                .thenApply(response -> {
-                    String name = response.asJson().get("items").get(0).get("snippet").get("title").asText();
-                    String imageUrl = response.asJson().get("items").get(0).get("snippet").get("thumbnails")
-                            .get("default").get("url").asText();
-                    String description = response.asJson().get("items").get(0).get("snippet").get("description").asText();
-                    String subscriberCount = response.asJson().get("items").get(0).get("statistics")
-                            .get("subscriberCount").asText();
-                    String videoCount = response.asJson().get("items").get(0).get("statistics")
-                            .get("videoCount").asText();
-
-                    return new ChannelProfile(name, imageUrl, description, subscriberCount, videoCount, new ArrayList<>());
-                });
+        return youTubeClient.getChannelProfile(channelId);
     }
 
 
@@ -168,29 +168,7 @@ public class ChannelProfileActor extends AbstractActor {
      */
 
     private CompletionStage<List<Video>> fetchChannelVideos(String channelId, int count) {
-        return wsClient.url(YOUTUBE_SEARCH_URL)
-                .addQueryParameter("part", "snippet")
-                .addQueryParameter("channelId", channelId)
-                .addQueryParameter("order", "date")
-                .addQueryParameter("type", "video")
-                .addQueryParameter("maxResults", Integer.toString(count))
-                .addQueryParameter("key", apiKey)
-                .get()
-                .thenApply(response -> {
-                    Iterable<com.fasterxml.jackson.databind.JsonNode> items = response.asJson().get("items");
-                    List<Video> videos = new ArrayList<>();
-
-                    items.forEach(item -> {
-                        String videoId = item.get("id").get("videoId").asText();
-                        String title = item.get("snippet").get("title").asText();
-                        String description = item.get("snippet").get("description").asText();
-                        String imageUrl = item.get("snippet").get("thumbnails").get("high").get("url").asText();
-                        String channelTitle = item.get("snippet").get("channelTitle").asText();
-                        videos.add(new Video(videoId, title, description, imageUrl, channelId, channelTitle));
-                    });
-
-                    return videos;
-                });
+        return youTubeClient.searchChannelVideos(channelId, count);
 
     }
 
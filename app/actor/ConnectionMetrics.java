@@ -0,0 +1,69 @@
+package actor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outbound buffers of the open WebSocket connections, for the metrics route.
+ *
+ * @author Utsav Patel
+ */
+public class ConnectionMetrics {
+    private final Map<String, OutboundBuffer> buffers = new ConcurrentHashMap<>();
+    private final LongAdder disconnected = new LongAdder();
+
+    /**
+     * Registers the buffer of a connection, replacing the previous buffer of a restarted user actor.
+     *
+     * @param connection name of the connection
+     * @param buffer     outbound buffer of the connection
+     * @author Utsav Patel
+     */
+    public void register(String connection, OutboundBuffer buffer) {
+        buffers.put(connection, buffer);
+    }
+
+    /**
+     * Forgets the buffer of a closed connection.
+     *
+     * @param connection name of the connection
+     * @author Utsav Patel
+     */
+    public void unregister(String connection) {
+        buffers.remove(connection);
+    }
+
+    /**
+     * Counts a connection closed because its client did not keep up.
+     *
+     * @author Utsav Patel
+     */
+    public void recordDisconnect() {
+        disconnected.increment();
+    }
+
+    /**
+     * Returns the number of open connections, the total number of messages waiting, the connections closed for being
+     * too slow, and the counters of the buffer of every connection.
+     *
+     * @return counters keyed by name
+     * @author Utsav Patel
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> perConnection = new LinkedHashMap<>();
+        long depth = 0;
+        for (Map.Entry<String, OutboundBuffer> entry : buffers.entrySet()) {
+            Map<String, Number> stats = entry.getValue().stats();
+            depth += stats.get("depth").longValue();
+            perConnection.put(entry.getKey(), stats);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("connections", perConnection.size());
+        stats.put("depth", depth);
+        stats.put("disconnected", disconnected.sum());
+        stats.put("buffers", perConnection);
+        return stats;
+    }
+}
@@ -0,0 +1,99 @@
+package actor;
+
+import akka.actor.ActorRef;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Keeps track of the senders waiting on the same upstream request, so that an actor makes one YouTube API call
+ * per key and replies to every waiting sender once it completes.
+ * <br/>
+ * It is only meant to be used from inside an actor: the call result is piped back to the actor as a
+ * {@link Completed} message and the waiting senders are released from the actor's own thread.
+ *
+ * @param <K> type of the request key, such as a video id or a tag
+ * @author Yash Ajmeri
+ */
+public class InFlightRequests<K> {
+    private final Map<K, List<ActorRef>> waiting = new HashMap<>();
+
+    /**
+     * Registers a sender waiting for the given key.
+     *
+     * @param key    request key
+     * @param sender actor waiting for the result
+     * @return true if no request is in flight for the key and the caller has to start one
+     * @author Yash Ajmeri
+     */
+    public boolean register(K key, ActorRef sender) {
+        List<ActorRef> senders = waiting.computeIfAbsent(key, k -> new ArrayList<>());
+        senders.add(sender);
+        return senders.size() == 1;
+    }
+
+    /**
+     * Starts the upstream request for a key and tells the actor a {@link Completed} message with the result, or the
+     * error message, once it completes. A call throwing before it returns its CompletionStage completes the key as
+     * well, so the senders registered later are not left waiting on a request which will never answer.
+     *
+     * @param key  request key
+     * @param call starts the upstream request
+     * @param self actor the result is sent to
+     * @author Yash Ajmeri
+     */
+    public void start(K key, Supplier<? extends CompletionStage<?>> call, ActorRef self) {
+        CompletionStage<?> stage;
+        try {
+            stage = call.get();
+        } catch (RuntimeException e) {
+            stage = CompletableFuture.failedFuture(e);
+        }
+        stage.whenComplete((result, ex) ->
+                self.tell(new Completed(key, ex == null ? result : ex.getMessage()), ActorRef.noSender()));
+    }
+
+    /**
+     * Removes the request for the given key and returns every sender that was waiting for it.
+     *
+     * @param key request key
+     * @return senders waiting for the result
+     * @author Yash Ajmeri
+     */
+    public List<ActorRef> complete(K key) {
+        List<ActorRef> senders = waiting.remove(key);
+        return senders == null ? Collections.emptyList() : senders;
+    }
+
+    /**
+     * Returns the number of requests currently in flight.
+     *
+     * @return number of distinct keys being fetched
+     * @author Yash Ajmeri
+     */
+    public int size() {
+        return waiting.size();
+    }
+
+    /**
+     * Message sent by an actor to itself once the upstream request for a key has completed.
+     * The result is either the fetched value or the error message.
+     *
+     * @author Yash Ajmeri
+     */
+    public static final class Completed {
+        public final Object key;
+        public final Object result;
+
+        public Completed(Object key, Object result) {
+            this.key = key;
+            this.result = result;
+        }
+    }
+}
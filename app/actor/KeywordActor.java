@@ -0,0 +1,410 @@
+package actor;
+
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.Behavior;
+import akka.actor.typed.javadsl.AbstractBehavior;
+import akka.actor.typed.javadsl.ActorContext;
+import akka.actor.typed.javadsl.Behaviors;
+import akka.actor.typed.javadsl.Receive;
+import akka.cluster.sharding.typed.javadsl.ClusterSharding;
+import akka.cluster.sharding.typed.javadsl.EntityContext;
+import akka.cluster.sharding.typed.javadsl.EntityTypeKey;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import model.Response;
+import model.ResponseDelta;
+import model.Video;
+import services.ReadabilityScorer;
+import services.SentimentAnalyzer;
+import services.WordStatsStore;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * KeywordActor owns the results of one keyword, whichever number of users watch it.
+ * <br/>
+ * Functionality:
+ * - Searches the keyword once, when the first user subscribes to it
+ * - Refreshes it incrementally when the {@link RefreshScheduler} says so, only fetching and analysing videos
+ * published since the last refresh
+ * - Keeps the shared word statistics of the keyword up to date with the retained videos
+ * - Publishes every result to each of its subscribers, as a {@link UserActor.Update} carrying both the snapshot and
+ * the changes, serialized once for all of them
+ * - Sends the current snapshot to each new subscriber
+ * <br/>
+ * The searches go through the search pipeline of the {@link KeywordRegistry}, one at a time: a refresh due while
+ * the previous search of the keyword is running is skipped. So the YouTube API is called once per distinct keyword
+ * rather than once per user watching it.
+ * <br/>
+ * In cluster mode the KeywordActors are sharded entities identified by their keyword, so each keyword is searched
+ * and refreshed by a single node of the cluster. Their subscribers are then the relays of the KeywordRegistry of each
+ * node, and an entity left without subscriber passivates itself.
+ *
+ * @author Utsav Patel
+ */
+public class KeywordActor extends AbstractBehavior<KeywordActor.Command> {
+    public static final EntityTypeKey<Command> ENTITY_TYPE_KEY = EntityTypeKey.create(Command.class, "Keyword");
+    private static final int MAX_RESULTS = 50;
+    private final String keyword;
+    private final ActorRef<KeywordRegistry.Command> registry;
+    private final WordStatsStore wordStatsStore;
+    private final ActorRef<ClusterSharding.ShardCommand> shard;
+    private final Set<ActorRef<UserActor.Update>> subscribers = new HashSet<>();
+    private Response retained;
+    private long version;
+    private boolean searching;
+
+    /**
+     * Messages understood by the KeywordActor.
+     *
+     * @author Utsav Patel
+     */
+    public sealed interface Command {
+    }
+
+    /**
+     * Message to subscribe a user actor, or the relay of a node, to the results of the keyword and get its current
+     * snapshot.
+     *
+     * @author Utsav Patel
+     */
+    public static final class Subscribe implements Command, CborSerializable {
+        private final ActorRef<UserActor.Update> subscriber;
+
+        @JsonCreator
+        public Subscribe(ActorRef<UserActor.Update> subscriber) {
+            this.subscriber = subscriber;
+        }
+    }
+
+    /**
+     * Message to unsubscribe a user actor, or the relay of a node, from the results of the keyword.
+     *
+     * @author Utsav Patel
+     */
+    public static final class Unsubscribe implements Command, CborSerializable {
+        private final ActorRef<UserActor.Update> subscriber;
+
+        @JsonCreator
+        public Unsubscribe(ActorRef<UserActor.Update> subscriber) {
+            this.subscriber = subscriber;
+        }
+    }
+
+    /**
+     * Message to send the current snapshot to a user actor whose node is already subscribed to the keyword.
+     *
+     * @author Utsav Patel
+     */
+    public static final class Snapshot implements Command, CborSerializable {
+        private final ActorRef<UserActor.Update> subscriber;
+
+        @JsonCreator
+        public Snapshot(ActorRef<UserActor.Update> subscriber) {
+            this.subscriber = subscriber;
+        }
+    }
+
+    /**
+     * Message sent periodically by the KeywordRegistry of every node to keep its relay subscribed: an entity started
+     * again on another node, after a rebalance or a crash, knows no subscriber until then.
+     *
+     * @author Utsav Patel
+     */
+    public static final class Renew implements Command, CborSerializable {
+        private final ActorRef<UserActor.Update> subscriber;
+
+        @JsonCreator
+        public Renew(ActorRef<UserActor.Update> subscriber) {
+            this.subscriber = subscriber;
+        }
+    }
+
+    /**
+     * Message sent by the {@link RefreshScheduler} to refresh the keyword.
+     *
+     * @author Utsav Patel
+     */
+    public enum Refresh implements Command {
+        INSTANCE
+    }
+
+    /**
+     * Message sent by the {@link KeywordRegistry} with the result of a search of the keyword.
+     *
+     * @author Utsav Patel
+     */
+    public static final class Searched implements Command {
+        private final SearchPipeline.Result result;
+
+        /**
+         * @param result result of the search, or null if the search pipeline was full
+         */
+        public Searched(SearchPipeline.Result result) {
+            this.result = result;
+        }
+    }
+
+    private KeywordActor(ActorContext<Command> context, String keyword, ActorRef<KeywordRegistry.Command> registry, WordStatsStore wordStatsStore, ActorRef<RefreshScheduler.Command> refreshScheduler, ActorRef<ClusterSharding.ShardCommand> shard) {
+        super(context);
+        this.keyword = keyword;
+        this.registry = registry;
+        this.wordStatsStore = wordStatsStore;
+        this.shard = shard;
+        refreshScheduler.tell(new RefreshScheduler.Subscribe(context.getSelf()));
+        search(SearchPipeline.Request.latest(keyword, true));
+    }
+
+    /**
+     * Creates the behavior of a KeywordActor.
+     *
+     * @param keyword          normalized keyword, see {@link #normalize(String)}
+     * @param registry         registry running the searches
+     * @param wordStatsStore   word statistics shared by every keyword
+     * @param refreshScheduler scheduler telling when to refresh the keyword
+     * @return Behavior of the KeywordActor
+     * @author Utsav Patel
+     */
+    public static Behavior<Command> create(String keyword, ActorRef<KeywordRegistry.Command> registry, WordStatsStore wordStatsStore, ActorRef<RefreshScheduler.Command> refreshScheduler) {
+        return Behaviors.setup(context -> new KeywordActor(context, keyword, registry, wordStatsStore, refreshScheduler, null));
+    }
+
+    /**
+     * Creates the behavior of a KeywordActor sharded across the cluster, the keyword being its entity id.
+     *
+     * @param entityContext    context of the entity
+     * @param registry         registry of the node running the searches
+     * @param wordStatsStore   word statistics of the node
+     * @param refreshScheduler scheduler of the node telling when to refresh the keyword
+     * @return Behavior of the KeywordActor
+     * @author Utsav Patel
+     */
+    public static Behavior<Command> create(EntityContext<Command> entityContext, ActorRef<KeywordRegistry.Command> registry, WordStatsStore wordStatsStore, ActorRef<RefreshScheduler.Command> refreshScheduler) {
+        return Behaviors.setup(context -> new KeywordActor(context, entityContext.getEntityId(), registry, wordStatsStore, refreshScheduler, entityContext.getShard()));
+    }
+
+    /**
+     * Normalizes a keyword typed by a user, so that the users typing the same words in a different case or spacing
+     * share the same KeywordActor.
+     *
+     * @param keyword keyword as typed
+     * @return the keyword trimmed, lower cased and with single spaces between words
+     * @author Utsav Patel
+     */
+    public static String normalize(String keyword) {
+        return keyword.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Defines the behavior of the KeywordActor.
+     *
+     * @return Receive instance defining message handling logic
+     * @author Utsav Patel
+     */
+    @Override
+    public Receive<Command> createReceive() {
+        return newReceiveBuilder()
+                .onMessage(Subscribe.class, subscribe -> {
+                    subscribe(subscribe.subscriber);
+                    sendSnapshot(subscribe.subscriber);
+                    return this;
+                })
+                .onMessage(Snapshot.class, snapshot -> {
+                    sendSnapshot(snapshot.subscriber);
+                    return this;
+                })
+                .onMessage(Renew.class, renew -> {
+                    subscribe(renew.subscriber);
+                    return this;
+                })
+                .onMessage(Unsubscribe.class, unsubscribe -> {
+                    if (subscribers.remove(unsubscribe.subscriber)) {
+                        getContext().unwatch(unsubscribe.subscriber);
+                    }
+                    if (subscribers.isEmpty() && shard != null) {
+                        shard.tell(new ClusterSharding.Passivate<>(getContext().getSelf()));
+                    }
+                    return this;
+                })
+                .onMessageEquals(Refresh.INSTANCE, () -> {
+                    if (!searching) {
+                        refresh();
+                    }
+                    return this;
+                })
+                .onMessage(Searched.class, searched -> {
+                    searching = false;
+                    if (searched.result != null) {
+                        onSearchResults(searched.result);
+                    }
+                    return this;
+                })
+                .build();
+    }
+
+    /**
+     * Subscribes a user actor or a relay to the results of the keyword, unless it already is, until it unsubscribes
+     * or stops.
+     */
+    private void subscribe(ActorRef<UserActor.Update> subscriber) {
+        if (subscribers.add(subscriber)) {
+            getContext().watchWith(subscriber, new Unsubscribe(subscriber));
+        }
+    }
+
+    private void publish(UserActor.Update update) {
+        subscribers.forEach(subscriber -> subscriber.tell(update));
+    }
+
+    /**
+     * Sends the current snapshot of the keyword to a subscriber, or searches the keyword if it has none yet, the
+     * results being published to every subscriber.
+     */
+    private void sendSnapshot(ActorRef<UserActor.Update> subscriber) {
+        if (retained != null) {
+            retained.setFromKeyword(true);
+            subscriber.tell(new UserActor.Update(keyword, version, 0, UserActor.serializeResponse(retained), null));
+            retained.setFromKeyword(false);
+        } else if (!searching) {
+            search(SearchPipeline.Request.latest(keyword, true));
+        }
+    }
+
+    /**
+     * Refreshes the results of the keyword. When results were already published, only the videos published since
+     * the newest one are searched, and only the new ones are hydrated and analysed.
+     *
+     * @author Utsav Patel
+     */
+    private void refresh() {
+        String publishedAfter = retained == null ? null : newestPublishedAt(retained.getVideos());
+        if (publishedAfter == null) {
+            search(SearchPipeline.Request.latest(keyword, false));
+            return;
+        }
+        Set<String> knownIds = retained.getVideos().stream().map(Video::getVideoId).collect(Collectors.toSet());
+        search(SearchPipeline.Request.publishedAfter(keyword, publishedAfter, knownIds));
+    }
+
+    private void search(SearchPipeline.Request request) {
+        searching = true;
+        registry.tell(new KeywordRegistry.Search(request, getContext().getSelf()));
+    }
+
+    /**
+     * Retains the analysed results of the keyword and publishes them.
+     * <br/>
+     * Full results are published as a versioned snapshot. Incremental results are merged into the retained results
+     * and published as both the new snapshot and a {@link ResponseDelta} based on the previous version, each
+     * subscriber sending whichever its client can apply. Either way the word statistics of the keyword are updated
+     * with the videos now retained. Nothing is published when the search failed or a refresh found no new video.
+     *
+     * @param results Analysed search results
+     * @author Utsav Patel
+     */
+    private void onSearchResults(SearchPipeline.Result results) {
+        if (results.getFailure() != null) {
+            System.err.println("ERROR: Unable to fetch videos for keyword: " + keyword + " - " + results.getFailure().getMessage());
+            return;
+        }
+        if (results.getResponse() == null) {
+            return;
+        }
+        if (!results.getRequest().isIncremental() || retained == null) {
+            retained = results.getResponse();
+            retained.setVersion(++version);
+            wordStatsStore.update(keyword, retained.getVideos());
+            publish(new UserActor.Update(keyword, version, 0, UserActor.serializeResponse(retained), null));
+            retained.setFromKeyword(false);
+            return;
+        }
+
+        Set<String> idsBefore = retained.getVideos().stream().map(Video::getVideoId).collect(Collectors.toCollection(LinkedHashSet::new));
+        String sentimentBefore = retained.getSentiment();
+        Double fkgBefore = retained.getAverageFleschKincaidGradeLevel();
+        Double frsBefore = retained.getAverageFleschReadingScore();
+
+        mergeNewVideos(retained, results.getResponse().getVideos(), MAX_RESULTS);
+        retained.setFromKeyword(false);
+        wordStatsStore.update(keyword, retained.getVideos());
+        Set<String> idsAfter = retained.getVideos().stream().map(Video::getVideoId).collect(Collectors.toSet());
+
+        ResponseDelta delta = new ResponseDelta();
+        delta.setQuery(retained.getQuery());
+        delta.setBaseVersion(retained.getVersion());
+        delta.setAdded(retained.getVideos().stream()
+                .filter(video -> !idsBefore.contains(video.getVideoId()))
+                .collect(Collectors.toList()));
+        delta.setRemoved(idsBefore.stream()
+                .filter(videoId -> !idsAfter.contains(videoId))
+                .collect(Collectors.toList()));
+        if (!Objects.equals(sentimentBefore, retained.getSentiment())) {
+            delta.setSentiment(retained.getSentiment());
+        }
+        if (!Objects.equals(fkgBefore, retained.getAverageFleschKincaidGradeLevel())) {
+            delta.setAverageFleschKincaidGradeLevel(retained.getAverageFleschKincaidGradeLevel());
+        }
+        if (!Objects.equals(frsBefore, retained.getAverageFleschReadingScore())) {
+            delta.setAverageFleschReadingScore(retained.getAverageFleschReadingScore());
+        }
+        retained.setVersion(++version);
+        delta.setVersion(retained.getVersion());
+        publish(new UserActor.Update(keyword, version, delta.getBaseVersion(),
+                UserActor.serializeResponse(retained), UserActor.serialize(delta)));
+    }
+
+    /**
+     * Merges new videos into the retained results, newest first, evicting the oldest videos beyond the given size.
+     * The overall sentiment and the average readability scores are recomputed from the per-video values, so only
+     * the new videos have to be analysed.
+     *
+     * @param retained  Results previously published
+     * @param newVideos Analysed videos published since the previous refresh
+     * @param maxVideos Maximum number of videos to keep
+     * @return the retained response, updated
+     * @author Utsav Patel
+     */
+    public static Response mergeNewVideos(Response retained, List<Video> newVideos, int maxVideos) {
+        Set<String> knownIds = retained.getVideos().stream().map(Video::getVideoId).collect(Collectors.toSet());
+        List<Video> merged = new ArrayList<>();
+        newVideos.stream()
+                .filter(video -> knownIds.add(video.getVideoId()))
+                .forEach(merged::add);
+        merged.addAll(retained.getVideos());
+        if (merged.size() > maxVideos) {
+            merged.subList(maxVideos, merged.size()).clear();
+        }
+        retained.setVideos(merged);
+
+        retained.setSentiment(SentimentAnalyzer.aggregateSentiment(merged.stream()
+                .map(video -> video.getSentiment() != null
+                        ? video.getSentiment()
+                        : SentimentAnalyzer.analyzeSentimentForDescription(video.tokens()))
+                .collect(Collectors.toList())));
+        ReadabilityScorer.calculateAverageReadability(retained);
+        return retained;
+    }
+
+    /**
+     * Returns the publication time of the newest video, in the RFC 3339 format expected by publishedAfter.
+     *
+     * @param videos Videos to look at
+     * @return newest publication time, or null if none of the videos has one
+     * @author Utsav Patel
+     */
+    public static String newestPublishedAt(List<Video> videos) {
+        return videos.stream()
+                .map(Video::getPublishedAt)
+                .filter(publishedAt -> publishedAt != null && !publishedAt.isEmpty())
+                .max(Comparator.comparing(Instant::parse))
+                .orElse(null);
+    }
+}
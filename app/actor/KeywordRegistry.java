@@ -0,0 +1,356 @@
+package actor;
+
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.Behavior;
+import akka.actor.typed.SupervisorStrategy;
+import akka.actor.typed.javadsl.AbstractBehavior;
+import akka.actor.typed.javadsl.ActorContext;
+import akka.actor.typed.javadsl.Behaviors;
+import akka.actor.typed.javadsl.Receive;
+import akka.actor.typed.javadsl.TimerScheduler;
+import akka.cluster.sharding.typed.javadsl.ClusterSharding;
+import akka.cluster.sharding.typed.javadsl.Entity;
+import akka.cluster.sharding.typed.javadsl.EntityRef;
+import akka.japi.Pair;
+import akka.stream.BoundedSourceQueue;
+import akka.stream.Materializer;
+import akka.stream.QueueOfferResult;
+import akka.stream.javadsl.Keep;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.SinkQueueWithCancel;
+import akka.stream.javadsl.Source;
+import services.SearchCache;
+import services.WordStatsStore;
+import services.YouTubeClient;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * KeywordRegistry keeps one {@link KeywordActor} per distinct keyword watched by the users, and the search pipeline
+ * they share.
+ * <br/>
+ * Functionality:
+ * - Spawns the KeywordActor of a keyword when its first user subscribes, and stops it once its last user
+ * unsubscribed or stopped
+ * - Forwards the subscriptions of the users to the KeywordActors
+ * - Runs the searches of every KeywordActor through one {@link SearchPipeline}, and hands each result back to the
+ * KeywordActor which asked for it. The results are pulled one at a time, so the pipeline only runs as fast as the
+ * registry takes them, and each KeywordActor has at most one search in flight
+ * - Spawns the {@link RefreshScheduler} of the KeywordActors
+ * <br/>
+ * In cluster mode the KeywordActors are sharded across the nodes by keyword, and every node runs a KeywordRegistry.
+ * The registry of a node subscribes a single relay to each keyword its users watch, and forwards what the relay
+ * receives to them; the users joining later get their snapshot from the KeywordActor directly. The searches of the
+ * KeywordActors owned by a node go through the search pipeline of that node, so each keyword is searched and
+ * refreshed by exactly one node whichever nodes its users are connected to.
+ *
+ * @author Utsav Patel
+ */
+public class KeywordRegistry extends AbstractBehavior<KeywordRegistry.Command> {
+    private final WordStatsStore wordStatsStore;
+    private final ActorRef<RefreshScheduler.Command> refreshScheduler;
+    private final BoundedSourceQueue<SearchPipeline.Request> requests;
+    private final SinkQueueWithCancel<SearchPipeline.Result> results;
+    private final ClusterSharding sharding;
+    private final ActorRef<UserActor.Update> relay;
+    private final Map<String, ActorRef<KeywordActor.Command>> keywordActors = new HashMap<>();
+    private final Map<String, ActorRef<KeywordActor.Command>> searching = new HashMap<>();
+    private final Map<String, Set<ActorRef<UserActor.Update>>> subscribers = new HashMap<>();
+    private final Map<ActorRef<UserActor.Update>, Set<String>> subscriptions = new HashMap<>();
+
+    /**
+     * Messages understood by the KeywordRegistry.
+     *
+     * @author Utsav Patel
+     */
+    public sealed interface Command {
+    }
+
+    /**
+     * Message sent by a user actor to receive the results of a keyword.
+     *
+     * @author Utsav Patel
+     */
+    public static final class Subscribe implements Command {
+        private final String keyword;
+        private final ActorRef<UserActor.Update> subscriber;
+
+        /**
+         * @param keyword    normalized keyword, see {@link KeywordActor#normalize(String)}
+         * @param subscriber user actor receiving the results
+         */
+        public Subscribe(String keyword, ActorRef<UserActor.Update> subscriber) {
+            this.keyword = keyword;
+            this.subscriber = subscriber;
+        }
+    }
+
+    /**
+     * Message sent by a user actor once a keyword left its history.
+     *
+     * @author Utsav Patel
+     */
+    public static final class Unsubscribe implements Command {
+        private final String keyword;
+        private final ActorRef<UserActor.Update> subscriber;
+
+        public Unsubscribe(String keyword, ActorRef<UserActor.Update> subscriber) {
+            this.keyword = keyword;
+            this.subscriber = subscriber;
+        }
+    }
+
+    /**
+     * Message sent by a KeywordActor to run a search through the search pipeline.
+     *
+     * @author Utsav Patel
+     */
+    public static final class Search implements Command {
+        private final SearchPipeline.Request request;
+        private final ActorRef<KeywordActor.Command> replyTo;
+
+        public Search(SearchPipeline.Request request, ActorRef<KeywordActor.Command> replyTo) {
+            this.request = request;
+            this.replyTo = replyTo;
+        }
+    }
+
+    /**
+     * Message with the result pulled from the search pipeline, empty once the pipeline completed.
+     *
+     * @author Utsav Patel
+     */
+    private static final class Pulled implements Command {
+        private final Optional<SearchPipeline.Result> result;
+
+        Pulled(Optional<SearchPipeline.Result> result) {
+            this.result = result;
+        }
+    }
+
+    /**
+     * Message received by the relay of the node, in cluster mode, with the results of a keyword.
+     *
+     * @author Utsav Patel
+     */
+    private static final class Relayed implements Command {
+        private final UserActor.Update update;
+
+        Relayed(UserActor.Update update) {
+            this.update = update;
+        }
+    }
+
+    /**
+     * Internal message class used for the timer renewing the subscriptions of the relay, in cluster mode.
+     *
+     * @author Utsav Patel
+     */
+    private enum RenewSubscriptions implements Command {
+        INSTANCE
+    }
+
+    /**
+     * Message received when a subscribed user actor stops.
+     *
+     * @author Utsav Patel
+     */
+    private static final class SubscriberStopped implements Command {
+        private final ActorRef<UserActor.Update> subscriber;
+
+        SubscriberStopped(ActorRef<UserActor.Update> subscriber) {
+            this.subscriber = subscriber;
+        }
+    }
+
+    private KeywordRegistry(ActorContext<Command> context, TimerScheduler<Command> timers, YouTubeClient youTubeClient, SearchCache searchCache, AnalyticsStage analyticsStage, WordStatsStore wordStatsStore, SearchPipeline.Settings settings, RefreshSchedule.Settings refreshSettings, boolean sharded) {
+        super(context);
+        this.wordStatsStore = wordStatsStore;
+        this.refreshScheduler = context.spawn(RefreshScheduler.create(refreshSettings), "refreshScheduler");
+        ActorRef<Command> self = context.getSelf();
+        Pair<BoundedSourceQueue<SearchPipeline.Request>, SinkQueueWithCancel<SearchPipeline.Result>> queues =
+                Source.<SearchPipeline.Request>queue(settings.getBufferSize())
+                        .via(SearchPipeline.create(youTubeClient, searchCache, analyticsStage, settings))
+                        .toMat(Sink.<SearchPipeline.Result>queue(), Keep.both())
+                        .run(Materializer.createMaterializer(context));
+        this.requests = queues.first();
+        this.results = queues.second();
+        pull();
+        if (!sharded) {
+            this.sharding = null;
+            this.relay = null;
+            return;
+        }
+        this.sharding = ClusterSharding.get(context.getSystem());
+        sharding.init(Entity.of(KeywordActor.ENTITY_TYPE_KEY, entityContext -> Behaviors.supervise(
+                KeywordActor.create(entityContext, self, wordStatsStore, refreshScheduler))
+                .onFailure(SupervisorStrategy.resume())));
+        this.relay = context.spawn(Behaviors.receive(UserActor.Update.class)
+                .onMessage(UserActor.Update.class, update -> {
+                    self.tell(new Relayed(update));
+                    return Behaviors.same();
+                })
+                .build(), "relay");
+        timers.startTimerAtFixedRate(RenewSubscriptions.INSTANCE, refreshSettings.getInterval());
+    }
+
+    /**
+     * Creates the behavior of the KeywordRegistry, keeping the KeywordActors on this node.
+     *
+     * @param youTubeClient   YouTube client shared by every keyword
+     * @param searchCache     search cache shared by every keyword
+     * @param analyticsStage  analytics stage shared by every keyword
+     * @param wordStatsStore  word statistics shared by every keyword
+     * @param settings        parallelism and buffer size of the search pipeline
+     * @param refreshSettings interval, jitter and rate of the refreshes of the keywords
+     * @return Behavior of the KeywordRegistry
+     * @author Utsav Patel
+     */
+    public static Behavior<Command> create(YouTubeClient youTubeClient, SearchCache searchCache, AnalyticsStage analyticsStage, WordStatsStore wordStatsStore, SearchPipeline.Settings settings, RefreshSchedule.Settings refreshSettings) {
+        return create(youTubeClient, searchCache, analyticsStage, wordStatsStore, settings, refreshSettings, false);
+    }
+
+    /**
+     * Creates the behavior of the KeywordRegistry, the KeywordActors being either kept on this node or sharded
+     * across the cluster. In cluster mode, the actor system must use the cluster provider.
+     *
+     * @param youTubeClient   YouTube client of this node
+     * @param searchCache     search cache of this node
+     * @param analyticsStage  analytics stage of this node
+     * @param wordStatsStore  word statistics of this node
+     * @param settings        parallelism and buffer size of the search pipeline of this node
+     * @param refreshSettings interval, jitter and rate of the refreshes of the keywords owned by this node
+     * @param sharded         whether the KeywordActors are sharded across the cluster
+     * @return Behavior of the KeywordRegistry
+     * @author Utsav Patel
+     */
+    public static Behavior<Command> create(YouTubeClient youTubeClient, SearchCache searchCache, AnalyticsStage analyticsStage, WordStatsStore wordStatsStore, SearchPipeline.Settings settings, RefreshSchedule.Settings refreshSettings, boolean sharded) {
+        return Behaviors.setup(context -> Behaviors.<Command>withTimers(timers ->
+                new KeywordRegistry(context, timers, youTubeClient, searchCache, analyticsStage, wordStatsStore, settings, refreshSettings, sharded)));
+    }
+
+    /**
+     * Defines the behavior of the KeywordRegistry.
+     *
+     * @return Receive instance defining message handling logic
+     * @author Utsav Patel
+     */
+    @Override
+    public Receive<Command> createReceive() {
+        return newReceiveBuilder()
+                .onMessage(Subscribe.class, this::onSubscribe)
+                .onMessage(Unsubscribe.class, unsubscribe -> {
+                    Set<String> keywords = subscriptions.get(unsubscribe.subscriber);
+                    if (keywords != null) {
+                        keywords.remove(unsubscribe.keyword);
+                    }
+                    unsubscribe(unsubscribe.keyword, unsubscribe.subscriber);
+                    return this;
+                })
+                .onMessage(SubscriberStopped.class, stopped -> {
+                    Set<String> keywords = subscriptions.remove(stopped.subscriber);
+                    if (keywords != null) {
+                        keywords.forEach(keyword -> unsubscribe(keyword, stopped.subscriber));
+                    }
+                    return this;
+                })
+                .onMessage(Search.class, search -> {
+                    String keyword = search.request.getKeyword();
+                    if (QueueOfferResult.enqueued().equals(requests.offer(search.request))) {
+                        searching.put(keyword, search.replyTo);
+                    } else {
+                        System.err.println("WARN: Search pipeline full, skipping the search of keyword: " + keyword);
+                        search.replyTo.tell(new KeywordActor.Searched(null));
+                    }
+                    return this;
+                })
+                .onMessage(Pulled.class, pulled -> {
+                    if (pulled.result.isEmpty()) {
+                        return this;
+                    }
+                    SearchPipeline.Result result = pulled.result.get();
+                    ActorRef<KeywordActor.Command> replyTo = searching.remove(result.getRequest().getKeyword());
+                    if (replyTo != null) {
+                        replyTo.tell(new KeywordActor.Searched(result));
+                    }
+                    pull();
+                    return this;
+                })
+                .onMessage(Relayed.class, relayed -> {
+                    Set<ActorRef<UserActor.Update>> keywordSubscribers = subscribers.get(relayed.update.getKeyword());
+                    if (keywordSubscribers != null) {
+                        keywordSubscribers.forEach(subscriber -> subscriber.tell(relayed.update));
+                    }
+                    return this;
+                })
+                .onMessageEquals(RenewSubscriptions.INSTANCE, () -> {
+                    subscribers.keySet().forEach(keyword -> entity(keyword).tell(new KeywordActor.Renew(relay)));
+                    return this;
+                })
+                .build();
+    }
+
+    private Behavior<Command> onSubscribe(Subscribe subscribe) {
+        if (!subscriptions.containsKey(subscribe.subscriber)) {
+            subscriptions.put(subscribe.subscriber, new HashSet<>());
+            getContext().watchWith(subscribe.subscriber, new SubscriberStopped(subscribe.subscriber));
+        }
+        subscriptions.get(subscribe.subscriber).add(subscribe.keyword);
+        Set<ActorRef<UserActor.Update>> keywordSubscribers = subscribers.computeIfAbsent(subscribe.keyword, keyword -> new HashSet<>());
+        boolean first = keywordSubscribers.isEmpty();
+        keywordSubscribers.add(subscribe.subscriber);
+        if (sharding != null) {
+            entity(subscribe.keyword).tell(first ? new KeywordActor.Subscribe(relay) : new KeywordActor.Snapshot(subscribe.subscriber));
+            return this;
+        }
+
+        ActorRef<KeywordActor.Command> keywordActor = keywordActors.get(subscribe.keyword);
+        if (keywordActor == null) {
+            keywordActor = getContext().spawnAnonymous(Behaviors.supervise(
+                    KeywordActor.create(subscribe.keyword, getContext().getSelf(), wordStatsStore, refreshScheduler))
+                    .onFailure(SupervisorStrategy.resume()));
+            keywordActors.put(subscribe.keyword, keywordActor);
+        }
+        keywordActor.tell(new KeywordActor.Subscribe(subscribe.subscriber));
+        return this;
+    }
+
+    private void pull() {
+        getContext().pipeToSelf(results.pull(), (result, failure) -> new Pulled(failure != null ? Optional.empty() : result));
+    }
+
+    private EntityRef<KeywordActor.Command> entity(String keyword) {
+        return sharding.entityRefFor(KeywordActor.ENTITY_TYPE_KEY, keyword);
+    }
+
+    /**
+     * Unsubscribes a user actor from a keyword, stopping the KeywordActor of the keyword if it has no subscriber left.
+     * In cluster mode, the relay of the node is unsubscribed from the keyword once no user of the node watches it.
+     */
+    private void unsubscribe(String keyword, ActorRef<UserActor.Update> subscriber) {
+        Set<ActorRef<UserActor.Update>> keywordSubscribers = subscribers.get(keyword);
+        if (keywordSubscribers == null || !keywordSubscribers.remove(subscriber)) {
+            return;
+        }
+        if (sharding != null) {
+            if (keywordSubscribers.isEmpty()) {
+                subscribers.remove(keyword);
+                entity(keyword).tell(new KeywordActor.Unsubscribe(relay));
+            }
+            return;
+        }
+        ActorRef<KeywordActor.Command> keywordActor = keywordActors.get(keyword);
+        if (!keywordSubscribers.isEmpty()) {
+            keywordActor.tell(new KeywordActor.Unsubscribe(subscriber));
+            return;
+        }
+        subscribers.remove(keyword);
+        keywordActors.remove(keyword);
+        searching.remove(keyword);
+        getContext().stop(keywordActor);
+    }
+}
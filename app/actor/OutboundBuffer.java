@@ -0,0 +1,206 @@
+package actor;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Messages of a connection waiting for the client to take them, up to a limit.
+ * <br/>
+ * When the limit is reached, the overflow policy either drops the oldest message, replaces the message already
+ * waiting for the same keyword, or asks for the connection to be closed. A keyword whose message was dropped or is
+ * about to be replaced no longer matches the version the client has, so its next message must be a full snapshot
+ * rather than a delta, see {@link #needsSnapshot(String)}.
+ * <br/>
+ * The buffer is only changed by its user actor; its counters may be read from any thread.
+ *
+ * @author Utsav Patel
+ */
+public class OutboundBuffer {
+
+    /**
+     * What to do with a message when the buffer is full.
+     *
+     * @author Utsav Patel
+     */
+    public enum OverflowPolicy {
+        /** Drop the oldest message waiting. */
+        DROP_OLDEST,
+        /** Keep only the latest message of each keyword, dropping the oldest message when every keyword has one. */
+        COALESCE_LATEST,
+        /** Close the connection. */
+        DISCONNECT;
+
+        /**
+         * Parses a policy from its configuration name, such as "drop-oldest".
+         *
+         * @param name name of the policy
+         * @return the policy
+         * @author Utsav Patel
+         */
+        public static OverflowPolicy parse(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    /**
+     * Limit and overflow policy of the buffer of every connection.
+     *
+     * @author Utsav Patel
+     */
+    public static final class Settings {
+        public static final Settings DEFAULT = new Settings(32, OverflowPolicy.COALESCE_LATEST);
+
+        private final int limit;
+        private final OverflowPolicy policy;
+
+        public Settings(int limit, OverflowPolicy policy) {
+            this.limit = limit;
+            this.policy = policy;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public OverflowPolicy getPolicy() {
+            return policy;
+        }
+    }
+
+    private final Settings settings;
+    private final Deque<Message> pending = new ArrayDeque<>();
+    private final Set<String> stale = new HashSet<>();
+    private volatile int depth;
+    private volatile int maxDepth;
+    private volatile long dropped;
+    private volatile long coalesced;
+    private volatile long skippedRefreshes;
+
+    public OutboundBuffer(Settings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Tells whether the next message of a keyword must be a full snapshot: one of its messages was dropped, or its
+     * waiting message is going to be replaced.
+     *
+     * @param keyword search keyword
+     * @return true if a delta would not apply to the version the client will have
+     * @author Utsav Patel
+     */
+    public boolean needsSnapshot(String keyword) {
+        return stale.contains(keyword)
+                || settings.getPolicy() == OverflowPolicy.COALESCE_LATEST && find(keyword) != null;
+    }
+
+    /**
+     * Adds a message for the client, applying the overflow policy.
+     *
+     * @param keyword  search keyword of the message
+     * @param json     serialized message
+     * @param snapshot whether the message is a full snapshot, which the client can apply whatever its version
+     * @return false if the buffer is full and the policy is to close the connection
+     * @author Utsav Patel
+     */
+    public boolean offer(String keyword, String json, boolean snapshot) {
+        if (settings.getPolicy() == OverflowPolicy.COALESCE_LATEST) {
+            Message waiting = find(keyword);
+            if (waiting != null) {
+                pending.remove(waiting);
+                coalesced++;
+            }
+        }
+        if (pending.size() >= settings.getLimit()) {
+            if (settings.getPolicy() == OverflowPolicy.DISCONNECT) {
+                return false;
+            }
+            Message oldest = pending.poll();
+            if (oldest != null) {
+                stale.add(oldest.keyword);
+                dropped++;
+            }
+        }
+        if (snapshot) {
+            stale.remove(keyword);
+        }
+        pending.add(new Message(keyword, json));
+        updateDepth();
+        return true;
+    }
+
+    /**
+     * Removes the oldest message, to send it to the client.
+     *
+     * @return the serialized message, or null if none is waiting
+     * @author Utsav Patel
+     */
+    public String poll() {
+        Message message = pending.poll();
+        updateDepth();
+        return message == null ? null : message.json;
+    }
+
+    /**
+     * @return true if the buffer holds as many messages as its limit, in which case refreshes should be skipped
+     */
+    public boolean isSaturated() {
+        return pending.size() >= settings.getLimit();
+    }
+
+    /**
+     * Counts a refresh skipped because the buffer was saturated.
+     *
+     * @author Utsav Patel
+     */
+    public void skipRefresh() {
+        skippedRefreshes++;
+    }
+
+    /**
+     * Returns the number of messages waiting, the highest number seen, and the number of messages dropped, replaced
+     * and refreshes skipped.
+     *
+     * @return counters keyed by name
+     * @author Utsav Patel
+     */
+    public Map<String, Number> stats() {
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("depth", depth);
+        stats.put("maxDepth", maxDepth);
+        stats.put("dropped", dropped);
+        stats.put("coalesced", coalesced);
+        stats.put("skippedRefreshes", skippedRefreshes);
+        return stats;
+    }
+
+    private Message find(String keyword) {
+        for (Message message : pending) {
+            if (message.keyword.equals(keyword)) {
+                return message;
+            }
+        }
+        return null;
+    }
+
+    private void updateDepth() {
+        depth = pending.size();
+        if (depth > maxDepth) {
+            maxDepth = depth;
+        }
+    }
+
+    private static final class Message {
+        private final String keyword;
+        private final String json;
+
+        private Message(String keyword, String json) {
+            this.keyword = keyword;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package actor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * When each subscription is due for its next refresh.
+ * <br/>
+ * Every subscription is refreshed once per interval, but at its own phase: the phases of successive subscriptions
+ * follow the golden ratio sequence, which spreads them evenly over the interval however many there are, and each
+ * refresh is moved by a random jitter around its phase. On top of that, no more than a given number of refreshes
+ * start per second; the refreshes over that rate wait for the next call to {@link #due(long)}, oldest first.
+ * <br/>
+ * Times are given in nanoseconds, as returned by {@link System#nanoTime()}. The schedule is not thread safe, it is
+ * owned by the {@link RefreshScheduler}.
+ *
+ * @param <K> type of the subscriptions
+ * @author Utsav Patel
+ */
+public class RefreshSchedule<K> {
+    private static final double GOLDEN_RATIO = (Math.sqrt(5) - 1) / 2;
+
+    /**
+     * Interval between two refreshes of a subscription, jitter around each refresh and maximum number of refreshes
+     * started per second.
+     *
+     * @author Utsav Patel
+     */
+    public static final class Settings {
+        public static final Settings DEFAULT = new Settings(Duration.ofSeconds(45), Duration.ofSeconds(5), 20);
+
+        private final Duration interval;
+        private final Duration jitter;
+        private final int maxPerSecond;
+
+        public Settings(Duration interval, Duration jitter, int maxPerSecond) {
+            this.interval = interval;
+            this.jitter = jitter;
+            this.maxPerSecond = maxPerSecond;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public Duration getJitter() {
+            return jitter;
+        }
+
+        public int getMaxPerSecond() {
+            return maxPerSecond;
+        }
+    }
+
+    private final long interval;
+    private final long jitter;
+    private final int maxPerSecond;
+    private final PriorityQueue<Entry<K>> queue = new PriorityQueue<>(Comparator.comparingLong(entry -> entry.due));
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+    private long added;
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * Creates an empty schedule.
+     *
+     * @param settings interval, jitter and rate of the refreshes
+     * @param now      current time
+     * @author Utsav Patel
+     */
+    public RefreshSchedule(Settings settings, long now) {
+        this.interval = settings.getInterval().toNanos();
+        this.jitter = Math.min(settings.getJitter().toNanos(), interval / 2);
+        this.maxPerSecond = Math.max(1, settings.getMaxPerSecond());
+        this.tokens = maxPerSecond;
+        this.refilledAt = now;
+    }
+
+    /**
+     * Adds a subscription, its first refresh being due within one interval. Adding a subscription already scheduled
+     * keeps its phase.
+     *
+     * @param key subscription
+     * @param now current time
+     * @author Utsav Patel
+     */
+    public void add(K key, long now) {
+        if (entries.containsKey(key)) {
+            return;
+        }
+        double phase = (added++ * GOLDEN_RATIO) % 1;
+        Entry<K> entry = new Entry<>(key, now + Math.round(interval * (1 - phase)));
+        entry.due = entry.slot + jitter();
+        entries.put(key, entry);
+        queue.add(entry);
+    }
+
+    /**
+     * Removes a subscription.
+     *
+     * @param key subscription
+     * @author Utsav Patel
+     */
+    public void remove(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry != null) {
+            queue.remove(entry);
+        }
+    }
+
+    /**
+     * Returns the subscriptions to refresh now, within the rate limit, and schedules their next refresh one interval
+     * after their phase.
+     *
+     * @param now current time
+     * @return the subscriptions to refresh, the longest due first
+     * @author Utsav Patel
+     */
+    public List<K> due(long now) {
+        tokens = Math.min(maxPerSecond, tokens + (now - refilledAt) / 1e9 * maxPerSecond);
+        refilledAt = now;
+        List<K> due = new ArrayList<>();
+        while (tokens >= 1 && !queue.isEmpty() && queue.peek().due <= now) {
+            Entry<K> entry = queue.poll();
+            due.add(entry.key);
+            tokens--;
+            do {
+                entry.slot += interval;
+            } while (entry.slot <= now);
+            entry.due = entry.slot + jitter();
+            queue.add(entry);
+        }
+        return due;
+    }
+
+    /**
+     * @param key subscription
+     * @return true if the subscription is scheduled
+     */
+    public boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * @return the number of subscriptions scheduled
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private long jitter() {
+        return jitter == 0 ? 0 : ThreadLocalRandom.current().nextLong(-jitter, jitter + 1);
+    }
+
+    private static final class Entry<K> {
+        private final K key;
+        private long slot;
+        private long due;
+
+        private Entry(K key, long slot) {
+            this.key = key;
+            this.slot = slot;
+        }
+    }
+}
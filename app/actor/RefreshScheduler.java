@@ -0,0 +1,120 @@
+package actor;
+
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.Behavior;
+import akka.actor.typed.javadsl.AbstractBehavior;
+import akka.actor.typed.javadsl.ActorContext;
+import akka.actor.typed.javadsl.Behaviors;
+import akka.actor.typed.javadsl.Receive;
+
+import java.time.Duration;
+
+/**
+ * RefreshScheduler tells the keyword actors when to refresh their keyword.
+ * <br/>
+ * Functionality:
+ * - Keeps a {@link RefreshSchedule} of every {@link KeywordActor}
+ * - Checks it every 100 milliseconds and sends a {@link KeywordActor.Refresh} to each keyword actor due
+ * - Forgets a keyword actor once it stops
+ * <br/>
+ * The refreshes are spread over the interval and capped per second, so the YouTube API gets a flat request rate
+ * instead of a burst of every keyword at once.
+ *
+ * @author Utsav Patel
+ */
+public class RefreshScheduler extends AbstractBehavior<RefreshScheduler.Command> {
+    public static final Duration TICK = Duration.ofMillis(100);
+
+    private final RefreshSchedule<ActorRef<KeywordActor.Command>> schedule;
+
+    /**
+     * Messages understood by the RefreshScheduler.
+     *
+     * @author Utsav Patel
+     */
+    public sealed interface Command {
+    }
+
+    /**
+     * Message sent by a keyword actor to have its keyword refreshed.
+     *
+     * @author Utsav Patel
+     */
+    public static final class Subscribe implements Command {
+        private final ActorRef<KeywordActor.Command> subscriber;
+
+        public Subscribe(ActorRef<KeywordActor.Command> subscriber) {
+            this.subscriber = subscriber;
+        }
+    }
+
+    /**
+     * Internal message class used for timer ticks.
+     *
+     * @author Utsav Patel
+     */
+    private enum Tick implements Command {
+        INSTANCE
+    }
+
+    /**
+     * Message received when a keyword actor stops.
+     *
+     * @author Utsav Patel
+     */
+    private static final class SubscriberStopped implements Command {
+        private final ActorRef<KeywordActor.Command> subscriber;
+
+        SubscriberStopped(ActorRef<KeywordActor.Command> subscriber) {
+            this.subscriber = subscriber;
+        }
+    }
+
+    private RefreshScheduler(ActorContext<Command> context, RefreshSchedule.Settings settings) {
+        super(context);
+        this.schedule = new RefreshSchedule<>(settings, System.nanoTime());
+    }
+
+    /**
+     * Creates the behavior of the RefreshScheduler.
+     *
+     * @param settings interval, jitter and rate of the refreshes
+     * @return Behavior of the RefreshScheduler
+     * @author Utsav Patel
+     */
+    public static Behavior<Command> create(RefreshSchedule.Settings settings) {
+        return Behaviors.setup(context -> Behaviors.<Command>withTimers(timers -> {
+            timers.startTimerAtFixedRate(Tick.INSTANCE, TICK);
+            return new RefreshScheduler(context, settings);
+        }));
+    }
+
+    /**
+     * Defines the behavior of the RefreshScheduler.
+     *
+     * @return Receive instance defining message handling logic
+     * @author Utsav Patel
+     */
+    @Override
+    public Receive<Command> createReceive() {
+        return newReceiveBuilder()
+                .onMessage(Subscribe.class, subscribe -> {
+                    if (!schedule.contains(subscribe.subscriber)) {
+                        schedule.add(subscribe.subscriber, System.nanoTime());
+                        getContext().watchWith(subscribe.subscriber, new SubscriberStopped(subscribe.subscriber));
+                    }
+                    return this;
+                })
+                .onMessage(SubscriberStopped.class, stopped -> {
+                    schedule.remove(stopped.subscriber);
+                    return this;
+                })
+                .onMessageEquals(Tick.INSTANCE, () -> {
+                    for (ActorRef<KeywordActor.Command> subscriber : schedule.due(System.nanoTime())) {
+                        subscriber.tell(KeywordActor.Refresh.INSTANCE);
+                    }
+                    return this;
+                })
+                .build();
+    }
+}
@@ -0,0 +1,228 @@
+package actor;
+
+import akka.NotUsed;
+import akka.stream.OverflowStrategy;
+import akka.stream.javadsl.Flow;
+import model.Response;
+import model.Video;
+import services.SearchCache;
+import services.YouTubeClient;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Search, hydrate and analyze stages of the searches and refreshes of the watched keywords, as an Akka Streams flow.
+ * <br/>
+ * Every stage runs at most a configured number of calls at once and hands its output over through a bounded buffer,
+ * so the keywords do not all start their searches at the same time, and the flow stops pulling new requests when
+ * its consumer does not keep up. A failed request is emitted as a failed {@link Result} instead of failing the flow.
+ *
+ * @author Utsav Patel
+ */
+public final class SearchPipeline {
+
+    private SearchPipeline() {
+    }
+
+    /**
+     * Parallelism of each stage and size of the buffers between them.
+     *
+     * @author Utsav Patel
+     */
+    public static final class Settings {
+        public static final Settings DEFAULT = new Settings(4, 4, 4, 16);
+
+        private final int searchParallelism;
+        private final int hydrateParallelism;
+        private final int analyzeParallelism;
+        private final int bufferSize;
+
+        public Settings(int searchParallelism, int hydrateParallelism, int analyzeParallelism, int bufferSize) {
+            this.searchParallelism = searchParallelism;
+            this.hydrateParallelism = hydrateParallelism;
+            this.analyzeParallelism = analyzeParallelism;
+            this.bufferSize = bufferSize;
+        }
+
+        public int getSearchParallelism() {
+            return searchParallelism;
+        }
+
+        public int getHydrateParallelism() {
+            return hydrateParallelism;
+        }
+
+        public int getAnalyzeParallelism() {
+            return analyzeParallelism;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+    }
+
+    /**
+     * Search of the latest videos of a keyword, or of the videos published since a refresh.
+     *
+     * @author Utsav Patel
+     */
+    public static final class Request {
+        private final String keyword;
+        private final boolean fromKeyword;
+        private final String publishedAfter;
+        private final Set<String> knownIds;
+
+        private Request(String keyword, boolean fromKeyword, String publishedAfter, Set<String> knownIds) {
+            this.keyword = keyword;
+            this.fromKeyword = fromKeyword;
+            this.publishedAfter = publishedAfter;
+            this.knownIds = knownIds;
+        }
+
+        /**
+         * Creates the search of the latest videos of a keyword, going through the search cache.
+         *
+         * @param keyword     search keyword
+         * @param fromKeyword whether the search was typed by the user, rather than a refresh
+         * @return the request
+         * @author Utsav Patel
+         */
+        public static Request latest(String keyword, boolean fromKeyword) {
+            return new Request(keyword, fromKeyword, null, Set.of());
+        }
+
+        /**
+         * Creates the search of the videos published since the newest video already known. The publishedAfter
+         * filter is inclusive, so the videos already known are skipped.
+         *
+         * @param keyword        search keyword
+         * @param publishedAfter publication time of the newest known video
+         * @param knownIds       ids of the videos already known
+         * @return the request
+         * @author Utsav Patel
+         */
+        public static Request publishedAfter(String keyword, String publishedAfter, Set<String> knownIds) {
+            return new Request(keyword, false, publishedAfter, knownIds);
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+
+        public boolean isIncremental() {
+            return publishedAfter != null;
+        }
+    }
+
+    /**
+     * Analysed videos of a request, or the failure to get them.
+     *
+     * @author Utsav Patel
+     */
+    public static final class Result {
+        private final Request request;
+        private final Response response;
+        private final boolean hydrated;
+        private final Throwable failure;
+
+        private Result(Request request, Response response, boolean hydrated, Throwable failure) {
+            this.request = request;
+            this.response = response;
+            this.hydrated = hydrated;
+            this.failure = failure;
+        }
+
+        public Request getRequest() {
+            return request;
+        }
+
+        /**
+         * @return the analysed videos, or null when the request failed or a refresh found no new video
+         */
+        public Response getResponse() {
+            return response;
+        }
+
+        public Throwable getFailure() {
+            return failure;
+        }
+
+        private boolean hasVideos() {
+            return failure == null && response != null;
+        }
+    }
+
+    /**
+     * Creates the flow: search, then hydrate the videos found by a refresh, then analyze, each stage running its
+     * calls as they complete rather than in request order.
+     *
+     * @param youTubeClient  client used for the YouTube Data API calls
+     * @param searchCache    search cache, holding hydrated results
+     * @param analyticsStage analytics stage
+     * @param settings       parallelism of each stage and size of the buffers between them
+     * @return the flow from requests to results
+     * @author Utsav Patel
+     */
+    public static Flow<Request, Result, NotUsed> create(YouTubeClient youTubeClient, SearchCache searchCache, AnalyticsStage analyticsStage, Settings settings) {
+        return Flow.<Request>create()
+                .mapAsyncUnordered(settings.getSearchParallelism(), request -> attempt(request, () -> search(youTubeClient, searchCache, request)))
+                .buffer(settings.getBufferSize(), OverflowStrategy.backpressure())
+                .mapAsyncUnordered(settings.getHydrateParallelism(), result -> !result.hasVideos() || result.hydrated
+                        ? CompletableFuture.completedFuture(result)
+                        : attempt(result.request, () -> youTubeClient.fetchDescriptions(result.response.getVideos())
+                        .thenApply(ignored -> new Result(result.request, result.response, true, null))))
+                .buffer(settings.getBufferSize(), OverflowStrategy.backpressure())
+                .mapAsyncUnordered(settings.getAnalyzeParallelism(), result -> !result.hasVideos()
+                        ? CompletableFuture.completedFuture(result)
+                        : attempt(result.request, () -> analyticsStage.analyze(result.response)
+                        .thenApply(response -> new Result(result.request, response, true, null))));
+    }
+
+    /**
+     * Searches the latest videos through the search cache, whose entries are hydrated already, or the videos
+     * published since a refresh, which are left to the hydrate stage.
+     */
+    private static CompletionStage<Result> search(YouTubeClient youTubeClient, SearchCache searchCache, Request request) {
+        if (!request.isIncremental()) {
+            return searchCache.get(request.keyword, keyword -> youTubeClient.searchVideos(keyword, null)
+                            .thenCompose(videos -> youTubeClient.fetchDescriptions(videos)
+                                    .thenApply(ignored -> response(keyword, videos))))
+                    .thenApply(response -> {
+                        response.setFromKeyword(request.fromKeyword);
+                        return new Result(request, response, true, null);
+                    });
+        }
+        return youTubeClient.searchVideos(request.keyword, request.publishedAfter)
+                .thenApply(videos -> {
+                    List<Video> newVideos = videos.stream()
+                            .filter(video -> !request.knownIds.contains(video.getVideoId()))
+                            .collect(Collectors.toList());
+                    return new Result(request, newVideos.isEmpty() ? null : response(request.keyword, newVideos), false, null);
+                });
+    }
+
+    private static Response response(String keyword, List<Video> videos) {
+        Response response = new Response();
+        response.setQuery(keyword);
+        response.setVideos(videos);
+        return response;
+    }
+
+    /**
+     * Runs a step of a request, turning its failure, thrown or completed with, into a failed result.
+     */
+    private static CompletionStage<Result> attempt(Request request, Supplier<CompletionStage<Result>> step) {
+        CompletionStage<Result> result;
+        try {
+            result = step.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.handle((value, failure) -> failure == null ? value : new Result(request, null, true, failure));
+    }
+}
@@ -1,57 +1,169 @@
 package actor;
 
-import akka.actor.*;
-import akka.japi.pf.DeciderBuilder;
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.Behavior;
+import akka.actor.typed.SupervisorStrategy;
+import akka.actor.typed.javadsl.AbstractBehavior;
+import akka.actor.typed.javadsl.ActorContext;
+import akka.actor.typed.javadsl.Behaviors;
+import akka.actor.typed.javadsl.Receive;
 import play.libs.ws.WSClient;
-import scala.concurrent.duration.Duration;
+import services.SearchCache;
+import services.WordStatsStore;
+import services.YouTubeClient;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
 
 /**
  * SupervisorActor manages user-specific actors for WebSocket connections.
- * It monitors the lifecycle of user actors, handles new connections, disconnections,
- * and forwards messages appropriately. It also defines a supervisor strategy for error handling.
+ * It spawns a user actor for every new connection and hands its reference back to the connection, stops it when the
+ * connection terminates, and spawns the {@link KeywordRegistry} which searches and refreshes each keyword watched by
+ * the user actors once, whichever number of them watch it. Failing user actors are stopped on a NullPointerException and
+ * restarted on any other exception, at most 10 times in 40 seconds.
+ * In cluster mode the keywords are sharded across the nodes, see {@link KeywordRegistry}.
  *
  * @author Utsav Patel
  */
-public class SupervisorActor extends AbstractActor {
-    private final WSClient ws;
-    private final String API_KEY;
-    public Map<ActorRef, ActorRef> userActors = new ConcurrentHashMap<>();
+public class SupervisorActor extends AbstractBehavior<SupervisorActor.Command> {
+    private final OutboundBuffer.Settings outboundSettings;
+    private final ConnectionMetrics connectionMetrics;
+    private final ActorRef<KeywordRegistry.Command> keywordRegistry;
+    private final Map<ActorRef<Connected>, ActorRef<UserActor.Command>> userActors = new HashMap<>();
 
     /**
-     * Constructor for SupervisorActor.
+     * Messages understood by the SupervisorActor.
      *
-     * @param wsClient WSClient for making HTTP requests
-     * @param apiKey   API key for external services
      * @author Utsav Patel
      */
-    public SupervisorActor(WSClient wsClient, String apiKey) {
-        this.ws = wsClient;
-        this.API_KEY = apiKey;
+    public sealed interface Command {
     }
 
     /**
-     * Creates Props for the SupervisorActor.
+     * Message sent by a WebSocket connection to get its user actor.
+     *
+     * @author Utsav Patel
+     */
+    public static final class Connect implements Command {
+        private final ActorRef<Connected> connection;
+        private final akka.actor.ActorRef out;
+
+        public Connect(ActorRef<Connected> connection, akka.actor.ActorRef out) {
+            this.connection = connection;
+            this.out = out;
+        }
+
+        public ActorRef<Connected> getConnection() {
+            return connection;
+        }
+
+        public akka.actor.ActorRef getOut() {
+            return out;
+        }
+    }
+
+    /**
+     * Reply to a {@link Connect} message with the user actor of the connection.
+     *
+     * @author Utsav Patel
+     */
+    public static final class Connected {
+        private final ActorRef<UserActor.Command> userActor;
+
+        public Connected(ActorRef<UserActor.Command> userActor) {
+            this.userActor = userActor;
+        }
+
+        public ActorRef<UserActor.Command> getUserActor() {
+            return userActor;
+        }
+    }
+
+    /**
+     * Message received when a connection terminates.
+     *
+     * @author Utsav Patel
+     */
+    private static final class Disconnected implements Command {
+        private final ActorRef<Connected> connection;
+
+        Disconnected(ActorRef<Connected> connection) {
+            this.connection = connection;
+        }
+    }
+
+    private SupervisorActor(ActorContext<Command> context, YouTubeClient youTubeClient, SearchCache searchCache, AnalyticsStage analyticsStage, WordStatsStore wordStatsStore, SearchPipeline.Settings settings, OutboundBuffer.Settings outboundSettings, ConnectionMetrics connectionMetrics, RefreshSchedule.Settings refreshSettings, boolean sharded) {
+        super(context);
+        this.outboundSettings = outboundSettings;
+        this.connectionMetrics = connectionMetrics;
+        this.keywordRegistry = context.spawn(KeywordRegistry.create(youTubeClient, searchCache, analyticsStage, wordStatsStore, settings, refreshSettings, sharded), "keywords");
+    }
+
+    /**
+     * Creates the behavior of the SupervisorActor.
      *
      * @param wsClient WSClient for making HTTP requests
      * @param apiKey   API key for external services
-     * @return Props instance for SupervisorActor
+     * @return Behavior of the SupervisorActor
+     * @author Utsav Patel
+     */
+    public static Behavior<Command> create(WSClient wsClient, String apiKey) {
+        return create(new YouTubeClient(wsClient, apiKey), new SearchCache(), new AnalyticsStage(), new WordStatsStore());
+    }
+
+    /**
+     * Creates the behavior of the SupervisorActor with a shared YouTube client, search cache, analytics stage and
+     * word statistics.
+     *
+     * @param youTubeClient  YouTube client shared by every user actor
+     * @param searchCache    search cache shared by every user actor
+     * @param analyticsStage analytics stage shared by every user actor
+     * @param wordStatsStore word statistics shared by every user actor
+     * @return Behavior of the SupervisorActor
+     * @author Utsav Patel
+     */
+    public static Behavior<Command> create(YouTubeClient youTubeClient, SearchCache searchCache, AnalyticsStage analyticsStage, WordStatsStore wordStatsStore) {
+        return create(youTubeClient, searchCache, analyticsStage, wordStatsStore, SearchPipeline.Settings.DEFAULT, OutboundBuffer.Settings.DEFAULT, new ConnectionMetrics(), RefreshSchedule.Settings.DEFAULT);
+    }
+
+    /**
+     * Creates the behavior of the SupervisorActor with a shared YouTube client, search cache, analytics stage and
+     * word statistics, the search pipeline, refreshes and outbound buffers having the given settings.
+     *
+     * @param youTubeClient     YouTube client shared by every keyword
+     * @param searchCache       search cache shared by every keyword
+     * @param analyticsStage    analytics stage shared by every keyword
+     * @param wordStatsStore    word statistics shared by every keyword
+     * @param settings          parallelism and buffer size of the search pipeline of the keywords
+     * @param outboundSettings  limit and overflow policy of the outbound buffer of every user actor
+     * @param connectionMetrics registry of the outbound buffers of every user actor
+     * @param refreshSettings   interval, jitter and rate of the refreshes of the keywords
+     * @return Behavior of the SupervisorActor
      * @author Utsav Patel
      */
-    public static Props props(WSClient wsClient, String apiKey) {
-        return Props.create(SupervisorActor.class, () -> new SupervisorActor(wsClient, apiKey));
+    public static Behavior<Command> create(YouTubeClient youTubeClient, SearchCache searchCache, AnalyticsStage analyticsStage, WordStatsStore wordStatsStore, SearchPipeline.Settings settings, OutboundBuffer.Settings outboundSettings, ConnectionMetrics connectionMetrics, RefreshSchedule.Settings refreshSettings) {
+        return create(youTubeClient, searchCache, analyticsStage, wordStatsStore, settings, outboundSettings, connectionMetrics, refreshSettings, false);
     }
 
     /**
-     * Message to notify client actors.
+     * Creates the behavior of the SupervisorActor, the keywords being searched and refreshed either on this node or
+     * by the node of the cluster owning each of them.
      *
+     * @param youTubeClient     YouTube client of this node
+     * @param searchCache       search cache of this node
+     * @param analyticsStage    analytics stage of this node
+     * @param wordStatsStore    word statistics of this node
+     * @param settings          parallelism and buffer size of the search pipeline of this node
+     * @param outboundSettings  limit and overflow policy of the outbound buffer of every user actor
+     * @param connectionMetrics registry of the outbound buffers of every user actor
+     * @param refreshSettings   interval, jitter and rate of the refreshes of the keywords
+     * @param sharded           whether the keywords are sharded across the cluster
+     * @return Behavior of the SupervisorActor
      * @author Utsav Patel
      */
-    public static final class NotifyClient {
+    public static Behavior<Command> create(YouTubeClient youTubeClient, SearchCache searchCache, AnalyticsStage analyticsStage, WordStatsStore wordStatsStore, SearchPipeline.Settings settings, OutboundBuffer.Settings outboundSettings, ConnectionMetrics connectionMetrics, RefreshSchedule.Settings refreshSettings, boolean sharded) {
+        return Behaviors.setup(context -> new SupervisorActor(context, youTubeClient, searchCache, analyticsStage, wordStatsStore, settings, outboundSettings, connectionMetrics, refreshSettings, sharded));
     }
 
     /**
@@ -61,61 +173,41 @@ public class SupervisorActor extends AbstractActor {
      * @author Utsav Patel
      */
     @Override
-    public Receive createReceive() {
-        return receiveBuilder()
-                .match(WebSocketActor.NewConnection.class, newConnection -> {
-                    ActorRef userActor = getContext().actorOf(UserActor.props(getSender(), this.ws, this.API_KEY), "user-" + newConnection.getActorRef().path().name());
-                    userActors.put(newConnection.getActorRef(), userActor);
-                    getContext().watch(newConnection.getActorRef());
-                })
-                .match(WebSocketActor.Disconnected.class, disconnected -> {
-                    ActorRef userActor = userActors.remove(disconnected.getActorRef());
+    public Receive<Command> createReceive() {
+        return newReceiveBuilder()
+                .onMessage(Connect.class, this::onConnect)
+                .onMessage(Disconnected.class, disconnected -> {
+                    ActorRef<UserActor.Command> userActor = userActors.remove(disconnected.connection);
                     if (userActor != null) {
                         getContext().stop(userActor);
                     }
-                })
-                .match(NotifyClient.class, notifyClient -> {
-                    Set<ActorRef> actorRefs = userActors.keySet();
-                    for (ActorRef actorRef : actorRefs) {
-                        userActors.get(actorRef).tell(notifyClient, getSelf());
-                    }
-                })
-                .matchAny(message -> {
-                    if (message instanceof String) {
-                        ActorRef userActor = userActors.get(getSender());
-                        if (userActor != null) {
-                            userActor.forward(message, getContext());
-                        }
-                    }
-                })
-                .match(Terminated.class, t -> {
-                    userActors.entrySet().removeIf(entry -> entry.getKey().equals(t.getActor()));
+                    return this;
                 })
                 .build();
     }
 
+    private Behavior<Command> onConnect(Connect connect) {
+        ActorRef<UserActor.Command> userActor = userActors.get(connect.connection);
+        if (userActor == null) {
+            userActor = getContext().spawn(supervised(UserActor.create(connect.out, outboundSettings, connectionMetrics, keywordRegistry)),
+                    "user-" + connect.connection.path().name());
+            userActors.put(connect.connection, userActor);
+            getContext().watchWith(connect.connection, new Disconnected(connect.connection));
+        }
+        connect.connection.tell(new Connected(userActor));
+        return this;
+    }
+
     /**
-     * Defines the supervisor strategy for handling child actor failures.
+     * Wraps a user actor in the supervisor strategy for handling its failures.
      *
-     * @return SupervisorStrategy instance
+     * @param behavior behavior of the user actor
+     * @return the supervised behavior
      * @author Utsav Patel
      */
-    @Override
-    public SupervisorStrategy supervisorStrategy() {
-        return new OneForOneStrategy(
-                10,
-                Duration.create(40, TimeUnit.SECONDS),
-                DeciderBuilder
-                        .match(NullPointerException.class, e -> {
-                            System.out.println("NullPointerException: " + e.getMessage());
-                            return SupervisorStrategy.stop();
-                        })
-                        .match(Exception.class, e -> {
-                            System.out.println("Exception: " + e.getMessage());
-                            return SupervisorStrategy.restart();
-                        })
-                        .matchAny(o -> SupervisorStrategy.escalate())
-                        .build()
-        );
+    static Behavior<UserActor.Command> supervised(Behavior<UserActor.Command> behavior) {
+        return Behaviors.supervise(Behaviors.supervise(behavior)
+                        .onFailure(NullPointerException.class, SupervisorStrategy.stop()))
+                .onFailure(Exception.class, SupervisorStrategy.restart().withLimit(10, Duration.ofSeconds(40)));
     }
 }
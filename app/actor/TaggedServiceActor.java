@@ -1,17 +1,11 @@
 package actor;
 import akka.actor.AbstractActor;
-import akka.actor.ActorRef;
 import akka.actor.Props;
-import com.fasterxml.jackson.databind.JsonNode;
 import model.Response;
-import model.Video;
 import play.libs.Json;
 import play.libs.ws.WSClient;
-import play.libs.ws.WSRequest;
-import play.libs.ws.WSResponse;
+import services.YouTubeClient;
 
-import java.util.concurrent.CompletionStage;
-import java.util.stream.StreamSupport;
 
 
 /**
@@ -24,21 +18,18 @@ import java.util.stream.StreamSupport;
 
 public class TaggedServiceActor  extends  AbstractActor {
 
-    private final WSClient wsClient;
-    private final String apiKey;
-    private final String youtubeUrl = "https://www.googleapis.com/youtube/v3/search";
+    private final YouTubeClient youTubeClient;
+    private final InFlightRequests<String> inFlight = new InFlightRequests<>();
 
     /**
-     * Constructs a TaggedServiceActor with the specified WSClient and API key.
+     * Constructs a TaggedServiceActor with the specified YouTube client.
      *
-     * @param wsClient the Play WSClient used for making HTTP requests
-     * @param apiKey   the YouTube API key used for authentication
+     * @param youTubeClient the client used for the YouTube Data API calls
      * @author Yash Ajmeri
      */
 
-    public TaggedServiceActor(WSClient wsClient, String apiKey) {
-        this.wsClient = wsClient;
-        this.apiKey = apiKey;
+    public TaggedServiceActor(YouTubeClient youTubeClient) {
+        this.youTubeClient = youTubeClient;
     }
     /**
      * Factory method to create Props for this actor.
@@ -50,7 +41,18 @@ public class TaggedServiceActor  extends  AbstractActor {
      */
 
     public static Props props(WSClient wsClient, String apiKey) {
-        return Props.create(TaggedServiceActor.class, () -> new TaggedServiceActor( wsClient, apiKey));
+        return props(new YouTubeClient(wsClient, apiKey));
+    }
+    /**
+     * Factory method to create Props for this actor, calling the API through the given client.
+     *
+     * @param youTubeClient the client used for the YouTube Data API calls
+     * @return a Props instance for creating the actor
+     * @author Yash Ajmeri
+     */
+
+    public static Props props(YouTubeClient youTubeClient) {
+        return Props.create(TaggedServiceActor.class, () -> new TaggedServiceActor(youTubeClient));
     }
     /**
      * Defines the behavior of this actor.
@@ -63,52 +65,39 @@ public class TaggedServiceActor  extends  AbstractActor {
     public Receive createReceive() {
         return  receiveBuilder()
                 .match(String.class, this::onSearchByTag)
+                .match(InFlightRequests.Completed.class, this::onSearched)
                 .build();
     }
     /**
      * Handles a search request by tag.
      * Sends a query to the YouTube API, processes the response, and sends back a {@link Response}.
+     * If the same tag is already being searched, the sender waits for that search instead of starting a new one.
      *
      * @param tag the search query (tag) for finding videos
      * @author Yash Ajmeri
      */
     public void onSearchByTag(String tag) {
-        ActorRef originalSender = sender();
-        WSRequest request = wsClient.url(youtubeUrl)
-                .addQueryParameter("part", "snippet")
-                .addQueryParameter("q", tag)
-                .addQueryParameter("type", "video")
-                .addQueryParameter("maxResults", "50")
-                .addQueryParameter("order", "date")
-                .addQueryParameter("key", apiKey);
-
-        CompletionStage<Response> responseStage = request.get()
-                .thenApply(WSResponse::asJson)
-                .thenApply(json -> {
-                    Iterable<JsonNode> items = json.get("items");
-                    return StreamSupport.stream(items.spliterator(), false)
-                            .map(item -> {
-                                String videoId = item.get("id").get("videoId").asText();
-                                String title = item.get("snippet").get("title").asText();
-                                String description = item.get("snippet").get("description").asText();
-                                String imageUrl = item.get("snippet").get("thumbnails").get("high").get("url").asText();
-                                String channelId = item.get("snippet").get("channelId").asText();
-                                String channelTitle = item.get("snippet").get("channelTitle").asText();
-                                return new Video(videoId, title, description, imageUrl, channelId, channelTitle);
-                            });
-                })
-                .thenApply(videoStream -> {
+        if (!inFlight.register(tag, sender())) {
+            return;
+        }
+        // Send back the response, or the error message, to every sender waiting for this tag
+        inFlight.start(tag, () -> youTubeClient.searchVideos(tag, null)
+                .thenApply(videos -> {
                     Response response = new Response();
                     response.setQuery(tag);
-                    response.setVideos(videoStream.toList());
+                    response.setVideos(videos);
                     return response;
-                });
-        responseStage.thenAccept(response -> originalSender.tell(response, self()))
-                .exceptionally(ex -> {
-                    // Handle errors and send back an error message or null
-                    originalSender.tell(ex.getMessage(), self());
-                    return null;
-                });
+                }), self());
+    }
 
+    /**
+     * Replies to every sender waiting for the completed tag search.
+     *
+     * @param completed the search response or error message
+     * @author Yash Ajmeri
+     */
+    private void onSearched(InFlightRequests.Completed completed) {
+        inFlight.complete((String) completed.key)
+                .forEach(sender -> sender.tell(completed.result, self()));
     }
 }
@@ -0,0 +1,71 @@
+package actor;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.Props;
+import services.TrendingWords;
+
+/**
+ * TrendingSubscriberActor streams the trending topic to one WebSocket client of the trending dashboard.
+ * <br/>
+ * Functionality:
+ * - Sends the current trending words as soon as the client connects
+ * - Subscribes to the trending topic and forwards every publication of the {@link TrendingWordsActor}
+ * - Unsubscribes when the client disconnects
+ *
+ * @author Karan Tanakhia
+ */
+public class TrendingSubscriberActor extends AbstractActor {
+    private final ActorRef out;
+    private final TrendingWords trendingWords;
+
+    /**
+     * Constructor for TrendingSubscriberActor.
+     *
+     * @param out           the actor reference of the WebSocket
+     * @param trendingWords trending words sent on connection
+     * @author Karan Tanakhia
+     */
+    public TrendingSubscriberActor(ActorRef out, TrendingWords trendingWords) {
+        this.out = out;
+        this.trendingWords = trendingWords;
+    }
+
+    /**
+     * Creates Props for the TrendingSubscriberActor.
+     *
+     * @param out           the actor reference of the WebSocket
+     * @param trendingWords trending words sent on connection
+     * @return Props instance for TrendingSubscriberActor
+     * @author Karan Tanakhia
+     */
+    public static Props props(ActorRef out, TrendingWords trendingWords) {
+        return Props.create(TrendingSubscriberActor.class, () -> new TrendingSubscriberActor(out, trendingWords));
+    }
+
+    @Override
+    public void preStart() {
+        getContext().getSystem().getEventStream().subscribe(getSelf(), TrendingWordsActor.Published.class);
+        out.tell(UserActor.serialize(trendingWords.snapshot()), getSelf());
+    }
+
+    @Override
+    public void postStop() {
+        getContext().getSystem().getEventStream().unsubscribe(getSelf());
+    }
+
+    /**
+     * Defines the behavior of the TrendingSubscriberActor. Messages from the client are ignored.
+     *
+     * @return Receive instance defining message handling logic
+     * @author Karan Tanakhia
+     */
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(TrendingWordsActor.Published.class, published -> out.tell(published.getJson(), getSelf()))
+                .match(String.class, message -> {
+                })
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package actor;
+
+import akka.actor.AbstractActorWithTimers;
+import akka.actor.Props;
+import services.TrendingWords;
+
+import java.time.Duration;
+
+/**
+ * TrendingWordsActor publishes the words trending across every watched keyword on the trending topic.
+ * <br/>
+ * Functionality:
+ * - Takes a snapshot of the {@link TrendingWords} at a fixed interval
+ * - Serializes it once and publishes it on the event stream, to every {@link TrendingSubscriberActor}
+ *
+ * @author Karan Tanakhia
+ */
+public class TrendingWordsActor extends AbstractActorWithTimers {
+    private final TrendingWords trendingWords;
+    private final Duration interval;
+
+    /**
+     * Message published on the event stream with the serialized trending words.
+     *
+     * @author Karan Tanakhia
+     */
+    public static final class Published {
+        private final String json;
+
+        public Published(String json) {
+            this.json = json;
+        }
+
+        public String getJson() {
+            return json;
+        }
+    }
+
+    /**
+     * Internal message class used for timer ticks.
+     *
+     * @author Karan Tanakhia
+     */
+    private static final class Tick {
+    }
+
+    /**
+     * Constructor for TrendingWordsActor.
+     *
+     * @param trendingWords trending words to publish
+     * @param interval      interval between two publications
+     * @author Karan Tanakhia
+     */
+    public TrendingWordsActor(TrendingWords trendingWords, Duration interval) {
+        this.trendingWords = trendingWords;
+        this.interval = interval;
+    }
+
+    /**
+     * Creates Props for the TrendingWordsActor.
+     *
+     * @param trendingWords trending words to publish
+     * @param interval      interval between two publications
+     * @return Props instance for TrendingWordsActor
+     * @author Karan Tanakhia
+     */
+    public static Props props(TrendingWords trendingWords, Duration interval) {
+        return Props.create(TrendingWordsActor.class, () -> new TrendingWordsActor(trendingWords, interval));
+    }
+
+    /**
+     * Starts the periodic timer publishing the trending words.
+     *
+     * @author Karan Tanakhia
+     */
+    @Override
+    public void preStart() {
+        getTimers().startTimerAtFixedRate("Publish", new Tick(), interval);
+    }
+
+    /**
+     * Defines the behavior of the TrendingWordsActor.
+     *
+     * @return Receive instance defining message handling logic
+     * @author Karan Tanakhia
+     */
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(Tick.class, tick -> getContext().getSystem().getEventStream()
+                        .publish(new Published(UserActor.serialize(trendingWords.snapshot()))))
+                .build();
+    }
+}
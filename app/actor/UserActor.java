@@ -1,73 +1,199 @@
 package actor;
 
-import akka.actor.AbstractActor;
+import akka.NotUsed;
 import akka.actor.ActorRef;
-import akka.actor.ActorSelection;
-import akka.actor.Props;
+import akka.actor.Status;
+import akka.actor.typed.Behavior;
+import akka.actor.typed.PostStop;
+import akka.actor.typed.javadsl.AbstractBehavior;
+import akka.actor.typed.javadsl.ActorContext;
+import akka.actor.typed.javadsl.Adapter;
+import akka.actor.typed.javadsl.Behaviors;
+import akka.actor.typed.javadsl.Receive;
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import model.Response;
-import model.Video;
 import play.libs.ws.WSClient;
-import play.libs.ws.WSRequest;
-import play.libs.ws.WSResponse;
-import scala.jdk.javaapi.FutureConverters;
+import services.SearchCache;
+import services.WordStatsStore;
+import services.YouTubeClient;
 
-import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionStage;
-import java.util.stream.StreamSupport;
-
-import static akka.pattern.Patterns.ask;
+import java.util.Map;
 
 /**
- * UserActor handles requests for YouTube video searches, sentiment analysis, and score calculations.
+ * UserActor handles the search history of a WebSocket client and sends it the results of its keywords.
  * <br/>
  * Functionality:
  * - Manages user search history
- * - Performs YouTube video searches
- * - Analyzes video sentiments
- * - Calculates readability scores
- * - Serializes responses to JSON
+ * - Subscribes each keyword of the history to its {@link KeywordActor}, through the {@link KeywordRegistry}, and
+ * unsubscribes the keyword leaving the history
+ * - Sends the client a snapshot of a keyword on search, and only the changes on refresh
+ * <br/>
+ * The searches, refreshes and analyses are done once per keyword by the KeywordActors, whichever number of users
+ * watch it; each {@link Update} carries both the snapshot and the changes, already serialized. The messages wait in
+ * an {@link OutboundBuffer} and are sent one at a time, the next one once the WebSocket acknowledged the previous one
+ * with {@link Ack}. When a slow client lets the buffer fill up, its overflow policy drops or replaces messages or
+ * closes the connection, and refreshes are skipped until the buffer drains. The changes are only sent when they apply
+ * to the version the client has, the snapshot otherwise.
  *
  * @author Utsav Patel
  */
-public class UserActor extends AbstractActor {
-    private static final String YOUTUBE_SEARCH_URL = "https://www.googleapis.com/youtube/v3/search";
-    private static final String YOUTUBE_VIDEO_URL = "https://www.googleapis.com/youtube/v3/videos";
+public class UserActor extends AbstractBehavior<UserActor.Command> {
     private final ActorRef actorRef;
-    private final WSClient ws;
-    private final String API_KEY;
+    private final OutboundBuffer outbound;
+    private final ConnectionMetrics connectionMetrics;
+    private final akka.actor.typed.ActorRef<KeywordRegistry.Command> keywordRegistry;
+    private boolean awaitingAck;
     private final List<String> searchHistory = new ArrayList<>();
+    private final Map<String, Long> versions = new HashMap<>();
+
+    /**
+     * Messages understood by the UserActor.
+     *
+     * @author Utsav Patel
+     */
+    public sealed interface Command {
+    }
+
+    /**
+     * Message to search a keyword and add it to the search history.
+     *
+     * @author Utsav Patel
+     */
+    public static final class Search implements Command {
+        private final String keyword;
+
+        public Search(String keyword) {
+            this.keyword = keyword;
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+    }
+
+    /**
+     * Message published by a {@link KeywordActor} with the results of its keyword: the serialized snapshot, and the
+     * serialized changes since the base version when the results were refreshed incrementally. In cluster mode it is
+     * sent from the node owning the keyword to the other nodes.
+     *
+     * @author Utsav Patel
+     */
+    public static final class Update implements Command, CborSerializable {
+        private final String keyword;
+        private final long version;
+        private final long baseVersion;
+        private final String snapshot;
+        private final String delta;
+
+        @JsonCreator
+        public Update(String keyword, long version, long baseVersion, String snapshot, String delta) {
+            this.keyword = keyword;
+            this.version = version;
+            this.baseVersion = baseVersion;
+            this.snapshot = snapshot;
+            this.delta = delta;
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public long getBaseVersion() {
+            return baseVersion;
+        }
+
+        public String getSnapshot() {
+            return snapshot;
+        }
+
+        /**
+         * @return the serialized changes, or null if the update is a snapshot only
+         */
+        public String getDelta() {
+            return delta;
+        }
+    }
+
+    /**
+     * Message sent back by the WebSocket once it took a message, so that the next one may be sent.
+     *
+     * @author Utsav Patel
+     */
+    public enum Ack implements Command {
+        INSTANCE
+    }
 
     /**
      * Constructor for UserActor.
      *
-     * @param actorRef Reference to the WebSocket actor for communication with the client
-     * @param wsClient Play WSClient instance for making HTTP requests
-     * @param apiKey   YouTube API key for authenticating requests
+     * @param context           Context of the actor
+     * @param actorRef          Reference to the WebSocket actor for communication with the client
+     * @param outboundSettings  Limit and overflow policy of the messages waiting for the client
+     * @param connectionMetrics Registry of the outbound buffers of every connection
+     * @param keywordRegistry   Registry of the KeywordActors
      * @author Utsav Patel
      */
-    public UserActor(ActorRef actorRef, WSClient wsClient, String apiKey) {
+    private UserActor(ActorContext<Command> context, ActorRef actorRef, OutboundBuffer.Settings outboundSettings, ConnectionMetrics connectionMetrics, akka.actor.typed.ActorRef<KeywordRegistry.Command> keywordRegistry) {
+        super(context);
         this.actorRef = actorRef;
-        this.ws = wsClient;
-        this.API_KEY = apiKey;
+        this.outbound = new OutboundBuffer(outboundSettings);
+        this.connectionMetrics = connectionMetrics;
+        this.keywordRegistry = keywordRegistry;
+        connectionMetrics.register(context.getSelf().path().name(), outbound);
     }
 
     /**
-     * Factory method for creating Props for UserActor.
+     * Creates the behavior of a UserActor.
      *
      * @param actorRef Reference to the WebSocket actor
      * @param wsClient Play WSClient instance
      * @param apiKey   YouTube API key
-     * @return Props instance for UserActor
+     * @return Behavior of the UserActor
+     * @author Utsav Patel
+     */
+    public static Behavior<Command> create(ActorRef actorRef, WSClient wsClient, String apiKey) {
+        return create(actorRef, new YouTubeClient(wsClient, apiKey), new SearchCache(), new AnalyticsStage(), new WordStatsStore());
+    }
+
+    /**
+     * Creates the behavior of a UserActor with a shared YouTube client, search cache, analytics stage and word
+     * statistics. Its keywords are searched by a registry of its own, with the default settings.
+     *
+     * @param actorRef       Reference to the WebSocket actor
+     * @param youTubeClient  Client used for the YouTube Data API calls
+     * @param searchCache    Search cache shared by every user
+     * @param analyticsStage Analytics stage shared by every user
+     * @param wordStatsStore Word statistics shared by every user
+     * @return Behavior of the UserActor
+     * @author Utsav Patel
+     */
+    public static Behavior<Command> create(ActorRef actorRef, YouTubeClient youTubeClient, SearchCache searchCache, AnalyticsStage analyticsStage, WordStatsStore wordStatsStore) {
+        return Behaviors.setup(context -> new UserActor(context, actorRef, OutboundBuffer.Settings.DEFAULT, new ConnectionMetrics(),
+                context.spawn(KeywordRegistry.create(youTubeClient, searchCache, analyticsStage, wordStatsStore, SearchPipeline.Settings.DEFAULT, RefreshSchedule.Settings.DEFAULT), "keywords")));
+    }
+
+    /**
+     * Creates the behavior of a UserActor subscribing its keywords to a shared registry, with the given outbound
+     * buffer settings.
+     *
+     * @param actorRef          Reference to the WebSocket actor
+     * @param outboundSettings  Limit and overflow policy of the messages waiting for the client
+     * @param connectionMetrics Registry of the outbound buffers of every connection
+     * @param keywordRegistry   Registry of the KeywordActors, shared by every user
+     * @return Behavior of the UserActor
      * @author Utsav Patel
      */
-    public static Props props(ActorRef actorRef, WSClient wsClient, String apiKey) {
-        return Props.create(UserActor.class, () -> new UserActor(actorRef, wsClient, apiKey));
+    public static Behavior<Command> create(ActorRef actorRef, OutboundBuffer.Settings outboundSettings, ConnectionMetrics connectionMetrics, akka.actor.typed.ActorRef<KeywordRegistry.Command> keywordRegistry) {
+        return Behaviors.setup(context -> new UserActor(context, actorRef, outboundSettings, connectionMetrics, keywordRegistry));
     }
 
     /**
@@ -77,189 +203,114 @@ public class UserActor extends AbstractActor {
      * @author Utsav Patel
      */
     @Override
-    public Receive createReceive() {
-        return receiveBuilder()
-                .match(String.class, message -> {
-                    if (!searchHistory.contains(message)) {
-                        if (searchHistory.size() >= 10) {
-                            searchHistory.remove(0);
-                        }
-                        searchHistory.add(message);
-                    } else {
-                        searchHistory.remove(message);
-                        searchHistory.add(message);
-                    }
-                    this.searchVideos(message)
-                            .toCompletableFuture()
-                            .thenAccept(response -> {
-                                response.setFromKeyword(true);
-
-                                this.analyzeSentiments(response)
-                                        .thenAccept(responseWithSentiment -> {
-                                            this.calculateScore(responseWithSentiment == null ? response : responseWithSentiment)
-                                                    .thenAccept(responseWithScore -> {
-                                                        if (responseWithScore != null) {
-                                                            actorRef.tell(serializeResponse(responseWithScore), getSelf());
-                                                        } else {
-                                                            actorRef.tell(serializeResponse(responseWithSentiment == null ? response : responseWithSentiment), getSelf());
-                                                        }
-                                                    });
-                                        });
-                            });
+    public Receive<Command> createReceive() {
+        return newReceiveBuilder()
+                .onMessage(Search.class, this::onSearch)
+                .onMessage(Update.class, this::onUpdate)
+                .onMessageEquals(Ack.INSTANCE, () -> {
+                    awaitingAck = false;
+                    sendNext();
+                    return this;
                 })
-                .match(SupervisorActor.NotifyClient.class, notifyClient -> {
-                    searchHistory
-                            .forEach(keyword -> {
-                                searchVideos(keyword)
-                                        .toCompletableFuture()
-                                        .thenAccept(response -> {
-                                            response.setFromKeyword(false);
-                                            this.analyzeSentiments(response)
-                                                    .thenAccept(responseWithSentiment -> {
-                                                        this.calculateScore(responseWithSentiment == null ? response : responseWithSentiment)
-                                                                .thenAccept(responseWithScore -> {
-                                                                    if (responseWithScore != null) {
-                                                                        actorRef.tell(serializeResponse(responseWithScore), getSelf());
-                                                                    } else {
-                                                                        actorRef.tell(serializeResponse(responseWithSentiment == null ? response : responseWithSentiment), getSelf());
-                                                                    }
-                                                                });
-                                                    });
-                                        });
-                            });
+                .onSignal(PostStop.class, signal -> {
+                    connectionMetrics.unregister(getContext().getSelf().path().name());
+                    return this;
                 })
                 .build();
     }
 
     /**
-     * Searches YouTube videos based on the given keyword.
+     * Adds the keyword to the search history, keeping the 10 latest keywords, and subscribes to it, which has its
+     * KeywordActor send the current results. The keyword leaving the history is unsubscribed.
      *
-     * @param keyword Search keyword
-     * @return CompletionStage containing the search response
+     * @param search Keyword to search
+     * @return the same behavior
      * @author Utsav Patel
      */
-    public CompletionStage<Response> searchVideos(String keyword) {
-        WSRequest request = ws.url(YOUTUBE_SEARCH_URL)
-                .addQueryParameter("part", "snippet")
-                .addQueryParameter("q", keyword)
-                .addQueryParameter("type", "video")
-                .addQueryParameter("maxResults", "50")
-                .addQueryParameter("order", "date")
-                .addQueryParameter("key", API_KEY);
-
-        CompletionStage<Response> responseStage = request.get()
-                .thenApply(WSResponse::asJson)
-                .thenApply(json -> {
-                    Iterable<JsonNode> items = json.get("items");
-                    return StreamSupport.stream(items.spliterator(), false)
-                            .map(item -> {
-                                String videoId = item.get("id").get("videoId").asText();
-                                String title = item.get("snippet").get("title").asText();
-                                String description = item.get("snippet").get("description").asText();
-                                String imageUrl = item.get("snippet").get("thumbnails").get("high").get("url").asText();
-                                String channelId = item.get("snippet").get("channelId").asText();
-                                String channelTitle = item.get("snippet").get("channelTitle").asText();
-                                return new Video(videoId, title, description, imageUrl, channelId, channelTitle);
-                            });
-                })
-                .thenApply(videoStream -> {
-                    Response response = new Response();
-                    response.setQuery(keyword);
-                    response.setVideos(videoStream.toList());
-                    return response;
-                })
-                .exceptionally(e -> {
-                    System.err.println("ERROR: Unable to fetch videos for keyword: " + keyword + " - " + e.getMessage());
-                    getSender().tell("ERROR: Unable to fetch videos", getSelf());
-                    return null;
-                });
-
-
-        responseStage = responseStage
-                .thenCompose(response -> {
-                    List<CompletableFuture<Void>> completionStageList = response.getVideos().stream()
-                            .map(video -> fetchDescription(video.getVideoId())
-                                    .thenAccept(video::setDescription).toCompletableFuture()).toList();
-
-                    CompletableFuture<Void> allUpdates = CompletableFuture.allOf(
-                            completionStageList.toArray(new CompletableFuture[0])
-                    );
-                    return allUpdates.thenApply(ignored -> response);
-                });
-        return responseStage;
+    private Behavior<Command> onSearch(Search search) {
+        String message = KeywordActor.normalize(search.keyword);
+        if (message.isEmpty()) {
+            return this;
+        }
+        if (!searchHistory.contains(message)) {
+            if (searchHistory.size() >= 10) {
+                String oldest = searchHistory.remove(0);
+                versions.remove(oldest);
+                keywordRegistry.tell(new KeywordRegistry.Unsubscribe(oldest, getContext().getSelf().narrow()));
+            }
+            searchHistory.add(message);
+        } else {
+            searchHistory.remove(message);
+            searchHistory.add(message);
+        }
+        keywordRegistry.tell(new KeywordRegistry.Subscribe(message, getContext().getSelf().narrow()));
+        return this;
     }
 
     /**
-     * Fetches the full description of a YouTube video by its ID.
+     * Sends the results of a keyword of the history to the client.
+     * <br/>
+     * The changes are sent when the client has their base version and the outbound buffer did not drop or is not
+     * about to replace a message of the keyword; the snapshot is sent otherwise. Refreshed results are skipped while
+     * the outbound buffer is saturated, the next ones being sent as a snapshot.
      *
-     * @param id Video ID
-     * @return CompletionStage containing the full description
+     * @param update Results of the keyword
+     * @return the same behavior, or stopped if the connection was closed
      * @author Utsav Patel
      */
-    public CompletionStage<String> fetchDescription(String id) {
-        return this.ws.url(YOUTUBE_VIDEO_URL)
-                .addQueryParameter("part", "snippet")
-                .addQueryParameter("id", id)
-                .addQueryParameter("key", API_KEY)
-                .get()
-                .thenApply(WSResponse::asJson)
-                .thenApply(json -> {
-                    JsonNode item = json.get("items");
-                    String fullDescription = item.get(0).findPath("snippet").findPath("description").asText();
-                    return fullDescription;
-                });
+    private Behavior<Command> onUpdate(Update update) {
+        String keyword = update.keyword;
+        if (!searchHistory.contains(keyword)) {
+            return this;
+        }
+        if (update.delta != null && outbound.isSaturated()) {
+            outbound.skipRefresh();
+            versions.remove(keyword);
+            return this;
+        }
+        Long version = versions.get(keyword);
+        boolean snapshot = update.delta == null || version == null || version != update.baseVersion || outbound.needsSnapshot(keyword);
+        if (!send(keyword, snapshot ? update.snapshot : update.delta, snapshot)) {
+            System.err.println("WARN: Closing the connection of a client which does not keep up: " + getContext().getSelf().path().name());
+            connectionMetrics.recordDisconnect();
+            actorRef.tell(new Status.Success(NotUsed.getInstance()), ActorRef.noSender());
+            return Behaviors.stopped();
+        }
+        versions.put(keyword, update.version);
+        return this;
     }
 
     /**
-     * Calculates readability score for the given response.
+     * Adds a message to the outbound buffer and sends it right away if the client acknowledged the previous one.
      *
-     * @param response Sentiment-analyzed response
-     * @return CompletionStage containing the response with calculated score
+     * @param keyword  Search keyword of the message
+     * @param message  Serialized message
+     * @param snapshot Whether the message is a full snapshot
+     * @return false if the connection must be closed
      * @author Utsav Patel
      */
-    public CompletionStage<Response> calculateScore(Response response) {
-        String actorPath = "akka://application/user/descriptionReadability";
-        ActorSelection actorSelection = context().actorSelection(actorPath);
-
-        return actorSelection.resolveOne(Duration.ofSeconds(2)).toCompletableFuture()
-                .exceptionally(e -> {
-                    System.err.println("ERROR: Failed to resolve descriptionReadability actor: " + e.getMessage());
-                    return null;
-                })
-                .thenCompose(actorRef -> actorRef != null
-                        ? FutureConverters.asJava(ask(actorRef, response, 2000)).thenApply(calculatedResponse -> {
-                    if (calculatedResponse instanceof Response) {
-                        return (Response) calculatedResponse;
-                    }
-                    return null;
-                })
-                        : CompletableFuture.completedFuture(null));
+    private boolean send(String keyword, String message, boolean snapshot) {
+        if (!outbound.offer(keyword, message, snapshot)) {
+            return false;
+        }
+        sendNext();
+        return true;
     }
 
     /**
-     * Analyzes sentiments for the given response.
+     * Sends the oldest message waiting, unless the client did not acknowledge the previous one yet.
      *
-     * @param response Search response
-     * @return CompletionStage containing the sentiment-analyzed response
      * @author Utsav Patel
      */
-    public CompletionStage<Response> analyzeSentiments(Response response) {
-        String actorPath = "akka://application/user/sentimentalAnalyzer";
-        ActorSelection actorSelection = context().actorSelection(actorPath);
-
-        return actorSelection.resolveOne(Duration.ofSeconds(2)).toCompletableFuture()
-                .exceptionally(e -> {
-                    System.err.println("ERROR: Failed to resolve sentimentalAnalyzer actor: " + e.getMessage());
-                    return null;
-                })
-                .thenCompose(actorRef -> actorRef != null
-                        ? FutureConverters.asJava(ask(actorRef, response, 2000))
-                        .thenApply(analyzedResponse -> {
-                            if (analyzedResponse instanceof Response) {
-                                return (Response) analyzedResponse;
-                            }
-                            return null;
-                        }) : CompletableFuture.completedFuture(null));
+    private void sendNext() {
+        if (awaitingAck) {
+            return;
+        }
+        String message = outbound.poll();
+        if (message != null) {
+            awaitingAck = true;
+            actorRef.tell(message, Adapter.toClassic(getContext().getSelf()));
+        }
     }
 
     /**
@@ -270,9 +321,20 @@ public class UserActor extends AbstractActor {
      * @author Utsav Patel
      */
     public static String serializeResponse(Response response) {
+        return serialize(response);
+    }
+
+    /**
+     * Serializes a snapshot or a delta message to a JSON string.
+     *
+     * @param message Response or ResponseDelta object
+     * @return Serialized JSON string
+     * @author Utsav Patel
+     */
+    public static String serialize(Object message) {
         ObjectMapper mapper = new ObjectMapper();
         try {
-            return mapper.writeValueAsString(response);
+            return mapper.writeValueAsString(message);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to serialize response", e);
         }
@@ -1,14 +1,11 @@
 package actor;
 
 import akka.actor.AbstractActor;
-import akka.actor.ActorRef;
 import akka.actor.Props;
-import com.fasterxml.jackson.databind.JsonNode;
 import model.Video;
 import play.libs.Json;
 import play.libs.ws.WSClient;
-
-import java.util.concurrent.CompletionStage;
+import services.YouTubeClient;
 
 /**
  * Actor responsible for fetching detailed information about a YouTube video.
@@ -20,21 +17,18 @@ import java.util.concurrent.CompletionStage;
 
 public class VideoServiceActor extends AbstractActor {
 
-    private final WSClient wsClient;
-    private final String apiKey;
-    private final String youtubeUrl = "https://www.googleapis.com/youtube/v3/videos";
+    private final YouTubeClient youTubeClient;
+    private final InFlightRequests<String> inFlight = new InFlightRequests<>();
 
     /**
-     * Constructs a VideoServiceActor with the specified WSClient and API key.
+     * Constructs a VideoServiceActor with the specified YouTube client.
      *
-     * @param wsClient the Play WSClient used for making HTTP requests
-     * @param apiKey   the YouTube API key used for authentication
+     * @param youTubeClient the client used for the YouTube Data API calls
      * @author Yash Ajmeri
      */
 
-    public VideoServiceActor(WSClient wsClient, String apiKey) {
-        this.wsClient = wsClient;
-        this.apiKey = apiKey;
+    public VideoServiceActor(YouTubeClient youTubeClient) {
+        this.youTubeClient = youTubeClient;
     }
     /**
      * Factory method to create Props for this actor.
@@ -45,7 +39,17 @@ public class VideoServiceActor extends AbstractActor {
      * @author Yash Ajmeri
      */
     public static Props props(WSClient wsClient, String apiKey) {
-        return Props.create(VideoServiceActor.class, () -> new VideoServiceActor( wsClient, apiKey));
+        return props(new YouTubeClient(wsClient, apiKey));
+    }
+    /**
+     * Factory method to create Props for this actor, calling the API through the given client.
+     *
+     * @param youTubeClient the client used for the YouTube Data API calls
+     * @return a Props instance for creating the actor
+     * @author Yash Ajmeri
+     */
+    public static Props props(YouTubeClient youTubeClient) {
+        return Props.create(VideoServiceActor.class, () -> new VideoServiceActor(youTubeClient));
     }
     /**
      * Defines the behavior of this actor.
@@ -58,59 +62,35 @@ public class VideoServiceActor extends AbstractActor {
     public Receive createReceive() {
         return receiveBuilder()
                 .match(String.class, this::fetchVideoDetails)
+                .match(InFlightRequests.Completed.class, this::onFetched)
                 .build();
     }
 
     /**
      * Fetches video details from the YouTube Data API for a given video ID.
      * Sends the retrieved {@link Video} object back to the original sender.
+     * If the same video is already being fetched, the sender waits for that call instead of starting a new one.
      *
      * @param videoId the unique identifier for the YouTube video to fetch details for
      * @author Yash Ajmeri
      */
 
     public void fetchVideoDetails(String videoId) {
-        ActorRef originalSender = sender();
-        CompletionStage<Video> videoDetails = wsClient.url(youtubeUrl)
-                .addQueryParameter("part", "snippet")
-                .addQueryParameter("id", videoId)
-                .addQueryParameter("key", apiKey)
-                .get()
-                .thenApply(response -> response.asJson().get("items").get(0))
-                .thenApply(item -> {
-
-                    JsonNode snippet = item.get("snippet");
-
-
-//                    return Json.newObject()
-//                            .put("videoId", videoId)
-//                            .put("title", snippet.get("title").asText())
-//                            .put("description", snippet.get("description").asText())
-//                            .put("imageUrl", snippet.get("thumbnails").get("high").get("url").asText())
-//                            .put("channelTitle", snippet.get("channelTitle").asText())
-//                            .put("tags",tags!=null ? tags : "");
-
-
-                    String title = snippet.get("title").asText();
-                    String description = snippet.get("description").asText();
-                    String imageUrl = snippet.get("thumbnails").get("high").get("url").asText();
-                    String channelId = snippet.get("channelId").asText();
-                    String channelTitle = snippet.get("channelTitle").asText();
-                    String tags =null;
-                    if(snippet.has("tags")) {
-                        tags = snippet.findValue("tags").toString();
-                        tags = tags.substring(1, tags.length()-1).replace("\"", "");
-                    }
-//                    System.out.println(videoId +" " +title+" " +description+" " +imageUrl+" " +channelId+" " +channelTitle+" " +tags);
-                    return new Video(videoId,title,description,imageUrl,channelId,channelTitle,tags);
-                });
+        if (!inFlight.register(videoId, sender())) {
+            return;
+        }
+        // Send back the video, or the error message, to every sender waiting for this id
+        inFlight.start(videoId, () -> youTubeClient.getVideo(videoId), self());
+    }
 
-//        videoDetails.thenAccept(details -> getSender().tell(details, getSelf()));
-        videoDetails.thenAccept(video -> originalSender.tell(video, self()))
-                .exceptionally(ex -> {
-                    // Handle errors and send back an error message or null
-                    originalSender.tell(ex.getMessage(), self());
-                    return null;
-                });
+    /**
+     * Replies to every sender waiting for the completed video.
+     *
+     * @param completed the fetched video or error message
+     * @author Yash Ajmeri
+     */
+    private void onFetched(InFlightRequests.Completed completed) {
+        inFlight.complete((String) completed.key)
+                .forEach(sender -> sender.tell(completed.result, self()));
+    }
 }
-}
\ No newline at end of file
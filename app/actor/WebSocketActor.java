@@ -1,73 +1,54 @@
 package actor;
 
-import akka.actor.*;
+import akka.NotUsed;
+import akka.actor.AbstractActorWithStash;
+import akka.actor.ActorRef;
+import akka.actor.ActorRefFactory;
+import akka.actor.PoisonPill;
+import akka.actor.Props;
+import akka.actor.Status;
+import akka.actor.Terminated;
+import akka.actor.typed.javadsl.Adapter;
+import akka.japi.Pair;
+import akka.stream.CompletionStrategy;
+import akka.stream.Materializer;
+import akka.stream.javadsl.Flow;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
 
-import java.time.Duration;
+import java.util.Optional;
 
 /**
  * The WebSocketActor class handles WebSocket connections for individual clients.
  *
- * <p>It communicates with a supervisor actor to manage connection lifecycles and forward
- * messages. This actor is responsible for handling the following actions:
+ * <p>It is the classic actor of the WebSocket flow and bridges the client to its typed user actor. The messages to
+ * the client go to an outbound source which acknowledges each of them with {@link UserActor.Ack} once the WebSocket
+ * took it, so the user actor sends at the pace of the client. This actor is responsible for handling the following
+ * actions:
  * <ul>
- *   <li>Notifying the supervisor about new connections.</li>
- *   <li>Notifying the supervisor when a client disconnects.</li>
- *   <li>Resolving and forwarding messages to appropriate WebSocket actors.</li>
+ *   <li>Asking the supervisor for the user actor of the connection when it starts.</li>
+ *   <li>Forwarding every message of the client to the user actor, directly by reference.</li>
+ *   <li>Stashing the messages received before the user actor is known.</li>
  * </ul>
+ * This actor stops along with the outbound source, and the supervisor watches it, so the user actor is stopped when
+ * the client disconnects.
  *
  * @author Utsav Patel
  */
-public class WebSocketActor extends AbstractActor {
+public class WebSocketActor extends AbstractActorWithStash {
 
-    private final ActorRef supervisorRef;
-    private final String id;
+    private final akka.actor.typed.ActorRef<SupervisorActor.Command> supervisorRef;
     private final ActorRef actorRef;
 
-    /**
-     * Represents a new connection message.
-     *
-     * @author Utsav Patel
-     */
-    public static class NewConnection {
-        private final ActorRef actorRef;
-
-        public NewConnection(ActorRef actorRef) {
-            this.actorRef = actorRef;
-        }
-
-        public ActorRef getActorRef() {
-            return actorRef;
-        }
-    }
-
-    /**
-     * Represents a disconnection message.
-     *
-     * @author Utsav Patel
-     */
-    public static class Disconnected {
-        private final ActorRef actorRef;
-
-        public Disconnected(ActorRef actorRef) {
-            this.actorRef = actorRef;
-        }
-
-        public ActorRef getActorRef() {
-            return actorRef;
-        }
-    }
-
     /**
      * Constructs a WebSocketActor.
      *
      * @param supervisorActorRef the supervisor actor reference
-     * @param id                 the unique ID for this WebSocket actor
      * @param actorRef           the actor reference for this WebSocket
      * @author Utsav Patel
      */
-    public WebSocketActor(ActorRef supervisorActorRef, String id, ActorRef actorRef) {
+    public WebSocketActor(akka.actor.typed.ActorRef<SupervisorActor.Command> supervisorActorRef, ActorRef actorRef) {
         this.supervisorRef = supervisorActorRef;
-        this.id = id;
         this.actorRef = actorRef;
     }
 
@@ -75,17 +56,44 @@ public class WebSocketActor extends AbstractActor {
      * Factory method to create a Props instance for this actor.
      *
      * @param supervisorActorRef the supervisor actor reference
-     * @param id                 the unique ID for this WebSocket actor
      * @param actorRef           the actor reference for this WebSocket
      * @return a Props instance for creating this actor
      * @author Utsav Patel
      */
-    public static Props props(ActorRef supervisorActorRef, String id, ActorRef actorRef) {
-        return Props.create(WebSocketActor.class, () -> new WebSocketActor(supervisorActorRef, id, actorRef));
+    public static Props props(akka.actor.typed.ActorRef<SupervisorActor.Command> supervisorActorRef, ActorRef actorRef) {
+        return Props.create(WebSocketActor.class, () -> new WebSocketActor(supervisorActorRef, actorRef));
     }
 
     /**
-     * Defines the behavior of the WebSocketActor.
+     * Creates the flow of a WebSocket connection: the messages of the client go to a new WebSocketActor, and the
+     * messages to the client come from a source sending an acknowledgement for each of them, and closing the
+     * connection when it receives a {@link Status.Success}.
+     *
+     * @param supervisorActorRef the supervisor actor reference
+     * @param actorRefFactory    factory creating the WebSocketActor
+     * @param materializer       materializer of the outbound source
+     * @return the flow of the connection
+     * @author Utsav Patel
+     */
+    public static Flow<String, String, NotUsed> flow(akka.actor.typed.ActorRef<SupervisorActor.Command> supervisorActorRef, ActorRefFactory actorRefFactory, Materializer materializer) {
+        Pair<ActorRef, Source<String, NotUsed>> outbound = Source.<String>actorRefWithBackpressure(
+                        UserActor.Ack.INSTANCE,
+                        message -> message instanceof Status.Success ? Optional.of(CompletionStrategy.immediately()) : Optional.empty(),
+                        message -> Optional.empty())
+                .preMaterialize(materializer);
+        ActorRef webSocketActor = actorRefFactory.actorOf(props(supervisorActorRef, outbound.first()));
+        Sink<String, NotUsed> inbound = Sink.actorRef(webSocketActor, PoisonPill.getInstance(), failure -> PoisonPill.getInstance());
+        return Flow.fromSinkAndSourceCoupled(inbound, outbound.second());
+    }
+
+    @Override
+    public void preStart() {
+        getContext().watch(actorRef);
+        supervisorRef.tell(new SupervisorActor.Connect(Adapter.toTyped(getSelf()), actorRef));
+    }
+
+    /**
+     * Defines the behavior of the WebSocketActor until the user actor of the connection is known.
      *
      * @return Receive instance defining message handling logic
      * @author Utsav Patel
@@ -93,21 +101,19 @@ public class WebSocketActor extends AbstractActor {
     @Override
     public Receive createReceive() {
         return receiveBuilder()
-                .match(NewConnection.class, newConnection -> {
-                    supervisorRef.tell(newConnection, getSelf());
+                .match(SupervisorActor.Connected.class, connected -> {
+                    getContext().become(connected(connected.getUserActor()));
+                    unstashAll();
                 })
-                .match(Disconnected.class, disconnected -> {
-                    supervisorRef.tell(disconnected, getSelf());
-                })
-                .match(String.class, message -> {
-                    String actorPath = "akka://application/user/websocket-" + id;
-                    ActorSelection actorSelection = context().actorSelection(actorPath);
+                .match(String.class, message -> stash())
+                .match(Terminated.class, terminated -> getContext().stop(getSelf()))
+                .build();
+    }
 
-                    actorSelection.resolveOne(Duration.ofSeconds(2)).toCompletableFuture()
-                            .thenAccept(actorRef -> {
-                                supervisorRef.tell(message, actorRef);
-                            });
-                })
+    private Receive connected(akka.actor.typed.ActorRef<UserActor.Command> userActor) {
+        return receiveBuilder()
+                .match(String.class, message -> userActor.tell(new UserActor.Search(message)))
+                .match(Terminated.class, terminated -> getContext().stop(getSelf()))
                 .build();
     }
 }
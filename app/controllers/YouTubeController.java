@@ -3,7 +3,7 @@ package controllers;
 import actor.*;
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
-import akka.actor.Props;
+import akka.actor.typed.javadsl.Adapter;
 import akka.stream.Materializer;
 import com.typesafe.config.Config;
 import model.ChannelProfile;
@@ -14,7 +14,6 @@ import play.data.Form;
 import play.data.FormFactory;
 import play.libs.Json;
 import play.libs.streams.ActorFlow;
-import play.libs.ws.WSClient;
 import play.mvc.Controller;
 import play.mvc.Http;
 import play.mvc.Result;
@@ -25,15 +24,20 @@ import static akka.pattern.Patterns.ask;
 import akka.util.Timeout;
 
 import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import services.SearchCache;
+import services.TrendingWords;
+import services.WordStatsStore;
+import services.YouTubeClient;
 import services.YouTubeService;
 import services.VideoService;
 
 import javax.inject.Inject;
 
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
@@ -47,31 +51,51 @@ public class YouTubeController extends Controller {
     private final VideoService videoService;
     private final ActorSystem actorSystem;
     private final Materializer materializer;
-    private final WSClient wsClient;
-    private final String API_KEY;
     private final Form<SearchForm> searchForm;
-    private final ActorRef supervisorActor;
+    private final akka.actor.typed.ActorRef<SupervisorActor.Command> supervisorActor;
     private final ActorRef videoServiceActor;
     private final ActorRef wordStatsActor;
     private final ActorRef taggedServiceActor;
     private final ActorRef channelProfileActor;
+    private final SearchCache searchCache;
+    private final YouTubeClient youTubeClient;
+    private final AnalyticsStage analyticsStage;
+    private final WordStatsStore wordStatsStore;
+    private final TrendingWords trendingWords;
+    private final ConnectionMetrics connectionMetrics = new ConnectionMetrics();
     @Inject
-    public YouTubeController(YouTubeService youTubeService, FormFactory formFactory, VideoService videoService, ActorSystem actorSystem, Materializer materializer, WSClient wsClient, Config config) {
+    public YouTubeController(YouTubeService youTubeService, FormFactory formFactory, VideoService videoService, ActorSystem actorSystem, Materializer materializer, Config config, SearchCache searchCache, YouTubeClient youTubeClient, AnalyticsStage analyticsStage, WordStatsStore wordStatsStore, TrendingWords trendingWords) {
         this.youTubeService = youTubeService;
+        this.searchCache = searchCache;
+        this.youTubeClient = youTubeClient;
+        this.analyticsStage = analyticsStage;
+        this.wordStatsStore = wordStatsStore;
+        this.trendingWords = trendingWords;
         this.videoService = videoService;
         this.searchForm = formFactory.form(SearchForm.class);
         this.actorSystem = actorSystem;
         this.materializer = materializer;
-        this.wsClient = wsClient;
-        this.API_KEY = config.getString("youtube.api.key");
-        this.taggedServiceActor = actorSystem.actorOf(TaggedServiceActor.props(this.wsClient, this.API_KEY), "tagActor");
-        actorSystem.actorOf(TimeActor.getProps(), "timeActor");
-        actorSystem.actorOf(DescriptionReadabilityActor.props(), "descriptionReadability");
-        actorSystem.actorOf(SentimentAnalyzerActor.props(), "sentimentalAnalyzer");
-        this.channelProfileActor = actorSystem.actorOf(ChannelProfileActor.props(this.wsClient, this.API_KEY), "channelProfileActor");
-        this.videoServiceActor = actorSystem.actorOf(VideoServiceActor.props(this.wsClient, this.API_KEY), "videoActor");
-        this.supervisorActor = actorSystem.actorOf(SupervisorActor.props(this.wsClient, API_KEY), "supervisor");
+        this.taggedServiceActor = actorSystem.actorOf(TaggedServiceActor.props(this.youTubeClient), "tagActor");
+        this.channelProfileActor = actorSystem.actorOf(ChannelProfileActor.props(this.youTubeClient), "channelProfileActor");
+        this.videoServiceActor = actorSystem.actorOf(VideoServiceActor.props(this.youTubeClient), "videoActor");
+        SearchPipeline.Settings pipelineSettings = new SearchPipeline.Settings(
+                config.getInt("youtube.pipeline.search-parallelism"),
+                config.getInt("youtube.pipeline.hydrate-parallelism"),
+                config.getInt("youtube.pipeline.analyze-parallelism"),
+                config.getInt("youtube.pipeline.buffer-size"));
+        OutboundBuffer.Settings outboundSettings = new OutboundBuffer.Settings(
+                config.getInt("youtube.websocket.buffer-size"),
+                config.hasPath("youtube.websocket.overflow-policy")
+                        ? OutboundBuffer.OverflowPolicy.parse(config.getString("youtube.websocket.overflow-policy"))
+                        : OutboundBuffer.Settings.DEFAULT.getPolicy());
+        RefreshSchedule.Settings refreshSettings = new RefreshSchedule.Settings(
+                config.getDuration("youtube.refresh.interval"),
+                config.getDuration("youtube.refresh.jitter"),
+                config.getInt("youtube.refresh.max-per-second"));
+        boolean clustered = config.getBoolean("youtube.cluster.enabled");
+        this.supervisorActor = Adapter.toTyped(actorSystem.actorOf(Adapter.props(() -> SupervisorActor.create(this.youTubeClient, this.searchCache, this.analyticsStage, this.wordStatsStore, pipelineSettings, outboundSettings, this.connectionMetrics, refreshSettings, clustered)), "supervisor"));
         this.wordStatsActor = actorSystem.actorOf(WordStatsActor.props(this.youTubeService), "wordStatsActor");
+        actorSystem.actorOf(TrendingWordsActor.props(this.trendingWords, config.getDuration("youtube.trending.publish-interval")), "trendingWordsActor");
 
     }
 
@@ -103,24 +127,39 @@ public class YouTubeController extends Controller {
      *
      * <p>This method sets up a WebSocket that:
      * <ul>
-     *   <li>Generates a unique identifier (UUID) for the WebSocket connection.</li>
-     *   <li>Creates a WebSocket actor using the `WebSocketActor` class with the generated UUID.</li>
-     *   <li>Registers the WebSocket actor with a supervisor actor for connection management.</li>
-     *   <li>Uses Akka Streams' `ActorFlow` to manage the interaction between the WebSocket and the actor system.</li>
+     *   <li>Creates a WebSocket actor using the `WebSocketActor` class, given the supervisor actor reference.</li>
+     *   <li>Lets the WebSocket actor register with the supervisor actor, which spawns its user actor.</li>
+     *   <li>Sends the messages of the user actor through a source acknowledging each of them, so that the user
+     *   actor only sends as fast as the client reads.</li>
      * </ul>
      *
      * @return a WebSocket that processes textual messages
      * @author Utsav Patel
      */
     public WebSocket ws() {
+        return WebSocket.Text.accept(request -> WebSocketActor.flow(this.supervisorActor, actorSystem, materializer));
+    }
+
+    /**
+     * This will return the JSON of the words trending across every keyword watched by any connected user, for each
+     * time-decayed window.
+     *
+     * @author Karan Tanakhia
+     */
+    public Result trending() {
+        return ok(Json.toJson(trendingWords.snapshot()));
+    }
+
+    /**
+     * Creates the WebSocket endpoint of the trending topic: the client receives the trending words on connection,
+     * then every time they are published.
+     *
+     * @return a WebSocket that sends textual messages
+     * @author Karan Tanakhia
+     */
+    public WebSocket trendingWs() {
         return WebSocket.Text.accept(request -> ActorFlow.actorRef(
-                actorRef -> {
-                    String ID = UUID.randomUUID().toString();
-                    Props webSocketProps = WebSocketActor.props(this.supervisorActor, ID, actorRef);
-                    ActorRef webSocketActor = actorSystem.actorOf(webSocketProps, "websocket-" + ID);
-                    supervisorActor.tell(new WebSocketActor.NewConnection(webSocketActor), actorRef);
-                    return webSocketProps;
-                },
+                actorRef -> TrendingSubscriberActor.props(actorRef, this.trendingWords),
                 actorSystem,
                 materializer
         ));
@@ -196,4 +235,30 @@ public class YouTubeController extends Controller {
                 });
 
     }
+
+    /**
+     * This will return the JSON of the runtime counters, keyed by:
+     * <ul>
+     *     <li>searchCache: the hits, misses and coalesced loads of the search cache</li>
+     *     <li>quota: the YouTube quota spent today and the calls queued or rejected</li>
+     *     <li>videoAnalytics: the hit rate of the per-video analytics cache</li>
+     *     <li>analyticsLatency: the latency of each step of the analytics stage</li>
+     *     <li>wordStats: the hit rate of the word stats store</li>
+     *     <li>trendingWords: the words counted as trending</li>
+     *     <li>connections: the outbound buffers of the WebSocket connections</li>
+     * </ul>
+     *
+     * @author Utsav Patel
+     */
+    public Result metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("searchCache", searchCache.stats());
+        metrics.put("quota", youTubeClient.getQuotaScheduler().stats());
+        metrics.put("videoAnalytics", analyticsStage.getAnalyticsCache().stats());
+        metrics.put("analyticsLatency", analyticsStage.stats());
+        metrics.put("wordStats", wordStatsStore.stats());
+        metrics.put("trendingWords", trendingWords.stats());
+        metrics.put("connections", connectionMetrics.stats());
+        return ok(Json.toJson(metrics));
+    }
 }
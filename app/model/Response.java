@@ -1,6 +1,7 @@
 package model;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * It contains all the necessary information about Response to showcase all the information on the front-end.
@@ -14,6 +15,7 @@ public class Response {
     private List<Video> videos;
     private String sentiment;
     private boolean isFromKeyword;
+    private long version;
 
     public Response() {
     }
@@ -65,4 +67,36 @@ public class Response {
     public void setFromKeyword(boolean fromKeyword) {
         isFromKeyword = fromKeyword;
     }
+
+    /**
+     * Version of the results sent to the front-end, which the next {@link ResponseDelta} for the query is based on.
+     *
+     * @return version of the results
+     * @author Utsav Patel
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Creates a copy of this response, including a copy of every video, so it can be updated independently.
+     *
+     * @return copy of this response
+     * @author Utsav Patel
+     */
+    public Response copy() {
+        Response copy = new Response();
+        copy.query = query;
+        copy.averageFleschKincaidGradeLevel = averageFleschKincaidGradeLevel;
+        copy.averageFleschReadingScore = averageFleschReadingScore;
+        copy.videos = videos == null ? null : videos.stream().map(Video::copy).collect(Collectors.toList());
+        copy.sentiment = sentiment;
+        copy.isFromKeyword = isFromKeyword;
+        copy.version = version;
+        return copy;
+    }
 }
@@ -0,0 +1,101 @@
+package model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * It contains the changes made to a {@link Response} already sent to the front-end, so that a refresh only sends
+ * the added videos, the ids of the removed ones and the aggregates which changed.
+ * <br/>
+ * The front-end applies a delta only on top of the version it was computed from, see {@link #getBaseVersion()}.
+ * Aggregates which did not change are left out of the message.
+ *
+ * @author Utsav Patel
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(value = "type", allowGetters = true)
+public class ResponseDelta {
+    public static final String TYPE = "delta";
+
+    private String query;
+    private long version;
+    private long baseVersion;
+    private List<Video> added;
+    private List<String> removed;
+    private String sentiment;
+    private Double averageFleschKincaidGradeLevel;
+    private Double averageFleschReadingScore;
+
+    public ResponseDelta() {
+    }
+
+    public String getType() {
+        return TYPE;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public long getBaseVersion() {
+        return baseVersion;
+    }
+
+    public void setBaseVersion(long baseVersion) {
+        this.baseVersion = baseVersion;
+    }
+
+    public List<Video> getAdded() {
+        return added;
+    }
+
+    public void setAdded(List<Video> added) {
+        this.added = added;
+    }
+
+    public List<String> getRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(List<String> removed) {
+        this.removed = removed;
+    }
+
+    public String getSentiment() {
+        return sentiment;
+    }
+
+    public void setSentiment(String sentiment) {
+        this.sentiment = sentiment;
+    }
+
+    public Double getAverageFleschKincaidGradeLevel() {
+        return averageFleschKincaidGradeLevel;
+    }
+
+    public void setAverageFleschKincaidGradeLevel(Double averageFleschKincaidGradeLevel) {
+        this.averageFleschKincaidGradeLevel = averageFleschKincaidGradeLevel;
+    }
+
+    public Double getAverageFleschReadingScore() {
+        return averageFleschReadingScore;
+    }
+
+    public void setAverageFleschReadingScore(Double averageFleschReadingScore) {
+        this.averageFleschReadingScore = averageFleschReadingScore;
+    }
+}
@@ -0,0 +1,252 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * A description split in a single pass over its characters, shared by the sentiment, readability and word
+ * statistics analyzers instead of each of them running its own regular expressions on the text.
+ * <br/>
+ * The scan records three token views and the sentence boundaries:
+ * <ul>
+ *     <li>letter tokens, the runs of ASCII letters, used for the sentiment</li>
+ *     <li>word tokens, the runs of ASCII letters, digits and underscores, used for the word statistics</li>
+ *     <li>whitespace tokens, the runs of non whitespace characters, used for the readability scores</li>
+ *     <li>the number of sentences, the text being split on {@code . ! ? ; :}</li>
+ * </ul>
+ * Tokens are kept as offsets into the text; the lowercase views of the letter and word tokens are only built on
+ * first use and then reused. The counts reproduce what {@code String.split} used to return, including the empty
+ * leading token of a text starting with a separator, so the analyzers give the same results as before.
+ *
+ * @author Utsav Patel
+ */
+public final class TokenizedText {
+    private static final TokenizedText EMPTY = new TokenizedText("");
+
+    private final String text;
+    private int[] letterTokens = new int[16];
+    private int letterTokenCount;
+    private int[] wordTokens = new int[16];
+    private int wordTokenCount;
+    private int[] whitespaceTokens = new int[16];
+    private int whitespaceTokenCount;
+    private int sentenceCount;
+    private String[] lowercaseLetterTokens;
+    private String[] lowercaseWordTokens;
+
+    private TokenizedText(String text) {
+        this.text = text;
+        scan();
+    }
+
+    /**
+     * Tokenizes the given text.
+     *
+     * @param text text to tokenize, null being treated as an empty text
+     * @return the tokenized text
+     * @author Utsav Patel
+     */
+    public static TokenizedText of(String text) {
+        return text == null || text.isEmpty() ? EMPTY : new TokenizedText(text);
+    }
+
+    private void scan() {
+        int letterStart = -1;
+        int wordStart = -1;
+        int whitespaceTokenStart = -1;
+        int segment = 0;
+        int lastNonEmptySegment = -1;
+        boolean segmentEmpty = true;
+        boolean delimiterSeen = false;
+
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+
+            boolean letter = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+            if (letter) {
+                if (letterStart < 0) {
+                    letterStart = i;
+                }
+            } else if (letterStart >= 0) {
+                letterTokens = add(letterTokens, letterTokenCount++, letterStart, i);
+                letterStart = -1;
+            }
+
+            if (letter || (c >= '0' && c <= '9') || c == '_') {
+                if (wordStart < 0) {
+                    wordStart = i;
+                }
+            } else if (wordStart >= 0) {
+                wordTokens = add(wordTokens, wordTokenCount++, wordStart, i);
+                wordStart = -1;
+            }
+
+            if (!isWhitespace(c)) {
+                if (whitespaceTokenStart < 0) {
+                    whitespaceTokenStart = i;
+                }
+            } else if (whitespaceTokenStart >= 0) {
+                whitespaceTokens = add(whitespaceTokens, whitespaceTokenCount++, whitespaceTokenStart, i);
+                whitespaceTokenStart = -1;
+            }
+
+            if (c == '.' || c == '!' || c == '?' || c == ';' || c == ':') {
+                if (!segmentEmpty) {
+                    lastNonEmptySegment = segment;
+                }
+                segment++;
+                segmentEmpty = true;
+                delimiterSeen = true;
+            } else {
+                segmentEmpty = false;
+            }
+        }
+        if (letterStart >= 0) {
+            letterTokens = add(letterTokens, letterTokenCount++, letterStart, length);
+        }
+        if (wordStart >= 0) {
+            wordTokens = add(wordTokens, wordTokenCount++, wordStart, length);
+        }
+        if (whitespaceTokenStart >= 0) {
+            whitespaceTokens = add(whitespaceTokens, whitespaceTokenCount++, whitespaceTokenStart, length);
+        }
+        if (!segmentEmpty) {
+            lastNonEmptySegment = segment;
+        }
+        // Trailing empty sentences are dropped, as String.split does
+        sentenceCount = delimiterSeen ? lastNonEmptySegment + 1 : 1;
+    }
+
+    private static int[] add(int[] tokens, int index, int start, int end) {
+        if (2 * index + 1 >= tokens.length) {
+            tokens = Arrays.copyOf(tokens, tokens.length * 2);
+        }
+        tokens[2 * index] = start;
+        tokens[2 * index + 1] = end;
+        return tokens;
+    }
+
+    /**
+     * Returns whether the character is whitespace in the sense of the {@code \s} regular expression class.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static String toLowerCase(String text, int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            chars[i - start] = c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return new String(chars);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isEmpty() {
+        return text.isEmpty();
+    }
+
+    public int getLetterTokenCount() {
+        return letterTokenCount;
+    }
+
+    /**
+     * Returns the lowercase letter token at the given index.
+     *
+     * @param index token index
+     * @return lowercase token
+     * @author Utsav Patel
+     */
+    public String getLowercaseLetterToken(int index) {
+        if (lowercaseLetterTokens == null) {
+            lowercaseLetterTokens = new String[letterTokenCount];
+        }
+        String token = lowercaseLetterTokens[index];
+        if (token == null) {
+            token = toLowerCase(text, letterTokens[2 * index], letterTokens[2 * index + 1]);
+            lowercaseLetterTokens[index] = token;
+        }
+        return token;
+    }
+
+    public int getLetterTokenStart(int index) {
+        return letterTokens[2 * index];
+    }
+
+    public int getLetterTokenEnd(int index) {
+        return letterTokens[2 * index + 1];
+    }
+
+    public int getWordTokenCount() {
+        return wordTokenCount;
+    }
+
+    public int getWordTokenStart(int index) {
+        return wordTokens[2 * index];
+    }
+
+    public int getWordTokenEnd(int index) {
+        return wordTokens[2 * index + 1];
+    }
+
+    /**
+     * Returns the lowercase word token at the given index.
+     *
+     * @param index token index
+     * @return lowercase token
+     * @author Utsav Patel
+     */
+    public String getLowercaseWordToken(int index) {
+        if (lowercaseWordTokens == null) {
+            lowercaseWordTokens = new String[wordTokenCount];
+        }
+        String token = lowercaseWordTokens[index];
+        if (token == null) {
+            token = toLowerCase(text, wordTokens[2 * index], wordTokens[2 * index + 1]);
+            lowercaseWordTokens[index] = token;
+        }
+        return token;
+    }
+
+    public int getWhitespaceTokenCount() {
+        return whitespaceTokenCount;
+    }
+
+    public int getWhitespaceTokenStart(int index) {
+        return whitespaceTokens[2 * index];
+    }
+
+    public int getWhitespaceTokenEnd(int index) {
+        return whitespaceTokens[2 * index + 1];
+    }
+
+    /**
+     * Returns whether the text starts with a character which is not a letter, in which case splitting on
+     * non letters yields an empty leading token.
+     *
+     * @return true if the text starts with a non letter
+     * @author Utsav Patel
+     */
+    public boolean startsWithNonLetter() {
+        return letterTokenCount > 0 && letterTokens[0] > 0;
+    }
+
+    /**
+     * Returns whether the text starts with whitespace, in which case splitting on whitespace yields an empty
+     * leading token.
+     *
+     * @return true if the text starts with whitespace
+     * @author Utsav Patel
+     */
+    public boolean startsWithWhitespace() {
+        return whitespaceTokenCount > 0 && whitespaceTokens[0] > 0;
+    }
+
+    public int getSentenceCount() {
+        return sentenceCount;
+    }
+}
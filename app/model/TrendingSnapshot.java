@@ -0,0 +1,79 @@
+package model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * It contains the words trending across every watched keyword, for each time-decayed window, as sent to the
+ * trending dashboard and the trending WebSocket topic.
+ * <br/>
+ * The score of a word is its number of occurrences, each one weighed down by half per half-life of the window since
+ * it was seen. The heavy-hitters summary may overestimate a score by at most {@link Word#getMaxError()}.
+ *
+ * @author Karan Tanakhia
+ */
+@JsonIgnoreProperties(value = "type", allowGetters = true)
+public class TrendingSnapshot {
+    public static final String TYPE = "trending";
+
+    private long timestamp;
+    private Map<String, List<Word>> windows = new LinkedHashMap<>();
+
+    public TrendingSnapshot() {
+    }
+
+    public String getType() {
+        return TYPE;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public Map<String, List<Word>> getWindows() {
+        return windows;
+    }
+
+    public void setWindows(Map<String, List<Word>> windows) {
+        this.windows = windows;
+    }
+
+    /**
+     * A trending word with its decayed score.
+     *
+     * @author Karan Tanakhia
+     */
+    public static class Word {
+        private String word;
+        private double score;
+        private double maxError;
+
+        public Word() {
+        }
+
+        public Word(String word, double score, double maxError) {
+            this.word = word;
+            this.score = score;
+            this.maxError = maxError;
+        }
+
+        public String getWord() {
+            return word;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public double getMaxError() {
+            return maxError;
+        }
+    }
+}
@@ -15,8 +15,11 @@ public class Video {
     private String channelTitle;
     private Double fleschKincaidGradeLevel;
     private Double fleschReadingScore;
+    private String publishedAt;
+    private String sentiment;
 
     private String tags;
+    private TokenizedText tokens;
 
     public Video() {
     }
@@ -66,6 +69,23 @@ public class Video {
 
     public void setDescription(String description) {
         this.description = description;
+        this.tokens = null;
+    }
+
+    /**
+     * Returns the description tokenized once and shared by every analyzer. It is not a bean property, so it is
+     * never serialized.
+     *
+     * @return the tokenized description
+     * @author Utsav Patel
+     */
+    public TokenizedText tokens() {
+        TokenizedText tokenized = tokens;
+        if (tokenized == null) {
+            tokenized = TokenizedText.of(description);
+            tokens = tokenized;
+        }
+        return tokenized;
     }
 
     public String getImageUrl() {
@@ -116,4 +136,36 @@ public class Video {
     public void setFleschReadingScore(Double fleschReadingScore) {
         this.fleschReadingScore = fleschReadingScore;
     }
+
+    public String getPublishedAt() {
+        return publishedAt;
+    }
+
+    public void setPublishedAt(String publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+
+    public String getSentiment() {
+        return sentiment;
+    }
+
+    public void setSentiment(String sentiment) {
+        this.sentiment = sentiment;
+    }
+
+    /**
+     * Creates a copy of this video.
+     *
+     * @return copy of this video
+     * @author Utsav Patel
+     */
+    public Video copy() {
+        Video copy = new Video(videoId, title, description, imageUrl, channelId, channelTitle, tags);
+        copy.fleschKincaidGradeLevel = fleschKincaidGradeLevel;
+        copy.fleschReadingScore = fleschReadingScore;
+        copy.publishedAt = publishedAt;
+        copy.sentiment = sentiment;
+        copy.tokens = tokens;
+        return copy;
+    }
 }
@@ -0,0 +1,56 @@
+package model;
+
+/**
+ * The scores computed from the description of a single video: its sentiment, the happy and sad words it
+ * contains, and its readability scores.
+ *
+ * @author Utsav Patel
+ */
+public final class VideoAnalytics {
+    private final String sentiment;
+    private final long happyCount;
+    private final long sadCount;
+    private final double fleschKincaidGradeLevel;
+    private final double fleschReadingScore;
+
+    public VideoAnalytics(String sentiment, long happyCount, long sadCount, double fleschKincaidGradeLevel,
+                          double fleschReadingScore) {
+        this.sentiment = sentiment;
+        this.happyCount = happyCount;
+        this.sadCount = sadCount;
+        this.fleschKincaidGradeLevel = fleschKincaidGradeLevel;
+        this.fleschReadingScore = fleschReadingScore;
+    }
+
+    public String getSentiment() {
+        return sentiment;
+    }
+
+    public long getHappyCount() {
+        return happyCount;
+    }
+
+    public long getSadCount() {
+        return sadCount;
+    }
+
+    public double getFleschKincaidGradeLevel() {
+        return fleschKincaidGradeLevel;
+    }
+
+    public double getFleschReadingScore() {
+        return fleschReadingScore;
+    }
+
+    /**
+     * Sets the sentiment and the readability scores on the given video.
+     *
+     * @param video video the scores were computed for
+     * @author Utsav Patel
+     */
+    public void applyTo(Video video) {
+        video.setSentiment(sentiment);
+        video.setFleschKincaidGradeLevel(fleschKincaidGradeLevel);
+        video.setFleschReadingScore(fleschReadingScore);
+    }
+}
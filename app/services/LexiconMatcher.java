@@ -0,0 +1,190 @@
+package services;
+
+import model.TokenizedText;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Matches several word lists against a text in a single scan, using one trie compiled from every list.
+ * <br/>
+ * Entries are compiled as sequences of lowercase letter words, so multi-word entries such as "even if" or
+ * "each other", and hyphenated ones such as "grief-stricken", match consecutive words of the text whatever
+ * separates them. The scan walks the letter tokens of a {@link TokenizedText} once, reading the characters of the
+ * text in place: from every word it follows the trie for as many words as the longest entry, and records the
+ * longest entry of each list starting there. Within a list, matches are counted leftmost-longest and do not
+ * overlap, so the words of a phrase are not counted again on their own.
+ *
+ * @author Vatsal Mukeshkumar Ajmeri
+ */
+public final class LexiconMatcher {
+    private static final int ALPHABET = 27;
+    private static final int SEPARATOR = 26;
+
+    private final int lexiconCount;
+    private int[] next;
+    private int[] lexicons;
+    private int nodeCount;
+    private int maxWords;
+
+    /**
+     * Compiles the given word lists into a single trie.
+     *
+     * @param lexicons word lists, at most 31, each one being reported under its index
+     * @author Vatsal Mukeshkumar Ajmeri
+     */
+    public LexiconMatcher(List<? extends Collection<String>> lexicons) {
+        if (lexicons.size() > Integer.SIZE - 1) {
+            throw new IllegalArgumentException("At most 31 lexicons are supported");
+        }
+        this.lexiconCount = lexicons.size();
+        this.next = new int[ALPHABET * 256];
+        this.lexicons = new int[256];
+        Arrays.fill(next, -1);
+        this.nodeCount = 1;
+        for (int lexicon = 0; lexicon < lexicons.size(); lexicon++) {
+            for (String entry : lexicons.get(lexicon)) {
+                add(entry, lexicon);
+            }
+        }
+    }
+
+    private void add(String entry, int lexicon) {
+        int node = 0;
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0; i < entry.length(); i++) {
+            int symbol = symbol(entry.charAt(i));
+            if (symbol < 0) {
+                inWord = false;
+                continue;
+            }
+            if (!inWord) {
+                if (words > 0) {
+                    node = child(node, SEPARATOR);
+                }
+                words++;
+                inWord = true;
+            }
+            node = child(node, symbol);
+        }
+        if (words > 0) {
+            lexicons[node] |= 1 << lexicon;
+            maxWords = Math.max(maxWords, words);
+        }
+    }
+
+    private int child(int node, int symbol) {
+        int index = node * ALPHABET + symbol;
+        if (next[index] < 0) {
+            if (nodeCount * ALPHABET >= next.length) {
+                int oldLength = next.length;
+                next = Arrays.copyOf(next, oldLength * 2);
+                Arrays.fill(next, oldLength, next.length, -1);
+                lexicons = Arrays.copyOf(lexicons, lexicons.length * 2);
+            }
+            next[index] = nodeCount++;
+        }
+        return next[index];
+    }
+
+    /**
+     * Returns the trie symbol of a letter, lowercased, or -1 if it is not an ASCII letter.
+     */
+    private static int symbol(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        return -1;
+    }
+
+    /**
+     * Scans the letter tokens of the text once and counts the matches of every lexicon.
+     *
+     * @param tokens tokenized text
+     * @return matches and matched words of every lexicon
+     * @author Vatsal Mukeshkumar Ajmeri
+     */
+    public Matches match(TokenizedText tokens) {
+        Matches matches = new Matches(lexiconCount);
+        int[] longest = new int[lexiconCount];
+        int[] coveredUntil = new int[lexiconCount];
+        String text = tokens.getText();
+        int tokenCount = tokens.getLetterTokenCount();
+
+        for (int first = 0; first < tokenCount; first++) {
+            Arrays.fill(longest, 0);
+            int node = 0;
+            int last = Math.min(tokenCount, first + maxWords);
+            walk:
+            for (int token = first; token < last; token++) {
+                if (token > first) {
+                    node = next[node * ALPHABET + SEPARATOR];
+                    if (node < 0) {
+                        break;
+                    }
+                }
+                int end = tokens.getLetterTokenEnd(token);
+                for (int i = tokens.getLetterTokenStart(token); i < end; i++) {
+                    node = next[node * ALPHABET + symbol(text.charAt(i))];
+                    if (node < 0) {
+                        break walk;
+                    }
+                }
+                int found = lexicons[node];
+                for (int lexicon = 0; found != 0; lexicon++, found >>>= 1) {
+                    if ((found & 1) != 0) {
+                        longest[lexicon] = token - first + 1;
+                    }
+                }
+            }
+            for (int lexicon = 0; lexicon < lexiconCount; lexicon++) {
+                if (longest[lexicon] > 0 && first >= coveredUntil[lexicon]) {
+                    matches.hits[lexicon]++;
+                    matches.words[lexicon] += longest[lexicon];
+                    coveredUntil[lexicon] = first + longest[lexicon];
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Matches of every lexicon in a text.
+     *
+     * @author Vatsal Mukeshkumar Ajmeri
+     */
+    public static final class Matches {
+        private final int[] hits;
+        private final int[] words;
+
+        private Matches(int lexiconCount) {
+            this.hits = new int[lexiconCount];
+            this.words = new int[lexiconCount];
+        }
+
+        /**
+         * Returns the number of entries of the lexicon found in the text, a phrase counting once.
+         *
+         * @param lexicon lexicon index
+         * @return number of matches
+         */
+        public int hits(int lexicon) {
+            return hits[lexicon];
+        }
+
+        /**
+         * Returns the number of words of the text covered by the matches of the lexicon.
+         *
+         * @param lexicon lexicon index
+         * @return number of matched words
+         */
+        public int words(int lexicon) {
+            return words[lexicon];
+        }
+    }
+}
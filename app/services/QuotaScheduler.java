@@ -0,0 +1,302 @@
+package services;
+
+import play.libs.ws.WSResponse;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Central scheduler for every outbound YouTube Data API call, aware of the quota units each endpoint costs.
+ * <br/>
+ * A token bucket holds the units that may be spent per second and a daily budget holds the units that may be
+ * spent until the quota resets at midnight Pacific Time. A call is charged its endpoint cost: it is started
+ * right away when the bucket has enough units, queued until the bucket refills otherwise, and rejected with a
+ * {@link QuotaExceededException} once the daily budget or the queue is exhausted.
+ * <br/>
+ * The thread draining the queue is stopped by {@link #close()}, which the application calls on shutdown.
+ *
+ * @author Utsav Patel
+ */
+public class QuotaScheduler implements AutoCloseable {
+
+    /**
+     * YouTube Data API endpoints and the quota units charged per call.
+     *
+     * @author Utsav Patel
+     */
+    public enum Endpoint {
+        SEARCH(100),
+        VIDEOS(1),
+        CHANNELS(1);
+
+        private final int cost;
+
+        Endpoint(int cost) {
+            this.cost = cost;
+        }
+
+        public int getCost() {
+            return cost;
+        }
+    }
+
+    /**
+     * Thrown when a call cannot be scheduled because the daily budget or the waiting queue is exhausted.
+     *
+     * @author Utsav Patel
+     */
+    public static class QuotaExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public QuotaExceededException(String message) {
+            super(message);
+        }
+    }
+
+    private final boolean limited;
+    private final long unitsPerSecond;
+    private final long unitsPerDay;
+    private final int maxQueued;
+    private final ZoneId resetZone;
+    private final Clock clock;
+    private final ScheduledExecutorService drainer;
+    private final Queue<Pending> queue = new ArrayDeque<>();
+
+    private double availableUnits;
+    private long lastRefillMillis;
+    private LocalDate quotaDay;
+    private long usedToday;
+    private long rejected;
+    private boolean drainScheduled;
+    private boolean closed;
+
+    /**
+     * Creates a scheduler enforcing the given rate and daily budget.
+     *
+     * @param unitsPerSecond units that may be spent per second, at least the cost of a search
+     * @param unitsPerDay    units that may be spent per day
+     * @param maxQueued      calls that may wait for the bucket to refill
+     * @param resetZone      zone whose midnight resets the daily budget
+     * @throws IllegalArgumentException if the rate is below the cost of a search or a limit is negative
+     * @author Utsav Patel
+     */
+    public QuotaScheduler(long unitsPerSecond, long unitsPerDay, int maxQueued, ZoneId resetZone) {
+        this(true, unitsPerSecond, unitsPerDay, maxQueued, resetZone, Clock.systemUTC());
+    }
+
+    QuotaScheduler(boolean limited, long unitsPerSecond, long unitsPerDay, int maxQueued, ZoneId resetZone, Clock clock) {
+        // A search must fit in the bucket, otherwise it would wait forever
+        if (unitsPerSecond < Endpoint.SEARCH.getCost()) {
+            throw new IllegalArgumentException("youtube.quota.units-per-second must be at least "
+                    + Endpoint.SEARCH.getCost() + ", the cost of a search, but is " + unitsPerSecond);
+        }
+        if (unitsPerDay < 0 || maxQueued < 0) {
+            throw new IllegalArgumentException("youtube.quota.units-per-day and youtube.quota.max-queued must not be negative");
+        }
+        this.limited = limited;
+        this.unitsPerSecond = unitsPerSecond;
+        this.unitsPerDay = unitsPerDay;
+        this.maxQueued = maxQueued;
+        this.resetZone = resetZone;
+        this.clock = clock;
+        this.availableUnits = this.unitsPerSecond;
+        this.lastRefillMillis = clock.millis();
+        this.quotaDay = LocalDate.now(clock.withZone(resetZone));
+        this.drainer = limited ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "youtube-quota-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * Creates a scheduler which never delays nor rejects calls but still counts the units spent. Its budgets are
+     * never charged, so no refill arithmetic runs on them.
+     *
+     * @return unlimited scheduler
+     * @author Utsav Patel
+     */
+    public static QuotaScheduler unlimited() {
+        return new QuotaScheduler(false, Long.MAX_VALUE, Long.MAX_VALUE, 0, ZoneId.of("America/Los_Angeles"), Clock.systemUTC());
+    }
+
+    /**
+     * Schedules a call to the given endpoint, charging its quota cost.
+     *
+     * @param endpoint endpoint being called
+     * @param call     starts the HTTP request, typically {@code request::get}
+     * @return CompletionStage of the response, failed with {@link QuotaExceededException} if the call is rejected
+     * @author Utsav Patel
+     */
+    public CompletionStage<WSResponse> schedule(Endpoint endpoint, Supplier<CompletionStage<? extends WSResponse>> call) {
+        CompletableFuture<WSResponse> result = new CompletableFuture<>();
+        boolean startNow;
+        synchronized (this) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Quota scheduler is closed"));
+            }
+            resetDayIfNeeded();
+            if (!limited) {
+                startNow = true;
+            } else if (usedToday + endpoint.getCost() > unitsPerDay) {
+                rejected++;
+                return CompletableFuture.failedFuture(new QuotaExceededException(
+                        "Daily YouTube quota exhausted, " + (unitsPerDay - usedToday) + " units left"));
+            } else {
+                refill();
+                startNow = queue.isEmpty() && availableUnits >= endpoint.getCost();
+                if (startNow) {
+                    availableUnits -= endpoint.getCost();
+                } else if (queue.size() >= maxQueued) {
+                    rejected++;
+                    return CompletableFuture.failedFuture(new QuotaExceededException(
+                            "YouTube quota queue is full, " + queue.size() + " calls waiting"));
+                } else {
+                    queue.add(new Pending(endpoint, call, result));
+                    scheduleDrain();
+                }
+            }
+            usedToday += endpoint.getCost();
+        }
+        if (startNow) {
+            start(call, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the remaining budget and the queue counters.
+     *
+     * @return metrics keyed by name
+     * @author Utsav Patel
+     */
+    public synchronized Map<String, Long> stats() {
+        resetDayIfNeeded();
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("usedToday", usedToday);
+        if (limited) {
+            refill();
+            stats.put("remainingToday", unitsPerDay - usedToday);
+            stats.put("availableThisSecond", (long) availableUnits);
+        }
+        stats.put("queued", (long) queue.size());
+        stats.put("rejected", rejected);
+        return stats;
+    }
+
+    /**
+     * Returns the quota units left for today.
+     *
+     * @return remaining daily units
+     * @author Utsav Patel
+     */
+    public synchronized long remainingToday() {
+        resetDayIfNeeded();
+        return unitsPerDay - usedToday;
+    }
+
+    /**
+     * Stops the thread draining the queue and fails the calls still waiting in it. Calls scheduled afterwards are
+     * failed with an {@link IllegalStateException}.
+     *
+     * @author Utsav Patel
+     */
+    @Override
+    public void close() {
+        List<Pending> waiting;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            waiting = new ArrayList<>(queue);
+            queue.clear();
+        }
+        if (drainer != null) {
+            drainer.shutdownNow();
+        }
+        waiting.forEach(pending -> pending.result.completeExceptionally(new IllegalStateException("Quota scheduler is closed")));
+    }
+
+    private void start(Supplier<CompletionStage<? extends WSResponse>> call, CompletableFuture<WSResponse> result) {
+        try {
+            call.get().whenComplete((response, ex) -> {
+                if (ex != null) {
+                    result.completeExceptionally(ex);
+                } else {
+                    result.complete(response);
+                }
+            });
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void drain() {
+        List<Pending> ready = new ArrayList<>();
+        synchronized (this) {
+            drainScheduled = false;
+            refill();
+            while (!queue.isEmpty() && availableUnits >= queue.peek().endpoint.getCost()) {
+                Pending pending = queue.poll();
+                availableUnits -= pending.endpoint.getCost();
+                ready.add(pending);
+            }
+            if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+        ready.forEach(pending -> start(pending.call, pending.result));
+    }
+
+    private void scheduleDrain() {
+        if (!drainScheduled) {
+            drainScheduled = true;
+            double missingUnits = queue.peek().endpoint.getCost() - availableUnits;
+            long delayMillis = Math.max(1, (long) Math.ceil(missingUnits * 1000 / unitsPerSecond));
+            drainer.schedule(this::drain, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void refill() {
+        long now = clock.millis();
+        availableUnits = Math.min(unitsPerSecond, availableUnits + (now - lastRefillMillis) * unitsPerSecond / 1000.0);
+        lastRefillMillis = now;
+    }
+
+    private void resetDayIfNeeded() {
+        LocalDate today = LocalDate.now(clock.withZone(resetZone));
+        if (!today.equals(quotaDay)) {
+            quotaDay = today;
+            usedToday = 0;
+        }
+    }
+
+    /**
+     * A call waiting for the bucket to refill.
+     */
+    private static final class Pending {
+        private final Endpoint endpoint;
+        private final Supplier<CompletionStage<? extends WSResponse>> call;
+        private final CompletableFuture<WSResponse> result;
+
+        private Pending(Endpoint endpoint, Supplier<CompletionStage<? extends WSResponse>> call, CompletableFuture<WSResponse> result) {
+            this.endpoint = endpoint;
+            this.call = call;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package services;
+
+import model.Response;
+import model.TokenizedText;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Calculates the readability scores of video descriptions and their average over a {@link Response}.
+ *
+ * @author Utsav Patel
+ */
+public final class ReadabilityScorer {
+
+    private ReadabilityScorer() {
+    }
+
+    /**
+     * Updates the response with the average of the readability scores already set on its videos.
+     * Videos without scores are scored first, so the averages can be recomputed after merging new videos
+     * without scoring the existing ones again.
+     *
+     * @param response {@link Response} whose averages should be updated
+     * @author Utsav Patel
+     */
+    public static void calculateAverageReadability(Response response) {
+        AtomicReference<Double> fkg = new AtomicReference<>(0.0);
+        AtomicReference<Double> frs = new AtomicReference<>(0.0);
+        response.getVideos().stream()
+                .forEach(video -> {
+                    if (video.getFleschKincaidGradeLevel() == null || video.getFleschReadingScore() == null) {
+                        double[] readabilityScores = calculateReadabilityScores(video.tokens());
+                        video.setFleschKincaidGradeLevel(readabilityScores[0]);
+                        video.setFleschReadingScore(readabilityScores[1]);
+                    }
+                    fkg.updateAndGet(v -> (v + video.getFleschKincaidGradeLevel()));
+                    frs.updateAndGet(v -> (v + video.getFleschReadingScore()));
+                });
+        int size = response.getVideos().size();
+        response.setAverageFleschKincaidGradeLevel(fkg.get() / size);
+        response.setAverageFleschReadingScore(frs.get() / size);
+    }
+
+    /**
+     * Calculates readability scores (Flesch-Kincaid Grade Level and Flesch Reading Score) for a given text.
+     *
+     * @param description the text to analyze
+     * @return an array of doubles where index 0 is the Flesch-Kincaid Grade Level
+     * and index 1 is the Flesch Reading Score
+     * @author Utsav Patel
+     */
+    public static double[] calculateReadabilityScores(String description) {
+        return calculateReadabilityScores(TokenizedText.of(description));
+    }
+
+    /**
+     * Calculates readability scores (Flesch-Kincaid Grade Level and Flesch Reading Score) from a tokenized text,
+     * using its whitespace tokens as words and its sentence count.
+     *
+     * @param tokens the tokenized text to analyze
+     * @return an array of doubles where index 0 is the Flesch-Kincaid Grade Level
+     * and index 1 is the Flesch Reading Score
+     * @author Utsav Patel
+     */
+    public static double[] calculateReadabilityScores(TokenizedText tokens) {
+        if (tokens.isEmpty()) {
+            return new double[]{0, 0};
+        }
+
+        // A text starting with whitespace has an empty leading word, of one syllable, as splitIntoWords returns
+        int leadingWord = tokens.startsWithWhitespace() ? 1 : 0;
+        int totalWords = tokens.getWhitespaceTokenCount() + leadingWord;
+        int totalSentences = tokens.getSentenceCount();
+
+        int totalSyllables = leadingWord;
+
+        String text = tokens.getText();
+        for (int i = 0; i < tokens.getWhitespaceTokenCount(); i++) {
+            totalSyllables += countSyllables(text, tokens.getWhitespaceTokenStart(i), tokens.getWhitespaceTokenEnd(i));
+        }
+
+        double wordsPerSentence = (double) totalWords / totalSentences;
+        double syllablesPerWord = (double) totalSyllables / totalWords;
+        double fkg = 0.39 * wordsPerSentence + 11.8 * syllablesPerWord - 15.59;
+        double frs = 206.835 - 1.015 * wordsPerSentence - 84.6 * syllablesPerWord;
+        return new double[]{fkg, frs};
+    }
+
+    /**
+     * Counts the number of syllables in a word.
+     *
+     * @param word the word to analyze
+     * @return the number of syllables in the word
+     * @author Utsav Patel
+     */
+    public static int countSyllables(String word) {
+        return countSyllables(word, 0, word.length());
+    }
+
+    /**
+     * Counts the number of syllables in the word found between the given indexes of a text, reading the characters
+     * in place. It gives the same results as lowercasing and trimming the word, dropping a final "e" and counting
+     * its vowel groups, without building any intermediate string.
+     *
+     * @param text  the text containing the word
+     * @param start index of the first character of the word
+     * @param end   index after the last character of the word
+     * @return the number of syllables in the word
+     * @author Utsav Patel
+     */
+    public static int countSyllables(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start == 1) {
+            return 1;
+        }
+
+        if (end > start && lowerCharAt(text, end - 1) == 'e') {
+            end--;
+        }
+
+        int syllableCount = 0;
+        boolean inVowelGroup = false;
+        for (int i = start; i < end; i++) {
+            boolean vowel = isVowel(lowerCharAt(text, i));
+            if (vowel && !inVowelGroup) {
+                syllableCount++;
+            }
+            inVowelGroup = vowel;
+        }
+
+        int length = end - start;
+        if (length > 2) {
+            char last = lowerCharAt(text, end - 1);
+            char beforeLast = lowerCharAt(text, end - 2);
+            boolean consonantBefore = isConsonant(lowerCharAt(text, end - 3));
+
+            if (beforeLast == 'l' && last == 'e' && consonantBefore) {
+                syllableCount++;
+            }
+
+            if (beforeLast == 'e' && last == 'd' && syllableCount > 1 && consonantBefore) {
+                syllableCount--;
+            }
+
+            if (beforeLast == 'e' && last == 's' && syllableCount > 1 && consonantBefore) {
+                syllableCount--;
+            }
+        }
+
+        return Math.max(syllableCount, 1);
+    }
+
+    private static char lowerCharAt(CharSequence text, int index) {
+        return Character.toLowerCase(text.charAt(index));
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u' || c == 'y';
+    }
+
+    /**
+     * Determines if a character is a consonant.
+     *
+     * @param c the character to check
+     * @return true if the character is a consonant, false otherwise
+     * @author Utsav Patel
+     */
+    public static boolean isConsonant(char c) {
+        return "bcdfghjklmnpqrstvwxyz".indexOf(c) >= 0;
+    }
+
+    /**
+     * Splits a text into an array of words.
+     *
+     * @param text the text to split
+     * @return an array of words
+     * @author Utsav Patel
+     */
+    public static String[] splitIntoWords(String text) {
+        return text.split("\\s+");
+    }
+
+    /**
+     * Counts the number of sentences in a text.
+     *
+     * @param text the text to analyze
+     * @return the number of sentences in the text
+     * @author Utsav Patel
+     */
+    public static int countSentences(String text) {
+        String[] sentences = text.split("[.!?;:]");
+        return sentences.length;
+    }
+}
@@ -0,0 +1,163 @@
+package services;
+
+import model.Response;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Process-wide cache of keyword search results shared by the YouTubeService and every UserActor.
+ * <br/>
+ * Each normalized query is loaded at most once per TTL. Requests arriving while a load is in flight wait on
+ * the same future instead of starting another search. Every caller receives its own copy of the cached
+ * {@link Response}, so the analyzers can update it without affecting other users. Once the cache holds more than its
+ * maximum number of entries, the expired ones are dropped, then the loaded ones closest to expiry.
+ *
+ * @author Utsav Patel
+ */
+public class SearchCache {
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(30);
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public SearchCache() {
+        this(DEFAULT_TTL, DEFAULT_MAX_ENTRIES);
+    }
+
+    public SearchCache(Duration ttl, int maxEntries) {
+        this(ttl, maxEntries, System::nanoTime);
+    }
+
+    SearchCache(Duration ttl, int maxEntries, LongSupplier nanoClock) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns the cached response for the query, loading it with the given loader on a miss.
+     *
+     * @param query  search query as typed by the user
+     * @param loader function performing the actual search
+     * @return CompletionStage of a private copy of the response, with the query set to the one given
+     * @author Utsav Patel
+     */
+    public CompletionStage<Response> get(String query, Function<String, CompletionStage<Response>> loader) {
+        String key = normalize(query);
+        long now = nanoClock.getAsLong();
+        Entry created = new Entry();
+        Entry entry = entries.compute(key, (k, existing) ->
+                existing != null && !existing.isExpired(now) ? existing : created);
+
+        if (entry != created) {
+            if (entry.future.isDone()) {
+                hits.increment();
+            } else {
+                coalesced.increment();
+            }
+        } else {
+            misses.increment();
+            evict(now);
+            load(key, query, entry, loader);
+        }
+        return entry.future.thenApply(response -> {
+            Response copy = response.copy();
+            copy.setQuery(query);
+            return copy;
+        });
+    }
+
+    /**
+     * Normalizes a query so that queries differing only in case or whitespace share an entry.
+     *
+     * @param query search query
+     * @return normalized cache key
+     * @author Utsav Patel
+     */
+    public static String normalize(String query) {
+        return query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the hit, miss and coalesce counters along with the current number of entries.
+     *
+     * @return counters keyed by name
+     * @author Utsav Patel
+     */
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("entries", (long) entries.size());
+        return stats;
+    }
+
+    private void load(String key, String query, Entry entry, Function<String, CompletionStage<Response>> loader) {
+        CompletionStage<Response> loading;
+        try {
+            loading = loader.apply(query);
+        } catch (RuntimeException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+        loading.whenComplete((response, ex) -> {
+            if (ex != null || response == null) {
+                // Failures are not cached, the next request retries the search.
+                entries.remove(key, entry);
+                entry.future.completeExceptionally(ex != null ? ex : new IllegalStateException("No response for " + query));
+            } else {
+                entry.expiresAt = nanoClock.getAsLong() + ttlNanos;
+                entry.future.complete(response);
+            }
+        });
+    }
+
+    /**
+     * Brings the cache back to its maximum number of entries, dropping the expired entries first, then the loaded
+     * entries closest to expiry, which are the oldest. In-flight entries are kept, their callers wait on them.
+     */
+    private void evict(long now) {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        int excess = entries.size() - maxEntries;
+        if (excess > 0) {
+            entries.entrySet().stream()
+                    .filter(entry -> entry.getValue().expiresAt != Long.MAX_VALUE)
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().expiresAt))
+                    .limit(excess)
+                    .collect(Collectors.toList())
+                    .forEach(entry -> entries.remove(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    /**
+     * A cached or in-flight search. An in-flight entry never expires.
+     */
+    private static final class Entry {
+        private final CompletableFuture<Response> future = new CompletableFuture<>();
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        private boolean isExpired(long now) {
+            return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+        }
+    }
+}
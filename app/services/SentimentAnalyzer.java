@@ -1,18 +1,17 @@
-package actor;
+package services;
 
-import akka.actor.AbstractActor;
-import akka.actor.Props;
-import model.Response;
+import model.TokenizedText;
+import model.VideoAnalytics;
 
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * The class analyses the sentiments and displays the categorises into 3 categories
  *
  * @author Vatsal Mukeshkumar Ajmeri
  */
-public class SentimentAnalyzerActor extends AbstractActor {
+public final class SentimentAnalyzer {
 
     private static final Set<String> happyWords = new HashSet<>(Arrays.asList(
             "happy", "happier", "happiest", "happily", "happiness", "happifying",
@@ -92,32 +91,61 @@ public class SentimentAnalyzerActor extends AbstractActor {
 
     private static final Set<String> wordsToRemove = new HashSet<>(Arrays.asList("about", "above", "across", "after", "against", "along", "among", "around", "at", "before", "behind", "below", "beneath", "beside", "between", "beyond", "by", "down", "during", "for", "from", "in", "inside", "into", "like", "near", "of", "off", "on", "onto", "outside", "over", "past", "since", "through", "throughout", "to", "toward", "under", "underneath", "until", "up", "upon", "with", "within", "without", "although", "and", "as", "because", "before", "but", "even if", "even though", "if", "nor", "not only", "but also", "once", "or", "since", "so", "than", "that", "then", "though", "unless", "until", "when", "whenever", "where", "wherever", "whether", "while", "yet", "all", "anybody", "anyone", "anything", "each", "each other", "either", "everybody", "everyone", "everything", "few", "he", "her", "hers", "herself", "him", "himself", "his", "i", "it", "its", "itself", "many", "me", "mine", "myself", "neither", "nobody", "none", "no one", "nothing", "one", "one another", "ours", "ourselves", "she", "some", "somebody", "someone", "something", "that", "their", "theirs", "them", "themselves", "these", "they", "this", "those", "us", "we", "what", "whatever", "when", "where", "which", "who", "whom", "whose", "you", "yours", "yourself", "yourselves", "ah", "aha", "alas", "bravo", "ew", "hey", "hmm", "hurray", "oh", "oops", "ouch", "phew", "ugh", "wow", "yay", "yikes"));
 
+    private static final int HAPPY = 0;
+    private static final int SAD = 1;
+    private static final int REMOVED = 2;
 
-    private static final Pattern NON_ALPHABET_PATTERN = Pattern.compile("[^a-zA-Z]");
-
+    /**
+     * The three word lists compiled into a single trie, so that a description is scanned once for all of them and
+     * multi-word entries such as "even if" or "no one" are matched as phrases.
+     */
+    private static final LexiconMatcher lexicon = new LexiconMatcher(List.of(happyWords, sadWords, wordsToRemove));
 
-    public static Props props() {
-        return Props.create(SentimentAnalyzerActor.class);
+    private SentimentAnalyzer() {
     }
 
-
     public static String analyzeSentimentForDescription(String description) {
-        String[] words = NON_ALPHABET_PATTERN.matcher(description.toLowerCase()).replaceAll(" ").split("\\s+");
-
-        long happyCount = Arrays.stream(words)
-                .filter(happyWords::contains)
-                .count();
-
-        long sadCount = Arrays.stream(words)
-                .filter(sadWords::contains)
-                .count();
+        return analyzeSentimentForDescription(TokenizedText.of(description));
+    }
 
-        long removedWords = Arrays.stream(words)
-                .filter(wordsToRemove::contains)
-                .count();
+    /**
+     * This method calculates the sentiment of a single description from its letter tokens.
+     *
+     * @author Vatsal Mukeshkumar Ajmeri
+     */
+    public static String analyzeSentimentForDescription(TokenizedText tokens) {
+        long[] counts = countSentimentWords(tokens);
+        return sentimentOf(counts[0], counts[1], counts[2]);
+    }
 
-        long totalWords = words.length - removedWords;
+    /**
+     * This method counts the happy, sad and remaining words of a description in a single scan of the compiled
+     * lexicon. A phrase counts as one happy or sad word, and all the words of a removed phrase are removed.
+     *
+     * @return an array where index 0 is the number of happy words, index 1 the number of sad words and index 2
+     * the number of words left once the removed words are taken out
+     * @author Vatsal Mukeshkumar Ajmeri
+     */
+    public static long[] countSentimentWords(TokenizedText tokens) {
+        LexiconMatcher.Matches matches = lexicon.match(tokens);
+
+        // Same word count as splitting the text on non letters: an empty text is one empty word, and a text
+        // starting with a non letter has an empty leading word
+        long words;
+        if (tokens.isEmpty()) {
+            words = 1;
+        } else {
+            words = tokens.getLetterTokenCount() + (tokens.startsWithNonLetter() ? 1 : 0);
+        }
+        return new long[]{matches.hits(HAPPY), matches.hits(SAD), words - matches.words(REMOVED)};
+    }
 
+    /**
+     * This method gives the sentiment of a description from its happy, sad and remaining word counts.
+     *
+     * @author Vatsal Mukeshkumar Ajmeri
+     */
+    public static String sentimentOf(long happyCount, long sadCount, long totalWords) {
         double happyPercentage = (double) happyCount / totalWords;
         double sadPercentage = (double) sadCount / totalWords;
 
@@ -130,6 +158,19 @@ public class SentimentAnalyzerActor extends AbstractActor {
         }
     }
 
+    /**
+     * This method computes the analytics memoized for each video description by the {@link VideoAnalyticsCache}:
+     * the sentiment with its happy and sad word counts, and the readability scores.
+     *
+     * @author Vatsal Mukeshkumar Ajmeri
+     */
+    public static VideoAnalytics analyzeVideo(TokenizedText tokens) {
+        long[] counts = countSentimentWords(tokens);
+        double[] readabilityScores = ReadabilityScorer.calculateReadabilityScores(tokens);
+        return new VideoAnalytics(sentimentOf(counts[0], counts[1], counts[2]), counts[0], counts[1],
+                readabilityScores[0], readabilityScores[1]);
+    }
+
     /**
      * This method runs on the descriptions of all videos and calculates the overall sentiment of the video search results
      *
@@ -137,22 +178,32 @@ public class SentimentAnalyzerActor extends AbstractActor {
      */
     public static String analyzeSentiment(List<String> descriptions) {
 
-        if (descriptions.isEmpty()) {
+        return aggregateSentiment(descriptions.stream()
+                .map(SentimentAnalyzer::analyzeSentimentForDescription)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * This method combines the sentiments of the individual videos into the overall sentiment of the search results,
+     * so that the overall sentiment can be recomputed without analysing the descriptions again.
+     *
+     * @author Vatsal Mukeshkumar Ajmeri
+     */
+    public static String aggregateSentiment(List<String> sentiments) {
+
+        if (sentiments.isEmpty()) {
             return ":-|";
         }
 
-        long happyCount = descriptions.stream()
-                .map(SentimentAnalyzerActor::analyzeSentimentForDescription)
+        long happyCount = sentiments.stream()
                 .filter(s -> s.equals(":-)"))
                 .count();
 
-        long sadCount = descriptions.stream()
-                .map(SentimentAnalyzerActor::analyzeSentimentForDescription)
+        long sadCount = sentiments.stream()
                 .filter(s -> s.equals(":-("))
                 .count();
 
-        long neutralCount = descriptions.stream()
-                .map(SentimentAnalyzerActor::analyzeSentimentForDescription)
+        long neutralCount = sentiments.stream()
                 .filter(s -> s.equals(":-|"))
                 .count();
 
@@ -180,22 +231,4 @@ public class SentimentAnalyzerActor extends AbstractActor {
             }
         }
     }
-
-    @Override
-    public Receive createReceive() {
-
-        return receiveBuilder().match(Response.class, response -> {
-
-            List<String> descriptions = new ArrayList<>();
-
-            response.getVideos().stream()
-                    .forEach(video -> {
-                        descriptions.add(video.getDescription());
-                    });
-
-            String sentiment = analyzeSentiment(descriptions);
-            response.setSentiment(sentiment);
-            getSender().tell(response, getSelf());
-        }).build();
-    }
 }
@@ -0,0 +1,265 @@
+package services;
+
+import model.TokenizedText;
+import model.TrendingSnapshot;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * Process-wide heavy hitters of the words of the descriptions analysed for every watched keyword, over time-decayed
+ * windows, in a fixed amount of memory.
+ * <br/>
+ * Each window is a space-saving summary of a fixed number of counters: a word which is not tracked yet takes over
+ * the counter of the lowest scoring word, inheriting its count as the maximum overestimation. Occurrences are
+ * weighed with forward decay, twice as much per half-life of the window since a landmark time, so every counter
+ * decays at the same rate without being touched, and the counters are rescaled to a new landmark before the weights
+ * get too large. Stop words, numbers, and words shorter than 3 or longer than 30 characters are not counted, so the
+ * memory held is bounded by the windows and their counters whatever the number of distinct words seen.
+ *
+ * @author Karan Tanakhia
+ */
+public class TrendingWords {
+    public static final List<Duration> DEFAULT_HALF_LIVES = List.of(Duration.ofMinutes(5), Duration.ofHours(1));
+    public static final int DEFAULT_CAPACITY = 500;
+    public static final int DEFAULT_TOP = 20;
+
+    private static final int MIN_WORD_LENGTH = 3;
+    private static final int MAX_WORD_LENGTH = 30;
+    private static final double RESCALE_HALF_LIVES = 32;
+    private static final Set<String> STOP_WORDS = Set.of("the", "and", "for", "you", "your", "yours", "are", "was",
+            "were", "is", "be", "been", "being", "have", "has", "had", "this", "that", "these", "those", "with",
+            "from", "into", "our", "ours", "their", "they", "them", "his", "her", "she", "him", "its", "not", "but",
+            "can", "will", "would", "should", "could", "all", "any", "more", "most", "out", "about", "what", "when",
+            "where", "which", "who", "why", "how", "there", "here", "than", "then", "also", "just", "only", "very",
+            "too", "get", "got", "via", "www", "http", "https", "com");
+
+    private final Window[] windows;
+    private final int top;
+    private final LongSupplier clock;
+    private long descriptions;
+    private long words;
+
+    public TrendingWords() {
+        this(DEFAULT_HALF_LIVES, DEFAULT_CAPACITY, DEFAULT_TOP);
+    }
+
+    public TrendingWords(List<Duration> halfLives, int capacity, int top) {
+        this(halfLives, capacity, top, System::currentTimeMillis);
+    }
+
+    TrendingWords(List<Duration> halfLives, int capacity, int top, LongSupplier clock) {
+        long now = clock.getAsLong();
+        this.windows = halfLives.stream()
+                .map(halfLife -> new Window(label(halfLife), halfLife.toMillis(), capacity, now))
+                .toArray(Window[]::new);
+        this.top = top;
+        this.clock = clock;
+    }
+
+    private static String label(Duration duration) {
+        long seconds = duration.getSeconds();
+        if (seconds % 3600 == 0) {
+            return seconds / 3600 + "h";
+        }
+        return seconds % 60 == 0 ? seconds / 60 + "m" : seconds + "s";
+    }
+
+    /**
+     * Counts the words of a description into every window.
+     *
+     * @param tokens tokenized description
+     * @author Karan Tanakhia
+     */
+    public void add(TokenizedText tokens) {
+        WordCounter wordCounter = new WordCounter();
+        wordCounter.addWordTokens(tokens);
+        long now = clock.getAsLong();
+        synchronized (this) {
+            descriptions++;
+            for (int i = 0; i < wordCounter.size(); i++) {
+                String word = wordCounter.word(i);
+                if (isTrendable(word)) {
+                    words += wordCounter.count(i);
+                    for (Window window : windows) {
+                        window.add(word, wordCounter.count(i), now);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isTrendable(String word) {
+        if (word.length() < MIN_WORD_LENGTH || word.length() > MAX_WORD_LENGTH || STOP_WORDS.contains(word)) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isDigit(word.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the top words of every window, highest score first.
+     *
+     * @return the trending words keyed by the half-life of their window, such as "5m" or "1h"
+     * @author Karan Tanakhia
+     */
+    public synchronized TrendingSnapshot snapshot() {
+        long now = clock.getAsLong();
+        TrendingSnapshot snapshot = new TrendingSnapshot();
+        snapshot.setTimestamp(now);
+        for (Window window : windows) {
+            snapshot.getWindows().put(window.label, window.top(top, now));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the number of descriptions and words counted, the words tracked by every window and the number of
+     * counters taken over by a new word.
+     *
+     * @return counters keyed by name
+     * @author Karan Tanakhia
+     */
+    public synchronized Map<String, Number> stats() {
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("descriptions", descriptions);
+        stats.put("words", words);
+        stats.put("tracked", Arrays.stream(windows).mapToInt(window -> window.size).sum());
+        stats.put("replacements", Arrays.stream(windows).mapToLong(window -> window.replacements).sum());
+        return stats;
+    }
+
+    /**
+     * Space-saving summary of one window, the counters being kept in a min-heap of their counts.
+     */
+    private static final class Window {
+        private final String label;
+        private final double halfLifeMillis;
+        private final String[] words;
+        private final double[] counts;
+        private final double[] errors;
+        private final int[] heap;
+        private final int[] heapPositions;
+        private final Map<String, Integer> slots;
+        private long landmark;
+        private int size;
+        private long replacements;
+
+        private Window(String label, long halfLifeMillis, int capacity, long now) {
+            this.label = label;
+            this.halfLifeMillis = halfLifeMillis;
+            this.words = new String[capacity];
+            this.counts = new double[capacity];
+            this.errors = new double[capacity];
+            this.heap = new int[capacity];
+            this.heapPositions = new int[capacity];
+            this.slots = new HashMap<>(capacity * 2);
+            this.landmark = now;
+        }
+
+        private void add(String word, int occurrences, long now) {
+            if (words.length == 0) {
+                return;
+            }
+            if (now - landmark > RESCALE_HALF_LIVES * halfLifeMillis) {
+                rescale(now);
+            }
+            double weight = occurrences * Math.pow(2, (now - landmark) / halfLifeMillis);
+            Integer slot = slots.get(word);
+            if (slot != null) {
+                counts[slot] += weight;
+                siftDown(heapPositions[slot]);
+            } else if (size < words.length) {
+                slot = size++;
+                words[slot] = word;
+                counts[slot] = weight;
+                heap[slot] = slot;
+                heapPositions[slot] = slot;
+                slots.put(word, slot);
+                siftUp(slot);
+            } else {
+                slot = heap[0];
+                slots.remove(words[slot]);
+                words[slot] = word;
+                errors[slot] = counts[slot];
+                counts[slot] += weight;
+                slots.put(word, slot);
+                replacements++;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Moves the landmark to now; scaling every counter by the same factor keeps the heap order.
+         */
+        private void rescale(long now) {
+            double factor = Math.pow(2, -(now - landmark) / halfLifeMillis);
+            for (int slot = 0; slot < size; slot++) {
+                counts[slot] *= factor;
+                errors[slot] *= factor;
+            }
+            landmark = now;
+        }
+
+        private List<TrendingSnapshot.Word> top(int limit, long now) {
+            double decay = Math.pow(2, -(now - landmark) / halfLifeMillis);
+            List<TrendingSnapshot.Word> top = new ArrayList<>();
+            IntStream.range(0, size)
+                    .boxed()
+                    .sorted(Comparator.comparingDouble((Integer slot) -> counts[slot]).reversed())
+                    .limit(limit)
+                    .forEach(slot -> top.add(new TrendingSnapshot.Word(words[slot], counts[slot] * decay, errors[slot] * decay)));
+            return top;
+        }
+
+        private void siftUp(int position) {
+            int slot = heap[position];
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (counts[heap[parent]] <= counts[slot]) {
+                    break;
+                }
+                move(heap[parent], position);
+                position = parent;
+            }
+            move(slot, position);
+        }
+
+        private void siftDown(int position) {
+            int slot = heap[position];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                    child++;
+                }
+                if (counts[heap[child]] >= counts[slot]) {
+                    break;
+                }
+                move(heap[child], position);
+                position = child;
+            }
+            move(slot, position);
+        }
+
+        private void move(int slot, int position) {
+            heap[position] = slot;
+            heapPositions[slot] = position;
+        }
+    }
+}
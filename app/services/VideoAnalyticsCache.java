@@ -0,0 +1,163 @@
+package services;
+
+import model.TokenizedText;
+import model.Video;
+import model.VideoAnalytics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Process-wide, bounded cache of the analytics of each video description, shared by the sentiment and readability
+ * analyzers.
+ * <br/>
+ * The same popular videos come back in many keywords and on every refresh, so their descriptions are only
+ * analysed once. Entries are indexed by the description itself: videos sharing the same boilerplate description, as
+ * is common across a channel, share one entry. They are also indexed by video id, the description being compared
+ * with the one the entry was computed from, so an edited description is analysed again. Both indexes are bounded and
+ * evict the least recently used entries first.
+ * <br/>
+ * Each description is held once, by the entry both indexes share. The description index holds at most maxEntries
+ * descriptions, and the video index may keep up to maxEntries more alive once the description index evicted them,
+ * so the cache holds at most 2 x maxEntries descriptions, 10,000 with the default settings.
+ *
+ * @author Utsav Patel
+ */
+public class VideoAnalyticsCache {
+    public static final int DEFAULT_MAX_ENTRIES = 5000;
+
+    private final Function<TokenizedText, VideoAnalytics> analyzer;
+    private final Map<String, Entry> byVideoId;
+    private final Map<String, Entry> byDescription;
+    private long hits;
+    private long sharedHits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a cache keeping at most the given number of videos and of distinct descriptions.
+     *
+     * @param maxEntries maximum number of entries of each index
+     * @param analyzer   function analysing a description on a miss
+     * @author Utsav Patel
+     */
+    public VideoAnalyticsCache(int maxEntries, Function<TokenizedText, VideoAnalytics> analyzer) {
+        this.analyzer = analyzer;
+        this.byVideoId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.byDescription = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the analytics of the video's current description, analysing it only if neither the video nor
+     * another video with the same description has been analysed before.
+     *
+     * @param video video to analyse
+     * @return analytics of the description
+     * @author Utsav Patel
+     */
+    public VideoAnalytics get(Video video) {
+        VideoAnalytics analytics = getIfPresent(video);
+        if (analytics == null) {
+            // Analysed outside the lock; two videos missing at once at worst analyse the same description twice
+            analytics = analyzer.apply(video.tokens());
+            put(video, analytics);
+        }
+        return analytics;
+    }
+
+    /**
+     * Returns the cached analytics of the video's current description, counting a miss if there are none.
+     *
+     * @param video video to look up
+     * @return analytics of the description, or null if it has not been analysed yet
+     * @author Utsav Patel
+     */
+    public synchronized VideoAnalytics getIfPresent(Video video) {
+        String videoId = video.getVideoId();
+        String description = descriptionOf(video);
+
+        Entry entry = videoId == null ? null : byVideoId.get(videoId);
+        if (entry != null && entry.description.equals(description)) {
+            hits++;
+            return entry.analytics;
+        }
+        Entry shared = byDescription.get(description);
+        if (shared != null) {
+            sharedHits++;
+            if (videoId != null) {
+                byVideoId.put(videoId, shared);
+            }
+            return shared.analytics;
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Caches the analytics computed for the video's current description.
+     *
+     * @param video     video which was analysed
+     * @param analytics analytics of its description
+     * @author Utsav Patel
+     */
+    public synchronized void put(Video video, VideoAnalytics analytics) {
+        String description = descriptionOf(video);
+        Entry entry = new Entry(description, analytics);
+        byDescription.put(description, entry);
+        if (video.getVideoId() != null) {
+            byVideoId.put(video.getVideoId(), entry);
+        }
+    }
+
+    private static String descriptionOf(Video video) {
+        return video.getDescription() == null ? "" : video.getDescription();
+    }
+
+    /**
+     * Returns the hit, shared description hit and miss counters, the hit rate in percent, and the number of
+     * cached descriptions.
+     *
+     * @return counters keyed by name
+     * @author Utsav Patel
+     */
+    public synchronized Map<String, Number> stats() {
+        long lookups = hits + sharedHits + misses;
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("hits", hits);
+        stats.put("sharedHits", sharedHits);
+        stats.put("misses", misses);
+        stats.put("hitRate", lookups == 0 ? 0.0 : 100.0 * (hits + sharedHits) / lookups);
+        stats.put("evictions", evictions);
+        stats.put("videos", byVideoId.size());
+        stats.put("descriptions", byDescription.size());
+        return stats;
+    }
+
+    /**
+     * The analytics of a description, with the description they were computed from, shared by the two indexes.
+     */
+    private static final class Entry {
+        private final String description;
+        private final VideoAnalytics analytics;
+
+        private Entry(String description, VideoAnalytics analytics) {
+            this.description = description;
+            this.analytics = analytics;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package services;
+
+import model.TokenizedText;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Counts the lowercase words of texts in an open-addressing hash table of primitive counts, without boxing.
+ * <br/>
+ * Words are hashed and compared in place, reading the characters of the text and lowercasing them on the fly, so
+ * a string is only allocated the first time a distinct word is seen. The distinct words are kept in the order they
+ * were first seen, which breaks ties between equal counts. The most frequent words are selected with a heap bounded
+ * to the number requested, instead of sorting every distinct word, and only those are formatted.
+ *
+ * @author Karan Tanakhia
+ */
+public final class WordCounter {
+    private int[] table;
+    private int mask;
+    private int[] hashes;
+    private String[] words;
+    private int[] counts;
+    private int size;
+
+    public WordCounter() {
+        this(64);
+    }
+
+    /**
+     * Creates a counter sized for the given number of distinct words; it grows beyond that.
+     *
+     * @param expectedWords expected number of distinct words
+     * @author Karan Tanakhia
+     */
+    public WordCounter(int expectedWords) {
+        int capacity = Integer.highestOneBit(Math.max(expectedWords, 8) * 2 - 1) << 1;
+        this.table = new int[capacity];
+        this.mask = capacity - 1;
+        this.hashes = new int[capacity / 2];
+        this.words = new String[capacity / 2];
+        this.counts = new int[capacity / 2];
+    }
+
+    /**
+     * Counts every word token of the text.
+     *
+     * @param tokens tokenized text
+     * @author Karan Tanakhia
+     */
+    public void addWordTokens(TokenizedText tokens) {
+        String text = tokens.getText();
+        for (int i = 0; i < tokens.getWordTokenCount(); i++) {
+            add(text, tokens.getWordTokenStart(i), tokens.getWordTokenEnd(i), 1);
+        }
+    }
+
+    /**
+     * Adds the given number of occurrences of the word, lowercased.
+     *
+     * @param word        word to count
+     * @param occurrences number of occurrences
+     * @author Karan Tanakhia
+     */
+    public void add(String word, int occurrences) {
+        add(word, 0, word.length(), occurrences);
+    }
+
+    private void add(String text, int start, int end, int occurrences) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + toLowerCase(text.charAt(i));
+        }
+        int slot = spread(hash) & mask;
+        while (table[slot] != 0) {
+            int index = table[slot] - 1;
+            if (hashes[index] == hash && matches(words[index], text, start, end)) {
+                counts[index] += occurrences;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == words.length) {
+            grow();
+            slot = spread(hash) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+        }
+        hashes[size] = hash;
+        words[size] = lowerCaseCopy(text, start, end);
+        counts[size] = occurrences;
+        table[slot] = ++size;
+    }
+
+    private void grow() {
+        int capacity = table.length * 2;
+        table = new int[capacity];
+        mask = capacity - 1;
+        hashes = Arrays.copyOf(hashes, capacity / 2);
+        words = Arrays.copyOf(words, capacity / 2);
+        counts = Arrays.copyOf(counts, capacity / 2);
+        for (int index = 0; index < size; index++) {
+            int slot = spread(hashes[index]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = index + 1;
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static boolean matches(String word, String text, int start, int end) {
+        if (word.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (word.charAt(i - start) != toLowerCase(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String lowerCaseCopy(String text, int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = toLowerCase(text.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the distinct word at the given index, in the order the words were first seen.
+     *
+     * @param index word index
+     * @return lowercase word
+     * @author Karan Tanakhia
+     */
+    public String word(int index) {
+        return words[index];
+    }
+
+    /**
+     * Returns the number of occurrences of the distinct word at the given index.
+     *
+     * @param index word index
+     * @return number of occurrences
+     * @author Karan Tanakhia
+     */
+    public int count(int index) {
+        return counts[index];
+    }
+
+    /**
+     * Returns the most frequent words formatted as "word: count", in descending order of count and, for equal
+     * counts, in the order the words were first seen.
+     *
+     * @param limit maximum number of words to return
+     * @return the top words
+     * @author Karan Tanakhia
+     */
+    public List<String> topWords(int limit) {
+        int[] top = top(limit);
+        List<String> topWords = new ArrayList<>(top.length);
+        for (int index : top) {
+            topWords.add(words[index] + ": " + counts[index]);
+        }
+        return topWords;
+    }
+
+    /**
+     * Returns the indexes of the most frequent words, selected with a heap of at most the given size whose root is
+     * the lowest ranked word kept so far.
+     *
+     * @param limit maximum number of words to return
+     * @return word indexes, highest ranked first
+     * @author Karan Tanakhia
+     */
+    public int[] top(int limit) {
+        int[] heap = new int[Math.max(0, Math.min(limit, size))];
+        if (heap.length == 0) {
+            return heap;
+        }
+        int heapSize = 0;
+        for (int index = 0; index < size; index++) {
+            if (heapSize < heap.length) {
+                heap[heapSize] = index;
+                siftUp(heap, heapSize++);
+            } else if (counts[index] > counts[heap[0]]) {
+                // Later words only replace the root on a strictly higher count, as equal counts rank first seen first
+                heap[0] = index;
+                siftDown(heap, heapSize);
+            }
+        }
+        for (int last = heapSize - 1; last > 0; last--) {
+            int lowest = heap[0];
+            heap[0] = heap[last];
+            heap[last] = lowest;
+            siftDown(heap, last);
+        }
+        return heap;
+    }
+
+    /**
+     * Returns whether the word at index a ranks below the word at index b.
+     */
+    private boolean ranksBelow(int a, int b) {
+        return counts[a] != counts[b] ? counts[a] < counts[b] : a > b;
+    }
+
+    private void siftUp(int[] heap, int position) {
+        int index = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!ranksBelow(index, heap[parent])) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = index;
+    }
+
+    private void siftDown(int[] heap, int heapSize) {
+        int index = heap[0];
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && ranksBelow(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!ranksBelow(heap[child], index)) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = index;
+    }
+}
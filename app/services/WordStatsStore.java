@@ -0,0 +1,257 @@
+package services;
+
+import model.Video;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide word statistics of the videos of each keyword, kept up to date as the search results are refreshed.
+ * <br/>
+ * For every keyword the store keeps the word counts of each retained video, their total per word, and the words
+ * ranked by count. When new results arrive only the videos which joined or left the results are counted or
+ * subtracted, so the ranking is adjusted word by word instead of being sorted again, and the most frequent words
+ * are read straight from memory. Keywords are bounded and evicted least recently updated first; statistics which
+ * have not been updated within the TTL are considered stale.
+ *
+ * @author Karan Tanakhia
+ */
+public class WordStatsStore {
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(60);
+    public static final int DEFAULT_MAX_KEYWORDS = 1000;
+    public static final int DEFAULT_TOP_K = 100;
+
+    private final long ttlNanos;
+    private final int topK;
+    private final LongSupplier nanoClock;
+    private final Map<String, KeywordStats> keywords;
+    private long hits;
+    private long misses;
+    private long videosCounted;
+    private long videosSubtracted;
+
+    public WordStatsStore() {
+        this(DEFAULT_TTL, DEFAULT_MAX_KEYWORDS, DEFAULT_TOP_K);
+    }
+
+    public WordStatsStore(Duration ttl, int maxKeywords, int topK) {
+        this(ttl, maxKeywords, topK, System::nanoTime);
+    }
+
+    WordStatsStore(Duration ttl, int maxKeywords, int topK, LongSupplier nanoClock) {
+        this.ttlNanos = ttl.toNanos();
+        this.topK = topK;
+        this.nanoClock = nanoClock;
+        this.keywords = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, KeywordStats> eldest) {
+                return size() > maxKeywords;
+            }
+        };
+    }
+
+    /**
+     * Updates the statistics of the keyword to the given videos, counting the videos which were not retained yet
+     * and subtracting the ones which are no longer part of the results. A video whose description changed is
+     * counted again.
+     *
+     * @param keyword search keyword
+     * @param videos  current videos of the keyword
+     * @author Karan Tanakhia
+     */
+    public void update(String keyword, List<Video> videos) {
+        KeywordStats stats;
+        synchronized (this) {
+            stats = keywords.computeIfAbsent(SearchCache.normalize(keyword), key -> new KeywordStats());
+        }
+        int[] changes;
+        synchronized (stats) {
+            changes = stats.update(videos);
+            stats.updatedAt = nanoClock.getAsLong();
+        }
+        synchronized (this) {
+            videosCounted += changes[0];
+            videosSubtracted += changes[1];
+        }
+    }
+
+    /**
+     * Returns the most frequent words of the keyword, formatted as "word: count", in descending order of count and,
+     * for equal counts, in the order the words were first seen.
+     *
+     * @param keyword search keyword
+     * @return the top words, or null if the keyword is not tracked or its statistics are stale
+     * @author Karan Tanakhia
+     */
+    public List<String> topWords(String keyword) {
+        KeywordStats stats;
+        synchronized (this) {
+            stats = keywords.get(SearchCache.normalize(keyword));
+        }
+        if (stats != null) {
+            synchronized (stats) {
+                if (nanoClock.getAsLong() - stats.updatedAt <= ttlNanos) {
+                    List<String> top = stats.top(topK);
+                    synchronized (this) {
+                        hits++;
+                    }
+                    return top;
+                }
+            }
+        }
+        synchronized (this) {
+            misses++;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the hit and miss counters of {@link #topWords(String)}, the number of videos counted and subtracted,
+     * and the number of tracked keywords.
+     *
+     * @return counters keyed by name
+     * @author Karan Tanakhia
+     */
+    public synchronized Map<String, Number> stats() {
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("videosCounted", videosCounted);
+        stats.put("videosSubtracted", videosSubtracted);
+        stats.put("keywords", keywords.size());
+        return stats;
+    }
+
+    /**
+     * Word statistics of the retained videos of a keyword.
+     */
+    private static final class KeywordStats {
+        private final Map<String, VideoWords> videos = new HashMap<>();
+        private final Map<String, WordCount> counts = new HashMap<>();
+        private final TreeSet<WordCount> ranking = new TreeSet<>();
+        private long nextSequence;
+        private long updatedAt;
+
+        private int[] update(List<Video> videosNow) {
+            Map<String, Video> current = new LinkedHashMap<>();
+            for (Video video : videosNow) {
+                current.putIfAbsent(keyOf(video), video);
+            }
+
+            int subtracted = 0;
+            Iterator<Map.Entry<String, VideoWords>> retained = videos.entrySet().iterator();
+            while (retained.hasNext()) {
+                Map.Entry<String, VideoWords> entry = retained.next();
+                Video video = current.get(entry.getKey());
+                if (video == null || !entry.getValue().description.equals(descriptionOf(video))) {
+                    apply(entry.getValue(), -1);
+                    retained.remove();
+                    subtracted++;
+                }
+            }
+            int counted = 0;
+            for (Map.Entry<String, Video> entry : current.entrySet()) {
+                if (!videos.containsKey(entry.getKey())) {
+                    VideoWords words = VideoWords.of(entry.getValue());
+                    apply(words, 1);
+                    videos.put(entry.getKey(), words);
+                    counted++;
+                }
+            }
+            return new int[]{counted, subtracted};
+        }
+
+        private void apply(VideoWords words, int sign) {
+            for (int i = 0; i < words.words.length; i++) {
+                String word = words.words[i];
+                WordCount count = counts.get(word);
+                if (count == null) {
+                    count = new WordCount(word, nextSequence++);
+                    counts.put(word, count);
+                } else {
+                    ranking.remove(count);
+                }
+                count.count += sign * words.counts[i];
+                if (count.count > 0) {
+                    ranking.add(count);
+                } else {
+                    counts.remove(word);
+                }
+            }
+        }
+
+        private List<String> top(int k) {
+            List<String> top = new ArrayList<>(Math.min(k, ranking.size()));
+            for (WordCount count : ranking) {
+                if (top.size() == k) {
+                    break;
+                }
+                top.add(count.word + ": " + count.count);
+            }
+            return Collections.unmodifiableList(top);
+        }
+
+        private static String keyOf(Video video) {
+            return video.getVideoId() != null ? video.getVideoId() : descriptionOf(video);
+        }
+    }
+
+    private static String descriptionOf(Video video) {
+        return video.getDescription() == null ? "" : video.getDescription();
+    }
+
+    /**
+     * Distinct words of a video description with the number of times each occurs.
+     */
+    private static final class VideoWords {
+        private final String description;
+        private final String[] words;
+        private final int[] counts;
+
+        private VideoWords(String description, String[] words, int[] counts) {
+            this.description = description;
+            this.words = words;
+            this.counts = counts;
+        }
+
+        private static VideoWords of(Video video) {
+            WordCounter wordCounter = new WordCounter();
+            wordCounter.addWordTokens(video.tokens());
+            String[] words = new String[wordCounter.size()];
+            int[] occurrences = new int[wordCounter.size()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = wordCounter.word(i);
+                occurrences[i] = wordCounter.count(i);
+            }
+            return new VideoWords(descriptionOf(video), words, occurrences);
+        }
+    }
+
+    /**
+     * Total count of a word, ordered by descending count, then by the order the words were first seen.
+     */
+    private static final class WordCount implements Comparable<WordCount> {
+        private final String word;
+        private final long sequence;
+        private long count;
+
+        private WordCount(String word, long sequence) {
+            this.word = word;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(WordCount other) {
+            int byCount = Long.compare(other.count, count);
+            return byCount != 0 ? byCount : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package services;
+
+import model.ChannelProfile;
+import model.Video;
+import play.libs.ws.WSClient;
+import play.libs.ws.WSRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+
+/**
+ * Client for the YouTube Data API, shared by the services and the actors.
+ * <br/>
+ * Every call goes through the {@link QuotaScheduler} and is parsed with the {@link YouTubeJsonParser}. Each request
+ * asks for a partial response with a {@code fields} selector listing only the fields the parser maps, and declares
+ * a gzip capable user agent, which YouTube requires before it compresses a response. The compressed body is
+ * negotiated and inflated by the WS client ({@code play.ws.compressionEnabled}), whose connection pool towards
+ * the API is tuned under {@code play.ws.ahc} in application.conf.
+ *
+ * @author Utsav Patel
+ */
+public class YouTubeClient {
+    public static final String DEFAULT_BASE_URL = "https://www.googleapis.com/youtube/v3";
+    public static final String YOUTUBE_SEARCH_URL = DEFAULT_BASE_URL + "/search";
+    public static final String YOUTUBE_VIDEO_URL = DEFAULT_BASE_URL + "/videos";
+    public static final String YOUTUBE_CHANNEL_URL = DEFAULT_BASE_URL + "/channels";
+
+    static final String SEARCH_FIELDS =
+            "items(id/videoId,snippet(publishedAt,channelId,title,description,thumbnails/high/url,channelTitle))";
+    static final String DESCRIPTION_FIELDS = "items(id,snippet/description)";
+    static final String VIDEO_FIELDS =
+            "items(id,snippet(publishedAt,channelId,title,description,thumbnails/high/url,channelTitle,tags))";
+    static final String CHANNEL_FIELDS =
+            "items(snippet(title,description,thumbnails/default/url),statistics(subscriberCount,videoCount))";
+    static final String USER_AGENT = "TubeLytics (gzip)";
+
+    private static final int MAX_IDS_PER_REQUEST = 50;
+
+    private final WSClient ws;
+    private final String apiKey;
+    private final QuotaScheduler quotaScheduler;
+    private final String searchUrl;
+    private final String videoUrl;
+    private final String channelUrl;
+
+    /**
+     * Creates a client which does not limit the calls, as used by the tests.
+     *
+     * @param ws     WS client used for the HTTP calls
+     * @param apiKey YouTube API key
+     * @author Utsav Patel
+     */
+    public YouTubeClient(WSClient ws, String apiKey) {
+        this(ws, apiKey, QuotaScheduler.unlimited());
+    }
+
+    /**
+     * Creates a client scheduling every call with the given quota scheduler.
+     *
+     * @param ws             WS client used for the HTTP calls
+     * @param apiKey         YouTube API key
+     * @param quotaScheduler scheduler charging every call against the YouTube quota
+     * @author Utsav Patel
+     */
+    public YouTubeClient(WSClient ws, String apiKey, QuotaScheduler quotaScheduler) {
+        this(ws, apiKey, quotaScheduler, DEFAULT_BASE_URL);
+    }
+
+    /**
+     * Creates a client calling the API under the given base URL, such as the local
+     * {@link services.stub.YouTubeStubServer} instead of Google.
+     *
+     * @param ws             WS client used for the HTTP calls
+     * @param apiKey         YouTube API key
+     * @param quotaScheduler scheduler charging every call against the YouTube quota
+     * @param baseUrl        base URL of the API, without the trailing slash
+     * @author Utsav Patel
+     */
+    public YouTubeClient(WSClient ws, String apiKey, QuotaScheduler quotaScheduler, String baseUrl) {
+        this.ws = ws;
+        this.apiKey = apiKey;
+        this.quotaScheduler = quotaScheduler;
+        this.searchUrl = baseUrl + "/search";
+        this.videoUrl = baseUrl + "/videos";
+        this.channelUrl = baseUrl + "/channels";
+    }
+
+    public QuotaScheduler getQuotaScheduler() {
+        return quotaScheduler;
+    }
+
+    /**
+     * Searches the latest 50 videos matching the keyword, without their full descriptions.
+     *
+     * @param keyword        search keyword
+     * @param publishedAfter only return videos published at or after this RFC 3339 time, or null for the latest videos
+     * @return videos found, newest first
+     * @author Utsav Patel
+     */
+    public CompletionStage<List<Video>> searchVideos(String keyword, String publishedAfter) {
+        WSRequest request = request(searchUrl, SEARCH_FIELDS)
+                .addQueryParameter("part", "snippet")
+                .addQueryParameter("q", keyword)
+                .addQueryParameter("type", "video")
+                .addQueryParameter("maxResults", "50")
+                .addQueryParameter("order", "date");
+        if (publishedAfter != null) {
+            request = request.addQueryParameter("publishedAfter", publishedAfter);
+        }
+        return quotaScheduler.schedule(QuotaScheduler.Endpoint.SEARCH, request::get)
+                .thenApply(YouTubeJsonParser::parseSearchResults);
+    }
+
+    /**
+     * Searches the latest videos of a channel.
+     *
+     * @param channelId  channel id
+     * @param maxResults maximum number of videos to return
+     * @return videos of the channel, newest first
+     * @author Amish Navadia
+     */
+    public CompletionStage<List<Video>> searchChannelVideos(String channelId, int maxResults) {
+        WSRequest request = request(searchUrl, SEARCH_FIELDS)
+                .addQueryParameter("part", "snippet")
+                .addQueryParameter("channelId", channelId)
+                .addQueryParameter("order", "date")
+                .addQueryParameter("type", "video")
+                .addQueryParameter("maxResults", Integer.toString(maxResults));
+        return quotaScheduler.schedule(QuotaScheduler.Endpoint.SEARCH, request::get)
+                .thenApply(response -> {
+                    List<Video> videos = YouTubeJsonParser.parseSearchResults(response);
+                    videos.forEach(video -> video.setChannelId(channelId));
+                    return videos;
+                });
+    }
+
+    /**
+     * Replaces the truncated descriptions returned by the search with the full descriptions. The ids are sent as a
+     * comma separated list, at most 50 per videos.list call.
+     *
+     * @param videos videos to hydrate
+     * @return CompletionStage which completes once every batch has been applied
+     * @author Utsav Patel
+     */
+    public CompletionStage<Void> fetchDescriptions(List<Video> videos) {
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < videos.size(); from += MAX_IDS_PER_REQUEST) {
+            List<Video> batch = videos.subList(from, Math.min(from + MAX_IDS_PER_REQUEST, videos.size()));
+            batches.add(fetchDescriptionBatch(batch).toCompletableFuture());
+        }
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Fetches the full descriptions of up to 50 videos with a single videos.list call. Videos missing from the
+     * response keep the description returned by the search.
+     */
+    private CompletionStage<Void> fetchDescriptionBatch(List<Video> batch) {
+        String ids = batch.stream().map(Video::getVideoId).collect(Collectors.joining(","));
+        WSRequest request = request(videoUrl, DESCRIPTION_FIELDS)
+                .addQueryParameter("part", "snippet")
+                .addQueryParameter("id", ids);
+        return quotaScheduler.schedule(QuotaScheduler.Endpoint.VIDEOS, request::get)
+                .thenApply(YouTubeJsonParser::parseDescriptions)
+                .thenAccept(descriptions -> batch.forEach(video -> {
+                    String fullDescription = descriptions.get(video.getVideoId());
+                    if (fullDescription != null) {
+                        video.setDescription(fullDescription);
+                    }
+                }));
+    }
+
+    /**
+     * Fetches a video along with its tags.
+     *
+     * @param videoId video id
+     * @return the video
+     * @author Yash Ajmeri
+     */
+    public CompletionStage<Video> getVideo(String videoId) {
+        WSRequest request = request(videoUrl, VIDEO_FIELDS)
+                .addQueryParameter("part", "snippet")
+                .addQueryParameter("id", videoId);
+        return quotaScheduler.schedule(QuotaScheduler.Endpoint.VIDEOS, request::get)
+                .thenApply(YouTubeJsonParser::parseVideo)
+                .thenApply(video -> {
+                    video.setVideoId(videoId);
+                    return video;
+                });
+    }
+
+    /**
+     * Fetches the profile of a channel, without its videos.
+     *
+     * @param channelId channel id
+     * @return the channel profile
+     * @author Amish Navadia
+     */
+    public CompletionStage<ChannelProfile> getChannelProfile(String channelId) {
+        WSRequest request = request(channelUrl, CHANNEL_FIELDS)
+                .addQueryParameter("part", "snippet,statistics")
+                .addQueryParameter("id", channelId);
+        return quotaScheduler.schedule(QuotaScheduler.Endpoint.CHANNELS, request::get)
+                .thenApply(YouTubeJsonParser::parseChannelProfile);
+    }
+
+    /**
+     * Creates a request for the given endpoint, with the API key, the partial response selector and the user agent.
+     */
+    private WSRequest request(String url, String fields) {
+        return ws.url(url)
+                .addHeader("User-Agent", USER_AGENT)
+                .addQueryParameter("fields", fields)
+                .addQueryParameter("key", apiKey);
+    }
+}
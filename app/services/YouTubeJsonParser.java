@@ -0,0 +1,285 @@
+package services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import model.ChannelProfile;
+import model.Video;
+import play.libs.ws.WSResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses the YouTube Data API responses with Jackson's streaming {@link JsonParser}.
+ * <br/>
+ * The {@link Video} and {@link ChannelProfile} objects are built directly from the response body, in a single pass
+ * and without building a {@code JsonNode} tree first. Fields which are never read, such as the etags, the other
+ * thumbnail sizes or the page info, are skipped without being materialized.
+ *
+ * @author Utsav Patel
+ */
+public final class YouTubeJsonParser {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private YouTubeJsonParser() {
+    }
+
+    /**
+     * Parses a search.list response into its videos, in the order returned by the API.
+     *
+     * @param response search.list response
+     * @return videos found
+     * @author Utsav Patel
+     */
+    public static List<Video> parseSearchResults(WSResponse response) {
+        return parseSearchResults(bodyOf(response));
+    }
+
+    /**
+     * Parses a search.list response body into its videos, in the order returned by the API.
+     *
+     * @param body search.list response body
+     * @return videos found
+     * @author Utsav Patel
+     */
+    public static List<Video> parseSearchResults(InputStream body) {
+        return parseItems(body);
+    }
+
+    /**
+     * Parses a videos.list response into the description of every video, keyed by video id.
+     *
+     * @param response videos.list response
+     * @return descriptions keyed by video id
+     * @author Utsav Patel
+     */
+    public static Map<String, String> parseDescriptions(WSResponse response) {
+        Map<String, String> descriptions = new HashMap<>();
+        for (Video video : parseItems(bodyOf(response))) {
+            if (video.getVideoId() != null && video.getDescription() != null) {
+                descriptions.put(video.getVideoId(), video.getDescription());
+            }
+        }
+        return descriptions;
+    }
+
+    /**
+     * Parses the first video of a videos.list response, along with its tags.
+     *
+     * @param response videos.list response
+     * @return first video of the response
+     * @author Utsav Patel
+     */
+    public static Video parseVideo(WSResponse response) {
+        List<Video> videos = parseItems(bodyOf(response));
+        if (videos.isEmpty()) {
+            throw new IllegalStateException("No video found in the response");
+        }
+        return videos.get(0);
+    }
+
+    /**
+     * Parses the first channel of a channels.list response requested with the snippet and statistics parts.
+     *
+     * @param response channels.list response
+     * @return channel profile, without videos
+     * @author Utsav Patel
+     */
+    public static ChannelProfile parseChannelProfile(WSResponse response) {
+        return parseChannelProfile(bodyOf(response));
+    }
+
+    /**
+     * Parses the first channel of a channels.list response body requested with the snippet and statistics parts.
+     *
+     * @param body channels.list response body
+     * @return channel profile, without videos
+     * @author Utsav Patel
+     */
+    public static ChannelProfile parseChannelProfile(InputStream body) {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            ChannelProfile profile = null;
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    if ("items".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            if (profile == null) {
+                                profile = new ChannelProfile(null, null, null, null, null, new ArrayList<>());
+                                readChannel(parser, profile);
+                            } else {
+                                parser.skipChildren();
+                            }
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+            if (profile == null) {
+                throw new IllegalStateException("No channel found in the response");
+            }
+            return profile;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static InputStream bodyOf(WSResponse response) {
+        return new ByteBufferBackedInputStream(response.getBodyAsBytes().asByteBuffer());
+    }
+
+    private static List<Video> parseItems(InputStream body) {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            List<Video> videos = new ArrayList<>();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return videos;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("items".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        videos.add(readVideo(parser));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return videos;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a search.list or videos.list item. The id is an object holding the videoId in the former
+     * and the video id itself in the latter.
+     */
+    private static Video readVideo(JsonParser parser) throws IOException {
+        Video video = new Video();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if ("id".equals(field)) {
+                if (token == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String idField = parser.getCurrentName();
+                        parser.nextToken();
+                        if ("videoId".equals(idField)) {
+                            video.setVideoId(parser.getValueAsString());
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    video.setVideoId(parser.getValueAsString());
+                }
+            } else if ("snippet".equals(field) && token == JsonToken.START_OBJECT) {
+                readVideoSnippet(parser, video);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return video;
+    }
+
+    private static void readVideoSnippet(JsonParser parser, Video video) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "title" -> video.setTitle(parser.getValueAsString());
+                case "description" -> video.setDescription(parser.getValueAsString());
+                case "channelId" -> video.setChannelId(parser.getValueAsString());
+                case "channelTitle" -> video.setChannelTitle(parser.getValueAsString());
+                case "publishedAt" -> video.setPublishedAt(parser.getValueAsString());
+                case "thumbnails" -> video.setImageUrl(readThumbnailUrl(parser, "high"));
+                case "tags" -> video.setTags(token == JsonToken.START_ARRAY ? readTags(parser) : null);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readChannel(JsonParser parser, ChannelProfile profile) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if ("snippet".equals(field) && token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String snippetField = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (snippetField) {
+                        case "title" -> profile.setName(parser.getValueAsString());
+                        case "description" -> profile.setDescription(parser.getValueAsString());
+                        case "thumbnails" -> profile.setImageUrl(readThumbnailUrl(parser, "default"));
+                        default -> parser.skipChildren();
+                    }
+                }
+            } else if ("statistics".equals(field) && token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String statisticsField = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (statisticsField) {
+                        case "subscriberCount" -> profile.setSubscriberCount(parser.getValueAsString());
+                        case "videoCount" -> profile.setVideoCount(parser.getValueAsString());
+                        default -> parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Reads the url of the thumbnail of the given size, skipping the other sizes.
+     */
+    private static String readThumbnailUrl(JsonParser parser, String size) throws IOException {
+        String url = null;
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String thumbnailSize = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (size.equals(thumbnailSize) && token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    if ("url".equals(field)) {
+                        url = parser.getValueAsString();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return url;
+    }
+
+    /**
+     * Reads the tags array as a comma separated list, the format the video page expects.
+     */
+    private static String readTags(JsonParser parser) throws IOException {
+        StringBuilder tags = new StringBuilder();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (tags.length() > 0) {
+                tags.append(',');
+            }
+            tags.append(parser.getValueAsString());
+        }
+        return tags.toString();
+    }
+}
@@ -1,14 +1,11 @@
 package services.impl;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import model.Video;
 import play.libs.ws.WSClient;
-import play.libs.ws.WSResponse;
 import services.VideoService;
+import services.YouTubeClient;
 
 import javax.inject.Inject;
-import java.util.List;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
 /**
@@ -17,15 +14,16 @@ import java.util.concurrent.CompletionStage;
  * @author Yash Ajmeri
  */
 public class VideoServiceImpl implements VideoService {
-    private final WSClient ws;
-    private final String apiKey;
-    private static final String YOUTUBE_VIDEO_URL = "https://www.googleapis.com/youtube/v3/videos";
+    private final YouTubeClient youTubeClient;
 
 
-    @Inject
     public VideoServiceImpl(WSClient ws, String apiKey) {
-        this.ws = ws;
-        this.apiKey = apiKey;
+        this(new YouTubeClient(ws, apiKey));
+    }
+
+    @Inject
+    public VideoServiceImpl(YouTubeClient youTubeClient) {
+        this.youTubeClient = youTubeClient;
     }
 
     /**
@@ -35,33 +33,8 @@ public class VideoServiceImpl implements VideoService {
      */
     @Override
     public CompletionStage<Video> getVideoById(String videoId) {
-        return this.ws.url(YOUTUBE_VIDEO_URL)
-                .addQueryParameter("part", "snippet")
-                .addQueryParameter("id", videoId)
-                .addQueryParameter("key", apiKey)
-                .get()
-                .thenApply(WSResponse::asJson)
-                .thenApply(json -> {
-                    JsonNode jsonNode = json.get("items");
-                    JsonNode item = jsonNode.get(0);
-
-                    String title = item.get("snippet").get("title").asText();
-                    String description = item.get("snippet").get("description").asText();
-                    String imageUrl = item.get("snippet").get("thumbnails").get("high").get("url").asText();
-                    String channelId = item.get("snippet").get("channelId").asText();
-                    String channelTitle = item.get("snippet").get("channelTitle").asText();
-                    String tags = null;
-
-                    if(item.get("snippet").has("tags")){
-                        List<String> valuesAsText = item.get("snippet").findValuesAsText("tags");
-                        tags = item.get("snippet").findValue("tags").toString();
-                        tags = tags.substring(1, tags.length()-1).replace("\"", "");
-                    }
-
-                    return new Video(videoId, title, description, imageUrl, channelId, channelTitle,tags);
-                });
+        return youTubeClient.getVideo(videoId);
     }
 
 
 }
-
@@ -1,23 +1,21 @@
 package services.impl;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import model.ChannelProfile;
 import model.Response;
+import model.TokenizedText;
 import model.Video;
 import play.libs.ws.WSClient;
-import play.libs.ws.WSRequest;
-import play.libs.ws.WSResponse;
+import services.SearchCache;
+import services.WordCounter;
+import services.WordStatsStore;
+import services.YouTubeClient;
 import services.YouTubeService;
 
 import javax.inject.Inject;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 /**
  * It is the implementation class of YouTubeService.
@@ -26,20 +24,27 @@ import java.util.stream.StreamSupport;
  */
 public class YouTubeServiceImpl implements YouTubeService {
 
-    private final WSClient ws;
-    private final String apiKey;
-    private static final String YOUTUBE_SEARCH_URL = "https://www.googleapis.com/youtube/v3/search";
-    private static final String YOUTUBE_VIDEO_URL = "https://www.googleapis.com/youtube/v3/videos";
-    private static final String YOUTUBE_CHANNEL_URL = "https://www.googleapis.com/youtube/v3/channels";
+    private final YouTubeClient youTubeClient;
+    private final SearchCache searchCache;
+    private final WordStatsStore wordStatsStore;
 
-    @Inject
     public YouTubeServiceImpl(WSClient ws, String apiKey) {
-        this.ws = ws;
-        this.apiKey = apiKey;
+        this(new YouTubeClient(ws, apiKey), new SearchCache());
+    }
+
+    public YouTubeServiceImpl(YouTubeClient youTubeClient, SearchCache searchCache) {
+        this(youTubeClient, searchCache, new WordStatsStore());
+    }
+
+    @Inject
+    public YouTubeServiceImpl(YouTubeClient youTubeClient, SearchCache searchCache, WordStatsStore wordStatsStore) {
+        this.youTubeClient = youTubeClient;
+        this.searchCache = searchCache;
+        this.wordStatsStore = wordStatsStore;
     }
 
     /**
-     * This method will fetch the videos from the YouTube API based on the provided keyword.
+     * This method will return the videos for the provided keyword, served from the shared search cache when possible.
      *
      * @param keyword to filter out videos based on it.
      * @return CompletionStage of Response
@@ -47,49 +52,37 @@ public class YouTubeServiceImpl implements YouTubeService {
      */
     @Override
     public CompletionStage<Response> searchVideos(String keyword) {
-        WSRequest request = ws.url(YOUTUBE_SEARCH_URL)
-                .addQueryParameter("part", "snippet")
-                .addQueryParameter("q", keyword)
-                .addQueryParameter("type", "video")
-                .addQueryParameter("maxResults", "50")
-                .addQueryParameter("order", "date")
-                .addQueryParameter("key", apiKey);
-
-        CompletionStage<Response> responseStage = request.get()
-                .thenApply(WSResponse::asJson)
-                .thenApply(json -> {
-                    Iterable<JsonNode> items = json.get("items");
-                    return StreamSupport.stream(items.spliterator(), false)
-                            .map(item -> {
-                                String videoId = item.get("id").get("videoId").asText();
-                                String title = item.get("snippet").get("title").asText();
-                                String description = item.get("snippet").get("description").asText();
-                                String imageUrl = item.get("snippet").get("thumbnails").get("high").get("url").asText();
-                                String channelId = item.get("snippet").get("channelId").asText();
-                                String channelTitle = item.get("snippet").get("channelTitle").asText();
-                                return new Video(videoId, title, description, imageUrl, channelId, channelTitle);
-                            });
-                })
-                .thenApply(videoStream -> {
-                    Response response = new Response();
-                    response.setQuery(keyword);
-                    response.setVideos(videoStream.toList());
-                    return response;
-                });
-
-        responseStage = responseStage
-                .thenCompose(response -> {
-                    List<CompletableFuture<Void>> completionStageList = response.getVideos().stream()
-                            .map(video -> fetchDescription(video.getVideoId())
-                                    .thenAccept(video::setDescription).toCompletableFuture()).toList();
-
-                    CompletableFuture<Void> allUpdates = CompletableFuture.allOf(
-                            completionStageList.toArray(new CompletableFuture[0])
-                    );
-
-                    return allUpdates.thenApply(ignored -> response);
-                });
-        return responseStage;
+        return searchCache.get(keyword, this::fetchVideos);
+    }
+
+    /**
+     * This method will fetch the full descriptions of the given videos using the YouTube API.
+     * The ids are sent as a comma separated list, at most 50 per videos.list call, instead of one call per video.
+     *
+     * @param videos videos whose description should be replaced by the full description
+     * @return CompletionStage which completes once every batch has been applied
+     * @author Utsav Patel
+     */
+    public CompletionStage<Void> fetchDescriptions(List<Video> videos) {
+        return youTubeClient.fetchDescriptions(videos);
+    }
+
+    /**
+     * This method will fetch the videos from the YouTube API based on the provided keyword.
+     *
+     * @param keyword to filter out videos based on it.
+     * @return CompletionStage of Response
+     * @author Utsav Patel
+     */
+    private CompletionStage<Response> fetchVideos(String keyword) {
+        return youTubeClient.searchVideos(keyword, null)
+                .thenCompose(videos -> youTubeClient.fetchDescriptions(videos)
+                        .thenApply(ignored -> {
+                            Response response = new Response();
+                            response.setQuery(keyword);
+                            response.setVideos(videos);
+                            return response;
+                        }));
     }
 
     /**
@@ -98,24 +91,7 @@ public class YouTubeServiceImpl implements YouTubeService {
      * @author Amish Navadia
      */
     public CompletionStage<ChannelProfile> getChannelProfile(String channelId) {
-        return this.ws.url(YOUTUBE_CHANNEL_URL)
-                .addQueryParameter("part", "snippet,statistics")
-                .addQueryParameter("id", channelId)
-                .addQueryParameter("key", apiKey)
-                .get()
-                .thenApply(response -> {
-                    String name = response.asJson().get("items").get(0).get("snippet").get("title").asText();
-                    String imageUrl = response.asJson().get("items").get(0).get("snippet").get("thumbnails")
-                            .get("default").get("url").asText();
-                    String description = response.asJson().get("items").get(0).get("snippet").get("description").asText();
-                    String subscriberCount = response.asJson().get("items").get(0).get("statistics")
-                            .get("subscriberCount").asText();
-                    String videoCount = response.asJson().get("items").get(0).get("statistics")
-                            .get("videoCount").asText();
-
-                    // Return a new ChannelProfile object with fetched data
-                    return new ChannelProfile(name, imageUrl, description, subscriberCount, videoCount, new ArrayList<>());
-                });
+        return youTubeClient.getChannelProfile(channelId);
     }
 
     /**
@@ -125,54 +101,13 @@ public class YouTubeServiceImpl implements YouTubeService {
      */
     @Override
     public CompletionStage<List<Video>> getChannelVideos(String channelId, int i) {
-        return this.ws.url(YOUTUBE_SEARCH_URL)
-                .addQueryParameter("part", "snippet")
-                .addQueryParameter("channelId", channelId)
-                .addQueryParameter("order", "date")
-                .addQueryParameter("type", "video")
-                .addQueryParameter("maxResults", Integer.toString(i))
-                .addQueryParameter("key", apiKey)
-                .get()
-                .thenApply(WSResponse::asJson)
-                .thenApply(json -> {
-                    Iterable<JsonNode> items = json.get("items");
-
-                    return StreamSupport.stream(items.spliterator(), false)
-                            .map(item -> {
-                                String videoId = item.get("id").get("videoId").asText();
-                                String title = item.get("snippet").get("title").asText();
-                                String description = item.get("snippet").get("description").asText();
-                                String imageUrl = item.get("snippet").get("thumbnails").get("high").get("url").asText();
-                                String channelTitle = item.get("snippet").get("channelTitle").asText();
-
-                                return new Video(videoId, title, description, imageUrl, channelId, channelTitle);
-                            }).toList();
-                });
-    }
-
-    /**
-     * This method will fetch the full description of the YouTube video using the YouTube API. 
-     *
-     * @param id id of the video
-     * @return CompletionStage of String (full description)
-     * @author Utsav Patel
-     */
-    public CompletionStage<String> fetchDescription(String id) {
-        return this.ws.url(YOUTUBE_VIDEO_URL)
-                .addQueryParameter("part", "snippet")
-                .addQueryParameter("id", id)
-                .addQueryParameter("key", apiKey)
-                .get()
-                .thenApply(WSResponse::asJson)
-                .thenApply(json -> {
-                    JsonNode item = json.get("items");
-                    String fullDescription = item.get(0).findPath("snippet").findPath("description").asText();
-                    return fullDescription;
-                });
+        return youTubeClient.searchChannelVideos(channelId, i);
     }
 
     /**
-     * This method will fetch the videos from the YouTube API based on the provided keyword and then return the list of word and it's frequency from the all videos description .
+     * This method will return the list of word and it's frequency from the all videos description of the provided keyword.
+     * The statistics are served from the shared word stats store, which the search results of every user keep up to date.
+     * Only when the keyword is not tracked, or its statistics are stale, are the videos searched and counted into the store.
      *
      * @author Karan Tanakhia
      * @param keyword the search keyword for which to retrieve video descriptions
@@ -180,20 +115,16 @@ public class YouTubeServiceImpl implements YouTubeService {
      */
     @Override
     public CompletionStage<List<String>> wordStatesVideos(String keyword) {
-
-        CompletionStage<Response> responseCompletionStage = this.searchVideos(keyword);
-
-        return responseCompletionStage.thenApply(response -> {
-            List<Video> videos = response.getVideos();
-            List<String> descriptions = videos.stream().map(Video::getDescription)
-                    .collect(Collectors.toList());
-
-            List<String> wordStats = calculateWordStats(descriptions);
-
-            return wordStats;
-
+        List<String> tracked = wordStatsStore.topWords(keyword);
+        if (tracked != null) {
+            return CompletableFuture.completedFuture(tracked);
+        }
+
+        return this.searchVideos(keyword).thenApply(response -> {
+            wordStatsStore.update(keyword, response.getVideos());
+            List<String> wordStats = wordStatsStore.topWords(keyword);
+            return wordStats != null ? wordStats : List.of();
         });
-
     }
 
     /**
@@ -203,17 +134,49 @@ public class YouTubeServiceImpl implements YouTubeService {
      * @param descriptions the list of video descriptions to analyze
      * @return List<String> a list of word statistics formatted as "word: count"
      */
-    private List<String> calculateWordStats(List<String> descriptions) {
-        Map<String, Long> wordCounts = descriptions.stream()
-                .flatMap(description -> Stream.of(description.split("\\W+")))
-                .map(String::toLowerCase)
-                .filter(word -> !word.isEmpty())
-                .collect(Collectors.groupingBy(word -> word, Collectors.counting()));
-
-
-        return wordCounts.entrySet().stream()
-                .sorted((entry1, entry2) -> entry2.getValue().compareTo(entry1.getValue()))
-                .map(entry -> entry.getKey() + ": " + entry.getValue())
-                .collect(Collectors.toList());
+    public static List<String> calculateWordStats(List<String> descriptions) {
+        return calculateWordStats(descriptions, Integer.MAX_VALUE);
+    }
+
+    /**
+     * This method will generate the statistics of the most frequent words only, in descending order of count.
+     *
+     * @author Karan Tanakhia
+     * @param descriptions the list of video descriptions to analyze
+     * @param limit the maximum number of words to return
+     * @return List<String> a list of word statistics formatted as "word: count"
+     */
+    public static List<String> calculateWordStats(List<String> descriptions, int limit) {
+        return calculateWordStatsOfTokens(descriptions.stream()
+                .map(TokenizedText::of)
+                .collect(Collectors.toList()), limit);
+    }
+
+    /**
+     * This method will generate the word statistics from the word tokens of the already tokenized descriptions.
+     *
+     * @author Karan Tanakhia
+     * @param descriptions the tokenized video descriptions to analyze
+     * @return List<String> a list of word statistics formatted as "word: count"
+     */
+    public static List<String> calculateWordStatsOfTokens(List<TokenizedText> descriptions) {
+        return calculateWordStatsOfTokens(descriptions, Integer.MAX_VALUE);
+    }
+
+    /**
+     * This method will count the words of the already tokenized descriptions with primitive counts, then select and
+     * format the most frequent words only. Equal counts keep the order the words were first seen.
+     *
+     * @author Karan Tanakhia
+     * @param descriptions the tokenized video descriptions to analyze
+     * @param limit the maximum number of words to return
+     * @return List<String> a list of word statistics formatted as "word: count"
+     */
+    public static List<String> calculateWordStatsOfTokens(List<TokenizedText> descriptions, int limit) {
+        WordCounter wordCounter = new WordCounter();
+        for (TokenizedText description : descriptions) {
+            wordCounter.addWordTokens(description);
+        }
+        return wordCounter.topWords(limit);
     }
 }
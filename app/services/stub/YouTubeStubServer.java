@@ -0,0 +1,414 @@
+package services.stub;
+
+import akka.actor.ActorSystem;
+import akka.http.javadsl.Http;
+import akka.http.javadsl.ServerBinding;
+import akka.http.javadsl.model.ContentTypes;
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.StatusCode;
+import akka.http.javadsl.model.StatusCodes;
+import akka.http.javadsl.server.Route;
+import akka.pattern.Patterns;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static akka.http.javadsl.server.Directives.*;
+
+/**
+ * Embedded Akka HTTP server standing in for the YouTube Data API, so the whole pipeline can be load tested and
+ * benchmarked offline.
+ * <br/>
+ * It serves {@code /youtube/v3/search}, {@code /youtube/v3/videos} and {@code /youtube/v3/channels}, either from
+ * recorded fixtures ({@code search.json}, {@code videos.json} and {@code channels.json} in the fixtures directory)
+ * or from generated ones. Generated results are deterministic per keyword: a new video is published every
+ * {@code new-video-interval}, so {@code publishedAfter} refreshes see new videos over time. Every response is
+ * delayed according to the configured latency distribution, and may be replaced by a 403 quotaExceeded or a
+ * 500 backendError at the configured rates. The {@code fields} selector is not applied, the full items are
+ * returned; responses are gzip compressed when the client accepts it.
+ * <br/>
+ * It is started by the Module when {@code youtube.stub.enabled} is set, and can also be run on its own with
+ * {@code sbt "runMain services.stub.YouTubeStubServer"}.
+ *
+ * @author Utsav Patel
+ */
+public class YouTubeStubServer {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String[] WORDS = {
+            "java", "tutorial", "learn", "the", "framework", "and", "build", "a", "simple", "application",
+            "with", "actors", "streams", "happy", "great", "love", "sad", "bad", "terrible", "today",
+            "we", "explore", "how", "to", "use", "reactive", "programming", "in", "production", "code"
+    };
+
+    private final ActorSystem system;
+    private final Settings settings;
+    private final byte[] searchFixture;
+    private final byte[] videosFixture;
+    private final byte[] channelsFixture;
+    private ServerBinding binding;
+
+    private YouTubeStubServer(ActorSystem system, Settings settings) {
+        this.system = system;
+        this.settings = settings;
+        this.searchFixture = readFixture(settings.fixturesDir, "search.json");
+        this.videosFixture = readFixture(settings.fixturesDir, "videos.json");
+        this.channelsFixture = readFixture(settings.fixturesDir, "channels.json");
+    }
+
+    /**
+     * Starts the stub server and waits until it is bound.
+     *
+     * @param system   actor system running the server
+     * @param settings stub settings
+     * @return the started server
+     * @author Utsav Patel
+     */
+    public static YouTubeStubServer start(ActorSystem system, Settings settings) {
+        YouTubeStubServer server = new YouTubeStubServer(system, settings);
+        server.binding = Http.get(system).newServerAt(settings.host, settings.port)
+                .bind(server.route())
+                .toCompletableFuture()
+                .join();
+        return server;
+    }
+
+    /**
+     * Returns the base URL to give to the {@link services.YouTubeClient}, with the port actually bound.
+     *
+     * @return base URL of the stub API
+     * @author Utsav Patel
+     */
+    public String baseUrl() {
+        return "http://" + settings.host + ":" + binding.localAddress().getPort() + "/youtube/v3";
+    }
+
+    /**
+     * Unbinds the server.
+     *
+     * @return CompletionStage which completes once the server no longer accepts connections
+     * @author Utsav Patel
+     */
+    public CompletionStage<?> stop() {
+        return binding.unbind();
+    }
+
+    Route route() {
+        return encodeResponse(() -> pathPrefix("youtube", () -> pathPrefix("v3", () -> concat(
+                path("search", () -> get(() -> parameterMap(params ->
+                        respond(() -> searchFixture != null ? searchFixture : search(params))))),
+                path("videos", () -> get(() -> parameterMap(params ->
+                        respond(() -> videosFixture != null ? videosFixture : videos(params))))),
+                path("channels", () -> get(() -> parameterMap(params ->
+                        respond(() -> channelsFixture != null ? channelsFixture : channels(params)))))
+        ))));
+    }
+
+    /**
+     * Completes the request after the sampled latency, with the body or with an injected error.
+     */
+    private Route respond(Supplier<byte[]> body) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double draw = random.nextDouble();
+        CompletionStage<HttpResponse> response;
+        if (draw < settings.quotaErrorRate) {
+            response = CompletableFuture.completedFuture(error(StatusCodes.FORBIDDEN, "youtube.quota", "quotaExceeded",
+                    "The request cannot be completed because you have exceeded your quota."));
+        } else if (draw < settings.quotaErrorRate + settings.errorRate) {
+            response = CompletableFuture.completedFuture(error(StatusCodes.INTERNAL_SERVER_ERROR, "global", "backendError",
+                    "Backend Error"));
+        } else {
+            response = CompletableFuture.completedFuture(HttpResponse.create()
+                    .withEntity(ContentTypes.APPLICATION_JSON, body.get()));
+        }
+        Duration latency = settings.sampleLatency(random);
+        if (latency.isZero()) {
+            return completeWithFuture(response);
+        }
+        return completeWithFuture(Patterns.after(latency, system.scheduler(), system.dispatcher(), () -> response));
+    }
+
+    private static HttpResponse error(StatusCode status, String domain, String reason, String message) {
+        ObjectNode root = MAPPER.createObjectNode();
+        ObjectNode error = root.putObject("error");
+        error.put("code", status.intValue());
+        error.put("message", message);
+        error.putArray("errors").addObject()
+                .put("message", message)
+                .put("domain", domain)
+                .put("reason", reason);
+        return HttpResponse.create()
+                .withStatus(status)
+                .withEntity(ContentTypes.APPLICATION_JSON, toBytes(root));
+    }
+
+    /**
+     * Generates a search.list page: the newest videos of the keyword or of the channel, newest first, at or
+     * after publishedAfter when given.
+     */
+    byte[] search(Map<String, String> params) {
+        String channelId = params.get("channelId");
+        String scope = channelId != null ? channelId : params.getOrDefault("q", "");
+        int maxResults = Math.min(parseInt(params.get("maxResults"), 5), settings.searchResults);
+        long interval = settings.newVideoInterval.getSeconds();
+        long newestSlot = Instant.now().getEpochSecond() / interval;
+        long oldestSlot = params.containsKey("publishedAfter")
+                ? Math.floorDiv(Instant.parse(params.get("publishedAfter")).getEpochSecond() + interval - 1, interval)
+                : Long.MIN_VALUE;
+
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("kind", "youtube#searchListResponse");
+        root.put("regionCode", "CA");
+        ArrayNode items = root.putArray("items");
+        for (long slot = newestSlot; slot > newestSlot - maxResults && slot >= oldestSlot; slot--) {
+            String videoId = videoId(scope, slot);
+            Random random = new Random(videoId.hashCode());
+            ObjectNode item = items.addObject();
+            item.put("kind", "youtube#searchResult");
+            item.put("etag", Integer.toHexString(videoId.hashCode()));
+            item.putObject("id").put("kind", "youtube#video").put("videoId", videoId);
+            ObjectNode snippet = item.putObject("snippet");
+            snippet.put("publishedAt", Instant.ofEpochSecond(slot * interval).toString());
+            snippet.put("channelId", channelId != null ? channelId : "channel-" + Math.abs(videoId.hashCode() % 20));
+            snippet.put("title", sentence(random, 8));
+            String description = sentence(random, settings.descriptionLength);
+            snippet.put("description", description.length() > 160 ? description.substring(0, 160) : description);
+            putThumbnails(snippet.putObject("thumbnails"), videoId);
+            snippet.put("channelTitle", "Stub channel " + Math.abs(videoId.hashCode() % 20));
+            snippet.put("liveBroadcastContent", "none");
+            snippet.put("publishTime", Instant.ofEpochSecond(slot * interval).toString());
+        }
+        return toBytes(root);
+    }
+
+    /**
+     * Generates a videos.list response for the comma separated ids, with the full descriptions and the tags.
+     */
+    byte[] videos(Map<String, String> params) {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("kind", "youtube#videoListResponse");
+        ArrayNode items = root.putArray("items");
+        for (String videoId : params.getOrDefault("id", "").split(",")) {
+            if (videoId.isEmpty()) {
+                continue;
+            }
+            Random random = new Random(videoId.hashCode());
+            ObjectNode item = items.addObject();
+            item.put("kind", "youtube#video");
+            item.put("id", videoId);
+            ObjectNode snippet = item.putObject("snippet");
+            snippet.put("channelId", "channel-" + Math.abs(videoId.hashCode() % 20));
+            snippet.put("title", sentence(random, 8));
+            snippet.put("description", sentence(random, settings.descriptionLength));
+            putThumbnails(snippet.putObject("thumbnails"), videoId);
+            snippet.put("channelTitle", "Stub channel " + Math.abs(videoId.hashCode() % 20));
+            ArrayNode tags = snippet.putArray("tags");
+            for (int i = 0; i < 5; i++) {
+                tags.add(WORDS[random.nextInt(WORDS.length)]);
+            }
+        }
+        return toBytes(root);
+    }
+
+    /**
+     * Generates a channels.list response with the snippet and statistics parts.
+     */
+    byte[] channels(Map<String, String> params) {
+        String channelId = params.getOrDefault("id", "");
+        Random random = new Random(channelId.hashCode());
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("kind", "youtube#channelListResponse");
+        ObjectNode item = root.putArray("items").addObject();
+        item.put("kind", "youtube#channel");
+        item.put("id", channelId);
+        ObjectNode snippet = item.putObject("snippet");
+        snippet.put("title", "Stub channel " + channelId);
+        snippet.put("description", sentence(random, 200));
+        putThumbnails(snippet.putObject("thumbnails"), channelId);
+        ObjectNode statistics = item.putObject("statistics");
+        statistics.put("viewCount", Long.toString(random.nextInt(10_000_000)));
+        statistics.put("subscriberCount", Long.toString(random.nextInt(1_000_000)));
+        statistics.put("hiddenSubscriberCount", false);
+        statistics.put("videoCount", Long.toString(random.nextInt(1_000)));
+        return toBytes(root);
+    }
+
+    private static String videoId(String scope, long slot) {
+        return "stub-" + Integer.toHexString(scope.hashCode()) + "-" + slot;
+    }
+
+    private static void putThumbnails(ObjectNode thumbnails, String id) {
+        for (String size : new String[]{"default", "medium", "high"}) {
+            thumbnails.putObject(size)
+                    .put("url", "https://i.ytimg.com/vi/" + id + "/" + size + ".jpg")
+                    .put("width", 480)
+                    .put("height", 360);
+        }
+    }
+
+    /**
+     * Generates text of about the given number of characters, in sentences of random words.
+     */
+    private static String sentence(Random random, int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        int wordsInSentence = 0;
+        while (text.length() < length) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            if (wordsInSentence == 0) {
+                text.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            } else {
+                text.append(' ').append(word);
+            }
+            if (++wordsInSentence >= 6 + random.nextInt(10)) {
+                text.append(". ");
+                wordsInSentence = 0;
+            }
+        }
+        return text.toString().trim();
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static byte[] toBytes(ObjectNode json) {
+        try {
+            return MAPPER.writeValueAsBytes(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] readFixture(String directory, String name) {
+        if (directory == null || directory.isEmpty()) {
+            return null;
+        }
+        Path fixture = Paths.get(directory, name);
+        try {
+            return Files.exists(fixture) ? Files.readAllBytes(fixture) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Runs the stub server on its own, with the settings under {@code youtube.stub}, until the process is stopped.
+     *
+     * @param args unused
+     * @author Utsav Patel
+     */
+    public static void main(String[] args) {
+        Config config = ConfigFactory.load();
+        ActorSystem system = ActorSystem.create("youtube-stub");
+        YouTubeStubServer server = start(system, Settings.fromConfig(config.getConfig("youtube.stub")));
+        System.out.println("YouTube API stub listening on " + server.baseUrl());
+    }
+
+    /**
+     * Settings of the stub server, read from the {@code youtube.stub} section of application.conf.
+     *
+     * @author Utsav Patel
+     */
+    public static final class Settings {
+        public final String host;
+        public final int port;
+        public final String fixturesDir;
+        public final int searchResults;
+        public final int descriptionLength;
+        public final Duration newVideoInterval;
+        public final String latencyDistribution;
+        public final Duration latencyMin;
+        public final Duration latencyMax;
+        public final Duration latencyMedian;
+        public final Duration latencyP99;
+        public final double errorRate;
+        public final double quotaErrorRate;
+
+        public Settings(String host, int port, String fixturesDir, int searchResults, int descriptionLength,
+                        Duration newVideoInterval, String latencyDistribution, Duration latencyMin, Duration latencyMax,
+                        Duration latencyMedian, Duration latencyP99, double errorRate, double quotaErrorRate) {
+            this.host = host;
+            this.port = port;
+            this.fixturesDir = fixturesDir;
+            this.searchResults = searchResults;
+            this.descriptionLength = descriptionLength;
+            this.newVideoInterval = newVideoInterval;
+            this.latencyDistribution = latencyDistribution;
+            this.latencyMin = latencyMin;
+            this.latencyMax = latencyMax;
+            this.latencyMedian = latencyMedian;
+            this.latencyP99 = latencyP99;
+            this.errorRate = errorRate;
+            this.quotaErrorRate = quotaErrorRate;
+        }
+
+        /**
+         * Reads the settings from the {@code youtube.stub} section.
+         *
+         * @param config the {@code youtube.stub} section
+         * @return the settings
+         * @author Utsav Patel
+         */
+        public static Settings fromConfig(Config config) {
+            return new Settings(config.getString("host"),
+                    config.getInt("port"),
+                    config.getString("fixtures-dir"),
+                    config.getInt("search-results"),
+                    config.getInt("description-length"),
+                    config.getDuration("new-video-interval"),
+                    config.getString("latency.distribution"),
+                    config.getDuration("latency.min"),
+                    config.getDuration("latency.max"),
+                    config.getDuration("latency.median"),
+                    config.getDuration("latency.p99"),
+                    config.getDouble("error-rate"),
+                    config.getDouble("quota-error-rate"));
+        }
+
+        /**
+         * Samples the latency of a response. {@code constant} always waits the median, {@code uniform} waits between
+         * the min and the max, and {@code lognormal} follows a log-normal distribution with the given median and
+         * 99th percentile.
+         *
+         * @param random source of randomness
+         * @return latency of the response
+         * @author Utsav Patel
+         */
+        public Duration sampleLatency(Random random) {
+            switch (latencyDistribution) {
+                case "constant":
+                    return latencyMedian;
+                case "uniform":
+                    long min = latencyMin.toMillis();
+                    long max = Math.max(min, latencyMax.toMillis());
+                    return Duration.ofMillis(min + (long) (random.nextDouble() * (max - min)));
+                case "lognormal":
+                    double median = Math.max(1, latencyMedian.toMillis());
+                    // 2.326 is the z-score of the 99th percentile
+                    double sigma = Math.log(Math.max(median, latencyP99.toMillis()) / median) / 2.326;
+                    return Duration.ofMillis(Math.round(median * Math.exp(sigma * random.nextGaussian())));
+                default:
+                    throw new IllegalArgumentException("Unknown latency distribution: " + latencyDistribution);
+            }
+        }
+    }
+}
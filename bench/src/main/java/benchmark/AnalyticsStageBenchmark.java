@@ -0,0 +1,167 @@
+package benchmark;
+
+import actor.AnalyticsStage;
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.pattern.Patterns;
+import model.Response;
+import model.Video;
+import model.VideoAnalytics;
+import org.openjdk.jmh.annotations.*;
+import services.ReadabilityScorer;
+import services.SentimentAnalyzer;
+import services.VideoAnalyticsCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many search responses per second get analysed when every connected user refreshes at once.
+ * <br/>
+ * Each operation analyses a burst of responses of 50 median descriptions and waits for all of them.
+ * {@code actorChain} is the previous pipeline, kept here as the baseline: an ask to a single sentiment actor, then an
+ * ask to a single readability actor, both calling the {@link SentimentAnalyzer} and the {@link ReadabilityScorer}.
+ * {@code stage} runs the {@link AnalyticsStage} on an executor of the given parallelism, which stands in for the
+ * analytics dispatcher on a box with that many cores. The analytics cache is disabled so that every description is
+ * analysed.
+ *
+ * @author Utsav Patel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyticsStageBenchmark {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int parallelism;
+
+    @Param({"64"})
+    public int burst;
+
+    private ActorSystem actorSystem;
+    private ActorRef sentimentActor;
+    private ActorRef readabilityActor;
+    private ForkJoinPool executor;
+    private AnalyticsStage analyticsStage;
+    private List<String> descriptions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        actorSystem = ActorSystem.create("analytics-stage-benchmark");
+        VideoAnalyticsCache chainCache = noCache();
+        sentimentActor = actorSystem.actorOf(Props.create(SentimentHop.class, () -> new SentimentHop(chainCache)));
+        readabilityActor = actorSystem.actorOf(Props.create(ReadabilityHop.class, () -> new ReadabilityHop(chainCache)));
+        executor = new ForkJoinPool(parallelism);
+        analyticsStage = new AnalyticsStage(noCache(), executor);
+        descriptions = DescriptionCorpus.page("median");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+        actorSystem.terminate();
+        actorSystem.getWhenTerminated().toCompletableFuture().join();
+    }
+
+    private static VideoAnalyticsCache noCache() {
+        return new VideoAnalyticsCache(0, SentimentAnalyzer::analyzeVideo);
+    }
+
+    /**
+     * Analyses a burst of responses with the two analyzer actors, one after the other; the score is in bursts per
+     * second.
+     */
+    @Benchmark
+    public Object actorChain() {
+        CompletableFuture<?>[] analyses = new CompletableFuture<?>[burst];
+        for (int i = 0; i < burst; i++) {
+            analyses[i] = Patterns.ask(sentimentActor, response(i), TIMEOUT)
+                    .thenCompose(analyzed -> Patterns.ask(readabilityActor, analyzed, TIMEOUT))
+                    .toCompletableFuture();
+        }
+        return CompletableFuture.allOf(analyses).join();
+    }
+
+    /**
+     * Analyses a burst of responses with the analytics stage; the score is in bursts per second.
+     */
+    @Benchmark
+    public Object stage() {
+        CompletableFuture<?>[] analyses = new CompletableFuture<?>[burst];
+        for (int i = 0; i < burst; i++) {
+            analyses[i] = analyticsStage.analyze(response(i)).toCompletableFuture();
+        }
+        return CompletableFuture.allOf(analyses).join();
+    }
+
+    private Response response(int index) {
+        List<Video> videos = new ArrayList<>(descriptions.size());
+        for (int i = 0; i < descriptions.size(); i++) {
+            videos.add(new Video("vid-" + index + "-" + i, "Title", descriptions.get(i), "image", "channel", "Channel"));
+        }
+        Response response = new Response();
+        response.setQuery("keyword " + index);
+        response.setVideos(videos);
+        return response;
+    }
+
+    /**
+     * The former sentiment analyzer actor: sets the analytics of every video and the overall sentiment.
+     */
+    private static final class SentimentHop extends AbstractActor {
+        private final VideoAnalyticsCache analyticsCache;
+
+        private SentimentHop(VideoAnalyticsCache analyticsCache) {
+            this.analyticsCache = analyticsCache;
+        }
+
+        @Override
+        public Receive createReceive() {
+            return receiveBuilder().match(Response.class, response -> {
+                List<String> sentiments = new ArrayList<>();
+                for (Video video : response.getVideos()) {
+                    analyticsCache.get(video).applyTo(video);
+                    sentiments.add(video.getSentiment());
+                }
+                response.setSentiment(SentimentAnalyzer.aggregateSentiment(sentiments));
+                getSender().tell(response, getSelf());
+            }).build();
+        }
+    }
+
+    /**
+     * The former readability analyzer actor: scores the videos left without readability and sets the averages.
+     */
+    private static final class ReadabilityHop extends AbstractActor {
+        private final VideoAnalyticsCache analyticsCache;
+
+        private ReadabilityHop(VideoAnalyticsCache analyticsCache) {
+            this.analyticsCache = analyticsCache;
+        }
+
+        @Override
+        public Receive createReceive() {
+            return receiveBuilder().match(Response.class, response -> {
+                for (Video video : response.getVideos()) {
+                    if (video.getFleschKincaidGradeLevel() == null || video.getFleschReadingScore() == null) {
+                        VideoAnalytics analytics = analyticsCache.get(video);
+                        video.setFleschKincaidGradeLevel(analytics.getFleschKincaidGradeLevel());
+                        video.setFleschReadingScore(analytics.getFleschReadingScore());
+                    }
+                }
+                ReadabilityScorer.calculateAverageReadability(response);
+                getSender().tell(response, getSelf());
+            }).build();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates a deterministic page of video descriptions resembling the ones returned by the YouTube API: sentences
+ * of mixed case prose, chapter timestamps, links, hashtags and a few sentiment words, cut to a target length.
+ * <br/>
+ * The sizes match what the analytics see on a refresh: {@code short} is a search snippet (about 160 characters),
+ * {@code median} a typical full description (about 1,000 characters) and {@code long} a 5,000 character description,
+ * the maximum YouTube allows.
+ *
+ * @author Utsav Patel
+ */
+public final class DescriptionCorpus {
+    public static final int PAGE_SIZE = 50;
+
+    private static final String[] WORDS = {
+            "the", "video", "we", "build", "a", "simple", "application", "with", "Java", "and", "Play", "framework",
+            "today", "learn", "how", "to", "use", "actors", "streams", "for", "reactive", "programming", "in",
+            "production", "this", "tutorial", "covers", "everything", "you", "need", "beginner", "advanced",
+            "happy", "love", "great", "amazing", "sad", "terrible", "disappointed", "awesome", "excited",
+            "subscribe", "channel", "comment", "below", "thanks", "watching", "don't", "forget", "like", "share",
+            "understanding", "concurrency", "performance", "beautiful", "little", "simple", "called", "boxes"
+    };
+    private static final String[] TAIL = {
+            "\n\n00:00 Intro\n01:23 Setup\n05:42 Writing the code\n12:10 Testing\n",
+            "\nSource code: https://github.com/example/project\n",
+            "\n#java #programming #tutorial\n",
+            "\nFollow me on https://twitter.com/example for more!\n"
+    };
+
+    private DescriptionCorpus() {
+    }
+
+    /**
+     * Generates a page of descriptions of about the given size.
+     *
+     * @param size {@code short}, {@code median} or {@code long}
+     * @return {@link #PAGE_SIZE} descriptions
+     * @author Utsav Patel
+     */
+    public static List<String> page(String size) {
+        int length = switch (size) {
+            case "short" -> 160;
+            case "median" -> 1000;
+            case "long" -> 5000;
+            default -> throw new IllegalArgumentException("Unknown corpus size: " + size);
+        };
+        Random random = new Random(6441);
+        List<String> descriptions = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            descriptions.add(description(random, length));
+        }
+        return descriptions;
+    }
+
+    private static String description(Random random, int length) {
+        StringBuilder text = new StringBuilder(length + 64);
+        int wordsInSentence = 0;
+        while (text.length() < length) {
+            if (random.nextInt(40) == 0) {
+                text.append(TAIL[random.nextInt(TAIL.length)]);
+                wordsInSentence = 0;
+                continue;
+            }
+            String word = WORDS[random.nextInt(WORDS.length)];
+            if (wordsInSentence == 0) {
+                text.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            } else {
+                text.append(random.nextInt(12) == 0 ? ", " : " ").append(word);
+            }
+            if (++wordsInSentence >= 5 + random.nextInt(12)) {
+                text.append(".!?".charAt(random.nextInt(3) == 0 ? 1 + random.nextInt(2) : 0)).append(' ');
+                wordsInSentence = 0;
+            }
+        }
+        return text.substring(0, length).trim();
+    }
+}
@@ -0,0 +1,200 @@
+package benchmark;
+
+import akka.util.ByteString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import model.Response;
+import model.Video;
+import org.openjdk.jmh.annotations.*;
+import play.libs.ws.WSClient;
+import play.libs.ws.WSRequest;
+import play.libs.ws.WSResponse;
+import services.YouTubeClient;
+import services.SearchCache;
+import services.impl.YouTubeServiceImpl;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.StreamSupport;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Compares one keyword search hydrated with one videos.list call per result against the batched
+ * comma separated hydration used by {@link YouTubeServiceImpl#searchVideos(String)}.
+ * <br/>
+ * The YouTube API is replaced by a stub which answers every request after a fixed latency, using a
+ * fixed number of worker threads to stand in for the per-host connection pool. SampleTime mode reports
+ * the p99 time per search and the number of upstream requests per search is printed after each trial.
+ *
+ * @author Utsav Patel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class HydrationBenchmark {
+    private static final String YOUTUBE_SEARCH_URL = "https://www.googleapis.com/youtube/v3/search";
+    private static final String YOUTUBE_VIDEO_URL = "https://www.googleapis.com/youtube/v3/videos";
+
+    @Param({"50"})
+    public int results;
+
+    @Param({"10"})
+    public int connections;
+
+    @Param({"20"})
+    public int latencyMillis;
+
+    private final ThreadLocal<Map<String, String>> pendingRequest = ThreadLocal.withInitial(HashMap::new);
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong searches = new AtomicLong();
+    private ExecutorService connectionPool;
+    private WSClient wsClient;
+    private WSResponse searchResponse;
+    private WSResponse batchResponse;
+    private Map<String, WSResponse> singleResponses;
+    private YouTubeServiceImpl youTubeService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        connectionPool = Executors.newFixedThreadPool(connections);
+        JsonNodeFactory factory = JsonNodeFactory.instance;
+        ObjectNode searchJson = factory.objectNode();
+        ObjectNode batchJson = factory.objectNode();
+        ArrayNode searchItems = searchJson.putArray("items");
+        ArrayNode batchItems = batchJson.putArray("items");
+        singleResponses = new HashMap<>();
+        for (int i = 0; i < results; i++) {
+            String videoId = "vid-" + i;
+            ObjectNode item = searchItems.addObject();
+            item.putObject("id").put("videoId", videoId);
+            ObjectNode snippet = item.putObject("snippet");
+            snippet.put("title", "Title " + i);
+            snippet.put("description", "Truncated description " + i);
+            snippet.putObject("thumbnails").putObject("high").put("url", "https://example.com/" + i + ".jpg");
+            snippet.put("channelId", "channel-" + i);
+            snippet.put("channelTitle", "Channel " + i);
+
+            ObjectNode videoItem = factory.objectNode();
+            videoItem.put("id", videoId);
+            videoItem.putObject("snippet").put("description", "Full description of video " + i);
+            batchItems.add(videoItem);
+            ObjectNode singleJson = factory.objectNode();
+            singleJson.putArray("items").add(videoItem);
+            singleResponses.put(videoId, jsonResponse(singleJson));
+        }
+        searchResponse = jsonResponse(searchJson);
+        batchResponse = jsonResponse(batchJson);
+
+        // The request chain is built and sent on the calling thread, so the query parameters are tracked per thread.
+        WSRequest request = mock(WSRequest.class, withSettings().stubOnly());
+        wsClient = mock(WSClient.class, withSettings().stubOnly());
+        when(wsClient.url(anyString())).thenAnswer(invocation -> {
+            pendingRequest.get().clear();
+            pendingRequest.get().put("url", invocation.getArgument(0));
+            return request;
+        });
+        when(request.addHeader(anyString(), anyString())).thenReturn(request);
+        when(request.addQueryParameter(anyString(), anyString())).thenAnswer(invocation -> {
+            pendingRequest.get().put(invocation.getArgument(0), invocation.getArgument(1));
+            return request;
+        });
+        when(request.get()).thenAnswer(invocation -> respond(new HashMap<>(pendingRequest.get())));
+
+        // Expire entries right away so every search goes upstream, and leave the quota unlimited
+        youTubeService = new YouTubeServiceImpl(new YouTubeClient(wsClient, "bench"), new SearchCache(Duration.ZERO, 1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nupstream requests per search: %.2f%n", (double) requests.get() / searches.get());
+        connectionPool.shutdownNow();
+        requests.set(0);
+        searches.set(0);
+    }
+
+    @Benchmark
+    public Response batchedHydration() {
+        searches.incrementAndGet();
+        return youTubeService.searchVideos("java").toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Response perVideoHydration() {
+        searches.incrementAndGet();
+        return searchWithPerVideoHydration("java").join();
+    }
+
+    /**
+     * Reference implementation of the search flow before batching: one videos.list call per result.
+     */
+    private CompletableFuture<Response> searchWithPerVideoHydration(String keyword) {
+        return wsClient.url(YOUTUBE_SEARCH_URL)
+                .addQueryParameter("part", "snippet")
+                .addQueryParameter("q", keyword)
+                .addQueryParameter("key", "bench")
+                .get()
+                .thenApply(WSResponse::asJson)
+                .thenCompose(json -> {
+                    List<Video> videos = StreamSupport.stream(json.get("items").spliterator(), false)
+                            .map(item -> new Video(item.get("id").get("videoId").asText(),
+                                    item.get("snippet").get("title").asText(),
+                                    item.get("snippet").get("description").asText(),
+                                    item.get("snippet").get("thumbnails").get("high").get("url").asText(),
+                                    item.get("snippet").get("channelId").asText(),
+                                    item.get("snippet").get("channelTitle").asText()))
+                            .toList();
+                    CompletableFuture<?>[] descriptions = videos.stream()
+                            .map(video -> wsClient.url(YOUTUBE_VIDEO_URL)
+                                    .addQueryParameter("part", "snippet")
+                                    .addQueryParameter("id", video.getVideoId())
+                                    .addQueryParameter("key", "bench")
+                                    .get()
+                                    .thenApply(WSResponse::asJson)
+                                    .thenAccept(item -> video.setDescription(item.get("items").get(0)
+                                            .get("snippet").get("description").asText()))
+                                    .toCompletableFuture())
+                            .toArray(CompletableFuture[]::new);
+                    Response response = new Response();
+                    response.setQuery(keyword);
+                    response.setVideos(videos);
+                    return CompletableFuture.allOf(descriptions).thenApply(ignored -> response);
+                })
+                .toCompletableFuture();
+    }
+
+    private CompletionStage<WSResponse> respond(Map<String, String> request) {
+        requests.incrementAndGet();
+        WSResponse response;
+        if (YOUTUBE_SEARCH_URL.equals(request.get("url"))) {
+            response = searchResponse;
+        } else if (request.get("id").contains(",")) {
+            response = batchResponse;
+        } else {
+            response = singleResponses.get(request.get("id"));
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return response;
+        }, connectionPool);
+    }
+
+    private static WSResponse jsonResponse(JsonNode json) {
+        WSResponse response = mock(WSResponse.class, withSettings().stubOnly());
+        when(response.asJson()).thenReturn(json);
+        when(response.getBodyAsBytes()).thenReturn(ByteString.fromString(json.toString()));
+        return response;
+    }
+}
@@ -0,0 +1,121 @@
+package benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import model.ChannelProfile;
+import model.Video;
+import org.openjdk.jmh.annotations.*;
+import services.YouTubeJsonParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JsonNode tree parsing previously used for the YouTube API responses against the streaming
+ * {@link YouTubeJsonParser}, on a search.list body with the given number of results and on a channels.list body.
+ * <br/>
+ * The tree baselines reproduce the previous code, including the channel profile which parsed the body once per
+ * field read. Run with {@code -prof gc} to compare the allocation rate per operation as well.
+ *
+ * @author Utsav Patel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonParsingBenchmark {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Param({"50"})
+    public int results;
+
+    private byte[] searchBody;
+    private byte[] channelBody;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectNode search = MAPPER.createObjectNode();
+        search.put("kind", "youtube#searchListResponse");
+        search.put("etag", "etag-search");
+        search.put("nextPageToken", "CDIQAA");
+        search.put("regionCode", "CA");
+        search.putObject("pageInfo").put("totalResults", 1000000).put("resultsPerPage", results);
+        ArrayNode items = search.putArray("items");
+        for (int i = 0; i < results; i++) {
+            ObjectNode item = items.addObject();
+            item.put("kind", "youtube#searchResult");
+            item.put("etag", "etag-" + i);
+            item.putObject("id").put("kind", "youtube#video").put("videoId", "vid-" + i);
+            ObjectNode snippet = item.putObject("snippet");
+            snippet.put("publishedAt", "2024-11-20T10:00:00Z");
+            snippet.put("channelId", "channel-" + i);
+            snippet.put("title", "Title of the video number " + i);
+            snippet.put("description", "A description which is truncated by the search endpoint, as it always is " + i);
+            ObjectNode thumbnails = snippet.putObject("thumbnails");
+            for (String size : new String[]{"default", "medium", "high"}) {
+                thumbnails.putObject(size).put("url", "https://i.ytimg.com/vi/vid-" + i + "/" + size + ".jpg")
+                        .put("width", 480).put("height", 360);
+            }
+            snippet.put("channelTitle", "Channel " + i);
+            snippet.put("liveBroadcastContent", "none");
+            snippet.put("publishTime", "2024-11-20T10:00:00Z");
+        }
+        searchBody = MAPPER.writeValueAsBytes(search);
+
+        ObjectNode channels = MAPPER.createObjectNode();
+        ObjectNode channel = channels.putArray("items").addObject();
+        channel.put("id", "channel-0");
+        ObjectNode channelSnippet = channel.putObject("snippet");
+        channelSnippet.put("title", "Channel");
+        channelSnippet.put("description", "About the channel");
+        channelSnippet.putObject("thumbnails").putObject("default").put("url", "https://example.com/default.jpg");
+        channel.putObject("statistics").put("viewCount", "100000").put("subscriberCount", "1000").put("videoCount", "50");
+        channelBody = MAPPER.writeValueAsBytes(channels);
+    }
+
+    @Benchmark
+    public List<Video> searchTreeModel() throws IOException {
+        JsonNode json = MAPPER.readTree(searchBody);
+        List<Video> videos = new ArrayList<>();
+        for (JsonNode item : json.get("items")) {
+            videos.add(new Video(item.get("id").get("videoId").asText(),
+                    item.get("snippet").get("title").asText(),
+                    item.get("snippet").get("description").asText(),
+                    item.get("snippet").get("thumbnails").get("high").get("url").asText(),
+                    item.get("snippet").get("channelId").asText(),
+                    item.get("snippet").get("channelTitle").asText()));
+        }
+        return videos;
+    }
+
+    @Benchmark
+    public List<Video> searchStreaming() {
+        return YouTubeJsonParser.parseSearchResults(new ByteArrayInputStream(searchBody));
+    }
+
+    @Benchmark
+    public ChannelProfile channelTreeModel() throws IOException {
+        // WSResponse.asJson() parses the body again on every call, as the previous code did for each field
+        String name = MAPPER.readTree(channelBody).get("items").get(0).get("snippet").get("title").asText();
+        String imageUrl = MAPPER.readTree(channelBody).get("items").get(0).get("snippet").get("thumbnails")
+                .get("default").get("url").asText();
+        String description = MAPPER.readTree(channelBody).get("items").get(0).get("snippet").get("description").asText();
+        String subscriberCount = MAPPER.readTree(channelBody).get("items").get(0).get("statistics")
+                .get("subscriberCount").asText();
+        String videoCount = MAPPER.readTree(channelBody).get("items").get(0).get("statistics")
+                .get("videoCount").asText();
+        return new ChannelProfile(name, imageUrl, description, subscriberCount, videoCount, new ArrayList<>());
+    }
+
+    @Benchmark
+    public ChannelProfile channelStreaming() {
+        return YouTubeJsonParser.parseChannelProfile(new ByteArrayInputStream(channelBody));
+    }
+}
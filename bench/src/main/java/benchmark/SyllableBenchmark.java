@@ -0,0 +1,86 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import services.ReadabilityScorer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous regular expression based syllable counter against the char index based
+ * {@link ReadabilityScorer#countSyllables(CharSequence, int, int)}, over every word of a page of
+ * {@link DescriptionCorpus} descriptions. Run with {@code -prof gc}: the new counter allocates nothing.
+ *
+ * @author Utsav Patel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SyllableBenchmark {
+
+    @Param({"short", "median", "long"})
+    public String size;
+
+    private String[] words;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> allWords = new ArrayList<>();
+        for (String description : DescriptionCorpus.page(size)) {
+            Collections.addAll(allWords, ReadabilityScorer.splitIntoWords(description));
+        }
+        words = allWords.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public int regexBaseline() {
+        int syllables = 0;
+        for (String word : words) {
+            syllables += regexCountSyllables(word);
+        }
+        return syllables;
+    }
+
+    @Benchmark
+    public int charIndex() {
+        int syllables = 0;
+        for (String word : words) {
+            syllables += ReadabilityScorer.countSyllables(word, 0, word.length());
+        }
+        return syllables;
+    }
+
+    /**
+     * The previous implementation, kept as the baseline.
+     */
+    private static int regexCountSyllables(String word) {
+        word = word.toLowerCase().trim();
+        if (word.length() == 1) {
+            return 1;
+        }
+        if (word.endsWith("e")) {
+            word = word.substring(0, word.length() - 1);
+        }
+        int syllableCount = 0;
+        for (String group : word.split("[^aeiouy]+")) {
+            if (!group.isEmpty()) {
+                syllableCount++;
+            }
+        }
+        if (word.length() > 2 && word.endsWith("le") && ReadabilityScorer.isConsonant(word.charAt(word.length() - 3))) {
+            syllableCount++;
+        }
+        if (word.endsWith("ed") && syllableCount > 1 && ReadabilityScorer.isConsonant(word.charAt(word.length() - 3))) {
+            syllableCount--;
+        }
+        if (word.endsWith("es") && syllableCount > 1 && ReadabilityScorer.isConsonant(word.charAt(word.length() - 3))) {
+            syllableCount--;
+        }
+        return Math.max(syllableCount, 1);
+    }
+}
@@ -0,0 +1,72 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import services.ReadabilityScorer;
+import services.SentimentAnalyzer;
+import services.impl.YouTubeServiceImpl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the text analytics run on every refresh of every keyword, on one page of 50 descriptions of the
+ * {@link DescriptionCorpus} sizes: the sentiment, the readability scores, the syllable counter on its own and
+ * the word statistics.
+ * <br/>
+ * Run with {@code -prof gc} to get the allocation rate and the bytes allocated per operation next to the ops/s.
+ *
+ * @author Utsav Patel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextAnalyticsBenchmark {
+
+    @Param({"short", "median", "long"})
+    public String size;
+
+    private List<String> descriptions;
+    private String[] words;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        descriptions = DescriptionCorpus.page(size);
+        List<String> allWords = new ArrayList<>();
+        for (String description : descriptions) {
+            Collections.addAll(allWords, ReadabilityScorer.splitIntoWords(description));
+        }
+        words = allWords.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public String sentiment() {
+        return SentimentAnalyzer.analyzeSentiment(descriptions);
+    }
+
+    @Benchmark
+    public void readability(Blackhole blackhole) {
+        for (String description : descriptions) {
+            blackhole.consume(ReadabilityScorer.calculateReadabilityScores(description));
+        }
+    }
+
+    @Benchmark
+    public int syllables() {
+        int syllables = 0;
+        for (String word : words) {
+            syllables += ReadabilityScorer.countSyllables(word);
+        }
+        return syllables;
+    }
+
+    @Benchmark
+    public List<String> wordStats() {
+        return YouTubeServiceImpl.calculateWordStats(descriptions);
+    }
+}
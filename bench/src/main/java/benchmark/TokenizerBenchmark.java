@@ -0,0 +1,66 @@
+package benchmark;
+
+import model.TokenizedText;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the regular expression splits the analyzers used to run on every description against the single pass
+ * {@link TokenizedText}, producing the same tokens for a page of 50 descriptions of each {@link DescriptionCorpus}
+ * size. Run with {@code -prof gc} to compare the bytes allocated per operation.
+ *
+ * @author Utsav Patel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenizerBenchmark {
+    private static final Pattern NON_ALPHABET_PATTERN = Pattern.compile("[^a-zA-Z]");
+
+    @Param({"short", "median", "long"})
+    public String size;
+
+    private List<String> descriptions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        descriptions = DescriptionCorpus.page(size);
+    }
+
+    @Benchmark
+    public void regexSplits(Blackhole blackhole) {
+        for (String description : descriptions) {
+            // sentiment
+            blackhole.consume(NON_ALPHABET_PATTERN.matcher(description.toLowerCase()).replaceAll(" ").split("\\s+"));
+            // readability
+            blackhole.consume(description.split("\\s+"));
+            blackhole.consume(description.split("[.!?;:]").length);
+            // word stats
+            for (String word : description.split("\\W+")) {
+                blackhole.consume(word.toLowerCase());
+            }
+        }
+    }
+
+    @Benchmark
+    public void singlePass(Blackhole blackhole) {
+        for (String description : descriptions) {
+            TokenizedText tokens = TokenizedText.of(description);
+            for (int i = 0; i < tokens.getLetterTokenCount(); i++) {
+                blackhole.consume(tokens.getLowercaseLetterToken(i));
+            }
+            blackhole.consume(tokens.getWhitespaceTokenCount());
+            blackhole.consume(tokens.getSentenceCount());
+            for (int i = 0; i < tokens.getWordTokenCount(); i++) {
+                blackhole.consume(tokens.getLowercaseWordToken(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package benchmark;
+
+import model.TokenizedText;
+import org.openjdk.jmh.annotations.*;
+import services.impl.YouTubeServiceImpl;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the word statistics of one page of 50 median descriptions, as shown by the word stats page.
+ * <br/>
+ * {@code boxedSort} is the previous implementation: a {@code HashMap} of boxed {@code Long} counts, every distinct
+ * word sorted and formatted, then cut to the top words. {@code counterHeap} counts with the primitive
+ * {@link services.WordCounter} and selects the top words with a bounded heap, formatting only those. Both tokenize
+ * the descriptions on every operation. Run with {@code -prof gc} to compare the allocations as well.
+ *
+ * @author Karan Tanakhia
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WordStatsBenchmark {
+
+    @Param({"10", "100"})
+    public int topN;
+
+    private List<String> descriptions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        descriptions = DescriptionCorpus.page("median");
+    }
+
+    @Benchmark
+    public List<String> boxedSort() {
+        Map<String, Long> wordCounts = new HashMap<>();
+        for (String description : descriptions) {
+            TokenizedText tokens = TokenizedText.of(description);
+            for (int i = 0; i < tokens.getWordTokenCount(); i++) {
+                wordCounts.merge(tokens.getLowercaseWordToken(i), 1L, Long::sum);
+            }
+        }
+        List<String> wordStats = wordCounts.entrySet().stream()
+                .sorted((entry1, entry2) -> entry2.getValue().compareTo(entry1.getValue()))
+                .map(entry -> entry.getKey() + ": " + entry.getValue())
+                .collect(Collectors.toList());
+        return wordStats.subList(0, Math.min(topN, wordStats.size()));
+    }
+
+    @Benchmark
+    public List<String> counterHeap() {
+        return YouTubeServiceImpl.calculateWordStats(descriptions, topN);
+    }
+}
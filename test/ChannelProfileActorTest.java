@@ -4,6 +4,7 @@ import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.actor.Props;
 import akka.testkit.javadsl.TestKit;
+import akka.util.ByteString;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -19,10 +20,14 @@ import play.libs.ws.WSRequest;
 import play.libs.ws.WSResponse;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -80,6 +85,7 @@ public class ChannelProfileActorTest {
             // Mock the profile API response
             when(wsClient.url(YOUTUBE_CHANNEL_URL)).thenReturn(profileRequest);
             when(profileRequest.addQueryParameter(anyString(), anyString())).thenReturn(profileRequest);
+            when(profileRequest.addHeader(anyString(), anyString())).thenReturn(profileRequest);
             when(profileRequest.get()).thenReturn(CompletableFuture.completedFuture(profileResponse));
 
             ObjectMapper mapper = new ObjectMapper();
@@ -93,11 +99,12 @@ public class ChannelProfileActorTest {
             ObjectNode statistics = profileItem.putObject("statistics");
             statistics.put("subscriberCount", "1000");
             statistics.put("videoCount", "50");
-            when(profileResponse.asJson()).thenReturn(profileJson);
+            when(profileResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(profileJson.toString()));
 
             // Mock the videos API response
             when(wsClient.url(YOUTUBE_SEARCH_URL)).thenReturn(videosRequest);
             when(videosRequest.addQueryParameter(anyString(), anyString())).thenReturn(videosRequest);
+            when(videosRequest.addHeader(anyString(), anyString())).thenReturn(videosRequest);
             when(videosRequest.get()).thenReturn(CompletableFuture.completedFuture(videosResponse));
 
             ObjectNode videosJson = mapper.createObjectNode();
@@ -109,7 +116,7 @@ public class ChannelProfileActorTest {
             videoSnippet.put("description", "Video Description 1");
             videoSnippet.putObject("thumbnails").putObject("high").put("url", "http://example.com/video-thumbnail.jpg");
             videoSnippet.put("channelTitle", "Test Channel");
-            when(videosResponse.asJson()).thenReturn(videosJson);
+            when(videosResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(videosJson.toString()));
 
             // Create the actor
             final Props props = ChannelProfileActor.props(wsClient, API_KEY);
@@ -153,6 +160,7 @@ public class ChannelProfileActorTest {
             // Simulate a failure in fetching channel profile
             when(wsClient.url(YOUTUBE_CHANNEL_URL)).thenReturn(profileRequest);
             when(profileRequest.addQueryParameter(anyString(), anyString())).thenReturn(profileRequest);
+            when(profileRequest.addHeader(anyString(), anyString())).thenReturn(profileRequest);
             when(profileRequest.get()).thenReturn(CompletableFuture.failedFuture(new RuntimeException("Profile API Error")));
 
             // Create the actor
@@ -189,6 +197,7 @@ public class ChannelProfileActorTest {
             // Mock the profile API response (Similar to the previous success case)
             when(wsClient.url(YOUTUBE_CHANNEL_URL)).thenReturn(profileRequest);
             when(profileRequest.addQueryParameter(anyString(), anyString())).thenReturn(profileRequest);
+            when(profileRequest.addHeader(anyString(), anyString())).thenReturn(profileRequest);
             when(profileRequest.get()).thenReturn(CompletableFuture.completedFuture(profileResponse));
 
             ObjectMapper mapper = new ObjectMapper();
@@ -202,11 +211,12 @@ public class ChannelProfileActorTest {
             ObjectNode statistics = profileItem.putObject("statistics");
             statistics.put("subscriberCount", "1000");
             statistics.put("videoCount", "50");
-            when(profileResponse.asJson()).thenReturn(profileJson);
+            when(profileResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(profileJson.toString()));
 
             // Simulate a failure in fetching videos
             when(wsClient.url(YOUTUBE_SEARCH_URL)).thenReturn(videosRequest);
             when(videosRequest.addQueryParameter(anyString(), anyString())).thenReturn(videosRequest);
+            when(videosRequest.addHeader(anyString(), anyString())).thenReturn(videosRequest);
             when(videosRequest.get()).thenReturn(CompletableFuture.failedFuture(new RuntimeException("Videos API Error")));
 
             // Create the actor
@@ -225,5 +235,61 @@ public class ChannelProfileActorTest {
         }};
     }
 
-
+    /**
+     * Tests that concurrent requests for the same channel are coalesced, so the channel profile and the
+     * channel videos are each fetched with a single YouTube API call and every sender receives the profile.
+     * @author Amish Navadia
+     */
+    @Test
+    public void testConcurrentRequestsAreCoalesced() {
+        WSClient wsClient = Mockito.mock(WSClient.class);
+        WSRequest profileRequest = Mockito.mock(WSRequest.class);
+        WSRequest videosRequest = Mockito.mock(WSRequest.class);
+        WSResponse profileResponse = Mockito.mock(WSResponse.class);
+        WSResponse videosResponse = Mockito.mock(WSResponse.class);
+        CompletableFuture<WSResponse> upstream = new CompletableFuture<>();
+
+        when(wsClient.url(YOUTUBE_CHANNEL_URL)).thenReturn(profileRequest);
+        when(profileRequest.addQueryParameter(anyString(), anyString())).thenReturn(profileRequest);
+        when(profileRequest.addHeader(anyString(), anyString())).thenReturn(profileRequest);
+        when(profileRequest.get()).thenReturn(upstream);
+
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode profileItem = mapper.createObjectNode();
+        ObjectNode profileJson = mapper.createObjectNode();
+        profileJson.putArray("items").add(profileItem);
+        ObjectNode snippet = profileItem.putObject("snippet");
+        snippet.put("title", "Test Channel");
+        snippet.putObject("thumbnails").putObject("default").put("url", "http://example.com/channel-thumbnail.jpg");
+        snippet.put("description", "Test Description");
+        ObjectNode statistics = profileItem.putObject("statistics");
+        statistics.put("subscriberCount", "1000");
+        statistics.put("videoCount", "50");
+        when(profileResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(profileJson.toString()));
+
+        when(wsClient.url(YOUTUBE_SEARCH_URL)).thenReturn(videosRequest);
+        when(videosRequest.addQueryParameter(anyString(), anyString())).thenReturn(videosRequest);
+        when(videosRequest.addHeader(anyString(), anyString())).thenReturn(videosRequest);
+        when(videosRequest.get()).thenReturn(CompletableFuture.completedFuture(videosResponse));
+        ObjectNode videosJson = mapper.createObjectNode();
+        videosJson.putArray("items");
+        when(videosResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(videosJson.toString()));
+
+        final ActorRef channelProfileActor = system.actorOf(ChannelProfileActor.props(wsClient, API_KEY));
+
+        List<TestKit> probes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            TestKit probe = new TestKit(system);
+            channelProfileActor.tell(new ChannelProfileActor.Channel(CHANNEL_ID), probe.getRef());
+            probes.add(probe);
+        }
+        upstream.complete(profileResponse);
+
+        for (TestKit probe : probes) {
+            ChannelProfile profile = probe.expectMsgClass(Duration.ofSeconds(5), ChannelProfile.class);
+            assertEquals("Test Channel", profile.getName());
+        }
+        verify(profileRequest, times(1)).get();
+        verify(videosRequest, times(1)).get();
+    }
 }
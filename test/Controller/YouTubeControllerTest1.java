@@ -1,5 +1,6 @@
 package controllers;
 
+import actor.AnalyticsStage;
 import akka.actor.ActorRef;
 import model.SearchForm;
 import org.junit.Before;
@@ -9,6 +10,10 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import play.data.FormFactory;
 import play.mvc.Result;
+import services.SearchCache;
+import services.TrendingWords;
+import services.WordStatsStore;
+import services.YouTubeClient;
 import services.VideoService;
 import services.YouTubeService;
 
@@ -86,7 +91,7 @@ public class YouTubeControllerTest1 {
                 .thenReturn(mockFuture);
 
 
-        youTubeController = new YouTubeController(mockYouTubeService, formFactory, videoService, actorSystem, materializer, wsClient, mockConfigOb);
+        youTubeController = new YouTubeController(mockYouTubeService, formFactory, videoService, actorSystem, materializer, mockConfigOb, new SearchCache(), new YouTubeClient(wsClient, "API_KEY"), new AnalyticsStage(), new WordStatsStore(), new TrendingWords());
 
     }
 
@@ -1,11 +1,23 @@
+import actor.AnalyticsStage;
+import akka.actor.ActorSystem;
+import akka.testkit.javadsl.TestKit;
 import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import play.inject.ApplicationLifecycle;
 import play.libs.ws.WSClient;
+import services.QuotaScheduler;
+import services.SearchCache;
+import services.SentimentAnalyzer;
+import services.TrendingWords;
+import services.VideoAnalyticsCache;
 import services.VideoService;
+import services.WordStatsStore;
+import services.YouTubeClient;
 import services.YouTubeService;
 
 import static org.mockito.Mockito.verify;
@@ -13,8 +25,18 @@ import static org.mockito.Mockito.verify;
 import services.impl.VideoServiceImpl;
 import services.impl.YouTubeServiceImpl;
 
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 /**
@@ -48,12 +70,56 @@ public class ModuleTest {
      */
     @Test
     public void youTubeServiceProviderTest() {
-        YouTubeService youtubeService = module.provideYouTubeService(wsClient);
+        YouTubeService youtubeService = module.provideYouTubeService(new YouTubeClient(wsClient, "API_KEY"), new SearchCache(), new WordStatsStore());
 
         assertNotNull(youtubeService);
         assertTrue(youtubeService instanceof YouTubeServiceImpl);
+    }
+
+    /**
+     * This method tests the YouTubeClient Provider.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void youTubeClientProviderTest() {
+        QuotaScheduler quotaScheduler = QuotaScheduler.unlimited();
+
+        when(config.getString("youtube.api.base-url")).thenReturn("https://www.googleapis.com/youtube/v3");
 
+        YouTubeClient youTubeClient = module.provideYouTubeClient(wsClient, quotaScheduler, null, null);
+
+        assertNotNull(youTubeClient);
+        assertSame(quotaScheduler, youTubeClient.getQuotaScheduler());
         verify(config).getString("youtube.api.key");
+        verify(config).getBoolean("youtube.stub.enabled");
+    }
+
+    /**
+     * This method tests that the YouTubeClient Provider points the client at the stub server, without the daily
+     * budget of the quota scheduler, when the stub is enabled.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void youTubeClientProviderWithStubTest() {
+        ActorSystem actorSystem = ActorSystem.create("ModuleTest");
+        ApplicationLifecycle lifecycle = mock(ApplicationLifecycle.class);
+        QuotaScheduler quotaScheduler = new QuotaScheduler(100, 200, 10, ZoneId.of("America/Los_Angeles"));
+        when(config.getString("youtube.api.base-url")).thenReturn("https://www.googleapis.com/youtube/v3");
+        when(config.getBoolean("youtube.stub.enabled")).thenReturn(true);
+        when(config.getConfig("youtube.stub")).thenReturn(ConfigFactory.load().getConfig("youtube.stub"));
+
+        try {
+            YouTubeClient youTubeClient = module.provideYouTubeClient(wsClient, quotaScheduler, actorSystem, lifecycle);
+
+            assertNotSame(quotaScheduler, youTubeClient.getQuotaScheduler());
+            assertFalse(youTubeClient.getQuotaScheduler().stats().containsKey("remainingToday"));
+            verify(lifecycle).addStopHook(any());
+        } finally {
+            quotaScheduler.close();
+            TestKit.shutdownActorSystem(actorSystem);
+        }
     }
 
     /**
@@ -63,11 +129,119 @@ public class ModuleTest {
      */
     @Test
     public void videoServiceProviderTest() {
-        VideoService videoService = module.provideVideoService(wsClient);
+        VideoService videoService = module.provideVideoService(new YouTubeClient(wsClient, "API_KEY"));
 
         assertNotNull(videoService);
         assertTrue(videoService instanceof VideoServiceImpl);
+    }
 
-        verify(config).getString("youtube.api.key");
+    /**
+     * This method tests the SearchCache Provider.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void searchCacheProviderTest() {
+        when(config.getDuration("youtube.search.cache.ttl")).thenReturn(Duration.ofSeconds(30));
+        when(config.getInt("youtube.search.cache.max-entries")).thenReturn(1000);
+
+        SearchCache searchCache = module.provideSearchCache();
+
+        assertNotNull(searchCache);
+        verify(config).getDuration("youtube.search.cache.ttl");
+        verify(config).getInt("youtube.search.cache.max-entries");
+    }
+
+    /**
+     * This method tests the WordStatsStore Provider.
+     *
+     * @author Karan Tanakhia
+     */
+    @Test
+    public void wordStatsStoreProviderTest() {
+        when(config.getDuration("youtube.word-stats.ttl")).thenReturn(Duration.ofSeconds(60));
+        when(config.getInt("youtube.word-stats.max-keywords")).thenReturn(1000);
+        when(config.getInt("youtube.word-stats.top-k")).thenReturn(100);
+
+        WordStatsStore wordStatsStore = module.provideWordStatsStore();
+
+        assertNotNull(wordStatsStore);
+        verify(config).getDuration("youtube.word-stats.ttl");
+        verify(config).getInt("youtube.word-stats.max-keywords");
+        verify(config).getInt("youtube.word-stats.top-k");
+    }
+
+    /**
+     * This method tests the VideoAnalyticsCache Provider.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void videoAnalyticsCacheProviderTest() {
+        when(config.getInt("youtube.analytics.cache.max-entries")).thenReturn(5000);
+
+        VideoAnalyticsCache videoAnalyticsCache = module.provideVideoAnalyticsCache();
+
+        assertNotNull(videoAnalyticsCache);
+        verify(config).getInt("youtube.analytics.cache.max-entries");
+    }
+
+    /**
+     * This method tests the AnalyticsStage Provider, which runs on the analytics dispatcher.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void analyticsStageProviderTest() {
+        ActorSystem actorSystem = ActorSystem.create();
+        try {
+            TrendingWords trendingWords = new TrendingWords();
+            AnalyticsStage analyticsStage = module.provideAnalyticsStage(actorSystem,
+                    new VideoAnalyticsCache(10, SentimentAnalyzer::analyzeVideo), trendingWords);
+
+            assertNotNull(analyticsStage);
+            assertNotNull(analyticsStage.getAnalyticsCache());
+            assertSame(trendingWords, analyticsStage.getTrendingWords());
+        } finally {
+            TestKit.shutdownActorSystem(actorSystem);
+        }
+    }
+
+    /**
+     * This method tests the TrendingWords Provider.
+     *
+     * @author Karan Tanakhia
+     */
+    @Test
+    public void trendingWordsProviderTest() {
+        when(config.getDurationList("youtube.trending.half-lives")).thenReturn(List.of(Duration.ofMinutes(5), Duration.ofHours(1)));
+        when(config.getInt("youtube.trending.capacity")).thenReturn(500);
+        when(config.getInt("youtube.trending.top")).thenReturn(20);
+
+        TrendingWords trendingWords = module.provideTrendingWords();
+
+        assertEquals(List.of("5m", "1h"), List.copyOf(trendingWords.snapshot().getWindows().keySet()));
+        verify(config).getInt("youtube.trending.capacity");
+    }
+
+    /**
+     * This method tests the QuotaScheduler Provider.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void quotaSchedulerProviderTest() {
+        when(config.getLong("youtube.quota.units-per-second")).thenReturn(300L);
+        when(config.getLong("youtube.quota.units-per-day")).thenReturn(10000L);
+        when(config.getInt("youtube.quota.max-queued")).thenReturn(500);
+        when(config.getString("youtube.quota.reset-zone")).thenReturn("America/Los_Angeles");
+
+        ApplicationLifecycle lifecycle = mock(ApplicationLifecycle.class);
+
+        QuotaScheduler quotaScheduler = module.provideQuotaScheduler(lifecycle);
+
+        assertNotNull(quotaScheduler);
+        assertEquals(10000L, quotaScheduler.remainingToday());
+        verify(lifecycle).addStopHook(any());
     }
 }
@@ -1,6 +1,9 @@
 
+import akka.util.ByteString;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import model.Response;
 import org.junit.Assert;
 import org.junit.Before;
@@ -14,6 +17,8 @@ import play.test.WithApplication;
 import services.YouTubeService;
 import services.impl.YouTubeServiceImpl;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
@@ -21,6 +26,8 @@ import java.util.concurrent.ExecutionException;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -100,8 +107,9 @@ public class Part5Test extends WithApplication {
     public void testSearchVideoByKeyword() throws ExecutionException, InterruptedException, JsonProcessingException {
         when(wsClient.url(anyString())).thenReturn(wsRequest);
         when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
         when(wsRequest.get()).thenReturn(CompletableFuture.completedFuture(wsResponse));
-        when(wsResponse.asJson()).thenReturn(objectMapper.readTree(jsonResponse));
+        when(wsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(jsonResponse));
         CompletionStage<Response> responseCompletionStage = youTubeService.searchVideos("Sample query about education and learning");
         Assert.assertNotNull(responseCompletionStage);
         Response response = responseCompletionStage.toCompletableFuture().get();
@@ -113,4 +121,58 @@ public class Part5Test extends WithApplication {
         assertEquals("vid-001", response.getVideos().get(0).getVideoId());
         assertEquals("vid-002", response.getVideos().get(1).getVideoId());
     }
+
+    /**
+     * This method tests that searchVideos fetches all the full descriptions with one comma separated videos.list call.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testSearchVideosHydratesDescriptionsInOneBatch() throws ExecutionException, InterruptedException, JsonProcessingException {
+        when(wsClient.url(anyString())).thenReturn(wsRequest);
+        when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.get()).thenReturn(CompletableFuture.completedFuture(wsResponse));
+        when(wsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(jsonResponse));
+
+        youTubeService.searchVideos("reading").toCompletableFuture().get();
+
+        verify(wsRequest, times(2)).get();
+        verify(wsRequest).addQueryParameter("id", "vid-001,vid-002");
+    }
+
+    /**
+     * This method tests that a full page of 50 results is hydrated with 2 requests, the search and one videos.list
+     * call, rather than the 51 of one videos.list call per video.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testFullPageIsHydratedWithTwoRequests() throws ExecutionException, InterruptedException {
+        ObjectNode page = objectMapper.createObjectNode();
+        ArrayNode items = page.putArray("items");
+        List<String> videoIds = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String videoId = "vid-" + i;
+            videoIds.add(videoId);
+            ObjectNode item = items.addObject();
+            item.putObject("id").put("videoId", videoId);
+            ObjectNode snippet = item.putObject("snippet");
+            snippet.put("title", "Title " + i);
+            snippet.put("description", "Description " + i);
+            snippet.putObject("thumbnails").putObject("high").put("url", "https://example.com/" + i + ".jpg");
+            snippet.put("channelId", "channel-" + i);
+            snippet.put("channelTitle", "Channel " + i);
+        }
+        when(wsClient.url(anyString())).thenReturn(wsRequest);
+        when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.get()).thenReturn(CompletableFuture.completedFuture(wsResponse));
+        when(wsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(page.toString()));
+
+        youTubeService.searchVideos("reading").toCompletableFuture().get();
+
+        verify(wsRequest, times(2)).get();
+        verify(wsRequest).addQueryParameter("id", String.join(",", videoIds));
+    }
 }
@@ -4,6 +4,7 @@ import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.actor.Props;
 import akka.testkit.javadsl.TestKit;
+import akka.util.ByteString;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -19,10 +20,14 @@ import play.libs.ws.WSRequest;
 import play.libs.ws.WSResponse;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -74,6 +79,7 @@ public class TaggedServiceActorTest {
             // Setup mock behaviors
             when(wsClient.url(anyString())).thenReturn(wsRequest);
             when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+            when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
             when(wsRequest.get()).thenReturn(CompletableFuture.completedFuture(wsResponse));
 
             // Create mock JSON response
@@ -90,7 +96,7 @@ public class TaggedServiceActorTest {
             snippet.put("channelId", "channel_id_1");
             snippet.put("channelTitle", "Channel Title 1");
 
-            when(wsResponse.asJson()).thenReturn(jsonResponse);
+            when(wsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(jsonResponse.toString()));
 
             // Create the actor
             final Props props = TaggedServiceActor.props(wsClient, API_KEY);
@@ -132,6 +138,7 @@ public class TaggedServiceActorTest {
             // Setup mock behaviors to simulate an error
             when(wsClient.url(anyString())).thenReturn(wsRequest);
             when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+            when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
             when(wsRequest.get()).thenReturn(CompletableFuture.failedFuture(new RuntimeException("API Error")));
 
             // Create the actor
@@ -148,4 +155,51 @@ public class TaggedServiceActorTest {
             assertEquals("API Error", errorMessage.replace("java.lang.RuntimeException: ", ""));
         }};
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that concurrent searches for the same tag are coalesced into a single YouTube API call
+     * and that every sender receives the response.
+     * @author Yash Ajmeri
+     */
+
+    @Test
+    public void testConcurrentSearchesAreCoalesced() {
+        WSClient wsClient = Mockito.mock(WSClient.class);
+        WSRequest wsRequest = Mockito.mock(WSRequest.class);
+        WSResponse wsResponse = Mockito.mock(WSResponse.class);
+        CompletableFuture<WSResponse> upstream = new CompletableFuture<>();
+
+        when(wsClient.url(anyString())).thenReturn(wsRequest);
+        when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.get()).thenReturn(upstream);
+
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode jsonResponse = mapper.createObjectNode();
+        ObjectNode item = jsonResponse.putArray("items").addObject();
+        item.putObject("id").put("videoId", "video_id_1");
+        ObjectNode snippet = item.putObject("snippet");
+        snippet.put("title", "Video Title 1");
+        snippet.put("description", "Description 1");
+        snippet.putObject("thumbnails").putObject("high").put("url", "http://example.com/thumbnail1.jpg");
+        snippet.put("channelId", "channel_id_1");
+        snippet.put("channelTitle", "Channel Title 1");
+        when(wsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(jsonResponse.toString()));
+
+        final ActorRef taggedServiceActor = system.actorOf(TaggedServiceActor.props(wsClient, API_KEY));
+
+        List<TestKit> probes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            TestKit probe = new TestKit(system);
+            taggedServiceActor.tell(TAG, probe.getRef());
+            probes.add(probe);
+        }
+        upstream.complete(wsResponse);
+
+        for (TestKit probe : probes) {
+            Response response = probe.expectMsgClass(Duration.ofSeconds(5), Response.class);
+            assertEquals(TAG, response.getQuery());
+        }
+        verify(wsRequest, times(1)).get();
+    }
+}
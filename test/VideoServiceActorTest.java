@@ -4,6 +4,7 @@ import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.actor.Props;
 import akka.testkit.javadsl.TestKit;
+import akka.util.ByteString;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -15,12 +16,18 @@ import org.mockito.Mockito;
 import play.libs.ws.WSClient;
 import play.libs.ws.WSRequest;
 import play.libs.ws.WSResponse;
+import services.YouTubeClient;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -71,6 +78,7 @@ public class VideoServiceActorTest {
             // Setup mock behaviors
             when(wsClient.url(anyString())).thenReturn(wsRequest);
             when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+            when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
             when(wsRequest.get()).thenReturn(CompletableFuture.completedFuture(wsResponse));
 
             // Create mock JSON response
@@ -85,7 +93,7 @@ public class VideoServiceActorTest {
             snippet.put("channelTitle", "Test Channel");
             snippet.putArray("tags").add("tag1").add("tag2");
 
-            when(wsResponse.asJson()).thenReturn(jsonResponse);
+            when(wsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(jsonResponse.toString()));
 
             // Create the actor
             final Props props = VideoServiceActor.props(wsClient, API_KEY);
@@ -123,6 +131,7 @@ public class VideoServiceActorTest {
             // Setup mock behaviors to simulate an error
             when(wsClient.url(anyString())).thenReturn(wsRequest);
             when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+            when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
             when(wsRequest.get()).thenReturn(CompletableFuture.failedFuture(new RuntimeException("API Error")));
 
             // Create the actor
@@ -139,4 +148,73 @@ public class VideoServiceActorTest {
             assertEquals("java.lang.RuntimeException: API Error", errorMessage);
         }};
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that concurrent requests for the same video are coalesced into a single YouTube API call
+     * and that every sender receives the video.
+     * @author Yash Ajmeri
+     */
+
+    @Test
+    public void testConcurrentRequestsAreCoalesced() {
+        WSClient wsClient = Mockito.mock(WSClient.class);
+        WSRequest wsRequest = Mockito.mock(WSRequest.class);
+        WSResponse wsResponse = Mockito.mock(WSResponse.class);
+        CompletableFuture<WSResponse> upstream = new CompletableFuture<>();
+
+        when(wsClient.url(anyString())).thenReturn(wsRequest);
+        when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.get()).thenReturn(upstream);
+
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode jsonResponse = mapper.createObjectNode();
+        ObjectNode snippet = jsonResponse.putArray("items").addObject().putObject("snippet");
+        snippet.put("title", "Test Video Title");
+        snippet.put("description", "Test video description");
+        snippet.putObject("thumbnails").putObject("high").put("url", "http://example.com/thumbnail.jpg");
+        snippet.put("channelId", "test_channel_id");
+        snippet.put("channelTitle", "Test Channel");
+        when(wsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(jsonResponse.toString()));
+
+        final ActorRef videoServiceActor = system.actorOf(VideoServiceActor.props(wsClient, API_KEY));
+
+        List<TestKit> probes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            TestKit probe = new TestKit(system);
+            videoServiceActor.tell(VIDEO_ID, probe.getRef());
+            probes.add(probe);
+        }
+        upstream.complete(wsResponse);
+
+        for (TestKit probe : probes) {
+            Video video = probe.expectMsgClass(Duration.ofSeconds(5), Video.class);
+            assertEquals(VIDEO_ID, video.getVideoId());
+        }
+        verify(wsRequest, times(1)).get();
+    }
+
+    /**
+     * Tests that a client call throwing before it returns releases the video id, so a later request for the same
+     * video starts a new call instead of waiting on one which never answers.
+     * @author Yash Ajmeri
+     */
+
+    @Test
+    public void testSynchronousFailureReleasesTheVideoId() {
+        YouTubeClient youTubeClient = Mockito.mock(YouTubeClient.class);
+        Video video = new Video(VIDEO_ID, "Test Video Title", "Test video description", "http://example.com/thumbnail.jpg", "test_channel_id", "Test Channel");
+        when(youTubeClient.getVideo(VIDEO_ID))
+                .thenThrow(new IllegalStateException("Quota scheduler is closed"))
+                .thenReturn(CompletableFuture.completedFuture(video));
+
+        final ActorRef videoServiceActor = system.actorOf(VideoServiceActor.props(youTubeClient));
+        TestKit probe = new TestKit(system);
+
+        videoServiceActor.tell(VIDEO_ID, probe.getRef());
+        assertEquals("Quota scheduler is closed", probe.expectMsgClass(Duration.ofSeconds(5), String.class));
+
+        videoServiceActor.tell(VIDEO_ID, probe.getRef());
+        assertSame(video, probe.expectMsgClass(Duration.ofSeconds(5), Video.class));
+    }
+}
@@ -1,5 +1,6 @@
 
 
+import akka.util.ByteString;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import model.Video;
@@ -81,12 +82,13 @@ public class VideoServiceImplTest {
         // Setup mock behaviors
         when(wsClient.url(anyString())).thenReturn(wsRequest);
         when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
         when(wsRequest.get()).thenReturn(CompletableFuture.completedFuture(wsResponse));
 
         // Mocking the response JSON
         ObjectMapper mapper = new ObjectMapper();
         JsonNode jsonNode = mapper.readTree(jsonResponse);
-        when(wsResponse.asJson()).thenReturn(jsonNode);
+        when(wsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(jsonNode.toString()));
 
         // Call the method
         CompletionStage<Video> videoStage = videoService.getVideoById(VIDEO_ID);
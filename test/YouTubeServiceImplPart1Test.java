@@ -1,4 +1,5 @@
 
+import akka.util.ByteString;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import model.ChannelProfile;
 import model.Response;
@@ -81,8 +82,9 @@ public class YouTubeServiceImplPart1Test {
         // Setup mock behaviors
         when(wsClient.url(anyString())).thenReturn(wsRequest);
         when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
         when(wsRequest.get()).thenReturn(CompletableFuture.completedFuture(wsResponse));
-        when(wsResponse.asJson()).thenReturn(new ObjectMapper().readTree(jsonResponse));
+        when(wsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(jsonResponse));
 
         // Call the method
         CompletionStage<ChannelProfile> profileStage = youTubeService.getChannelProfile(channelId);
@@ -146,8 +148,9 @@ public class YouTubeServiceImplPart1Test {
         // Setup mock behaviors
         when(wsClient.url(anyString())).thenReturn(wsRequest);
         when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
         when(wsRequest.get()).thenReturn(CompletableFuture.completedFuture(wsResponse));
-        when(wsResponse.asJson()).thenReturn(new ObjectMapper().readTree(jsonResponse));
+        when(wsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(jsonResponse));
 
         // Call the method
         CompletionStage<List<Video>> videosStage = youTubeService.getChannelVideos(channelId, maxResults);
@@ -0,0 +1,100 @@
+package actor;
+
+import model.Response;
+import model.Video;
+import org.junit.Test;
+import services.ReadabilityScorer;
+import services.SentimentAnalyzer;
+import services.TrendingWords;
+import services.VideoAnalyticsCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the {@link AnalyticsStage}.
+ *
+ * @author Utsav Patel
+ */
+public class AnalyticsStageTest {
+    private static final String HAPPY = "Happy, joyful and delightful";
+    private static final String NEUTRAL = "In a quaint little village nestled between misty mountains, there was a shop.";
+
+    private static Response response(String... descriptions) {
+        List<Video> videos = new ArrayList<>();
+        for (int i = 0; i < descriptions.length; i++) {
+            videos.add(new Video("vid-" + i, "Title", descriptions[i], "image", "channel", "Channel"));
+        }
+        Response response = new Response();
+        response.setQuery("keyword");
+        response.setVideos(videos);
+        return response;
+    }
+
+    /**
+     * Tests that the stage sets the same sentiment and readability scores as the analyzers, on every video and on
+     * the response.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testAnalyzeSetsSentimentAndReadability() {
+        AnalyticsStage analyticsStage = new AnalyticsStage();
+
+        Response analyzed = analyticsStage.analyze(response(HAPPY, HAPPY, NEUTRAL)).toCompletableFuture().join();
+
+        Video happy = analyzed.getVideos().get(0);
+        Video neutral = analyzed.getVideos().get(2);
+        double[] scores = ReadabilityScorer.calculateReadabilityScores(NEUTRAL);
+        assertEquals(":-)", happy.getSentiment());
+        assertEquals(SentimentAnalyzer.analyzeSentimentForDescription(NEUTRAL), neutral.getSentiment());
+        assertEquals(scores[0], neutral.getFleschKincaidGradeLevel(), 0.0001);
+        assertEquals(scores[1], neutral.getFleschReadingScore(), 0.0001);
+        assertEquals(":-)", analyzed.getSentiment());
+        assertNotNull(analyzed.getAverageFleschKincaidGradeLevel());
+        assertNotNull(analyzed.getAverageFleschReadingScore());
+    }
+
+    /**
+     * Tests that videos already analysed are taken from the cache, and that the latency of every step is recorded.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testCachedVideosAreNotAnalysedAgain() {
+        VideoAnalyticsCache analyticsCache = new VideoAnalyticsCache(100, SentimentAnalyzer::analyzeVideo);
+        AnalyticsStage analyticsStage = new AnalyticsStage(analyticsCache, ForkJoinPool.commonPool());
+
+        analyticsStage.analyze(response(HAPPY, NEUTRAL)).toCompletableFuture().join();
+        Response again = analyticsStage.analyze(response(HAPPY, NEUTRAL)).toCompletableFuture().join();
+
+        assertEquals(":-)", again.getVideos().get(0).getSentiment());
+        assertEquals(2L, analyticsCache.stats().get("hits"));
+        Map<String, Map<String, Number>> stats = analyticsStage.stats();
+        assertEquals(1L, stats.get("sentiment").get("count"));
+        assertEquals(1L, stats.get("readability").get("count"));
+        assertEquals(2L, stats.get("total").get("count"));
+    }
+
+    /**
+     * Tests that the words of every analysed response are counted as trending, including the cached descriptions.
+     *
+     * @author Karan Tanakhia
+     */
+    @Test
+    public void testAnalysedDescriptionsFeedTrendingWords() {
+        TrendingWords trendingWords = new TrendingWords();
+        AnalyticsStage analyticsStage = new AnalyticsStage(
+                new VideoAnalyticsCache(100, SentimentAnalyzer::analyzeVideo), trendingWords, ForkJoinPool.commonPool());
+
+        analyticsStage.analyze(response(HAPPY, HAPPY, NEUTRAL)).toCompletableFuture().join();
+        analyticsStage.analyze(response(HAPPY, HAPPY, NEUTRAL)).toCompletableFuture().join();
+
+        assertEquals(6L, trendingWords.stats().get("descriptions"));
+        assertEquals("happy", trendingWords.snapshot().getWindows().get("5m").get(0).getWord());
+    }
+}
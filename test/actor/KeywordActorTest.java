@@ -0,0 +1,192 @@
+package actor;
+
+import akka.actor.ActorSystem;
+import akka.actor.testkit.typed.javadsl.TestProbe;
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.javadsl.Adapter;
+import akka.testkit.javadsl.TestKit;
+import model.Response;
+import model.Video;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import services.SearchCache;
+import services.WordStatsStore;
+import services.YouTubeClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link KeywordActor} and the {@link KeywordRegistry} keeping them.
+ *
+ * @author Utsav Patel
+ */
+public class KeywordActorTest {
+    private static final String PUBLISHED_AT = "2024-11-20T10:00:00Z";
+    private ActorSystem system;
+    private YouTubeClient youTubeClient;
+
+    /**
+     * Creates the actor system and a mocked YouTube client finding one video, then a newer one on refresh.
+     *
+     * @author Utsav Patel
+     */
+    @Before
+    public void setUp() {
+        system = ActorSystem.create("KeywordActorTestSystem");
+        youTubeClient = mock(YouTubeClient.class);
+        when(youTubeClient.searchVideos(eq("java"), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(video("vid-001", PUBLISHED_AT))));
+        when(youTubeClient.searchVideos(eq("java"), eq(PUBLISHED_AT)))
+                .thenReturn(CompletableFuture.completedFuture(List.of(video("vid-002", "2024-11-21T10:00:00Z"), video("vid-001", PUBLISHED_AT))));
+        when(youTubeClient.searchVideos(eq("java"), eq("2024-11-21T10:00:00Z")))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+        when(youTubeClient.fetchDescriptions(any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    /**
+     * Shuts down the actor system after each test.
+     *
+     * @author Utsav Patel
+     */
+    @After
+    public void tearDown() {
+        TestKit.shutdownActorSystem(system);
+    }
+
+    private ActorRef<KeywordRegistry.Command> registry(RefreshSchedule.Settings refreshSettings) {
+        return registry(refreshSettings, "keywords");
+    }
+
+    private ActorRef<KeywordRegistry.Command> registry(RefreshSchedule.Settings refreshSettings, String name) {
+        return Adapter.spawn(system, KeywordRegistry.create(youTubeClient, new SearchCache(), new AnalyticsStage(),
+                new WordStatsStore(), SearchPipeline.Settings.DEFAULT, refreshSettings), name);
+    }
+
+    /**
+     * Tests that the users subscribing to the same keyword all get its snapshot from a single search.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testSubscribersShareOneSearch() {
+        ActorRef<KeywordRegistry.Command> registry = registry(RefreshSchedule.Settings.DEFAULT);
+        TestProbe<UserActor.Update> first = TestProbe.create(Adapter.toTyped(system));
+        TestProbe<UserActor.Update> second = TestProbe.create(Adapter.toTyped(system));
+
+        registry.tell(new KeywordRegistry.Subscribe("java", first.getRef()));
+        UserActor.Update firstUpdate = first.expectMessageClass(UserActor.Update.class, Duration.ofSeconds(5));
+        registry.tell(new KeywordRegistry.Subscribe("java", second.getRef()));
+        UserActor.Update secondUpdate = second.expectMessageClass(UserActor.Update.class, Duration.ofSeconds(5));
+
+        assertEquals("java", firstUpdate.getKeyword());
+        assertTrue(firstUpdate.getSnapshot().contains("vid-001"));
+        assertNull(firstUpdate.getDelta());
+        assertEquals(firstUpdate.getVersion(), secondUpdate.getVersion());
+        assertTrue(secondUpdate.getSnapshot().contains("vid-001"));
+        verify(youTubeClient, times(1)).searchVideos(eq("java"), isNull());
+    }
+
+    /**
+     * Tests that a refresh of a keyword is made once and published to every subscriber, as the new snapshot and the
+     * changes since the previous one.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testRefreshesArePublishedToEverySubscriber() {
+        ActorRef<KeywordRegistry.Command> registry = registry(new RefreshSchedule.Settings(Duration.ofMillis(300), Duration.ZERO, 10));
+        TestProbe<UserActor.Update> first = TestProbe.create(Adapter.toTyped(system));
+        TestProbe<UserActor.Update> second = TestProbe.create(Adapter.toTyped(system));
+
+        registry.tell(new KeywordRegistry.Subscribe("java", first.getRef()));
+        registry.tell(new KeywordRegistry.Subscribe("java", second.getRef()));
+        UserActor.Update snapshot = first.expectMessageClass(UserActor.Update.class, Duration.ofSeconds(5));
+        second.expectMessageClass(UserActor.Update.class, Duration.ofSeconds(5));
+
+        UserActor.Update firstRefresh = first.expectMessageClass(UserActor.Update.class, Duration.ofSeconds(5));
+        UserActor.Update secondRefresh = second.expectMessageClass(UserActor.Update.class, Duration.ofSeconds(5));
+
+        assertEquals(snapshot.getVersion(), firstRefresh.getBaseVersion());
+        assertTrue(firstRefresh.getDelta().contains("vid-002"));
+        assertTrue(firstRefresh.getSnapshot().contains("vid-001"));
+        assertEquals(firstRefresh.getDelta(), secondRefresh.getDelta());
+        verify(youTubeClient, times(1)).searchVideos(eq("java"), eq(PUBLISHED_AT));
+    }
+
+    /**
+     * Tests that the subscribers of a keyword only get the results of their own registry when two registries of the
+     * same actor system watch it.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testRegistriesDoNotShareResults() {
+        ActorRef<KeywordRegistry.Command> firstRegistry = registry(RefreshSchedule.Settings.DEFAULT, "firstKeywords");
+        ActorRef<KeywordRegistry.Command> secondRegistry = registry(RefreshSchedule.Settings.DEFAULT, "secondKeywords");
+        TestProbe<UserActor.Update> first = TestProbe.create(Adapter.toTyped(system));
+        TestProbe<UserActor.Update> second = TestProbe.create(Adapter.toTyped(system));
+
+        firstRegistry.tell(new KeywordRegistry.Subscribe("java", first.getRef()));
+        first.expectMessageClass(UserActor.Update.class, Duration.ofSeconds(5));
+        secondRegistry.tell(new KeywordRegistry.Subscribe("java", second.getRef()));
+        second.expectMessageClass(UserActor.Update.class, Duration.ofSeconds(5));
+
+        first.expectNoMessage(Duration.ofMillis(500));
+        second.expectNoMessage(Duration.ofMillis(500));
+    }
+
+    /**
+     * Tests that the keywords typed in a different case or spacing are normalized to the same keyword.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testNormalize() {
+        assertEquals("reading levels", KeywordActor.normalize("  Reading \t Levels "));
+        assertEquals(KeywordActor.normalize("Java"), KeywordActor.normalize("java"));
+    }
+
+    /**
+     * Tests that merging new videos keeps the newest ones and recomputes the averages.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testMergeNewVideosEvictsTheOldest() {
+        Response retained = new Response();
+        retained.setVideos(new ArrayList<>(Arrays.asList(scoredVideo("vid-002", 10.0), scoredVideo("vid-001", 20.0))));
+
+        Response merged = KeywordActor.mergeNewVideos(retained, Arrays.asList(scoredVideo("vid-003", 30.0), scoredVideo("vid-002", 10.0)), 2);
+
+        assertEquals(Arrays.asList("vid-003", "vid-002"),
+                merged.getVideos().stream().map(Video::getVideoId).collect(Collectors.toList()));
+        assertEquals(20.0, merged.getAverageFleschKincaidGradeLevel(), 0.001);
+        assertEquals(":-)", merged.getSentiment());
+    }
+
+    private static Video video(String videoId, String publishedAt) {
+        Video video = new Video(videoId, "Title of " + videoId, "Description of " + videoId, "https://example.com/image.jpg", "channel-001", "Channel");
+        video.setPublishedAt(publishedAt);
+        return video;
+    }
+
+    private static Video scoredVideo(String videoId, double score) {
+        Video video = new Video(videoId, "Title", "Description", "https://example.com/image.jpg", "channel-001", "Channel");
+        video.setFleschKincaidGradeLevel(score);
+        video.setFleschReadingScore(score);
+        video.setSentiment(":-)");
+        return video;
+    }
+}
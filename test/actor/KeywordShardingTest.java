@@ -0,0 +1,152 @@
+package actor;
+
+import akka.actor.ActorSystem;
+import akka.actor.Address;
+import akka.actor.testkit.typed.javadsl.FishingOutcomes;
+import akka.actor.testkit.typed.javadsl.TestProbe;
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.javadsl.Adapter;
+import akka.cluster.MemberStatus;
+import akka.cluster.typed.Cluster;
+import akka.cluster.typed.Join;
+import akka.testkit.javadsl.TestKit;
+import com.typesafe.config.ConfigFactory;
+import model.Video;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import services.SearchCache;
+import services.WordStatsStore;
+import services.YouTubeClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests of the cluster mode of the {@link KeywordRegistry}, with two nodes of a cluster running in the same JVM and
+ * calling the same YouTube API.
+ *
+ * @author Utsav Patel
+ */
+public class KeywordShardingTest {
+    private static final String PUBLISHED_AT = "2024-11-20T10:00:00Z";
+    private ActorSystem first;
+    private ActorSystem second;
+    private YouTubeClient youTubeClient;
+
+    /**
+     * Starts two nodes with the cluster configuration, on free ports, waits until both are up in the cluster, and
+     * mocks the YouTube client to find one video, then a newer one on refresh.
+     *
+     * @author Utsav Patel
+     */
+    @Before
+    public void setUp() {
+        youTubeClient = mock(YouTubeClient.class);
+        when(youTubeClient.searchVideos(eq("java"), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(video("vid-001", PUBLISHED_AT))));
+        when(youTubeClient.searchVideos(eq("java"), eq(PUBLISHED_AT)))
+                .thenReturn(CompletableFuture.completedFuture(List.of(video("vid-002", "2024-11-21T10:00:00Z"), video("vid-001", PUBLISHED_AT))));
+        when(youTubeClient.searchVideos(eq("java"), eq("2024-11-21T10:00:00Z")))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+        when(youTubeClient.fetchDescriptions(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        first = node();
+        second = node();
+        Address address = Cluster.get(Adapter.toTyped(first)).selfMember().address();
+        Cluster.get(Adapter.toTyped(first)).manager().tell(Join.create(address));
+        Cluster.get(Adapter.toTyped(second)).manager().tell(Join.create(address));
+        TestProbe<Object> probe = TestProbe.create(Adapter.toTyped(first));
+        probe.awaitAssert(Duration.ofSeconds(20), () -> {
+            for (ActorSystem node : List.of(first, second)) {
+                assertEquals(2, StreamSupport.stream(Cluster.get(Adapter.toTyped(node)).state().getMembers().spliterator(), false)
+                        .filter(member -> MemberStatus.up().equals(member.status()))
+                        .count());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Shuts down both nodes after each test.
+     *
+     * @author Utsav Patel
+     */
+    @After
+    public void tearDown() {
+        TestKit.shutdownActorSystem(second);
+        TestKit.shutdownActorSystem(first);
+    }
+
+    private static ActorSystem node() {
+        return ActorSystem.create("KeywordShardingTest", ConfigFactory.parseString(
+                        "akka.remote.artery.canonical.port = 0\n"
+                                + "akka.cluster.seed-nodes = []\n"
+                                + "akka.cluster.jmx.multi-mbeans-in-same-jvm = on")
+                .withFallback(ConfigFactory.load("cluster.conf")));
+    }
+
+    private ActorRef<KeywordRegistry.Command> registry(ActorSystem node) {
+        return Adapter.spawn(node, KeywordRegistry.create(youTubeClient, new SearchCache(), new AnalyticsStage(), new WordStatsStore(),
+                SearchPipeline.Settings.DEFAULT, new RefreshSchedule.Settings(Duration.ofMillis(300), Duration.ZERO, 10), true), "keywords");
+    }
+
+    /**
+     * Tests that a keyword watched by users of both nodes is searched by a single node, its results reaching the
+     * users of both.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testKeywordIsSearchedByOneNode() {
+        ActorRef<KeywordRegistry.Command> firstRegistry = registry(first);
+        ActorRef<KeywordRegistry.Command> secondRegistry = registry(second);
+        TestProbe<UserActor.Update> firstUser = TestProbe.create(Adapter.toTyped(first));
+        TestProbe<UserActor.Update> secondUser = TestProbe.create(Adapter.toTyped(second));
+
+        firstRegistry.tell(new KeywordRegistry.Subscribe("java", firstUser.getRef()));
+        secondRegistry.tell(new KeywordRegistry.Subscribe("java", secondUser.getRef()));
+
+        assertTrue(firstUser.expectMessageClass(UserActor.Update.class, Duration.ofSeconds(10)).getSnapshot().contains("vid-001"));
+        assertTrue(secondUser.expectMessageClass(UserActor.Update.class, Duration.ofSeconds(10)).getSnapshot().contains("vid-001"));
+        verify(youTubeClient, times(1)).searchVideos(eq("java"), isNull());
+    }
+
+    /**
+     * Tests that a keyword is refreshed once for the whole cluster, the refreshed results reaching the users of both
+     * nodes.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testRefreshesReachTheUsersOfEveryNode() {
+        ActorRef<KeywordRegistry.Command> firstRegistry = registry(first);
+        ActorRef<KeywordRegistry.Command> secondRegistry = registry(second);
+        TestProbe<UserActor.Update> firstUser = TestProbe.create(Adapter.toTyped(first));
+        TestProbe<UserActor.Update> secondUser = TestProbe.create(Adapter.toTyped(second));
+
+        firstRegistry.tell(new KeywordRegistry.Subscribe("java", firstUser.getRef()));
+        secondRegistry.tell(new KeywordRegistry.Subscribe("java", secondUser.getRef()));
+
+        for (TestProbe<UserActor.Update> user : List.of(firstUser, secondUser)) {
+            user.fishForMessage(Duration.ofSeconds(10), update -> update.getSnapshot().contains("vid-002")
+                    ? FishingOutcomes.complete()
+                    : FishingOutcomes.continueAndIgnore());
+        }
+        verify(youTubeClient, times(1)).searchVideos(eq("java"), eq(PUBLISHED_AT));
+    }
+
+    private static Video video(String videoId, String publishedAt) {
+        Video video = new Video(videoId, "Title of " + videoId, "Description of " + videoId, "https://example.com/image.jpg", "channel-001", "Channel");
+        video.setPublishedAt(publishedAt);
+        return video;
+    }
+}
@@ -0,0 +1,97 @@
+package actor;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link OutboundBuffer}.
+ *
+ * @author Utsav Patel
+ */
+public class OutboundBufferTest {
+
+    /**
+     * Tests that a full buffer dropping the oldest message asks for a snapshot of its keyword.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testDropOldest() {
+        OutboundBuffer buffer = new OutboundBuffer(new OutboundBuffer.Settings(2, OutboundBuffer.OverflowPolicy.DROP_OLDEST));
+
+        assertTrue(buffer.offer("java", "java-1", true));
+        assertTrue(buffer.offer("scala", "scala-1", true));
+        assertFalse(buffer.needsSnapshot("java"));
+        assertTrue(buffer.offer("scala", "scala-2", false));
+
+        assertTrue(buffer.needsSnapshot("java"));
+        assertEquals("scala-1", buffer.poll());
+        assertEquals("scala-2", buffer.poll());
+        assertNull(buffer.poll());
+
+        assertTrue(buffer.offer("java", "java-2", true));
+        assertFalse(buffer.needsSnapshot("java"));
+        assertEquals(1L, buffer.stats().get("dropped"));
+    }
+
+    /**
+     * Tests that only the latest message of a keyword is kept, and that it must then be a snapshot.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testCoalesceLatest() {
+        OutboundBuffer buffer = new OutboundBuffer(new OutboundBuffer.Settings(4, OutboundBuffer.OverflowPolicy.COALESCE_LATEST));
+
+        assertTrue(buffer.offer("java", "java-1", true));
+        assertTrue(buffer.offer("scala", "scala-1", true));
+        assertTrue(buffer.needsSnapshot("java"));
+        assertTrue(buffer.offer("java", "java-2", true));
+
+        assertEquals("scala-1", buffer.poll());
+        assertEquals("java-2", buffer.poll());
+        assertNull(buffer.poll());
+        assertFalse(buffer.needsSnapshot("java"));
+        assertEquals(1L, buffer.stats().get("coalesced"));
+    }
+
+    /**
+     * Tests that a full buffer asks for the connection to be closed when the policy is to disconnect.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testDisconnect() {
+        OutboundBuffer buffer = new OutboundBuffer(new OutboundBuffer.Settings(1, OutboundBuffer.OverflowPolicy.DISCONNECT));
+
+        assertTrue(buffer.offer("java", "java-1", true));
+        assertTrue(buffer.isSaturated());
+        assertFalse(buffer.offer("scala", "scala-1", true));
+        assertEquals("java-1", buffer.poll());
+        assertFalse(buffer.isSaturated());
+    }
+
+    /**
+     * Tests the depth counters and the parsing of the policy names.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testStats() {
+        OutboundBuffer buffer = new OutboundBuffer(new OutboundBuffer.Settings(4, OutboundBuffer.OverflowPolicy.DROP_OLDEST));
+        buffer.offer("java", "java-1", true);
+        buffer.offer("scala", "scala-1", true);
+        buffer.poll();
+        buffer.skipRefresh();
+
+        Map<String, Number> stats = buffer.stats();
+        assertEquals(1, stats.get("depth"));
+        assertEquals(2, stats.get("maxDepth"));
+        assertEquals(1L, stats.get("skippedRefreshes"));
+        assertEquals(OutboundBuffer.OverflowPolicy.COALESCE_LATEST, OutboundBuffer.OverflowPolicy.parse("coalesce-latest"));
+        assertEquals(OutboundBuffer.OverflowPolicy.DROP_OLDEST, OutboundBuffer.OverflowPolicy.parse("drop-oldest"));
+    }
+}
@@ -0,0 +1,80 @@
+package actor;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link RefreshSchedule}.
+ *
+ * @author Utsav Patel
+ */
+public class RefreshScheduleTest {
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    /**
+     * Tests that subscriptions added at once are spread over the interval, each refreshed once per interval.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testRefreshesAreSpreadOverTheInterval() {
+        RefreshSchedule<Integer> schedule = new RefreshSchedule<>(new RefreshSchedule.Settings(Duration.ofSeconds(10), Duration.ZERO, 100), 0);
+        for (int key = 0; key < 10; key++) {
+            schedule.add(key, 0);
+        }
+
+        List<Integer> refreshed = new ArrayList<>();
+        int busiestSecond = 0;
+        for (long second = 1; second <= 10; second++) {
+            List<Integer> due = schedule.due(second * SECOND);
+            busiestSecond = Math.max(busiestSecond, due.size());
+            refreshed.addAll(due);
+        }
+
+        assertEquals(10, refreshed.size());
+        assertEquals(10, refreshed.stream().distinct().count());
+        assertTrue(busiestSecond <= 2);
+    }
+
+    /**
+     * Tests that no more refreshes than the rate start per second, the others waiting for the next call.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testRefreshesAreRateLimited() {
+        RefreshSchedule<Integer> schedule = new RefreshSchedule<>(new RefreshSchedule.Settings(Duration.ofSeconds(10), Duration.ZERO, 2), 0);
+        for (int key = 0; key < 6; key++) {
+            schedule.add(key, 0);
+        }
+
+        assertEquals(2, schedule.due(10 * SECOND).size());
+        assertEquals(1, schedule.due(10 * SECOND + SECOND / 2).size());
+        assertEquals(1, schedule.due(11 * SECOND).size());
+        assertEquals(2, schedule.due(12 * SECOND).size());
+        assertEquals(List.of(3), schedule.due(13 * SECOND));
+    }
+
+    /**
+     * Tests that a removed subscription is no longer refreshed, and that adding it twice keeps one refresh.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testAddAndRemove() {
+        RefreshSchedule<String> schedule = new RefreshSchedule<>(new RefreshSchedule.Settings(Duration.ofSeconds(10), Duration.ofSeconds(1), 100), 0);
+        schedule.add("java", 0);
+        schedule.add("java", 0);
+        schedule.add("scala", 0);
+        schedule.remove("scala");
+
+        assertEquals(1, schedule.size());
+        assertEquals(List.of("java"), schedule.due(11 * SECOND));
+        assertTrue(schedule.due(11 * SECOND).isEmpty());
+    }
+}
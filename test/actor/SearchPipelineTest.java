@@ -0,0 +1,127 @@
+package actor;
+
+import akka.actor.ActorSystem;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import akka.testkit.javadsl.TestKit;
+import model.Video;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import services.SearchCache;
+import services.YouTubeClient;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link SearchPipeline}.
+ *
+ * @author Utsav Patel
+ */
+public class SearchPipelineTest {
+    private ActorSystem system;
+    private YouTubeClient youTubeClient;
+
+    /**
+     * Creates the actor system and a mocked YouTube client.
+     *
+     * @author Utsav Patel
+     */
+    @Before
+    public void setUp() {
+        system = ActorSystem.create("SearchPipelineTestSystem");
+        youTubeClient = mock(YouTubeClient.class);
+    }
+
+    /**
+     * Shuts down the actor system after each test.
+     *
+     * @author Utsav Patel
+     */
+    @After
+    public void tearDown() {
+        TestKit.shutdownActorSystem(system);
+    }
+
+    private CompletionStage<List<SearchPipeline.Result>> run(List<SearchPipeline.Request> requests, SearchPipeline.Settings settings) {
+        return Source.from(requests)
+                .via(SearchPipeline.create(youTubeClient, new SearchCache(), new AnalyticsStage(), settings))
+                .runWith(Sink.seq(), system);
+    }
+
+    /**
+     * Tests that no more searches than the search parallelism run at once, the next ones starting as they complete.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testSearchesAreBounded() throws Exception {
+        BlockingQueue<CompletableFuture<List<Video>>> searches = new LinkedBlockingQueue<>();
+        when(youTubeClient.searchVideos(anyString(), anyString())).thenAnswer(invocation -> {
+            CompletableFuture<List<Video>> search = new CompletableFuture<>();
+            searches.add(search);
+            return search;
+        });
+        List<SearchPipeline.Request> requests = IntStream.range(0, 5)
+                .mapToObj(i -> SearchPipeline.Request.publishedAfter("keyword" + i, "2024-11-20T10:00:00Z", Set.of()))
+                .collect(Collectors.toList());
+
+        CompletableFuture<List<SearchPipeline.Result>> results = run(requests, new SearchPipeline.Settings(2, 2, 2, 4)).toCompletableFuture();
+
+        verify(youTubeClient, timeout(1000).times(2)).searchVideos(anyString(), anyString());
+        verify(youTubeClient, after(300).times(2)).searchVideos(anyString(), anyString());
+        for (int completed = 0; completed < 5; completed++) {
+            verify(youTubeClient, timeout(1000).atLeast(Math.min(completed + 2, 5))).searchVideos(anyString(), anyString());
+            // the call is verified before its answer queued the search, so wait for it
+            searches.poll(1, TimeUnit.SECONDS).complete(List.of());
+        }
+
+        List<SearchPipeline.Result> done = results.get(3, TimeUnit.SECONDS);
+        assertEquals(5, done.size());
+        assertTrue(done.stream().allMatch(result -> result.getResponse() == null && result.getFailure() == null));
+    }
+
+    /**
+     * Tests that a failed search is emitted as a failed result, without failing the next requests.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testFailuresAreEmittedAsResults() throws Exception {
+        when(youTubeClient.searchVideos(eq("broken"), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("quota exceeded")));
+        when(youTubeClient.searchVideos(eq("working"), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(
+                        new Video("vid-002", "New", "A new video", "https://example.com/2.jpg", "channel", "Channel"),
+                        new Video("vid-001", "Known", "A known video", "https://example.com/1.jpg", "channel", "Channel"))));
+        when(youTubeClient.fetchDescriptions(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        List<SearchPipeline.Result> results = run(List.of(
+                SearchPipeline.Request.publishedAfter("broken", "2024-11-20T10:00:00Z", Set.of()),
+                SearchPipeline.Request.publishedAfter("working", "2024-11-20T10:00:00Z", Set.of("vid-001"))
+        ), SearchPipeline.Settings.DEFAULT).toCompletableFuture().get(3, TimeUnit.SECONDS);
+
+        SearchPipeline.Result broken = results.stream().filter(result -> result.getRequest().getKeyword().equals("broken")).findFirst().orElseThrow();
+        SearchPipeline.Result working = results.stream().filter(result -> result.getRequest().getKeyword().equals("working")).findFirst().orElseThrow();
+        assertNotNull(broken.getFailure());
+        assertNull(broken.getResponse());
+        assertNull(working.getFailure());
+        assertEquals(List.of("vid-002"), working.getResponse().getVideos().stream().map(Video::getVideoId).collect(Collectors.toList()));
+        assertNotNull(working.getResponse().getSentiment());
+        verify(youTubeClient).fetchDescriptions(argThat(videos -> videos.size() == 1));
+    }
+}
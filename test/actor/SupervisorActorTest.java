@@ -1,48 +1,67 @@
 package actor;
 
-import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
-import akka.actor.Props;
-import akka.testkit.TestActorRef;
+import akka.actor.testkit.typed.javadsl.TestProbe;
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.Behavior;
+import akka.actor.typed.javadsl.Adapter;
+import akka.actor.typed.javadsl.Behaviors;
 import akka.testkit.javadsl.TestKit;
+import akka.util.ByteString;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
-import org.mockito.Mock;
-import org.mockito.MockitoAnnotations;
 import play.libs.ws.WSClient;
+import play.libs.ws.WSRequest;
+import play.libs.ws.WSResponse;
+import services.SearchCache;
+import services.WordStatsStore;
+import services.YouTubeClient;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * Unit tests for the {@link SupervisorActor} class.
  *
  * <p>This test class verifies the behavior of the SupervisorActor in managing connections,
- * forwarding messages, and handling errors. It uses Akka TestKit for actor-based testing
+ * scheduling refreshes, and handling errors. It uses the Akka typed test probes for actor-based testing
  * and Mockito for mocking dependencies.
  *
  * @author Utsav Patel
  */
 public class SupervisorActorTest {
     private ActorSystem system;
-
-    @Mock
     private WSClient wsClient;
-
-    private TestActorRef<SupervisorActor> supervisorActor;
+    private ActorRef<SupervisorActor.Command> supervisorActor;
 
     /**
      * Sets up the test environment before each test.
      *
-     * <p>Initializes the actor system, mocks the WSClient dependency,
-     * and creates a test actor reference for the SupervisorActor.
+     * <p>Initializes the actor system, mocks the WSClient to return one video for any search,
+     * and spawns the SupervisorActor.
      *
      * @author Utsav Patel
      */
     @Before
     public void setUp() {
         system = ActorSystem.create("TestSystem");
-        MockitoAnnotations.openMocks(this);
-        supervisorActor = TestActorRef.create(system, SupervisorActor.props(wsClient, "test-api-key"));
+        wsClient = mock(WSClient.class);
+        WSRequest wsRequest = mock(WSRequest.class);
+        WSResponse wsResponse = mock(WSResponse.class);
+        when(wsClient.url(anyString())).thenReturn(wsRequest);
+        when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.get()).thenReturn(CompletableFuture.completedFuture(wsResponse));
+        when(wsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(
+                "{\"items\": [{\"id\": {\"videoId\": \"vid-001\"}, \"snippet\": {\"title\": \"Reading\", \"description\": \"Reading levels\"}}]}"));
+        supervisorActor = Adapter.spawn(system, SupervisorActor.create(wsClient, "test-api-key"), "supervisor");
     }
 
     /**
@@ -57,78 +76,110 @@ public class SupervisorActorTest {
         TestKit.shutdownActorSystem(system);
     }
 
+    private ActorRef<UserActor.Command> connect(TestProbe<SupervisorActor.Connected> connection, TestKit out) {
+        supervisorActor.tell(new SupervisorActor.Connect(connection.getRef(), out.getRef()));
+        return connection.receiveMessage().getUserActor();
+    }
+
     /**
      * Tests the behavior of the {@link SupervisorActor} when a new connection is established.
      *
-     * <p>Ensures that the userActors map is updated to include the newly connected actor.
+     * <p>Ensures that the connection gets a user actor, and keeps it when it connects again.
      *
      * @author Utsav Patel
      */
     @Test
     public void testNewConnection() {
-        ActorRef newConnection = system.actorOf(Props.create(DescriptionReadabilityActor.class));
-        supervisorActor.tell(new WebSocketActor.NewConnection(newConnection), ActorRef.noSender());
-        Assert.assertTrue(supervisorActor.underlyingActor().userActors.containsKey(newConnection));
+        TestProbe<SupervisorActor.Connected> connection = TestProbe.create(Adapter.toTyped(system));
+        TestKit out = new TestKit(system);
+
+        ActorRef<UserActor.Command> userActor = connect(connection, out);
+        Assert.assertNotNull(userActor);
+        Assert.assertEquals(userActor, connect(connection, out));
     }
 
     /**
      * Tests the behavior of the {@link SupervisorActor} when a connection is disconnected.
      *
-     * <p>Ensures that the disconnected actor is removed from the userActors map.
+     * <p>Ensures that the user actor of the connection is stopped once the connection terminates.
      *
      * @author Utsav Patel
      */
     @Test
     public void testDisconnected() {
-        ActorRef newConnection = system.actorOf(Props.create(DescriptionReadabilityActor.class));
-        supervisorActor.tell(new WebSocketActor.NewConnection(newConnection), ActorRef.noSender());
-        ActorRef userActor = supervisorActor.underlyingActor().userActors.get(newConnection);
-        Assert.assertNotNull(userActor);
+        TestProbe<SupervisorActor.Connected> connection = TestProbe.create(Adapter.toTyped(system));
+        ActorRef<UserActor.Command> userActor = connect(connection, new TestKit(system));
 
-        supervisorActor.tell(new WebSocketActor.Disconnected(newConnection), ActorRef.noSender());
-        Assert.assertNull(supervisorActor.underlyingActor().userActors.get(newConnection));
+        connection.stop();
+        TestProbe.create(Adapter.toTyped(system)).expectTerminated(userActor, Duration.ofSeconds(3));
     }
 
     /**
-     * Tests the message forwarding behavior of the {@link SupervisorActor}.
+     * Tests that the keywords of the user actors are refreshed by the scheduler of the {@link SupervisorActor}.
      *
-     * <p>Ensures that messages sent to the supervisor are forwarded appropriately.
+     * <p>Verifies that a searched keyword is refreshed within the refresh interval, sending the results to the client.
      *
      * @author Utsav Patel
      */
     @Test
-    public void testMessageForwarding() {
-        ActorRef newConnection = system.actorOf(Props.create(DescriptionReadabilityActor.class));
-        supervisorActor.tell(new WebSocketActor.NewConnection(newConnection), ActorRef.noSender());
+    public void testRefreshesAreScheduled() {
+        ActorRef<SupervisorActor.Command> supervisor = Adapter.spawn(system, SupervisorActor.create(
+                new YouTubeClient(wsClient, "test-api-key"), new SearchCache(), new AnalyticsStage(), new WordStatsStore(),
+                SearchPipeline.Settings.DEFAULT, OutboundBuffer.Settings.DEFAULT, new ConnectionMetrics(),
+                new RefreshSchedule.Settings(Duration.ofMillis(500), Duration.ZERO, 10)), "scheduledSupervisor");
+        TestProbe<SupervisorActor.Connected> connection = TestProbe.create(Adapter.toTyped(system));
+        TestKit out = new TestKit(system);
+        supervisor.tell(new SupervisorActor.Connect(connection.getRef(), out.getRef()));
+        ActorRef<UserActor.Command> userActor = connection.receiveMessage().getUserActor();
+
+        userActor.tell(new UserActor.Search("reading"));
+        Assert.assertTrue(out.expectMsgClass(Duration.ofSeconds(5), String.class).contains("vid-001"));
+        out.reply(UserActor.Ack.INSTANCE);
 
-        String testMessage = "Test Message";
-        supervisorActor.tell(testMessage, ActorRef.noSender());
+        Assert.assertTrue(out.expectMsgClass(Duration.ofSeconds(5), String.class).contains("vid-001"));
     }
 
     /**
-     * Tests the notify client behavior of the {@link SupervisorActor}.
+     * Tests the supervision strategy of the {@link SupervisorActor}.
      *
-     * <p>Verifies that the supervisor can notify connected clients using the NotifyClient message.
+     * <p>Ensures that a user actor failing with a NullPointerException is stopped.
      *
      * @author Utsav Patel
      */
     @Test
-    public void testNotifyClient() {
-        ActorRef newConnection = system.actorOf(Props.create(DescriptionReadabilityActor.class));
-        supervisorActor.tell(new WebSocketActor.NewConnection(newConnection), ActorRef.noSender());
+    public void testSupervisionStrategy() {
+        Behavior<UserActor.Command> failing = Behaviors.<UserActor.Command>receiveMessage(message -> {
+            throw new NullPointerException("Test Exception");
+        });
+        ActorRef<UserActor.Command> userActor = Adapter.spawn(system, SupervisorActor.supervised(failing), "failing");
 
-        supervisorActor.tell(new SupervisorActor.NotifyClient(), ActorRef.noSender());
+        userActor.tell(UserActor.Ack.INSTANCE);
+        TestProbe.create(Adapter.toTyped(system)).expectTerminated(userActor, Duration.ofSeconds(3));
     }
 
     /**
-     * Tests the supervision strategy of the {@link SupervisorActor}.
-     *
-     * <p>Ensures that the supervisor appropriately handles exceptions such as NullPointerException.
+     * Tests that a user actor failing with any other exception is restarted and keeps processing its messages.
      *
      * @author Utsav Patel
      */
     @Test
-    public void testSupervisionStrategy() {
-        supervisorActor.tell(new NullPointerException("Test Exception"), ActorRef.noSender());
+    public void testSupervisionStrategyRestarts() {
+        TestKit probe = new TestKit(system);
+        AtomicInteger starts = new AtomicInteger();
+        Behavior<UserActor.Command> failingOnce = Behaviors.<UserActor.Command>setup(context -> {
+            int start = starts.incrementAndGet();
+            return Behaviors.<UserActor.Command>receiveMessage(message -> {
+                if (message instanceof UserActor.Search) {
+                    throw new IllegalStateException("Test Exception");
+                }
+                probe.getRef().tell(start, akka.actor.ActorRef.noSender());
+                return Behaviors.same();
+            });
+        });
+        ActorRef<UserActor.Command> userActor = Adapter.spawn(system, SupervisorActor.supervised(failingOnce), "failingOnce");
+
+        userActor.tell(new UserActor.Search("fail"));
+        userActor.tell(UserActor.Ack.INSTANCE);
+        probe.expectMsg(Duration.ofSeconds(3), 2);
     }
 }
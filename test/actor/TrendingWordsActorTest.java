@@ -0,0 +1,67 @@
+package actor;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.testkit.javadsl.TestKit;
+import model.TokenizedText;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import services.TrendingWords;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the {@link TrendingWordsActor} and the {@link TrendingSubscriberActor} of the trending topic.
+ *
+ * @author Karan Tanakhia
+ */
+public class TrendingWordsActorTest {
+    private ActorSystem system;
+    private TrendingWords trendingWords;
+
+    /**
+     * Creates the actor system and trending words with one window.
+     *
+     * @author Karan Tanakhia
+     */
+    @Before
+    public void setUp() {
+        system = ActorSystem.create("TrendingTestSystem");
+        trendingWords = new TrendingWords(List.of(Duration.ofMinutes(5)), 10, 5);
+    }
+
+    /**
+     * Shuts down the actor system after each test.
+     *
+     * @author Karan Tanakhia
+     */
+    @After
+    public void tearDown() {
+        TestKit.shutdownActorSystem(system);
+    }
+
+    /**
+     * Tests that a subscriber receives the current trending words on connection, then every publication.
+     *
+     * @author Karan Tanakhia
+     */
+    @Test
+    public void testSubscriberReceivesSnapshotsAndPublications() {
+        TestKit out = new TestKit(system);
+        system.actorOf(TrendingSubscriberActor.props(out.getRef(), trendingWords));
+
+        String initial = out.expectMsgClass(String.class);
+        assertTrue(initial.contains("\"type\":\"trending\""));
+
+        trendingWords.add(TokenizedText.of("Lofi beats to study, lofi beats to relax"));
+        ActorRef publisher = system.actorOf(TrendingWordsActor.props(trendingWords, Duration.ofMillis(100)));
+
+        String published = out.expectMsgClass(Duration.ofSeconds(3), String.class);
+        assertTrue(published.contains("\"word\":\"lofi\""));
+        system.stop(publisher);
+    }
+}
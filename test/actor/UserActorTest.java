@@ -1,11 +1,15 @@
 package actor;
 
-import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
+import akka.actor.Status;
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.javadsl.Adapter;
 import akka.testkit.javadsl.TestKit;
+import akka.util.ByteString;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import model.Response;
+import model.ResponseDelta;
 import model.Video;
 import org.mockito.MockedConstruction;
 
@@ -16,11 +20,19 @@ import org.junit.Test;
 import play.libs.ws.WSClient;
 import play.libs.ws.WSRequest;
 import play.libs.ws.WSResponse;
+import services.SearchCache;
+import services.WordStatsStore;
+import services.YouTubeClient;
 
 import java.time.Duration;
+import java.util.Collections;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -134,14 +146,15 @@ public class UserActorTest {
 
         when(wsClient.url(anyString())).thenReturn(wsRequest);
         when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
         when(wsRequest.get()).thenReturn(CompletableFuture.completedFuture(wsResponse));
-        when(wsResponse.asJson()).thenReturn(mapper.readTree(jsonResponse));
+        when(wsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(jsonResponse));
 
         final TestKit probe = new TestKit(actorSystem);
 
-        final ActorRef userActor = actorSystem.actorOf(UserActor.props(probe.getRef(), wsClient, API_KEY), "UserActor");
+        final ActorRef<UserActor.Command> userActor = Adapter.spawn(actorSystem, UserActor.create(probe.getRef(), wsClient, API_KEY), "UserActor");
 
-        userActor.tell(SEARCH_KEYWORD, probe.getRef());
+        userActor.tell(new UserActor.Search(SEARCH_KEYWORD));
 
         String responseWithReadabilityScore = probe.expectMsgClass(Duration.ofSeconds(5), String.class);
 
@@ -175,13 +188,14 @@ public class UserActorTest {
 
         when(wsClient.url(anyString())).thenReturn(wsRequest);
         when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
         when(wsRequest.get()).thenReturn(CompletableFuture.completedFuture(wsResponse));
-        when(wsResponse.asJson()).thenReturn(mapper.readTree(emptyJsonResponse));
+        when(wsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(emptyJsonResponse));
 
         final TestKit probe = new TestKit(actorSystem);
-        final ActorRef userActor = actorSystem.actorOf(UserActor.props(probe.getRef(), wsClient, API_KEY), "UserActorEmptyResponse");
+        final ActorRef<UserActor.Command> userActor = Adapter.spawn(actorSystem, UserActor.create(probe.getRef(), wsClient, API_KEY), "UserActorEmptyResponse");
 
-        userActor.tell(SEARCH_KEYWORD, probe.getRef());
+        userActor.tell(new UserActor.Search(SEARCH_KEYWORD));
 
         String responseWithReadabilityScore = probe.expectMsgClass(Duration.ofSeconds(5), String.class);
         Response response = mapper.readValue(responseWithReadabilityScore, Response.class);
@@ -190,6 +204,179 @@ public class UserActorTest {
         assertEquals(0, response.getVideos().size());
     }
 
+    /**
+     * Tests that a scheduled refresh only searches the videos published after the newest retained one and only sends
+     * the new videos to the client, as a delta of the snapshot sent on search.
+     *
+     * @throws JsonProcessingException if an error occurs during JSON parsing.
+     * @author Utsav Patel
+     */
+    @Test
+    public void testRefreshOnlySearchesVideosPublishedAfterTheNewestOne() throws JsonProcessingException {
+        WSClient wsClient = mock(WSClient.class);
+        WSRequest wsRequest = mock(WSRequest.class);
+        WSResponse wsResponse = mock(WSResponse.class);
+
+        ObjectMapper mapper = new ObjectMapper();
+        ByteString initial = ByteString.fromString(searchJson(
+                searchItem("vid-001", "2024-11-20T10:00:00Z"), searchItem("vid-002", "2024-11-19T10:00:00Z")));
+        ByteString refreshed = ByteString.fromString(searchJson(
+                searchItem("vid-003", "2024-11-21T10:00:00Z"), searchItem("vid-001", "2024-11-20T10:00:00Z")));
+
+        when(wsClient.url(anyString())).thenReturn(wsRequest);
+        when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.get()).thenReturn(CompletableFuture.completedFuture(wsResponse));
+        // search and description calls for the initial search, then for the refresh
+        when(wsResponse.getBodyAsBytes()).thenReturn(initial, initial, refreshed, refreshed);
+
+        final TestKit probe = new TestKit(actorSystem);
+        final ActorRef<UserActor.Command> userActor = Adapter.spawn(actorSystem, UserActor.create(probe.getRef(),
+                OutboundBuffer.Settings.DEFAULT, new ConnectionMetrics(), keywordRegistry(wsClient, "KeywordsRefresh")), "UserActorRefresh");
+
+        userActor.tell(new UserActor.Search(SEARCH_KEYWORD));
+        Response snapshot = mapper.readValue(probe.expectMsgClass(Duration.ofSeconds(5), String.class), Response.class);
+        probe.reply(UserActor.Ack.INSTANCE);
+
+        String message = probe.expectMsgClass(Duration.ofSeconds(5), String.class);
+        ResponseDelta delta = mapper.readValue(message, ResponseDelta.class);
+
+        assertEquals(ResponseDelta.TYPE, mapper.readTree(message).get("type").asText());
+        assertEquals(SEARCH_KEYWORD, delta.getQuery());
+        assertEquals(snapshot.getVersion(), delta.getBaseVersion());
+        assertTrue(delta.getVersion() > delta.getBaseVersion());
+        assertEquals(Collections.singletonList("vid-003"),
+                delta.getAdded().stream().map(Video::getVideoId).collect(Collectors.toList()));
+        assertTrue(delta.getRemoved().isEmpty());
+        // every description scores the same, so the averages did not change and are left out of the delta
+        assertNull(delta.getAverageFleschReadingScore());
+        verify(wsRequest).addQueryParameter("publishedAfter", "2024-11-20T10:00:00Z");
+        verify(wsRequest).addQueryParameter("id", "vid-003");
+    }
+
+    /**
+     * Tests that the results of a refresh are only sent once the client acknowledged the previous message.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testResultsWaitForTheClientAcknowledgement() {
+        WSClient wsClient = mock(WSClient.class);
+        WSRequest wsRequest = mock(WSRequest.class);
+        WSResponse wsResponse = mock(WSResponse.class);
+
+        when(wsClient.url(anyString())).thenReturn(wsRequest);
+        when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.get()).thenReturn(CompletableFuture.completedFuture(wsResponse));
+        when(wsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(jsonResponse));
+
+        final TestKit probe = new TestKit(actorSystem);
+        final ActorRef<UserActor.Command> userActor = Adapter.spawn(actorSystem, UserActor.create(probe.getRef(),
+                OutboundBuffer.Settings.DEFAULT, new ConnectionMetrics(), keywordRegistry(wsClient, "KeywordsAck")), "UserActorAck");
+
+        userActor.tell(new UserActor.Search(SEARCH_KEYWORD));
+        probe.expectMsgClass(Duration.ofSeconds(5), String.class);
+
+        probe.expectNoMessage(Duration.ofMillis(500));
+
+        probe.reply(UserActor.Ack.INSTANCE);
+        assertTrue(probe.expectMsgClass(Duration.ofSeconds(5), String.class).contains("vid-001"));
+    }
+
+    /**
+     * Tests that a client which does not keep up is disconnected once its outbound buffer is full, when the overflow
+     * policy is to disconnect.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testSlowClientIsDisconnected() {
+        WSClient wsClient = mock(WSClient.class);
+        WSRequest wsRequest = mock(WSRequest.class);
+        WSResponse wsResponse = mock(WSResponse.class);
+
+        when(wsClient.url(anyString())).thenReturn(wsRequest);
+        when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.get()).thenReturn(CompletableFuture.completedFuture(wsResponse));
+        when(wsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(jsonResponse));
+
+        final TestKit probe = new TestKit(actorSystem);
+        ConnectionMetrics connectionMetrics = new ConnectionMetrics();
+        final ActorRef<UserActor.Command> userActor = Adapter.spawn(actorSystem, UserActor.create(probe.getRef(),
+                new OutboundBuffer.Settings(1, OutboundBuffer.OverflowPolicy.DISCONNECT), connectionMetrics,
+                keywordRegistry(wsClient, "KeywordsSlowClient")), "UserActorSlowClient");
+        probe.watch(Adapter.toClassic(userActor));
+
+        userActor.tell(new UserActor.Search("first"));
+        userActor.tell(new UserActor.Search("second"));
+        userActor.tell(new UserActor.Search("third"));
+
+        probe.expectMsgClass(Duration.ofSeconds(5), String.class);
+        probe.expectMsgClass(Duration.ofSeconds(5), Status.Success.class);
+        probe.expectTerminated(Duration.ofSeconds(5), Adapter.toClassic(userActor));
+        assertEquals(1L, connectionMetrics.stats().get("disconnected"));
+    }
+
+    /**
+     * Tests that keywords differing only in case and spacing are the same keyword, searched once.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testKeywordsAreNormalized() {
+        WSClient wsClient = mock(WSClient.class);
+        WSRequest wsRequest = mock(WSRequest.class);
+        WSResponse wsResponse = mock(WSResponse.class);
+
+        when(wsClient.url(anyString())).thenReturn(wsRequest);
+        when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.get()).thenReturn(CompletableFuture.completedFuture(wsResponse));
+        when(wsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(jsonResponse));
+
+        final TestKit probe = new TestKit(actorSystem);
+        final ActorRef<UserActor.Command> userActor = Adapter.spawn(actorSystem, UserActor.create(probe.getRef(), wsClient, API_KEY), "UserActorNormalized");
+
+        userActor.tell(new UserActor.Search("  Reading   Levels "));
+        assertTrue(probe.expectMsgClass(Duration.ofSeconds(5), String.class).contains("\"query\":\"reading levels\""));
+        probe.reply(UserActor.Ack.INSTANCE);
+        userActor.tell(new UserActor.Search("reading levels"));
+        assertTrue(probe.expectMsgClass(Duration.ofSeconds(5), String.class).contains("\"query\":\"reading levels\""));
+
+        verify(wsRequest, times(1)).addQueryParameter("q", "reading levels");
+    }
+
+    /**
+     * Creates a keyword registry refreshing every keyword 300 milliseconds after the previous refresh.
+     */
+    private static ActorRef<KeywordRegistry.Command> keywordRegistry(WSClient wsClient, String name) {
+        return Adapter.spawn(actorSystem, KeywordRegistry.create(new YouTubeClient(wsClient, API_KEY), new SearchCache(),
+                new AnalyticsStage(), new WordStatsStore(), SearchPipeline.Settings.DEFAULT,
+                new RefreshSchedule.Settings(Duration.ofMillis(300), Duration.ZERO, 10)), name);
+    }
+
+    private static String searchJson(String... items) {
+        return "{ \"items\": [" + String.join(",", items) + "] }";
+    }
+
+    private static String searchItem(String videoId, String publishedAt) {
+        return """
+                {
+                    "id": { "videoId": "%s" },
+                    "snippet": {
+                        "publishedAt": "%s",
+                        "title": "Title of %s",
+                        "description": "Description of %s",
+                        "thumbnails": { "high": { "url": "https://example.com/image.jpg" } },
+                        "channelId": "channel-001",
+                        "channelTitle": "Education Today"
+                    }
+                }
+                """.formatted(videoId, publishedAt, videoId, videoId);
+    }
+
     /**
      * Tests the serialization failure handling in the {@link UserActor}.
      *
@@ -198,16 +385,19 @@ public class UserActorTest {
      *
      * @author Utsav Patel
      */
-    @Test(expected = RuntimeException.class)
+    @Test
     public void testSerializeResponseFailure() {
-        try (MockedConstruction<ObjectMapper> ignored = mockConstruction(ObjectMapper.class,
+        try (MockedConstruction<ObjectMapper> mappers = mockConstruction(ObjectMapper.class,
                 (mock, context) -> {
                     when(mock.writeValueAsString(any(Response.class)))
                             .thenThrow(new JsonProcessingException("Mocked Serialization Error") {
                             });
                 })) {
             Response response = new Response();
-            UserActor.serializeResponse(response);
+            RuntimeException exception = assertThrows(RuntimeException.class, () -> UserActor.serializeResponse(response));
+
+            assertEquals(1, mappers.constructed().size());
+            assertTrue(exception.getCause() instanceof JsonProcessingException);
         }
     }
 }
\ No newline at end of file
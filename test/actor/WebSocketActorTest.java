@@ -1,42 +1,35 @@
 package actor;
 
 import akka.actor.ActorRef;
-import akka.actor.ActorSelection;
 import akka.actor.ActorSystem;
+import akka.actor.testkit.typed.javadsl.TestProbe;
+import akka.actor.typed.javadsl.Adapter;
 import akka.testkit.javadsl.TestKit;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
-import org.mockito.Mock;
-import play.libs.ws.WSClient;
 
 import java.time.Duration;
-import java.util.concurrent.CompletableFuture;
-
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 
 /**
  * Unit tests for the {@link WebSocketActor} class.
  *
- * <p>This test class verifies the behavior of the `WebSocketActor`, including initialization,
- * handling of new connections and disconnections, and interactions with supervisors and actor selections.
+ * <p>This test class verifies the behavior of the `WebSocketActor`, including its registration with the supervisor,
+ * the forwarding of the client messages to its user actor and the stop of the user actor on disconnection.
  *
  * @author Utsav Patel
  */
 public class WebSocketActorTest {
     private ActorSystem system;
     private TestKit probe;
-    private ActorRef supervisorActor;
-
-    @Mock
-    WSClient wsClient;
+    private TestProbe<SupervisorActor.Command> supervisorProbe;
+    private TestProbe<UserActor.Command> userProbe;
 
     /**
      * Sets up the actor system and initializes necessary test dependencies before each test.
      *
-     * <p>Creates a supervisor actor and a test probe to simulate interactions with the `WebSocketActor`.
+     * <p>Creates test probes standing for the supervisor, the user actor and the client.
      *
      * @author Utsav Patel
      */
@@ -44,7 +37,8 @@ public class WebSocketActorTest {
     public void setUp() {
         system = ActorSystem.create("TestSystem");
         probe = new TestKit(system);
-        supervisorActor = system.actorOf(SupervisorActor.props(wsClient, "test-api-key"));
+        supervisorProbe = TestProbe.create(Adapter.toTyped(system));
+        userProbe = TestProbe.create(Adapter.toTyped(system));
     }
 
     /**
@@ -62,88 +56,69 @@ public class WebSocketActorTest {
     /**
      * Tests the initialization of the {@link WebSocketActor}.
      *
-     * <p>Verifies that a new instance of the `WebSocketActor` can be created and is not null.
+     * <p>Verifies that the actor asks the supervisor for its user actor, giving the client reference.
      *
      * @author Utsav Patel
      */
     @Test
     public void testWebSocketActorInitialization() {
-        ActorRef supervisorActor = system.actorOf(SupervisorActor.props(wsClient, "dummy-api-key"));
-        ActorRef webSocketActor = system.actorOf(WebSocketActor.props(supervisorActor, "test-id", probe.getRef()));
+        system.actorOf(WebSocketActor.props(supervisorProbe.getRef(), probe.getRef()));
 
-        Assert.assertNotNull(webSocketActor);
+        SupervisorActor.Connect connect = supervisorProbe.expectMessageClass(SupervisorActor.Connect.class);
+        Assert.assertEquals(probe.getRef(), connect.getOut());
     }
 
     /**
-     * Tests the handling of a new connection by the {@link WebSocketActor}.
-     *
-     * <p>Simulates the reception of a {@link WebSocketActor.NewConnection} message and verifies
-     * that the actor processes it without errors.
+     * Tests that the messages of the client are sent to the user actor given by the supervisor.
      *
      * @author Utsav Patel
      */
     @Test
-    public void testNewConnection() {
-        ActorRef supervisorActor = system.actorOf(SupervisorActor.props(wsClient, "dummy-api-key"));
-        ActorRef webSocketActor = system.actorOf(WebSocketActor.props(supervisorActor, "test-id", probe.getRef()));
+    public void testMessageForwarding() {
+        system.actorOf(WebSocketActor.props(supervisorProbe.getRef(), probe.getRef()));
+        SupervisorActor.Connect connect = supervisorProbe.expectMessageClass(SupervisorActor.Connect.class);
+        connect.getConnection().tell(new SupervisorActor.Connected(userProbe.getRef()));
 
-        ActorRef newConnectionActor = probe.getRef();
-        WebSocketActor.NewConnection newConnection = new WebSocketActor.NewConnection(newConnectionActor);
+        ActorRef webSocketActor = Adapter.toClassic(connect.getConnection());
+        webSocketActor.tell("Test message", ActorRef.noSender());
 
-        webSocketActor.tell(newConnection, ActorRef.noSender());
+        Assert.assertEquals("Test message", userProbe.expectMessageClass(UserActor.Search.class).getKeyword());
     }
 
     /**
-     * Tests the handling of a disconnection by the {@link WebSocketActor}.
-     *
-     * <p>Simulates the reception of a {@link WebSocketActor.Disconnected} message and ensures
-     * the actor processes the disconnection event.
+     * Tests that the messages received before the user actor is known are kept and sent in order once it is.
      *
      * @author Utsav Patel
      */
     @Test
-    public void testDisconnected() {
-        ActorRef webSocketActor = system.actorOf(WebSocketActor.props(supervisorActor, "test-id", probe.getRef()));
-        webSocketActor.tell(new WebSocketActor.Disconnected(probe.getRef()), probe.getRef());
-    }
+    public void testMessagesBeforeConnectionAreStashed() {
+        ActorRef webSocketActor = system.actorOf(WebSocketActor.props(supervisorProbe.getRef(), probe.getRef()));
+        webSocketActor.tell("first", ActorRef.noSender());
+        webSocketActor.tell("second", ActorRef.noSender());
 
-    /**
-     * Tests the behavior of the {@link WebSocketActor} when actor selection fails.
-     *
-     * <p>Simulates a scenario where actor resolution fails due to an error, ensuring
-     * the actor handles the failure gracefully without crashing.
-     *
-     * @author Utsav Patel
-     */
-    @Test
-    public void testActorSelectionFails() {
-        ActorRef webSocketActor = system.actorOf(WebSocketActor.props(supervisorActor, "test-id", probe.getRef()));
+        SupervisorActor.Connect connect = supervisorProbe.expectMessageClass(SupervisorActor.Connect.class);
+        userProbe.expectNoMessage(Duration.ofMillis(200));
+        connect.getConnection().tell(new SupervisorActor.Connected(userProbe.getRef()));
 
-        String message = "Test message";
-        webSocketActor.tell(message, probe.getRef());
-
-        ActorSelection mockActorSelection = mock(ActorSelection.class);
-        when(mockActorSelection.resolveOne(Duration.ofSeconds(2))).thenReturn(CompletableFuture.failedFuture(new RuntimeException("Actor resolution failed")));
-        webSocketActor.tell(message, probe.getRef());
+        Assert.assertEquals("first", userProbe.expectMessageClass(UserActor.Search.class).getKeyword());
+        Assert.assertEquals("second", userProbe.expectMessageClass(UserActor.Search.class).getKeyword());
     }
 
     /**
-     * Tests the handling of an actor selection timeout by the {@link WebSocketActor}.
+     * Tests the handling of a disconnection by the {@link WebSocketActor}.
      *
-     * <p>Simulates a scenario where actor resolution takes time but eventually succeeds,
-     * verifying the actor processes the resolved actor correctly.
+     * <p>Stops the actor, as Play does when the client disconnects, and ensures the connection the supervisor
+     * watches to stop the user actor is terminated.
      *
      * @author Utsav Patel
      */
     @Test
-    public void testActorSelectionTimeout() {
-        ActorRef webSocketActor = system.actorOf(WebSocketActor.props(supervisorActor, "test-id", probe.getRef()));
-
-        ActorSelection mockActorSelection = mock(ActorSelection.class);
-        when(mockActorSelection.resolveOne(Duration.ofSeconds(2)))
-                .thenReturn(CompletableFuture.supplyAsync(() -> probe.getRef()));
+    public void testDisconnected() {
+        ActorRef webSocketActor = system.actorOf(WebSocketActor.props(supervisorProbe.getRef(), probe.getRef()));
+        SupervisorActor.Connect connect = supervisorProbe.expectMessageClass(SupervisorActor.Connect.class);
+        connect.getConnection().tell(new SupervisorActor.Connected(userProbe.getRef()));
 
-        String message = "Test message";
-        webSocketActor.tell(message, probe.getRef());
+        system.stop(webSocketActor);
+        supervisorProbe.expectTerminated(connect.getConnection(), Duration.ofSeconds(3));
     }
 }
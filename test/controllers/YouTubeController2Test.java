@@ -1,5 +1,6 @@
 package controllers;
 
+import actor.AnalyticsStage;
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.stream.Materializer;
@@ -20,6 +21,10 @@ import play.libs.Json;
 import play.libs.ws.WSClient;
 import play.mvc.Http;
 import play.mvc.Result;
+import services.SearchCache;
+import services.TrendingWords;
+import services.WordStatsStore;
+import services.YouTubeClient;
 import services.YouTubeService;
 import services.VideoService;
 
@@ -77,7 +82,7 @@ public class YouTubeController2Test {
     public void setUp() {
         MockitoAnnotations.openMocks(this);
         when(formFactory.form(SearchForm.class)).thenReturn(searchForm);
-        youTubeController = new YouTubeController(youTubeService, formFactory, videoService, actorSystem, materializer, wsClient, config);
+        youTubeController = new YouTubeController(youTubeService, formFactory, videoService, actorSystem, materializer, config, new SearchCache(), new YouTubeClient(wsClient, "API_KEY"), new AnalyticsStage(), new WordStatsStore(), new TrendingWords());
         when(config.getString(anyString())).thenReturn("api_key");
         when(actorSystem.actorOf(any())).thenReturn(null);
         when(actorSystem.actorOf(any(), anyString())).thenReturn(null);
@@ -1,5 +1,6 @@
 package controllers;
 
+import actor.AnalyticsStage;
 import akka.actor.ActorSystem;
 import akka.stream.Materializer;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -21,6 +22,10 @@ import play.mvc.Result;
 import play.mvc.WebSocket;
 import play.test.Helpers;
 import play.test.WithApplication;
+import services.SearchCache;
+import services.TrendingWords;
+import services.WordStatsStore;
+import services.YouTubeClient;
 import services.VideoService;
 import services.YouTubeService;
 
@@ -77,7 +82,7 @@ public class YouTubeControllerTest extends WithApplication {
     public void setUp() {
         MockitoAnnotations.openMocks(this);
         when(formFactory.form(SearchForm.class)).thenReturn(searchForm);
-        youTubeController = new YouTubeController(youTubeService, formFactory, videoService, actorSystem, materializer, wsClient, config);
+        youTubeController = new YouTubeController(youTubeService, formFactory, videoService, actorSystem, materializer, config, new SearchCache(), new YouTubeClient(wsClient, "API_KEY"), new AnalyticsStage(), new WordStatsStore(), new TrendingWords());
 
         response = new Response();
         response.setQuery("Sample query about education and learning");
@@ -177,6 +182,22 @@ public class YouTubeControllerTest extends WithApplication {
         Assert.assertNotNull(ws);
     }
 
+    @Test
+    public void trendingTest() {
+        Result result = this.youTubeController.trending();
+
+        assertEquals(OK, result.status());
+        JsonNode json = Json.parse(contentAsString(result));
+        assertEquals("trending", json.get("type").asText());
+        Assert.assertTrue(json.get("windows").has("5m"));
+    }
+
+    @Test
+    public void trendingWsTest() {
+        WebSocket ws = this.youTubeController.trendingWs();
+        Assert.assertNotNull(ws);
+    }
+
     @Test
     public void searchTagsTest() {
         CompletionStage<Result> tags = this.youTubeController.searchTags("Tags");
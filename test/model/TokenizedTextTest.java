@@ -0,0 +1,75 @@
+package model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link TokenizedText}, checking the counts against the String.split calls it replaces.
+ *
+ * @author Utsav Patel
+ */
+public class TokenizedTextTest {
+    private static final String TEXT = "  I LOVE this_video, it's 100% great! Really? Yes: twice.. ";
+
+    /**
+     * Tests that the letter tokens are the lowercase runs of letters, with the empty leading token of the split.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void letterTokensTest() {
+        TokenizedText tokens = TokenizedText.of(TEXT);
+        String[] expected = TEXT.toLowerCase().replaceAll("[^a-zA-Z]", " ").split("\\s+");
+
+        Assert.assertEquals(expected.length, tokens.getLetterTokenCount() + (tokens.startsWithNonLetter() ? 1 : 0));
+        Assert.assertEquals("i", tokens.getLowercaseLetterToken(0));
+        Assert.assertEquals("love", tokens.getLowercaseLetterToken(1));
+        Assert.assertEquals("video", tokens.getLowercaseLetterToken(3));
+    }
+
+    /**
+     * Tests that the word tokens keep digits and underscores, as splitting on non word characters does.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void wordTokensTest() {
+        TokenizedText tokens = TokenizedText.of(TEXT);
+
+        Assert.assertEquals(10, tokens.getWordTokenCount());
+        Assert.assertEquals("this_video", tokens.getLowercaseWordToken(2));
+        Assert.assertEquals("100", tokens.getLowercaseWordToken(5));
+    }
+
+    /**
+     * Tests the whitespace tokens and the sentence count, including the trailing empty sentences being dropped.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void whitespaceTokensAndSentencesTest() {
+        TokenizedText tokens = TokenizedText.of(TEXT);
+
+        Assert.assertEquals(TEXT.split("\\s+").length, tokens.getWhitespaceTokenCount() + (tokens.startsWithWhitespace() ? 1 : 0));
+        Assert.assertEquals("I", TEXT.substring(tokens.getWhitespaceTokenStart(0), tokens.getWhitespaceTokenEnd(0)));
+        Assert.assertEquals(TEXT.split("[.!?;:]").length, tokens.getSentenceCount());
+        Assert.assertEquals(0, TokenizedText.of("...").getSentenceCount());
+        Assert.assertEquals(1, TokenizedText.of("").getSentenceCount());
+    }
+
+    /**
+     * Tests that the tokens of a video are dropped when its description changes.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void videoTokensFollowDescriptionTest() {
+        Video video = new Video("vid-001", "Title", "first description", null, null, null);
+        TokenizedText first = video.tokens();
+
+        Assert.assertSame(first, video.tokens());
+        Assert.assertSame(first, video.copy().tokens());
+        video.setDescription("second");
+        Assert.assertEquals("second", video.tokens().getLowercaseWordToken(0));
+    }
+}
@@ -1,5 +1,6 @@
 package services.impl;
 
+import akka.util.ByteString;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Before;
@@ -74,6 +75,7 @@ public class YouTubeServiceImplPart2Test {
 
         // Mock addQueryParameter to return mockWsRequest for method chaining
         when(mockWsRequest.addQueryParameter(anyString(), anyString())).thenReturn(mockWsRequest);
+        when(mockWsRequest.addHeader(anyString(), anyString())).thenReturn(mockWsRequest);
 
         // Mock get() call to return a WSResponse
         when(mockWsRequest.get()).thenReturn(CompletableFuture.completedFuture(mockWsResponse));
@@ -82,7 +84,7 @@ public class YouTubeServiceImplPart2Test {
         try {
             ObjectMapper mapper = new ObjectMapper();
             JsonNode jsonNode = mapper.readTree(MOCK_JSON_RESPONSE);
-            when(mockWsResponse.asJson()).thenReturn(jsonNode);
+            when(mockWsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(jsonNode.toString()));
         } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
             e.printStackTrace();
         }
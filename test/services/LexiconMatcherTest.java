@@ -0,0 +1,74 @@
+package services;
+
+import model.TokenizedText;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tests for the {@link LexiconMatcher}.
+ *
+ * @author Vatsal Mukeshkumar Ajmeri
+ */
+public class LexiconMatcherTest {
+    private static final LexiconMatcher MATCHER = new LexiconMatcher(List.of(
+            Set.of("sad", "grief-stricken", "down"),
+            Set.of("even if", "if", "no one", "one", "one another", "down")));
+
+    /**
+     * Tests that single words are matched whole and whatever their case, never inside a longer word.
+     *
+     * @author Vatsal Mukeshkumar Ajmeri
+     */
+    @Test
+    public void wholeWordsTest() {
+        LexiconMatcher.Matches matches = MATCHER.match(TokenizedText.of("SAD, so sad... a crusade for sadness"));
+
+        Assert.assertEquals(2, matches.hits(0));
+        Assert.assertEquals(2, matches.words(0));
+        Assert.assertEquals(0, matches.hits(1));
+    }
+
+    /**
+     * Tests that phrases are matched across any separator, and that the longest entry wins over its first word.
+     *
+     * @author Vatsal Mukeshkumar Ajmeri
+     */
+    @Test
+    public void phrasesTest() {
+        LexiconMatcher.Matches matches = MATCHER.match(TokenizedText.of("Even if no one is grief stricken; one another one"));
+
+        Assert.assertEquals(1, matches.hits(0));
+        Assert.assertEquals(2, matches.words(0));
+        Assert.assertEquals(4, matches.hits(1));
+        Assert.assertEquals(7, matches.words(1));
+    }
+
+    /**
+     * Tests that a word listed in several lexicons is counted in each of them.
+     *
+     * @author Vatsal Mukeshkumar Ajmeri
+     */
+    @Test
+    public void sharedWordsTest() {
+        LexiconMatcher.Matches matches = MATCHER.match(TokenizedText.of("down down"));
+
+        Assert.assertEquals(2, matches.hits(0));
+        Assert.assertEquals(2, matches.hits(1));
+    }
+
+    /**
+     * Tests that an empty text has no matches.
+     *
+     * @author Vatsal Mukeshkumar Ajmeri
+     */
+    @Test
+    public void emptyTextTest() {
+        LexiconMatcher.Matches matches = MATCHER.match(TokenizedText.of(""));
+
+        Assert.assertEquals(0, matches.hits(0));
+        Assert.assertEquals(0, matches.words(1));
+    }
+}
@@ -0,0 +1,163 @@
+package services;
+
+import org.junit.Test;
+import play.libs.ws.WSResponse;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for the {@link QuotaScheduler}.
+ *
+ * @author Utsav Patel
+ */
+public class QuotaSchedulerTest {
+    private static final ZoneId PACIFIC = ZoneId.of("America/Los_Angeles");
+    private static final Clock FIXED_CLOCK = Clock.fixed(Instant.parse("2024-11-20T18:00:00Z"), ZoneOffset.UTC);
+
+    private final WSResponse response = mock(WSResponse.class);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private CompletionStage<WSResponse> call() {
+        calls.incrementAndGet();
+        return CompletableFuture.completedFuture(response);
+    }
+
+    /**
+     * Tests that every call is charged the cost of its endpoint.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testCallsAreChargedTheirEndpointCost() {
+        QuotaScheduler scheduler = new QuotaScheduler(true, 1000, 10000, 10, PACIFIC, FIXED_CLOCK);
+
+        scheduler.schedule(QuotaScheduler.Endpoint.SEARCH, this::call).toCompletableFuture().join();
+        scheduler.schedule(QuotaScheduler.Endpoint.VIDEOS, this::call).toCompletableFuture().join();
+        scheduler.schedule(QuotaScheduler.Endpoint.CHANNELS, this::call).toCompletableFuture().join();
+
+        assertEquals(3, calls.get());
+        assertEquals(10000 - 102, scheduler.remainingToday());
+        assertEquals(Long.valueOf(102), scheduler.stats().get("usedToday"));
+    }
+
+    /**
+     * Tests that a call is rejected without reaching the API once the daily budget is exhausted.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testCallsAreRejectedOnceTheDailyBudgetIsSpent() {
+        QuotaScheduler scheduler = new QuotaScheduler(true, 1000, 150, 10, PACIFIC, FIXED_CLOCK);
+
+        scheduler.schedule(QuotaScheduler.Endpoint.SEARCH, this::call).toCompletableFuture().join();
+        CompletableFuture<WSResponse> rejected = scheduler.schedule(QuotaScheduler.Endpoint.SEARCH, this::call).toCompletableFuture();
+        scheduler.schedule(QuotaScheduler.Endpoint.VIDEOS, this::call).toCompletableFuture().join();
+
+        assertEquals(2, calls.get());
+        CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+        assertTrue(exception.getCause() instanceof QuotaScheduler.QuotaExceededException);
+        assertEquals(Long.valueOf(1), scheduler.stats().get("rejected"));
+        assertEquals(49, scheduler.remainingToday());
+    }
+
+    /**
+     * Tests that a call is queued while the bucket is empty and started once it has refilled.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testCallsAreQueuedUntilTheBucketRefills() throws Exception {
+        QuotaScheduler scheduler = new QuotaScheduler(1000, 10000, 10, PACIFIC);
+
+        for (int i = 0; i < 10; i++) {
+            scheduler.schedule(QuotaScheduler.Endpoint.SEARCH, this::call).toCompletableFuture().join();
+        }
+        CompletableFuture<WSResponse> queued = scheduler.schedule(QuotaScheduler.Endpoint.SEARCH, this::call).toCompletableFuture();
+
+        assertFalse(queued.isDone());
+        assertEquals(10, calls.get());
+        assertEquals(Long.valueOf(1), scheduler.stats().get("queued"));
+
+        assertSame(response, queued.get(5, TimeUnit.SECONDS));
+        assertEquals(11, calls.get());
+        assertEquals(Long.valueOf(0), scheduler.stats().get("queued"));
+    }
+
+    /**
+     * Tests that a call is rejected when the queue is full.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testCallsAreRejectedWhenTheQueueIsFull() {
+        QuotaScheduler scheduler = new QuotaScheduler(true, 100, 10000, 1, PACIFIC, FIXED_CLOCK);
+
+        scheduler.schedule(QuotaScheduler.Endpoint.SEARCH, this::call).toCompletableFuture().join();
+        CompletableFuture<WSResponse> queued = scheduler.schedule(QuotaScheduler.Endpoint.SEARCH, this::call).toCompletableFuture();
+        CompletableFuture<WSResponse> rejected = scheduler.schedule(QuotaScheduler.Endpoint.VIDEOS, this::call).toCompletableFuture();
+
+        assertFalse(queued.isDone());
+        assertTrue(rejected.isCompletedExceptionally());
+        assertEquals(1, calls.get());
+        assertEquals(Long.valueOf(1), scheduler.stats().get("rejected"));
+    }
+
+    /**
+     * Tests that the unlimited scheduler starts every call right away and still counts the units.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testUnlimitedSchedulerNeverDelays() {
+        QuotaScheduler scheduler = QuotaScheduler.unlimited();
+
+        for (int i = 0; i < 200; i++) {
+            assertTrue(scheduler.schedule(QuotaScheduler.Endpoint.SEARCH, this::call).toCompletableFuture().isDone());
+        }
+
+        assertEquals(200, calls.get());
+        assertEquals(Long.valueOf(20000), scheduler.stats().get("usedToday"));
+        assertEquals(Long.MAX_VALUE - 20000, scheduler.remainingToday());
+    }
+
+    /**
+     * Tests that a rate below the cost of a search is rejected rather than silently raised.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testRateBelowTheSearchCostIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new QuotaScheduler(true, 50, 10000, 10, PACIFIC, FIXED_CLOCK));
+    }
+
+    /**
+     * Tests that closing the scheduler fails the queued calls and every call scheduled afterwards.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testCloseFailsTheQueuedCalls() {
+        QuotaScheduler scheduler = new QuotaScheduler(true, 100, 10000, 10, PACIFIC, FIXED_CLOCK);
+
+        scheduler.schedule(QuotaScheduler.Endpoint.SEARCH, this::call).toCompletableFuture().join();
+        CompletableFuture<WSResponse> queued = scheduler.schedule(QuotaScheduler.Endpoint.SEARCH, this::call).toCompletableFuture();
+        scheduler.close();
+        CompletableFuture<WSResponse> afterClose = scheduler.schedule(QuotaScheduler.Endpoint.VIDEOS, this::call).toCompletableFuture();
+
+        assertTrue(queued.isCompletedExceptionally());
+        assertTrue(afterClose.isCompletedExceptionally());
+        assertEquals(1, calls.get());
+        assertEquals(Long.valueOf(0), scheduler.stats().get("queued"));
+    }
+}
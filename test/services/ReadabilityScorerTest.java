@@ -1,8 +1,5 @@
-package actor;
+package services;
 
-import akka.actor.ActorRef;
-import akka.actor.ActorSystem;
-import akka.testkit.javadsl.TestKit;
 import model.Response;
 import model.Video;
 import org.junit.*;
@@ -12,18 +9,17 @@ import java.util.ArrayList;
 import static org.junit.Assert.assertEquals;
 
 /**
- * Test class for DescriptionReadabilityActor.
+ * Test class for ReadabilityScorer.
  * <p>
- * This class contains unit tests for various methods in the DescriptionReadabilityActor
+ * This class contains unit tests for various methods in the ReadabilityScorer
  * to validate their functionality, including readability calculations, sentence counting,
  * word splitting, and syllable counting.
  * </p>
  *
  * @author Utsav Patel
  */
-public class DescriptionReadabilityActorTest {
+public class ReadabilityScorerTest {
 
-    private static ActorSystem actorSystem;
     private final String TEXT = "In a quaint little village nestled between misty mountains and sprawling green fields, there was a peculiar shop that everyone called \"The Whispering Lantern.\" The shop appeared ordinary from the outside, with a simple wooden sign swaying gently in the breeze, but inside, it was anything but. Shelves brimmed with enchanted trinkets, ancient scrolls, and curious artifacts from distant lands. Visitors claimed that each item had a story to tell, and if you listened closely, you could hear faint whispers echoing through the lanterns hanging from the ceiling.";
     private Response response = null;
 
@@ -46,35 +42,15 @@ public class DescriptionReadabilityActorTest {
     }
 
     /**
-     * Sets up the ActorSystem for testing.
-     */
-    @BeforeClass
-    public static void setup() {
-        actorSystem = ActorSystem.create();
-    }
-
-    /**
-     * Tears down the ActorSystem after all tests are executed.
-     */
-    @AfterClass
-    public static void teardown() {
-        TestKit.shutdownActorSystem(actorSystem);
-        actorSystem = null;
-    }
-
-    /**
-     * Tests the readability calculation logic in the DescriptionReadabilityActor.
+     * Tests the readability calculation logic in the ReadabilityScorer.
      *
      * @author Utsav Patel
      */
     @Test
     public void testReadability() {
-        final TestKit probe = new TestKit(actorSystem);
-        final ActorRef actorRef = actorSystem.actorOf(DescriptionReadabilityActor.props(), "DescriptionReadabilityActor");
-
-        actorRef.tell(response, probe.getRef());
+        ReadabilityScorer.calculateAverageReadability(response);
 
-        Response responseWithReadabilityScore = probe.expectMsgClass(Response.class);
+        Response responseWithReadabilityScore = response;
 
         Assert.assertNotNull(responseWithReadabilityScore);
         Assert.assertNotNull(responseWithReadabilityScore.getAverageFleschKincaidGradeLevel());
@@ -100,24 +76,24 @@ public class DescriptionReadabilityActorTest {
     }
 
     /**
-     * Tests the sentence counting functionality of the DescriptionReadabilityActor.
+     * Tests the sentence counting functionality of the ReadabilityScorer.
      *
      * @author Utsav Patel
      */
     @Test
     public void countSentenceTest() {
-        int countSentences = DescriptionReadabilityActor.countSentences(TEXT);
+        int countSentences = ReadabilityScorer.countSentences(TEXT);
         Assert.assertEquals(4, countSentences);
     }
 
     /**
-     * Tests the word splitting functionality of the DescriptionReadabilityActor.
+     * Tests the word splitting functionality of the ReadabilityScorer.
      *
      * @author Utsav Patel
      */
     @Test
     public void splitIntoWordsTest() {
-        String[] words = DescriptionReadabilityActor.splitIntoWords(TEXT);
+        String[] words = ReadabilityScorer.splitIntoWords(TEXT);
         Assert.assertNotNull(words);
         Assert.assertEquals(88, words.length);
         Assert.assertEquals("In", words[0]);
@@ -125,50 +101,50 @@ public class DescriptionReadabilityActorTest {
     }
 
     /**
-     * Tests the consonant detection functionality of the DescriptionReadabilityActor.
+     * Tests the consonant detection functionality of the ReadabilityScorer.
      *
      * @author Utsav Patel
      */
     @Test
     public void consonantTest() {
-        Assert.assertFalse(DescriptionReadabilityActor.isConsonant('a'));
-        Assert.assertTrue(DescriptionReadabilityActor.isConsonant('b'));
+        Assert.assertFalse(ReadabilityScorer.isConsonant('a'));
+        Assert.assertTrue(ReadabilityScorer.isConsonant('b'));
     }
 
     /**
-     * Tests the syllable counting functionality of the DescriptionReadabilityActor.
+     * Tests the syllable counting functionality of the ReadabilityScorer.
      *
      * @author Utsav Patel
      */
     @Test
     public void countSyllablesTest() {
-        assertEquals(1, DescriptionReadabilityActor.countSyllables("a"));
-        assertEquals(1, DescriptionReadabilityActor.countSyllables("cake"));
-        assertEquals(3, DescriptionReadabilityActor.countSyllables("elephant"));
-        assertEquals(1, DescriptionReadabilityActor.countSyllables("table"));
-        assertEquals(3, DescriptionReadabilityActor.countSyllables("tablee"));
-        assertEquals(2, DescriptionReadabilityActor.countSyllables("taalee"));
-        assertEquals(1, DescriptionReadabilityActor.countSyllables("whale"));
-        assertEquals(2, DescriptionReadabilityActor.countSyllables("waleed"));
-        assertEquals(1, DescriptionReadabilityActor.countSyllables("played"));
-        assertEquals(1, DescriptionReadabilityActor.countSyllables("watches"));
-        assertEquals(2, DescriptionReadabilityActor.countSyllables("agrees"));
-        assertEquals(1, DescriptionReadabilityActor.countSyllables("rhythm"));
-        assertEquals(2, DescriptionReadabilityActor.countSyllables("HeLLo "));
-        assertEquals(3, DescriptionReadabilityActor.countSyllables("beautiful"));
-        assertEquals(1, DescriptionReadabilityActor.countSyllables("red"));
-        assertEquals(1, DescriptionReadabilityActor.countSyllables("yes"));
-        assertEquals(1, DescriptionReadabilityActor.countSyllables("aeiou"));
+        assertEquals(1, ReadabilityScorer.countSyllables("a"));
+        assertEquals(1, ReadabilityScorer.countSyllables("cake"));
+        assertEquals(3, ReadabilityScorer.countSyllables("elephant"));
+        assertEquals(1, ReadabilityScorer.countSyllables("table"));
+        assertEquals(3, ReadabilityScorer.countSyllables("tablee"));
+        assertEquals(2, ReadabilityScorer.countSyllables("taalee"));
+        assertEquals(1, ReadabilityScorer.countSyllables("whale"));
+        assertEquals(2, ReadabilityScorer.countSyllables("waleed"));
+        assertEquals(1, ReadabilityScorer.countSyllables("played"));
+        assertEquals(1, ReadabilityScorer.countSyllables("watches"));
+        assertEquals(2, ReadabilityScorer.countSyllables("agrees"));
+        assertEquals(1, ReadabilityScorer.countSyllables("rhythm"));
+        assertEquals(2, ReadabilityScorer.countSyllables("HeLLo "));
+        assertEquals(3, ReadabilityScorer.countSyllables("beautiful"));
+        assertEquals(1, ReadabilityScorer.countSyllables("red"));
+        assertEquals(1, ReadabilityScorer.countSyllables("yes"));
+        assertEquals(1, ReadabilityScorer.countSyllables("aeiou"));
     }
 
     /**
-     * Tests the readability score calculation functionality of the DescriptionReadabilityActor.
+     * Tests the readability score calculation functionality of the ReadabilityScorer.
      *
      * @author Utsav Patel
      */
     @Test
     public void calculateReadabilityScoresTest() {
-        double[] calculateReadabilityScores = DescriptionReadabilityActor.calculateReadabilityScores(TEXT);
+        double[] calculateReadabilityScores = ReadabilityScorer.calculateReadabilityScores(TEXT);
         // Between 10 and 12
         Assert.assertTrue(10 < calculateReadabilityScores[0]);
         Assert.assertTrue(12 > calculateReadabilityScores[0]);
@@ -177,7 +153,7 @@ public class DescriptionReadabilityActorTest {
         Assert.assertTrue(50 < calculateReadabilityScores[1]);
         Assert.assertTrue(60 > calculateReadabilityScores[1]);
 
-        calculateReadabilityScores = DescriptionReadabilityActor.calculateReadabilityScores("");
+        calculateReadabilityScores = ReadabilityScorer.calculateReadabilityScores("");
         Assert.assertEquals(Double.valueOf(0.0), Double.valueOf(calculateReadabilityScores[0]));
         Assert.assertEquals(Double.valueOf(0.0), Double.valueOf(calculateReadabilityScores[1]));
     }
@@ -0,0 +1,148 @@
+package services;
+
+import model.Response;
+import model.Video;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link SearchCache}.
+ *
+ * @author Utsav Patel
+ */
+public class SearchCacheTest {
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private SearchCache searchCache;
+    private CompletableFuture<Response> pending;
+
+    /**
+     * Creates a cache with a 30 second TTL and a controllable clock.
+     *
+     * @author Utsav Patel
+     */
+    @Before
+    public void setUp() {
+        searchCache = new SearchCache(Duration.ofSeconds(30), 10, now::get);
+        pending = new CompletableFuture<>();
+    }
+
+    private CompletionStage<Response> load(String query) {
+        loads.incrementAndGet();
+        return pending;
+    }
+
+    private static Response response(String query) {
+        Response response = new Response();
+        response.setQuery(query);
+        List<Video> videos = new ArrayList<>();
+        videos.add(new Video("vid-001", "Title", "Description", "https://example.com/image.jpg", "channel-001", "Channel"));
+        response.setVideos(videos);
+        return response;
+    }
+
+    /**
+     * Tests that concurrent requests for the same query wait on the same in-flight load.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testConcurrentRequestsAreCoalesced() {
+        CompletionStage<Response> first = searchCache.get("java", this::load);
+        CompletionStage<Response> second = searchCache.get("java", this::load);
+
+        pending.complete(response("java"));
+
+        assertEquals(1, loads.get());
+        assertEquals("java", first.toCompletableFuture().join().getQuery());
+        assertEquals("java", second.toCompletableFuture().join().getQuery());
+        assertEquals(Long.valueOf(1), searchCache.stats().get("misses"));
+        assertEquals(Long.valueOf(1), searchCache.stats().get("coalesced"));
+    }
+
+    /**
+     * Tests that queries differing only in case and whitespace share an entry and every caller gets its own copy.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testNormalizedQueriesShareAnEntry() {
+        pending.complete(response("Java Streams"));
+        Response first = searchCache.get("Java Streams", this::load).toCompletableFuture().join();
+        Response second = searchCache.get("  java   streams ", this::load).toCompletableFuture().join();
+
+        assertEquals(1, loads.get());
+        assertEquals(Long.valueOf(1), searchCache.stats().get("hits"));
+        assertEquals("  java   streams ", second.getQuery());
+        assertNotSame(first, second);
+        assertNotSame(first.getVideos().get(0), second.getVideos().get(0));
+    }
+
+    /**
+     * Tests that an entry is loaded again once the TTL has elapsed.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testExpiredEntryIsReloaded() {
+        pending.complete(response("java"));
+        searchCache.get("java", this::load).toCompletableFuture().join();
+
+        now.addAndGet(Duration.ofSeconds(29).toNanos());
+        searchCache.get("java", this::load).toCompletableFuture().join();
+        assertEquals(1, loads.get());
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        searchCache.get("java", this::load).toCompletableFuture().join();
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * Tests that a failed load is not cached.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testFailedLoadIsNotCached() {
+        pending.completeExceptionally(new RuntimeException("API Error"));
+        CompletionStage<Response> failed = searchCache.get("java", this::load);
+        assertTrue(failed.toCompletableFuture().isCompletedExceptionally());
+
+        pending = CompletableFuture.completedFuture(response("java"));
+        Response response = searchCache.get("java", this::load).toCompletableFuture().join();
+
+        assertEquals(2, loads.get());
+        assertEquals("java", response.getQuery());
+    }
+
+    /**
+     * Tests that the cache stays within its maximum number of entries when every entry is still live, the oldest
+     * entries being dropped first.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testLiveEntriesAreEvictedBeyondTheMaximum() {
+        pending.complete(response("query"));
+        for (int i = 0; i < 12; i++) {
+            searchCache.get("query " + i, this::load).toCompletableFuture().join();
+            now.addAndGet(Duration.ofSeconds(1).toNanos());
+        }
+
+        assertEquals(Long.valueOf(10), searchCache.stats().get("entries"));
+        searchCache.get("query 11", this::load).toCompletableFuture().join();
+        assertEquals(12, loads.get());
+        searchCache.get("query 0", this::load).toCompletableFuture().join();
+        assertEquals(13, loads.get());
+    }
+}
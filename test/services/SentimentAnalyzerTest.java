@@ -1,7 +1,5 @@
-import actor.SentimentAnalyzerActor;
-import akka.actor.ActorRef;
-import akka.actor.ActorSystem;
-import akka.testkit.javadsl.TestKit;
+package services;
+
 import model.Response;
 import model.Video;
 import org.junit.*;
@@ -10,28 +8,16 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
-public class SentimentAnalyzerActorTest {
-
-    private static ActorSystem actorSystem;
+public class SentimentAnalyzerTest {
 
     private final String TEXT = "In a quaint little village nestled between misty mountains and sprawling green fields, there was a peculiar shop that everyone called \"The Whispering Lantern.\" The shop appeared ordinary from the outside, with a simple wooden sign swaying gently in the breeze, but inside, it was anything but. Shelves brimmed with enchanted trinkets, ancient scrolls, and curious artifacts from distant lands. Visitors claimed that each item had a story to tell, and if you listened closely, you could hear faint whispers echoing through the lanterns hanging from the ceiling.";
     private Response response = new Response();
 
-    @BeforeClass
-    public static void setup() {
-        actorSystem = ActorSystem.create();
-    }
-
-    @AfterClass
-    public static void tearDown() {
-        TestKit.shutdownActorSystem(actorSystem);
-        actorSystem = null;
-    }
-
     @Before
     public void setUp() {
         response = new Response();
@@ -48,12 +34,11 @@ public class SentimentAnalyzerActorTest {
 
     @Test
     public void testReadability() {
-        final TestKit probe = new TestKit(actorSystem);
-        final ActorRef actorRef = actorSystem.actorOf(SentimentAnalyzerActor.props(), "SentimentAnalyzerActor");
-
-        actorRef.tell(response, probe.getRef());
+        response.setSentiment(SentimentAnalyzer.aggregateSentiment(response.getVideos().stream()
+                .map(video -> SentimentAnalyzer.analyzeSentimentForDescription(video.getDescription()))
+                .collect(Collectors.toList())));
 
-        Response responseWithOverallSentiments = probe.expectMsgClass(Response.class);
+        Response responseWithOverallSentiments = response;
 
         assertNotNull(responseWithOverallSentiments);
         assertNotNull(responseWithOverallSentiments.getSentiment());
@@ -71,7 +56,7 @@ public class SentimentAnalyzerActorTest {
     @Test
     public void testAnalyzeSentimentForDescription_HappySentiment() {
         String description = "satisfied,";
-        assertEquals(":-)", SentimentAnalyzerActor.analyzeSentimentForDescription(description));
+        assertEquals(":-)", SentimentAnalyzer.analyzeSentimentForDescription(description));
     }
 
     /**
@@ -82,7 +67,7 @@ public class SentimentAnalyzerActorTest {
     @Test
     public void testAnalyzeSentimentForDescription_SadSentiment() {
         String description = "hopelessness";
-        assertEquals(":-(", SentimentAnalyzerActor.analyzeSentimentForDescription(description));
+        assertEquals(":-(", SentimentAnalyzer.analyzeSentimentForDescription(description));
     }
 
     /**
@@ -93,7 +78,7 @@ public class SentimentAnalyzerActorTest {
     @Test
     public void testAnalyzeSentimentForDescription_NeutralSentiment() {
         String description = "It was a day with mixed feelings.";
-        assertEquals(":-|", SentimentAnalyzerActor.analyzeSentimentForDescription(description));
+        assertEquals(":-|", SentimentAnalyzer.analyzeSentimentForDescription(description));
     }
 
     /**
@@ -104,7 +89,7 @@ public class SentimentAnalyzerActorTest {
     @Test
     public void testAnalyzeSentimentForDescription_NoWords() {
         String description = "";
-        assertEquals(":-|", SentimentAnalyzerActor.analyzeSentimentForDescription(description));
+        assertEquals(":-|", SentimentAnalyzer.analyzeSentimentForDescription(description));
     }
 
     /**
@@ -115,7 +100,7 @@ public class SentimentAnalyzerActorTest {
     @Test
     public void testAnalyzeSentimentForDescription_LowHappyPercentage() {
         String description = "merrily tears cries vulnerably";
-        assertEquals(":-(", SentimentAnalyzerActor.analyzeSentimentForDescription(description));
+        assertEquals(":-(", SentimentAnalyzer.analyzeSentimentForDescription(description));
     }
 
     /**
@@ -126,7 +111,7 @@ public class SentimentAnalyzerActorTest {
     @Test
     public void testAnalyzeSentimentForDescription_LowSadPercentage() {
         String description = "Cheer Rejuvenated Delight Grateful brightest funnest sad";
-        assertEquals(":-)", SentimentAnalyzerActor.analyzeSentimentForDescription(description));
+        assertEquals(":-)", SentimentAnalyzer.analyzeSentimentForDescription(description));
     }
 
     /**
@@ -136,7 +121,7 @@ public class SentimentAnalyzerActorTest {
      */
     @Test
     public void emptyTest() {
-        assertEquals(":-|", SentimentAnalyzerActor.analyzeSentimentForDescription(""));
+        assertEquals(":-|", SentimentAnalyzer.analyzeSentimentForDescription(""));
     }
 
     /**
@@ -154,7 +139,7 @@ public class SentimentAnalyzerActorTest {
                 "luckily",
                 "Blissful"
         );
-        assertEquals(":-)", SentimentAnalyzerActor.analyzeSentiment(descriptions));
+        assertEquals(":-)", SentimentAnalyzer.analyzeSentiment(descriptions));
     }
 
     /**
@@ -169,7 +154,7 @@ public class SentimentAnalyzerActorTest {
                 "unfortunate",
                 "depressing"
         );
-        assertEquals(":-(", SentimentAnalyzerActor.analyzeSentiment(descriptions));
+        assertEquals(":-(", SentimentAnalyzer.analyzeSentiment(descriptions));
     }
 
     /**
@@ -184,7 +169,7 @@ public class SentimentAnalyzerActorTest {
                 "Just an ordinary time",
                 "No emotions here"
         );
-        assertEquals(":-|", SentimentAnalyzerActor.analyzeSentiment(descriptions));
+        assertEquals(":-|", SentimentAnalyzer.analyzeSentiment(descriptions));
     }
 
     /**
@@ -198,7 +183,7 @@ public class SentimentAnalyzerActorTest {
                 "positivity",
                 "hopelessness"
         );
-        assertEquals(":-|", SentimentAnalyzerActor.analyzeSentiment(descriptions));
+        assertEquals(":-|", SentimentAnalyzer.analyzeSentiment(descriptions));
     }
 
     /**
@@ -209,7 +194,7 @@ public class SentimentAnalyzerActorTest {
     @Test
     public void testAnalyzeSentiment_EmptyList() {
         List<String> descriptions = Collections.emptyList();
-        assertEquals(":-|", SentimentAnalyzerActor.analyzeSentiment(descriptions));
+        assertEquals(":-|", SentimentAnalyzer.analyzeSentiment(descriptions));
     }
 
     /**
@@ -222,7 +207,7 @@ public class SentimentAnalyzerActorTest {
         List<String> descriptions = Arrays.asList(
                 "pleasure", "blissfulness", "amazing", "gleeful", "euphoric", "miserableness", "red"
         );
-        assertEquals(":-)", SentimentAnalyzerActor.analyzeSentiment(descriptions));
+        assertEquals(":-)", SentimentAnalyzer.analyzeSentiment(descriptions));
     }
 
     /**
@@ -235,7 +220,7 @@ public class SentimentAnalyzerActorTest {
         List<String> descriptions = Arrays.asList(
                 "downed", "heartbreak", "sorrow", "anguishing", "distressed", "enthusiasm", "blue"
         );
-        assertEquals(":-(", SentimentAnalyzerActor.analyzeSentiment(descriptions));
+        assertEquals(":-(", SentimentAnalyzer.analyzeSentiment(descriptions));
     }
 
     /**
@@ -248,7 +233,7 @@ public class SentimentAnalyzerActorTest {
         List<String> descriptions = Arrays.asList(
                 "loneliest", "Exuberantly", "Thrill", "mobile", "go", "red", "blue"
         );
-        assertEquals(":-|", SentimentAnalyzerActor.analyzeSentiment(descriptions));
+        assertEquals(":-|", SentimentAnalyzer.analyzeSentiment(descriptions));
     }
 
     /**
@@ -261,7 +246,7 @@ public class SentimentAnalyzerActorTest {
         List<String> descriptions = Arrays.asList(
                 "loneliest", "gloominess", "Hopeful", "mobile", "go", "red", "blue"
         );
-        assertEquals(":-|", SentimentAnalyzerActor.analyzeSentiment(descriptions));
+        assertEquals(":-|", SentimentAnalyzer.analyzeSentiment(descriptions));
     }
 
     /**
@@ -274,7 +259,7 @@ public class SentimentAnalyzerActorTest {
         List<String> descriptions = Arrays.asList(
                 "lonelier", "positivity", "satisfaction", "fun", "enthusiastically", "radiant", "merrily", "mobile", "go", "red", "blue", "orange", "at", "the"
         );
-        assertEquals(":-|", SentimentAnalyzerActor.analyzeSentiment(descriptions));
+        assertEquals(":-|", SentimentAnalyzer.analyzeSentiment(descriptions));
     }
 
 }
@@ -0,0 +1,110 @@
+package services;
+
+import model.TokenizedText;
+import model.TrendingSnapshot;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link TrendingWords}.
+ *
+ * @author Karan Tanakhia
+ */
+public class TrendingWordsTest {
+    private final AtomicLong now = new AtomicLong();
+    private TrendingWords trendingWords;
+
+    /**
+     * Creates trending words over a 5 minute and a 1 hour window of 10 counters each, with a controllable clock.
+     *
+     * @author Karan Tanakhia
+     */
+    @Before
+    public void setUp() {
+        trendingWords = new TrendingWords(List.of(Duration.ofMinutes(5), Duration.ofHours(1)), 10, 3, now::get);
+    }
+
+    private void add(String description) {
+        trendingWords.add(TokenizedText.of(description));
+    }
+
+    private List<String> top(String window) {
+        return trendingWords.snapshot().getWindows().get(window).stream()
+                .map(TrendingSnapshot.Word::getWord)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Tests that words are ranked by count, stop words, numbers and short words being left out.
+     *
+     * @author Karan Tanakhia
+     */
+    @Test
+    public void testWordsAreRankedWithoutStopWords() {
+        add("The lofi beats, lofi 2024 beats and lofi to go");
+
+        assertEquals(List.of("lofi", "beats"), top("5m"));
+        TrendingSnapshot.Word lofi = trendingWords.snapshot().getWindows().get("5m").get(0);
+        assertEquals(3.0, lofi.getScore(), 1e-9);
+        assertEquals(0.0, lofi.getMaxError(), 1e-9);
+        assertEquals(5L, trendingWords.stats().get("words"));
+    }
+
+    /**
+     * Tests that older occurrences weigh down by half per half-life, so the windows rank the same words differently.
+     *
+     * @author Karan Tanakhia
+     */
+    @Test
+    public void testOccurrencesDecayPerWindow() {
+        add("alpha alpha alpha");
+        now.addAndGet(Duration.ofMinutes(10).toMillis());
+        add("beta");
+
+        assertEquals(List.of("beta", "alpha"), top("5m"));
+        assertEquals(List.of("alpha", "beta"), top("1h"));
+        assertEquals(0.75, trendingWords.snapshot().getWindows().get("5m").get(1).getScore(), 1e-9);
+    }
+
+    /**
+     * Tests that the number of counters is fixed whatever the number of distinct words, and that a frequent word is
+     * still reported first.
+     *
+     * @author Karan Tanakhia
+     */
+    @Test
+    public void testMemoryIsBounded() {
+        for (int i = 0; i < 1000; i++) {
+            add("word" + Integer.toString(i, 26).replaceAll("[0-9]", "x") + " heavy");
+        }
+
+        assertEquals(20, trendingWords.stats().get("tracked"));
+        assertTrue(trendingWords.stats().get("replacements").longValue() > 0);
+        assertEquals("heavy", top("5m").get(0));
+        assertEquals(1000.0, trendingWords.snapshot().getWindows().get("5m").get(0).getScore(), 1e-6);
+    }
+
+    /**
+     * Tests that the scores stay exact when the counters are rescaled to a new landmark.
+     *
+     * @author Karan Tanakhia
+     */
+    @Test
+    public void testCountersAreRescaled() {
+        add("alpha");
+        now.addAndGet(Duration.ofMinutes(5 * 40).toMillis());
+        add("beta beta");
+
+        List<TrendingSnapshot.Word> top = trendingWords.snapshot().getWindows().get("5m");
+        assertEquals("beta", top.get(0).getWord());
+        assertEquals(2.0, top.get(0).getScore(), 1e-9);
+        assertEquals(Math.pow(2, -40), top.get(1).getScore(), 1e-15);
+    }
+}
@@ -0,0 +1,122 @@
+package services;
+
+import model.TokenizedText;
+import model.Video;
+import model.VideoAnalytics;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link VideoAnalyticsCache}.
+ *
+ * @author Utsav Patel
+ */
+public class VideoAnalyticsCacheTest {
+    private final AtomicInteger analyses = new AtomicInteger();
+    private VideoAnalyticsCache analyticsCache;
+
+    /**
+     * Creates a cache of two entries whose analyzer counts its calls.
+     *
+     * @author Utsav Patel
+     */
+    @Before
+    public void setUp() {
+        analyticsCache = new VideoAnalyticsCache(2, this::analyze);
+    }
+
+    private VideoAnalytics analyze(TokenizedText tokens) {
+        analyses.incrementAndGet();
+        return new VideoAnalytics(":-)", tokens.getLetterTokenCount(), 0, 1.0, 2.0);
+    }
+
+    private static Video video(String videoId, String description) {
+        return new Video(videoId, "title", description, "image", "channel", "channel title");
+    }
+
+    /**
+     * Tests that a video is only analysed once while its description does not change.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testSameVideoIsAnalysedOnce() {
+        VideoAnalytics first = analyticsCache.get(video("v1", "a happy day"));
+        VideoAnalytics second = analyticsCache.get(video("v1", new String("a happy day")));
+
+        assertSame(first, second);
+        assertEquals(1, analyses.get());
+        assertEquals(3L, first.getHappyCount());
+        Map<String, Number> stats = analyticsCache.stats();
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(50.0, stats.get("hitRate").doubleValue(), 0.001);
+    }
+
+    /**
+     * Tests that an edited description is analysed again.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testEditedDescriptionIsAnalysedAgain() {
+        analyticsCache.get(video("v1", "a happy day"));
+        VideoAnalytics edited = analyticsCache.get(video("v1", "a happy sunny day"));
+
+        assertEquals(2, analyses.get());
+        assertEquals(4L, edited.getHappyCount());
+    }
+
+    /**
+     * Tests that videos sharing a boilerplate description share its entry.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testIdenticalDescriptionsAreShared() {
+        VideoAnalytics first = analyticsCache.get(video("v1", "Subscribe to the channel"));
+        VideoAnalytics second = analyticsCache.get(video("v2", "Subscribe to the channel"));
+
+        assertSame(first, second);
+        assertEquals(1, analyses.get());
+        assertEquals(1L, analyticsCache.stats().get("sharedHits"));
+    }
+
+    /**
+     * Tests that the least recently used description is evicted beyond the maximum number of entries.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        analyticsCache.get(video("v1", "one"));
+        analyticsCache.get(video("v2", "two"));
+        analyticsCache.get(video("v3", "three"));
+        analyticsCache.get(video("v4", "one"));
+
+        assertEquals(4, analyses.get());
+        assertEquals(2, analyticsCache.stats().get("descriptions"));
+        assertEquals(2L, analyticsCache.stats().get("evictions"));
+    }
+
+    /**
+     * Tests that a video sharing the entry of another video is analysed again once its own description is edited.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testSharedDescriptionIsAnalysedAgainOnceEdited() {
+        analyticsCache.get(video("v1", "Subscribe to the channel"));
+        analyticsCache.get(video("v2", new String("Subscribe to the channel")));
+        VideoAnalytics edited = analyticsCache.get(video("v2", "Subscribe to the channel for more"));
+
+        assertEquals(2, analyses.get());
+        assertEquals(6L, edited.getHappyCount());
+        assertEquals(2, analyticsCache.stats().get("descriptions"));
+    }
+}
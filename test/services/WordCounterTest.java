@@ -0,0 +1,70 @@
+package services;
+
+import model.TokenizedText;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link WordCounter}.
+ *
+ * @author Karan Tanakhia
+ */
+public class WordCounterTest {
+
+    private static WordCounter count(String... texts) {
+        WordCounter wordCounter = new WordCounter(2);
+        for (String text : texts) {
+            wordCounter.addWordTokens(TokenizedText.of(text));
+        }
+        return wordCounter;
+    }
+
+    /**
+     * Tests that words are counted case-insensitively and ranked by count, then in the order they were first seen.
+     *
+     * @author Karan Tanakhia
+     */
+    @Test
+    public void testWordsAreRankedByCount() {
+        WordCounter wordCounter = count("Java streams, JAVA records", "records in java_17 and java");
+
+        assertEquals(List.of("java: 3", "records: 2", "streams: 1", "in: 1", "java_17: 1", "and: 1"),
+                wordCounter.topWords(Integer.MAX_VALUE));
+        assertEquals(6, wordCounter.size());
+    }
+
+    /**
+     * Tests that only the requested number of top words is returned, ties keeping the first seen words.
+     *
+     * @author Karan Tanakhia
+     */
+    @Test
+    public void testTopWordsAreBounded() {
+        WordCounter wordCounter = count("c b a b c d c");
+
+        assertEquals(List.of("c: 3", "b: 2", "a: 1"), wordCounter.topWords(3));
+        assertEquals(List.of("c: 3"), wordCounter.topWords(1));
+        assertTrue(wordCounter.topWords(0).isEmpty());
+    }
+
+    /**
+     * Tests that the counter keeps every word when it grows past its initial size.
+     *
+     * @author Karan Tanakhia
+     */
+    @Test
+    public void testCounterGrows() {
+        WordCounter wordCounter = new WordCounter(2);
+        for (int i = 0; i < 1000; i++) {
+            wordCounter.add("word" + (i % 300), 1);
+        }
+
+        assertEquals(300, wordCounter.size());
+        assertEquals("word0", wordCounter.word(0));
+        assertEquals(4, wordCounter.count(0));
+        assertEquals(3, wordCounter.count(299));
+    }
+}
@@ -0,0 +1,110 @@
+package services;
+
+import model.Video;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link WordStatsStore}.
+ *
+ * @author Karan Tanakhia
+ */
+public class WordStatsStoreTest {
+    private final AtomicLong now = new AtomicLong();
+    private WordStatsStore wordStatsStore;
+
+    /**
+     * Creates a store of two keywords and the top three words, with a 60 second TTL and a controllable clock.
+     *
+     * @author Karan Tanakhia
+     */
+    @Before
+    public void setUp() {
+        wordStatsStore = new WordStatsStore(Duration.ofSeconds(60), 2, 3, now::get);
+    }
+
+    private static Video video(String videoId, String description) {
+        return new Video(videoId, "title", description, "image", "channel", "channel title");
+    }
+
+    /**
+     * Tests that the words are ranked by count, then in the order they were first seen, and cut to the top K.
+     *
+     * @author Karan Tanakhia
+     */
+    @Test
+    public void testTopWordsAreRankedByCount() {
+        wordStatsStore.update("java", List.of(
+                video("v1", "Java streams and java records"),
+                video("v2", "Records in Java")));
+
+        assertEquals(List.of("java: 3", "records: 2", "streams: 1"), wordStatsStore.topWords("java"));
+    }
+
+    /**
+     * Tests that only the videos which joined or left the results change the counts.
+     *
+     * @author Karan Tanakhia
+     */
+    @Test
+    public void testRefreshCountsOnlyTheChangedVideos() {
+        wordStatsStore.update("java", List.of(video("v1", "java streams"), video("v2", "java records")));
+        wordStatsStore.update("java", List.of(video("v3", "records records"), video("v2", "java records")));
+
+        assertEquals(List.of("records: 3", "java: 1"), wordStatsStore.topWords("java"));
+        assertEquals(3L, wordStatsStore.stats().get("videosCounted"));
+        assertEquals(1L, wordStatsStore.stats().get("videosSubtracted"));
+    }
+
+    /**
+     * Tests that a video whose description was edited is counted again.
+     *
+     * @author Karan Tanakhia
+     */
+    @Test
+    public void testEditedDescriptionIsCountedAgain() {
+        wordStatsStore.update("java", List.of(video("v1", "java streams")));
+        wordStatsStore.update("java", List.of(video("v1", "java records")));
+
+        assertEquals(List.of("java: 1", "records: 1"), wordStatsStore.topWords("java"));
+    }
+
+    /**
+     * Tests that keywords differing only in case and whitespace share their statistics, and that stale statistics
+     * are not served.
+     *
+     * @author Karan Tanakhia
+     */
+    @Test
+    public void testStaleStatisticsAreNotServed() {
+        wordStatsStore.update("Java", List.of(video("v1", "java streams")));
+
+        assertEquals(List.of("java: 1", "streams: 1"), wordStatsStore.topWords("  java "));
+        now.addAndGet(Duration.ofSeconds(61).toNanos());
+        assertNull(wordStatsStore.topWords("java"));
+        assertEquals(1L, wordStatsStore.stats().get("hits"));
+        assertEquals(1L, wordStatsStore.stats().get("misses"));
+    }
+
+    /**
+     * Tests that the least recently updated keyword is evicted beyond the maximum number of keywords.
+     *
+     * @author Karan Tanakhia
+     */
+    @Test
+    public void testLeastRecentlyUpdatedKeywordIsEvicted() {
+        wordStatsStore.update("java", List.of(video("v1", "java")));
+        wordStatsStore.update("scala", List.of(video("v2", "scala")));
+        wordStatsStore.update("kotlin", List.of(video("v3", "kotlin")));
+
+        assertNull(wordStatsStore.topWords("java"));
+        assertEquals(List.of("kotlin: 1"), wordStatsStore.topWords("kotlin"));
+        assertEquals(2, wordStatsStore.stats().get("keywords"));
+    }
+}
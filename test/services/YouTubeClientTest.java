@@ -0,0 +1,108 @@
+package services;
+
+import akka.util.ByteString;
+import model.ChannelProfile;
+import model.Video;
+import org.junit.Before;
+import org.junit.Test;
+import play.libs.ws.WSClient;
+import play.libs.ws.WSRequest;
+import play.libs.ws.WSResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link YouTubeClient}.
+ *
+ * @author Utsav Patel
+ */
+public class YouTubeClientTest {
+    private WSClient wsClient;
+    private WSRequest wsRequest;
+    private WSResponse wsResponse;
+    private YouTubeClient youTubeClient;
+
+    @Before
+    public void setUp() {
+        wsClient = mock(WSClient.class);
+        wsRequest = mock(WSRequest.class);
+        wsResponse = mock(WSResponse.class);
+        when(wsClient.url(anyString())).thenReturn(wsRequest);
+        when(wsRequest.addQueryParameter(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.addHeader(anyString(), anyString())).thenReturn(wsRequest);
+        when(wsRequest.get()).thenReturn(CompletableFuture.completedFuture(wsResponse));
+        youTubeClient = new YouTubeClient(wsClient, "API_KEY");
+    }
+
+    /**
+     * Tests that a search asks for a partial, compressed response and parses the videos.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testSearchRequestsOnlyTheMappedFields() {
+        when(wsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(
+                "{\"items\":[{\"id\":{\"videoId\":\"vid-001\"},\"snippet\":{\"title\":\"Title\",\"publishedAt\":\"2024-11-20T10:00:00Z\"}}]}"));
+
+        List<Video> videos = youTubeClient.searchVideos("java", "2024-11-20T09:00:00Z").toCompletableFuture().join();
+
+        assertEquals(1, videos.size());
+        assertEquals("vid-001", videos.get(0).getVideoId());
+        verify(wsClient).url(YouTubeClient.YOUTUBE_SEARCH_URL);
+        verify(wsRequest).addHeader("User-Agent", YouTubeClient.USER_AGENT);
+        verify(wsRequest).addQueryParameter("fields", YouTubeClient.SEARCH_FIELDS);
+        verify(wsRequest).addQueryParameter("key", "API_KEY");
+        verify(wsRequest).addQueryParameter("q", "java");
+        verify(wsRequest).addQueryParameter("publishedAfter", "2024-11-20T09:00:00Z");
+    }
+
+    /**
+     * Tests that the descriptions are fetched in batches of 50 ids, selecting only the description.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testDescriptionsAreFetchedInBatches() {
+        when(wsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(
+                "{\"items\":[{\"id\":\"vid-0\",\"snippet\":{\"description\":\"Full description\"}}]}"));
+        List<Video> videos = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            Video video = new Video();
+            video.setVideoId("vid-" + i);
+            video.setDescription("Truncated");
+            videos.add(video);
+        }
+
+        youTubeClient.fetchDescriptions(videos).toCompletableFuture().join();
+
+        verify(wsClient, times(2)).url(YouTubeClient.YOUTUBE_VIDEO_URL);
+        verify(wsRequest, times(2)).addQueryParameter("fields", YouTubeClient.DESCRIPTION_FIELDS);
+        assertEquals("Full description", videos.get(0).getDescription());
+        assertEquals("Truncated", videos.get(1).getDescription());
+    }
+
+    /**
+     * Tests that the channel profile is requested with the channel fields selector.
+     *
+     * @author Amish Navadia
+     */
+    @Test
+    public void testChannelProfileRequestsOnlyTheMappedFields() {
+        when(wsResponse.getBodyAsBytes()).thenReturn(ByteString.fromString(
+                "{\"items\":[{\"snippet\":{\"title\":\"Channel\"},\"statistics\":{\"subscriberCount\":\"10\",\"videoCount\":\"2\"}}]}"));
+
+        ChannelProfile profile = youTubeClient.getChannelProfile("channel-001").toCompletableFuture().join();
+
+        assertEquals("Channel", profile.getName());
+        assertEquals("10", profile.getSubscriberCount());
+        verify(wsClient).url(YouTubeClient.YOUTUBE_CHANNEL_URL);
+        verify(wsRequest).addQueryParameter("fields", YouTubeClient.CHANNEL_FIELDS);
+        verify(wsRequest).addQueryParameter("id", "channel-001");
+    }
+}
@@ -0,0 +1,157 @@
+package services;
+
+import akka.util.ByteString;
+import model.ChannelProfile;
+import model.Video;
+import org.junit.Test;
+import play.libs.ws.WSResponse;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the {@link YouTubeJsonParser}.
+ *
+ * @author Utsav Patel
+ */
+public class YouTubeJsonParserTest {
+
+    private static WSResponse response(String body) {
+        WSResponse response = mock(WSResponse.class);
+        when(response.getBodyAsBytes()).thenReturn(ByteString.fromString(body));
+        return response;
+    }
+
+    /**
+     * Tests that search results are read in order and that the fields never used are skipped.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testParseSearchResults() {
+        String body = """
+                {
+                    "kind": "youtube#searchListResponse",
+                    "pageInfo": { "totalResults": 2, "resultsPerPage": 50 },
+                    "items": [
+                        {
+                            "etag": "abc",
+                            "id": { "kind": "youtube#video", "videoId": "vid-001" },
+                            "snippet": {
+                                "publishedAt": "2024-11-20T10:00:00Z",
+                                "channelId": "channel-001",
+                                "title": "First",
+                                "description": "First description",
+                                "thumbnails": {
+                                    "default": { "url": "https://example.com/default.jpg", "width": 120 },
+                                    "high": { "url": "https://example.com/high.jpg", "width": 480 }
+                                },
+                                "channelTitle": "Channel",
+                                "liveBroadcastContent": "none"
+                            }
+                        },
+                        {
+                            "id": { "videoId": "vid-002" },
+                            "snippet": { "title": "Second", "description": "Second description" }
+                        }
+                    ]
+                }
+                """;
+
+        List<Video> videos = YouTubeJsonParser.parseSearchResults(response(body));
+
+        assertEquals(2, videos.size());
+        Video first = videos.get(0);
+        assertEquals("vid-001", first.getVideoId());
+        assertEquals("First", first.getTitle());
+        assertEquals("First description", first.getDescription());
+        assertEquals("https://example.com/high.jpg", first.getImageUrl());
+        assertEquals("channel-001", first.getChannelId());
+        assertEquals("Channel", first.getChannelTitle());
+        assertEquals("2024-11-20T10:00:00Z", first.getPublishedAt());
+        assertEquals("vid-002", videos.get(1).getVideoId());
+        assertNull(videos.get(1).getImageUrl());
+    }
+
+    /**
+     * Tests that the descriptions of a videos.list response are keyed by the video id.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testParseDescriptions() {
+        String body = """
+                { "items": [
+                    { "id": "vid-001", "snippet": { "description": "Full description 1" } },
+                    { "id": "vid-002", "snippet": { "description": "Full description 2" } }
+                ] }
+                """;
+
+        Map<String, String> descriptions = YouTubeJsonParser.parseDescriptions(response(body));
+
+        assertEquals(2, descriptions.size());
+        assertEquals("Full description 2", descriptions.get("vid-002"));
+    }
+
+    /**
+     * Tests that the tags of a video are joined with commas.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testParseVideoWithTags() {
+        String body = """
+                { "items": [
+                    { "id": "vid-001", "snippet": { "title": "Title", "tags": ["java", "play framework"] } }
+                ] }
+                """;
+
+        Video video = YouTubeJsonParser.parseVideo(response(body));
+
+        assertEquals("vid-001", video.getVideoId());
+        assertEquals("java,play framework", video.getTags());
+    }
+
+    /**
+     * Tests that parsing a video fails when the response has no items.
+     *
+     * @author Utsav Patel
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testParseVideoWithoutItems() {
+        YouTubeJsonParser.parseVideo(response("{ \"items\": [] }"));
+    }
+
+    /**
+     * Tests that the channel profile is read from the snippet and statistics parts.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testParseChannelProfile() {
+        String body = """
+                { "items": [ {
+                    "id": "channel-001",
+                    "snippet": {
+                        "title": "Channel",
+                        "description": "About the channel",
+                        "thumbnails": { "default": { "url": "https://example.com/default.jpg" }, "high": { "url": "https://example.com/high.jpg" } }
+                    },
+                    "statistics": { "viewCount": "100000", "subscriberCount": "1000", "hiddenSubscriberCount": false, "videoCount": "50" }
+                } ] }
+                """;
+
+        ChannelProfile profile = YouTubeJsonParser.parseChannelProfile(response(body));
+
+        assertEquals("Channel", profile.getName());
+        assertEquals("About the channel", profile.getDescription());
+        assertEquals("https://example.com/default.jpg", profile.getImageUrl());
+        assertEquals("1000", profile.getSubscriberCount());
+        assertEquals("50", profile.getVideoCount());
+        assertTrue(profile.getVideos().isEmpty());
+    }
+}
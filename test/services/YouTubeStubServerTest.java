@@ -0,0 +1,148 @@
+package services;
+
+import akka.actor.ActorSystem;
+import akka.http.javadsl.Http;
+import akka.http.javadsl.model.HttpEntity;
+import akka.http.javadsl.model.HttpRequest;
+import akka.http.javadsl.model.HttpResponse;
+import akka.testkit.javadsl.TestKit;
+import model.ChannelProfile;
+import model.Video;
+import org.junit.After;
+import org.junit.Test;
+import services.stub.YouTubeStubServer;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the {@link YouTubeStubServer}, called over HTTP.
+ *
+ * @author Utsav Patel
+ */
+public class YouTubeStubServerTest {
+    private final ActorSystem system = ActorSystem.create();
+    private YouTubeStubServer server;
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.stop().toCompletableFuture().join();
+        }
+        TestKit.shutdownActorSystem(system);
+    }
+
+    private static YouTubeStubServer.Settings settings(String distribution, double errorRate, double quotaErrorRate) {
+        return new YouTubeStubServer.Settings("127.0.0.1", 0, "", 50, 500, Duration.ofSeconds(60),
+                distribution, Duration.ofMillis(10), Duration.ofMillis(20), Duration.ZERO, Duration.ZERO,
+                errorRate, quotaErrorRate);
+    }
+
+    private HttpResponse get(String path) {
+        return Http.get(system).singleRequest(HttpRequest.GET(server.baseUrl() + path)).toCompletableFuture().join();
+    }
+
+    private byte[] body(HttpResponse response) {
+        HttpEntity.Strict entity = response.entity().toStrict(5000, system).toCompletableFuture().join();
+        return entity.getData().toArray();
+    }
+
+    /**
+     * Tests that a generated search page holds the requested number of videos, newest first, and that the same
+     * keyword returns the same videos.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testGeneratedSearchIsDeterministic() {
+        server = YouTubeStubServer.start(system, settings("constant", 0, 0));
+
+        List<Video> first = YouTubeJsonParser.parseSearchResults(new ByteArrayInputStream(
+                body(get("/search?part=snippet&q=java&maxResults=50"))));
+        List<Video> second = YouTubeJsonParser.parseSearchResults(new ByteArrayInputStream(
+                body(get("/search?part=snippet&q=java&maxResults=50"))));
+
+        assertEquals(50, first.size());
+        assertEquals(first.get(0).getVideoId(), second.get(0).getVideoId());
+        assertTrue(Instant.parse(first.get(0).getPublishedAt()).isAfter(Instant.parse(first.get(1).getPublishedAt())));
+    }
+
+    /**
+     * Tests that publishedAfter only returns the videos published since then.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testSearchHonoursPublishedAfter() {
+        server = YouTubeStubServer.start(system, settings("constant", 0, 0));
+        String publishedAfter = Instant.now().minusSeconds(300).toString();
+
+        List<Video> videos = YouTubeJsonParser.parseSearchResults(new ByteArrayInputStream(
+                body(get("/search?part=snippet&q=java&maxResults=50&publishedAfter=" + publishedAfter))));
+
+        assertTrue(videos.size() >= 4 && videos.size() <= 6);
+    }
+
+    /**
+     * Tests that the videos and channels endpoints are generated for the requested ids.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testVideosAndChannels() {
+        server = YouTubeStubServer.start(system, settings("uniform", 0, 0));
+
+        String videos = new String(body(get("/videos?part=snippet&id=vid-1,vid-2")));
+        ChannelProfile profile = YouTubeJsonParser.parseChannelProfile(new ByteArrayInputStream(
+                body(get("/channels?part=snippet,statistics&id=channel-1"))));
+
+        assertTrue(videos.contains("\"id\":\"vid-1\""));
+        assertTrue(videos.contains("\"id\":\"vid-2\""));
+        assertTrue(videos.contains("\"tags\""));
+        assertEquals("Stub channel channel-1", profile.getName());
+        assertNotNull(profile.getSubscriberCount());
+    }
+
+    /**
+     * Tests that the injected quota errors are answered with a 403 quotaExceeded.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testQuotaErrorsAreInjected() {
+        server = YouTubeStubServer.start(system, settings("constant", 0, 1.0));
+
+        HttpResponse response = get("/search?part=snippet&q=java");
+
+        assertEquals(403, response.status().intValue());
+        assertTrue(new String(body(response)).contains("quotaExceeded"));
+    }
+
+    /**
+     * Tests that the log-normal latency is centred on the median and bounded by the 99th percentile.
+     *
+     * @author Utsav Patel
+     */
+    @Test
+    public void testLogNormalLatency() {
+        YouTubeStubServer.Settings settings = new YouTubeStubServer.Settings("127.0.0.1", 0, "", 50, 500,
+                Duration.ofSeconds(60), "lognormal", Duration.ZERO, Duration.ZERO, Duration.ofMillis(100),
+                Duration.ofMillis(400), 0, 0);
+        Random random = new Random(42);
+        int belowMedian = 0;
+        int aboveP99 = 0;
+        for (int i = 0; i < 10000; i++) {
+            long latency = settings.sampleLatency(random).toMillis();
+            belowMedian += latency < 100 ? 1 : 0;
+            aboveP99 += latency > 400 ? 1 : 0;
+        }
+
+        assertEquals(5000, belowMedian, 250);
+        assertTrue(aboveP99 < 200);
+    }
+}